@@ -52,4 +52,16 @@ public interface Decoder
      * or {@code NO_ERROR} if there's no error.
      */
     int rejectReason();
+
+    /**
+     * Appends a human readable representation of the decoded message, the same as its toString(), to a builder.
+     * Generated codecs render directly into the builder without creating intermediate Strings.
+     *
+     * @param builder the builder to append to.
+     * @return the builder.
+     */
+    default StringBuilder appendTo(final StringBuilder builder)
+    {
+        return builder.append(toString());
+    }
 }
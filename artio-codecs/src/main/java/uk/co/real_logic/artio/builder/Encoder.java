@@ -58,4 +58,16 @@ public interface Encoder
     Object header();
 
     void resetMessage();
+
+    /**
+     * Appends a human readable representation of the message being encoded, the same as its toString(), to a builder.
+     * Generated codecs render directly into the builder without creating intermediate Strings.
+     *
+     * @param builder the builder to append to.
+     * @return the builder.
+     */
+    default StringBuilder appendTo(final StringBuilder builder)
+    {
+        return builder.append(toString());
+    }
 }
@@ -15,6 +15,8 @@
  */
 package uk.co.real_logic.artio.dictionary;
 
+import uk.co.real_logic.artio.util.AsciiBuffer;
+
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -22,6 +24,7 @@ public final class CharArrayMap<V>
 {
     private final CharArrayWrapper wrapper = new CharArrayWrapper();
     private final Map<CharArrayWrapper, V> map;
+    private char[] chars = new char[0];
 
     public CharArrayMap(final Map<String, V> buildFrom)
     {
@@ -37,6 +40,12 @@ public final class CharArrayMap<V>
         return map.get(wrapper);
     }
 
+    public V get(final AsciiBuffer buffer, final int offset, final int length)
+    {
+        chars = buffer.getChars(chars, offset, length);
+        return get(chars, length);
+    }
+
     public boolean containsKey(final char[] value, final int length)
     {
         wrapper.wrap(value, length);
@@ -15,18 +15,42 @@
  */
 package uk.co.real_logic.artio.dictionary;
 
+import org.agrona.LangUtil;
 import org.agrona.generation.PackageOutputManager;
 import uk.co.real_logic.artio.builder.Validation;
 import uk.co.real_logic.artio.dictionary.generation.*;
+import uk.co.real_logic.artio.dictionary.ir.Aggregate;
 import uk.co.real_logic.artio.dictionary.ir.Dictionary;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+import static uk.co.real_logic.artio.dictionary.generation.DecoderGenerator.decoderClassName;
+import static uk.co.real_logic.artio.dictionary.generation.EncoderGenerator.encoderClassName;
 import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.*;
 
 public final class CodecGenerationTool
 {
+    /**
+     * Set this system property to true in order to only regenerate the encoders and decoders of aggregates that
+     * have changed since codecs were last generated into the same output directory.
+     */
+    public static final String INCREMENTAL_PROP = "fix.codecs.incremental";
+
+    /**
+     * Set this system property in order to configure the number of threads that codecs are generated on, defaults
+     * to the number of available processors.
+     */
+    public static final String PARALLELISM_PROP = "fix.codecs.parallelism";
+
     public static void main(final String[] args) throws Exception
     {
         if (args.length < 2)
@@ -49,32 +73,153 @@ public final class CodecGenerationTool
             dictionary = parseDictionary(xmlFile, dictionary);
         }
 
+        generate(
+            dictionary,
+            outputPath,
+            Boolean.getBoolean(INCREMENTAL_PROP),
+            Integer.getInteger(PARALLELISM_PROP, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Generate the codecs for a dictionary.
+     *
+     * @param dictionary the dictionary to generate codecs for.
+     * @param outputPath the directory to generate the codecs into.
+     * @param incremental true if only the encoders and decoders of aggregates that have changed since the last
+     *                    incremental generation into this output path should be generated, false to generate all of
+     *                    them.
+     * @param parallelism the number of threads to generate codecs on, 1 to generate codecs on the calling thread.
+     * @throws Exception if generating any of the codecs fails.
+     */
+    public static void generate(
+        final Dictionary dictionary,
+        final String outputPath,
+        final boolean incremental,
+        final int parallelism) throws Exception
+    {
+        if (parallelism < 1)
+        {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+
         final PackageOutputManager parent = new PackageOutputManager(outputPath, PARENT_PACKAGE);
         final PackageOutputManager decoder = new PackageOutputManager(outputPath, DECODER_PACKAGE);
+        final PackageOutputManager encoder = new PackageOutputManager(outputPath, ENCODER_PACKAGE);
 
-        final EnumGenerator enumGenerator = new EnumGenerator(dictionary, PARENT_PACKAGE, parent);
-        final ConstantGenerator constantGenerator = new ConstantGenerator(dictionary, PARENT_PACKAGE, parent);
+        // The fingerprints are removed whilst generating so that a failed or full generation can't leave behind
+        // fingerprints that don't match the generated files.
+        final File fingerprintFile = new File(outputPath, CodecFingerprints.FILE_NAME);
+        final CodecFingerprints previousFingerprints = incremental ? CodecFingerprints.load(fingerprintFile) : null;
+        final CodecFingerprints fingerprints = CodecFingerprints.of(
+            dictionary, PARENT_PACKAGE, ENCODER_PACKAGE, DECODER_PACKAGE, Validation.class.getName());
+        fingerprintFile.delete();
 
-        final EncoderGenerator encoderGenerator = new EncoderGenerator(
-            dictionary,
-            1,
-            ENCODER_PACKAGE,
-            PARENT_PACKAGE,
-            new PackageOutputManager(outputPath, ENCODER_PACKAGE), Validation.class);
+        final File encoderDirectory = packageDirectory(outputPath, ENCODER_PACKAGE);
+        final File decoderDirectory = packageDirectory(outputPath, DECODER_PACKAGE);
+        final Predicate<Aggregate> encoderIsStale = isStale(
+            fingerprints, previousFingerprints, encoderDirectory, (aggregate) -> encoderClassName(aggregate.name()));
+        final Predicate<Aggregate> decoderIsStale = isStale(
+            fingerprints, previousFingerprints, decoderDirectory, DecoderGenerator::decoderClassName);
 
-        final DecoderGenerator decoderGenerator = new DecoderGenerator(
-            dictionary, 1, DECODER_PACKAGE, PARENT_PACKAGE, decoder, Validation.class);
-        final PrinterGenerator printerGenerator = new PrinterGenerator(dictionary, DECODER_PACKAGE, decoder);
-        final AcceptorGenerator acceptorGenerator = new AcceptorGenerator(dictionary, DECODER_PACKAGE, decoder);
+        // Encoder and decoder generators aren't thread safe, so each task gets its own generators for a share of the
+        // aggregates. The other generators each run over the whole dictionary.
+        final List<Runnable> tasks = new ArrayList<>();
+        tasks.add(() -> new EnumGenerator(dictionary, PARENT_PACKAGE, parent).generate());
+        tasks.add(() -> new ConstantGenerator(dictionary, PARENT_PACKAGE, parent).generate());
+        for (int i = 0; i < parallelism; i++)
+        {
+            final int share = i;
+            final Predicate<Aggregate> inShare =
+                (aggregate) -> Math.floorMod(aggregate.name().hashCode(), parallelism) == share;
+
+            tasks.add(() -> new EncoderGenerator(
+                dictionary, 1, ENCODER_PACKAGE, PARENT_PACKAGE, encoder, Validation.class)
+                .aggregateFilter(inShare.and(encoderIsStale))
+                .generate());
+
+            tasks.add(() -> new DecoderGenerator(
+                dictionary, 1, DECODER_PACKAGE, PARENT_PACKAGE, decoder, Validation.class)
+                .aggregateFilter(inShare.and(decoderIsStale))
+                .generate());
+        }
+        tasks.add(() -> new PrinterGenerator(dictionary, DECODER_PACKAGE, decoder).generate());
+        tasks.add(() -> new AcceptorGenerator(dictionary, DECODER_PACKAGE, decoder).generate());
+
+        run(tasks, parallelism);
 
-        enumGenerator.generate();
-        constantGenerator.generate();
+        if (incremental)
+        {
+            for (final String aggregateName : previousFingerprints.aggregateNames())
+            {
+                if (fingerprints.fingerprint(aggregateName) == null)
+                {
+                    javaFile(encoderDirectory, encoderClassName(aggregateName)).delete();
+                    javaFile(decoderDirectory, decoderClassName(aggregateName)).delete();
+                }
+            }
 
-        encoderGenerator.generate();
+            fingerprints.save(fingerprintFile);
+        }
+    }
 
-        decoderGenerator.generate();
-        printerGenerator.generate();
-        acceptorGenerator.generate();
+    private static Predicate<Aggregate> isStale(
+        final CodecFingerprints fingerprints,
+        final CodecFingerprints previousFingerprints,
+        final File directory,
+        final Function<Aggregate, String> className)
+    {
+        if (previousFingerprints == null)
+        {
+            return (aggregate) -> true;
+        }
+
+        return (aggregate) -> !fingerprints.isUnchangedFrom(aggregate.name(), previousFingerprints) ||
+            !javaFile(directory, className.apply(aggregate)).exists();
+    }
+
+    private static void run(final List<Runnable> tasks, final int parallelism) throws Exception
+    {
+        if (parallelism <= 1)
+        {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try
+        {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final Runnable task : tasks)
+            {
+                futures.add(executor.submit(task));
+            }
+
+            for (final Future<?> future : futures)
+            {
+                try
+                {
+                    future.get();
+                }
+                catch (final ExecutionException e)
+                {
+                    LangUtil.rethrowUnchecked(e.getCause());
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static File packageDirectory(final String outputPath, final String packageName)
+    {
+        return new File(outputPath, packageName.replace('.', File.separatorChar));
+    }
+
+    private static File javaFile(final File directory, final String className)
+    {
+        return new File(directory, className + ".java");
     }
 
     private static Dictionary parseDictionary(final File xmlFile, final Dictionary parentDictionary) throws Exception
@@ -26,22 +26,12 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.agrona.LangUtil;
 import org.agrona.Verify;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-
 
 import uk.co.real_logic.artio.dictionary.ir.Aggregate;
 import uk.co.real_logic.artio.dictionary.ir.Category;
@@ -54,7 +44,8 @@ import uk.co.real_logic.artio.dictionary.ir.Field.Value;
 import uk.co.real_logic.artio.dictionary.ir.Group;
 import uk.co.real_logic.artio.dictionary.ir.Message;
 
-import static javax.xml.xpath.XPathConstants.NODESET;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
 import static uk.co.real_logic.artio.dictionary.ir.Field.Type.CHAR;
 import static uk.co.real_logic.artio.dictionary.ir.Field.Type.NUMINGROUP;
 import static uk.co.real_logic.artio.dictionary.ir.Field.Type.STRING;
@@ -62,48 +53,32 @@ import static uk.co.real_logic.artio.dictionary.ir.Field.Type.STRING;
 /**
  * Parses XML format dictionary files and into instances of
  * {@link uk.co.real_logic.artio.dictionary.ir.Dictionary}.
+ * <p>
+ * The file is read in a single streaming pass. Fields are built as they're read, whilst messages, components,
+ * the header and the trailer are recorded as lightweight definitions and resolved against the fields once the
+ * whole file has been read, since dictionaries commonly declare their fields last.
  */
 public final class DictionaryParser
 {
-    private static final String FIELD_EXPR = "/fix/fields/field";
-    private static final String MESSAGE_EXPR = "/fix/messages/message";
-    private static final String COMPONENT_EXPR = "/fix/components/component";
-    private static final String HEADER_EXPR = "/fix/header/field";
-    private static final String TRAILER_EXPR = "/fix/trailer/field";
-
-    private final DocumentBuilder documentBuilder;
-    private final XPathExpression findField;
-    private final XPathExpression findMessage;
-    private final XPathExpression findComponent;
-    private final XPathExpression findHeader;
-    private final XPathExpression findTrailer;
+    private static final String FIX = "fix";
+    private static final String FIELD = "field";
+    private static final String GROUP = "group";
+    private static final String COMPONENT = "component";
+
+    private final XMLInputFactory inputFactory;
 
     public DictionaryParser()
     {
-        try
-        {
-            documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-
-            final XPath xPath = XPathFactory.newInstance().newXPath();
-            findField = xPath.compile(FIELD_EXPR);
-            findMessage = xPath.compile(MESSAGE_EXPR);
-            findComponent = xPath.compile(COMPONENT_EXPR);
-            findHeader = xPath.compile(HEADER_EXPR);
-            findTrailer = xPath.compile(TRAILER_EXPR);
-        }
-        catch (final ParserConfigurationException | XPathExpressionException ex)
-        {
-            throw new RuntimeException(ex);
-        }
+        inputFactory = XMLInputFactory.newInstance();
     }
 
     public Dictionary parse(final InputStream in, final Dictionary fixtDictionary) throws Exception
     {
-        final Document document = documentBuilder.parse(in);
-        final Map<String, Field> fields = parseFields(document);
+        final DictionaryDefinition definition = read(in);
+        final Map<String, Field> fields = definition.fields;
         final Map<Entry, String> forwardReferences = new HashMap<>();
-        final Map<String, Component> components = parseComponents(document, fields, forwardReferences);
-        final List<Message> messages = parseMessages(document, fields, components, forwardReferences);
+        final Map<String, Component> components = parseComponents(definition, fields, forwardReferences);
+        final List<Message> messages = parseMessages(definition, fields, components, forwardReferences);
 
         reconnectForwardReferences(forwardReferences, components);
         sanitizeDictionary(fields, components, messages);
@@ -123,16 +98,15 @@ public final class DictionaryParser
         }
         else
         {
-            final NamedNodeMap fixAttributes = document.getElementsByTagName("fix").item(0).getAttributes();
-            final int majorVersion = getInt(fixAttributes, "major");
-            final int minorVersion = getInt(fixAttributes, "minor");
+            final int majorVersion = getInt(definition.major, "major");
+            final int minorVersion = getInt(definition.minor, "minor");
 
             final Component header = extractComponent(
-                document, fields, findHeader, "Header", components, forwardReferences);
+                definition.header, fields, "Header", components, forwardReferences);
             final Component trailer = extractComponent(
-                document, fields, findTrailer, "Trailer", components, forwardReferences);
+                definition.trailer, fields, "Trailer", components, forwardReferences);
 
-            final String specType = getValueOrDefault(fixAttributes, "type", "FIX");
+            final String specType = definition.type == null ? "FIX" : definition.type;
             return new Dictionary(messages, fields, components, header, trailer, specType, majorVersion, minorVersion);
         }
     }
@@ -205,48 +179,24 @@ public final class DictionaryParser
     }
 
     private Map<String, Component> parseComponents(
-        final Document document,
+        final DictionaryDefinition definition,
         final Map<String, Field> fields,
         final Map<Entry, String> forwardReferences)
-        throws XPathExpressionException
     {
         final Map<String, Component> components = new HashMap<>();
-        extractNodes(document, findComponent,
-            (node) ->
-            {
-                final NamedNodeMap attributes = node.getAttributes();
-                final String name = name(attributes);
-                final Component component = new Component(name);
+        for (final AggregateDefinition componentDefinition : definition.components)
+        {
+            final String name = componentDefinition.name;
+            final Component component = new Component(name);
 
-                extractEntries(node.getChildNodes(), fields, component.entries(), components, forwardReferences);
+            extractEntries(componentDefinition.entries, fields, component.entries(), components, forwardReferences);
 
-                components.put(name, component);
-            });
+            components.put(name, component);
+        }
 
         return components;
     }
 
-    private Map<String, Field> parseFields(final Document document) throws XPathExpressionException
-    {
-        final HashMap<String, Field> fields = new HashMap<>();
-        extractNodes(document, findField,
-            (node) ->
-            {
-                final NamedNodeMap attributes = node.getAttributes();
-
-                final String name = name(attributes);
-                final int number = getInt(attributes, "number");
-                final Type type = Type.lookup(getValue(attributes, "type"));
-                final String normalisedFieldName = ensureNumInGroupStartsWithNo(name, type);
-                final Field field = new Field(number, normalisedFieldName, type);
-
-                extractEnumValues(field.values(), node.getChildNodes());
-                fields.put(name, field);
-            });
-
-        return fields;
-    }
-
     private static String ensureNumInGroupStartsWithNo(final String name, final Type type)
     {
         if (type == NUMINGROUP)
@@ -256,173 +206,288 @@ public final class DictionaryParser
         return name;
     }
 
-    private int getInt(final NamedNodeMap attributes, final String attributeName)
+    private static int getInt(final String value, final String attributeName)
     {
-        return Integer.parseInt(getValue(attributes, attributeName));
-    }
-
-    private void extractEnumValues(final List<Value> values, final NodeList childNodes)
-    {
-        forEach(childNodes,
-            (node) ->
-            {
-                final NamedNodeMap attributes = node.getAttributes();
-                final String representation = getValue(attributes, "enum");
-                final String description = getValue(attributes, "description");
-                values.add(new Value(representation, enumDescriptionToJavaName(description)));
-            });
+        return Integer.parseInt(Objects.requireNonNull(value, "Empty item for:" + attributeName));
     }
 
     private List<Message> parseMessages(
-        final Document document,
+        final DictionaryDefinition definition,
         final Map<String, Field> fields,
         final Map<String, Component> components,
-        final Map<Entry, String> forwardReferences) throws XPathExpressionException
+        final Map<Entry, String> forwardReferences)
     {
         final ArrayList<Message> messages = new ArrayList<>();
+        for (final AggregateDefinition messageDefinition : definition.messages)
+        {
+            final Category category = parseCategory(messageDefinition.category);
+            final Message message = new Message(messageDefinition.name, messageDefinition.msgType, category);
 
-        extractNodes(document, findMessage,
-            (node) ->
-            {
-                final NamedNodeMap attributes = node.getAttributes();
-
-                final String name = name(attributes);
-                final String fullType = getValue(attributes, "msgtype");
-                final Category category = parseCategory(getValue(attributes, "msgcat"));
-                final Message message = new Message(name, fullType, category);
-
-                extractEntries(node.getChildNodes(), fields, message.entries(), components, forwardReferences);
+            extractEntries(messageDefinition.entries, fields, message.entries(), components, forwardReferences);
 
-                messages.add(message);
-            });
+            messages.add(message);
+        }
 
         return messages;
     }
 
     private void extractEntries(
-        final NodeList childNodes,
+        final List<EntryDefinition> entryDefinitions,
         final Map<String, Field> fields,
         final List<Entry> entries,
         final Map<String, Component> components,
         final Map<Entry, String> forwardReferences)
     {
-        forEach(childNodes,
-            (node) ->
+        for (final EntryDefinition entryDefinition : entryDefinitions)
+        {
+            final String name = entryDefinition.name;
+            if (name.trim().length() == 0)
             {
-                final NamedNodeMap attributes = node.getAttributes();
-                final String name = name(attributes);
-                if (name.trim().length() == 0)
-                {
-                    return;
-                }
-
-                final boolean required = isRequired(attributes);
-                final Consumer<Entry.Element> newEntry =
-                    (element) ->
-                    {
-                        Verify.notNull(element, "element for " + name);
-                        entries.add(new Entry(required, element));
-                    };
+                continue;
+            }
 
-                switch (node.getNodeName())
+            final boolean required = "Y".equals(
+                Objects.requireNonNull(entryDefinition.required, "Empty item for:required"));
+            final Consumer<Entry.Element> newEntry =
+                (element) ->
                 {
-                    case "field":
-                        newEntry.accept(fields.get(name));
-                        break;
-
-                    case "group":
-                        final Group group = Group.of(fields.get(name));
-                        extractEntries(node.getChildNodes(), fields, group.entries(), components, forwardReferences);
-                        newEntry.accept(group);
-                        break;
+                    Verify.notNull(element, "element for " + name);
+                    entries.add(new Entry(required, element));
+                };
 
-                    case "component":
-                        final Component component = components.get(name);
-                        final Entry entry = new Entry(required, component);
-                        if (component == null)
-                        {
-                            forwardReferences.put(entry, name);
-                        }
-                        entries.add(entry);
-                        break;
-                }
-            });
+            switch (entryDefinition.elementName)
+            {
+                case FIELD:
+                    newEntry.accept(fields.get(name));
+                    break;
+
+                case GROUP:
+                    final Group group = Group.of(fields.get(name));
+                    extractEntries(entryDefinition.entries, fields, group.entries(), components, forwardReferences);
+                    newEntry.accept(group);
+                    break;
+
+                case COMPONENT:
+                    final Component component = components.get(name);
+                    final Entry entry = new Entry(required, component);
+                    if (component == null)
+                    {
+                        forwardReferences.put(entry, name);
+                    }
+                    entries.add(entry);
+                    break;
+            }
+        }
     }
 
     private Component extractComponent(
-        final Document document,
+        final List<EntryDefinition> entryDefinitions,
         final Map<String, Field> fields,
-        final XPathExpression expression,
         final String name,
         final Map<String, Component> components,
         final Map<Entry, String> forwardReferences)
-        throws XPathExpressionException
     {
         final Component component = new Component(name);
-        final NodeList nodes = evaluate(document, expression);
-        extractEntries(nodes, fields, component.entries(), components, forwardReferences);
+        extractEntries(entryDefinitions, fields, component.entries(), components, forwardReferences);
 
         return component;
     }
 
-    private String name(final NamedNodeMap attributes)
+    private Category parseCategory(final String from)
     {
-        return getValue(attributes, "name");
+        return Category.valueOf(from.toUpperCase());
     }
 
-    private boolean isRequired(final NamedNodeMap attributes)
+    private DictionaryDefinition read(final InputStream in) throws XMLStreamException
     {
-        return "Y".equals(getValue(attributes, "required"));
+        final XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+        try
+        {
+            final DictionaryDefinition definition = new DictionaryDefinition();
+            if (!nextChildElement(reader) || !FIX.equals(reader.getLocalName()))
+            {
+                throw new IllegalArgumentException("Dictionary doesn't have a <fix> root element");
+            }
+
+            definition.major = reader.getAttributeValue(null, "major");
+            definition.minor = reader.getAttributeValue(null, "minor");
+            definition.type = reader.getAttributeValue(null, "type");
+
+            while (nextChildElement(reader))
+            {
+                switch (reader.getLocalName())
+                {
+                    case "header":
+                        readFieldReferences(reader, definition.header);
+                        break;
+
+                    case "trailer":
+                        readFieldReferences(reader, definition.trailer);
+                        break;
+
+                    case "fields":
+                        readFields(reader, definition.fields);
+                        break;
+
+                    case "components":
+                        readAggregates(reader, COMPONENT, definition.components);
+                        break;
+
+                    case "messages":
+                        readAggregates(reader, "message", definition.messages);
+                        break;
+
+                    default:
+                        skipElement(reader);
+                }
+            }
+
+            return definition;
+        }
+        finally
+        {
+            reader.close();
+        }
     }
 
-    private Category parseCategory(final String from)
+    private static void readFields(final XMLStreamReader reader, final Map<String, Field> fields)
+        throws XMLStreamException
     {
-        return Category.valueOf(from.toUpperCase());
+        while (nextChildElement(reader))
+        {
+            if (!FIELD.equals(reader.getLocalName()))
+            {
+                skipElement(reader);
+                continue;
+            }
+
+            final String name = getValue(reader, "name");
+            final int number = getInt(reader.getAttributeValue(null, "number"), "number");
+            final Type type = Type.lookup(getValue(reader, "type"));
+            final String normalisedFieldName = ensureNumInGroupStartsWithNo(name, type);
+            final Field field = new Field(number, normalisedFieldName, type);
+
+            final List<Value> values = field.values();
+            while (nextChildElement(reader))
+            {
+                final String representation = getValue(reader, "enum");
+                final String description = getValue(reader, "description");
+                values.add(new Value(representation, enumDescriptionToJavaName(description)));
+                skipElement(reader);
+            }
+
+            fields.put(name, field);
+        }
     }
 
-    private String getValue(final NamedNodeMap attributes, final String attributeName)
+    private static void readAggregates(
+        final XMLStreamReader reader, final String elementName, final List<AggregateDefinition> aggregates)
+        throws XMLStreamException
     {
-        Objects.requireNonNull(attributes, "Null attributes for " + attributeName);
-        return Objects.requireNonNull(getOptionalValue(attributes, attributeName), "Empty item for:" +
-           attributeName);
+        while (nextChildElement(reader))
+        {
+            if (!elementName.equals(reader.getLocalName()))
+            {
+                skipElement(reader);
+                continue;
+            }
+
+            final AggregateDefinition aggregate = new AggregateDefinition(getValue(reader, "name"));
+            if (!COMPONENT.equals(elementName))
+            {
+                aggregate.msgType = getValue(reader, "msgtype");
+                aggregate.category = getValue(reader, "msgcat");
+            }
+
+            readEntries(reader, aggregate.entries);
+            aggregates.add(aggregate);
+        }
+    }
+
+    private static void readEntries(final XMLStreamReader reader, final List<EntryDefinition> entries)
+        throws XMLStreamException
+    {
+        while (nextChildElement(reader))
+        {
+            final EntryDefinition entry = readEntry(reader);
+            if (GROUP.equals(entry.elementName))
+            {
+                readEntries(reader, entry.entries);
+            }
+            else
+            {
+                skipElement(reader);
+            }
+
+            entries.add(entry);
+        }
     }
 
-    private String getOptionalValue(final NamedNodeMap attributes, final String attributeName)
+    // Only the fields of the header and trailer are part of the dictionary, any groups are ignored.
+    private static void readFieldReferences(final XMLStreamReader reader, final List<EntryDefinition> entries)
+        throws XMLStreamException
     {
-        Objects.requireNonNull(attributes, "Null attributes for " + attributeName);
-        final Node attributeNode = attributes.getNamedItem(attributeName);
-        return attributeNode == null ? null : attributeNode.getNodeValue();
+        while (nextChildElement(reader))
+        {
+            if (FIELD.equals(reader.getLocalName()))
+            {
+                entries.add(readEntry(reader));
+            }
+
+            skipElement(reader);
+        }
     }
 
-    private String getValueOrDefault(final NamedNodeMap attributes,
-        final String attributeName,
-        final String defaultValue)
+    private static EntryDefinition readEntry(final XMLStreamReader reader)
     {
-        Objects.requireNonNull(attributes, "Null attributes for " + attributeName);
-        final String value = getOptionalValue(attributes, attributeName);
-        return value == null ? defaultValue : value;
+        return new EntryDefinition(
+            reader.getLocalName(), getValue(reader, "name"), reader.getAttributeValue(null, "required"));
     }
 
-    private void extractNodes(
-        final Document document, final XPathExpression expression, final Consumer<Node> handler)
-        throws XPathExpressionException
+    private static String getValue(final XMLStreamReader reader, final String attributeName)
     {
-        forEach(evaluate(document, expression), handler);
+        return Objects.requireNonNull(reader.getAttributeValue(null, attributeName), "Empty item for:" +
+            attributeName);
     }
 
-    private NodeList evaluate(final Document document, final XPathExpression expression) throws XPathExpressionException
+    /**
+     * Move onto the next child element of the current element.
+     *
+     * @param reader the reader, positioned within the parent element.
+     * @return true if positioned on the start of a child element, false if the end of the parent was reached.
+     * @throws XMLStreamException if the xml is malformed.
+     */
+    private static boolean nextChildElement(final XMLStreamReader reader) throws XMLStreamException
     {
-        return (NodeList)expression.evaluate(document, NODESET);
+        while (reader.hasNext())
+        {
+            final int event = reader.next();
+            if (event == START_ELEMENT)
+            {
+                return true;
+            }
+            else if (event == END_ELEMENT)
+            {
+                return false;
+            }
+        }
+
+        return false;
     }
 
-    private void forEach(final NodeList nodes, final Consumer<Node> handler)
+    private static void skipElement(final XMLStreamReader reader) throws XMLStreamException
     {
-        for (int i = 0; i < nodes.getLength(); i++)
+        int depth = 1;
+        while (depth > 0)
         {
-            final Node node = nodes.item(i);
-            if (node instanceof Element)
+            final int event = reader.next();
+            if (event == START_ELEMENT)
+            {
+                depth++;
+            }
+            else if (event == END_ELEMENT)
             {
-                handler.accept(node);
+                depth--;
             }
         }
     }
@@ -541,4 +606,44 @@ public final class DictionaryParser
 
         return enumName.toString();
     }
+
+    private static final class DictionaryDefinition
+    {
+        private final Map<String, Field> fields = new HashMap<>();
+        private final List<AggregateDefinition> components = new ArrayList<>();
+        private final List<AggregateDefinition> messages = new ArrayList<>();
+        private final List<EntryDefinition> header = new ArrayList<>();
+        private final List<EntryDefinition> trailer = new ArrayList<>();
+        private String major;
+        private String minor;
+        private String type;
+    }
+
+    private static final class AggregateDefinition
+    {
+        private final String name;
+        private final List<EntryDefinition> entries = new ArrayList<>();
+        private String msgType;
+        private String category;
+
+        private AggregateDefinition(final String name)
+        {
+            this.name = name;
+        }
+    }
+
+    private static final class EntryDefinition
+    {
+        private final String elementName;
+        private final String name;
+        private final String required;
+        private final List<EntryDefinition> entries = new ArrayList<>();
+
+        private EntryDefinition(final String elementName, final String name, final String required)
+        {
+            this.elementName = elementName;
+            this.name = name;
+            this.required = required;
+        }
+    }
 }
@@ -22,6 +22,7 @@ import uk.co.real_logic.artio.util.AsciiBuffer;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.List;
 
 import static uk.co.real_logic.artio.dictionary.generation.DecoderGenerator.decoderClassName;
 import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.fileHeader;
@@ -141,20 +142,30 @@ public class AcceptorGenerator
 
     private void generateDecoder()
     {
+        final List<Message> messages = dictionary.messages();
+        final int[] messageTypes = new int[messages.size()];
+        for (int i = 0; i < messageTypes.length; i++)
+        {
+            messageTypes[i] = messages.get(i).packedType();
+        }
+        final MessageTypeHash hash = MessageTypeHash.of(messageTypes);
+
         outputManager.withOutput(DICTIONARY_DECODER, decoderOutput ->
         {
             generateDecoderClass(decoderOutput);
 
-            for (final Message message : dictionary.messages())
+            for (final Message message : messages)
             {
                 generateDecoderField(decoderOutput, message);
             }
 
+            generateDecoderTable(decoderOutput, hash);
+
             generateDecoderOnMessage(decoderOutput);
 
-            for (final Message message : dictionary.messages())
+            for (int ordinal = 0; ordinal < messages.size(); ordinal++)
             {
-                generateDecoderCase(decoderOutput, message);
+                generateDecoderCase(decoderOutput, messages.get(ordinal), ordinal);
             }
 
             generateDecoderSuffix(decoderOutput);
@@ -170,6 +181,36 @@ public class AcceptorGenerator
         decoderOutput.append("}\n");
     }
 
+    private void generateDecoderTable(final Writer decoderOutput, final MessageTypeHash hash) throws IOException
+    {
+        decoderOutput.append(String.format(
+            "\n" +
+            "    // Perfect hash of the dictionary's packed message types, each slot maps to the index of a message\n" +
+            "    private static final int HASH_MULTIPLIER = %1$d;\n" +
+            "    private static final int HASH_SHIFT = %2$d;\n" +
+            "    private static final int[] MESSAGE_TYPES = { %3$s };\n" +
+            "    private static final int[] MESSAGE_INDICES = { %4$s };\n",
+            hash.multiplier(),
+            hash.shift(),
+            join(hash.slotKeys()),
+            join(hash.slotIndices())));
+    }
+
+    private static String join(final int[] values)
+    {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(", ");
+            }
+            builder.append(values[i]);
+        }
+
+        return builder.toString();
+    }
+
     private void generateDecoderOnMessage(final Writer decoderOutput) throws IOException
     {
         decoderOutput.append(
@@ -184,19 +225,25 @@ public class AcceptorGenerator
             "        final int length,\n" +
             "        final int messageType)\n" +
             "    {\n" +
-            "        switch(messageType)\n" +
+            "        final int slot = (messageType * HASH_MULTIPLIER) >>> HASH_SHIFT;\n" +
+            "        if (MESSAGE_TYPES[slot] != messageType)\n" +
+            "        {\n" +
+            "            return;\n" +
+            "        }\n\n" +
+            "        switch (MESSAGE_INDICES[slot])\n" +
             "        {\n\n");
     }
 
-    private void generateDecoderCase(final Writer decoderOutput, final Message message) throws IOException
+    private void generateDecoderCase(final Writer decoderOutput, final Message message, final int ordinal)
+        throws IOException
     {
         decoderOutput.append(String.format(
-            "        case %1$s.MESSAGE_TYPE:\n" +
+            "        case %1$d:\n" +
             "            %2$s.decode(buffer, offset, length);\n" +
             "            acceptor.on%3$s(%2$s);\n" +
             "            %2$s.reset();\n" +
             "            break;\n\n",
-            decoderClassName(message),
+            ordinal,
             formatPropertyName(message.name()),
             message.name()
         ));
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.LangUtil;
+import uk.co.real_logic.artio.dictionary.ir.*;
+import uk.co.real_logic.artio.dictionary.ir.Entry.Element;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Fingerprints of the header, trailer, components and messages of a dictionary, used in order to only regenerate
+ * the codecs for aggregates that have changed since the last time that codecs were generated.
+ * <p>
+ * An aggregate's fingerprint covers its own definition, every field, group and component that it references,
+ * the parts of the dictionary that are generated into every codec, the generation settings and the generator
+ * classes themselves. If none of these has changed then neither has the aggregate's encoder or decoder.
+ */
+public final class CodecFingerprints
+{
+    public static final String FILE_NAME = ".artio-codec-fingerprints";
+
+    private static final char SEPARATOR = '=';
+    private static final Class<?>[] GENERATOR_CLASSES =
+    {
+        Generator.class,
+        EncoderGenerator.class,
+        DecoderGenerator.class,
+        EnumGenerator.class,
+        GenerationUtil.class,
+    };
+
+    private final Map<String, String> aggregateToFingerprint;
+
+    private CodecFingerprints(final Map<String, String> aggregateToFingerprint)
+    {
+        this.aggregateToFingerprint = aggregateToFingerprint;
+    }
+
+    /**
+     * Fingerprint every aggregate within a dictionary.
+     *
+     * @param dictionary the dictionary to fingerprint.
+     * @param settings any generation settings that change the generated code, for example package names.
+     * @return the fingerprints of the dictionary's aggregates.
+     */
+    public static CodecFingerprints of(final Dictionary dictionary, final String... settings)
+    {
+        final StringBuilder context = new StringBuilder();
+        for (final String setting : settings)
+        {
+            context.append(setting).append('\n');
+        }
+        context
+            .append(dictionary.specType()).append(' ')
+            .append(dictionary.majorVersion()).append('.')
+            .append(dictionary.minorVersion()).append(' ')
+            .append(dictionary.fields().size()).append('\n');
+        describeAggregate(dictionary.header(), context);
+        describeAggregate(dictionary.trailer(), context);
+
+        final MessageDigest contextDigest = newDigest();
+        for (final Class<?> generatorClass : GENERATOR_CLASSES)
+        {
+            contextDigest.update(classFile(generatorClass));
+        }
+        contextDigest.update(context.toString().getBytes(UTF_8));
+
+        final List<Aggregate> aggregates = new ArrayList<>();
+        aggregates.add(dictionary.header());
+        aggregates.add(dictionary.trailer());
+        aggregates.addAll(dictionary.components().values());
+        aggregates.addAll(dictionary.messages());
+
+        final Map<String, String> aggregateToFingerprint = new TreeMap<>();
+        final StringBuilder description = new StringBuilder();
+        for (final Aggregate aggregate : aggregates)
+        {
+            description.setLength(0);
+            describeAggregate(aggregate, description);
+
+            final MessageDigest digest = copy(contextDigest);
+            digest.update(description.toString().getBytes(UTF_8));
+            aggregateToFingerprint.put(aggregate.name(), toHex(digest.digest()));
+        }
+
+        return new CodecFingerprints(aggregateToFingerprint);
+    }
+
+    /**
+     * Load the fingerprints that were saved when codecs were last generated.
+     *
+     * @param file the file the fingerprints were saved into.
+     * @return the saved fingerprints, or no fingerprints if the file doesn't exist.
+     */
+    public static CodecFingerprints load(final File file)
+    {
+        final Map<String, String> aggregateToFingerprint = new TreeMap<>();
+        if (file.exists())
+        {
+            try
+            {
+                for (final String line : Files.readAllLines(file.toPath(), UTF_8))
+                {
+                    final int separatorIndex = line.lastIndexOf(SEPARATOR);
+                    if (separatorIndex > 0)
+                    {
+                        aggregateToFingerprint.put(
+                            line.substring(0, separatorIndex), line.substring(separatorIndex + 1));
+                    }
+                }
+            }
+            catch (final IOException e)
+            {
+                LangUtil.rethrowUnchecked(e);
+            }
+        }
+
+        return new CodecFingerprints(aggregateToFingerprint);
+    }
+
+    public void save(final File file)
+    {
+        final List<String> lines = new ArrayList<>();
+        aggregateToFingerprint.forEach((name, fingerprint) -> lines.add(name + SEPARATOR + fingerprint));
+
+        try
+        {
+            Files.write(file.toPath(), lines, UTF_8);
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    public Set<String> aggregateNames()
+    {
+        return aggregateToFingerprint.keySet();
+    }
+
+    public String fingerprint(final String aggregateName)
+    {
+        return aggregateToFingerprint.get(aggregateName);
+    }
+
+    /**
+     * Check whether an aggregate has the same fingerprint as it had in a previous set of fingerprints.
+     *
+     * @param aggregateName the name of the header, trailer, component or message.
+     * @param previous the fingerprints to compare against.
+     * @return true if the aggregate has a fingerprint that is the same in both, false otherwise.
+     */
+    public boolean isUnchangedFrom(final String aggregateName, final CodecFingerprints previous)
+    {
+        final String fingerprint = fingerprint(aggregateName);
+        return fingerprint != null && fingerprint.equals(previous.fingerprint(aggregateName));
+    }
+
+    private static void describeAggregate(final Aggregate aggregate, final StringBuilder description)
+    {
+        description.append(aggregate.getClass().getSimpleName()).append(' ').append(aggregate.name());
+        if (aggregate instanceof Message)
+        {
+            final Message message = (Message)aggregate;
+            description.append(' ').append(message.fullType()).append(' ').append(message.category());
+        }
+        else if (aggregate instanceof Group)
+        {
+            describeElement(((Group)aggregate).numberField().element(), description);
+        }
+        description.append('{');
+
+        for (final Entry entry : aggregate.entries())
+        {
+            description.append(entry.required() ? "required " : "optional ");
+            describeElement(entry.element(), description);
+            description.append(';');
+        }
+
+        description.append('}');
+    }
+
+    private static void describeElement(final Element element, final StringBuilder description)
+    {
+        if (element instanceof Field)
+        {
+            final Field field = (Field)element;
+            description
+                .append(field.name()).append(' ')
+                .append(field.number()).append(' ')
+                .append(field.type());
+            for (final Field.Value value : field.values())
+            {
+                description
+                    .append(' ').append(value.representation())
+                    .append(SEPARATOR).append(value.description());
+            }
+        }
+        else
+        {
+            describeAggregate((Aggregate)element, description);
+        }
+    }
+
+    private static byte[] classFile(final Class<?> generatorClass)
+    {
+        final String resourceName = generatorClass.getSimpleName() + ".class";
+        try (InputStream in = generatorClass.getResourceAsStream(resourceName))
+        {
+            if (in == null)
+            {
+                return resourceName.getBytes(UTF_8);
+            }
+
+            final byte[] buffer = new byte[4096];
+            final MessageDigest digest = newDigest();
+            int read;
+            while ((read = in.read(buffer)) != -1)
+            {
+                digest.update(buffer, 0, read);
+            }
+
+            return digest.digest();
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+            return null;
+        }
+    }
+
+    private static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (final NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest copy(final MessageDigest digest)
+    {
+        try
+        {
+            return (MessageDigest)digest.clone();
+        }
+        catch (final CloneNotSupportedException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes)
+    {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte value : bytes)
+        {
+            hex.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+
+        return hex.toString();
+    }
+}
@@ -109,4 +109,54 @@ public final class CodecUtil
 
         return result;
     }
+
+    /**
+     * Appends two spaces of indentation per level, used by the generated appendTo methods.
+     */
+    public static StringBuilder indent(final StringBuilder builder, final int level)
+    {
+        for (int i = 0; i < level; i++)
+        {
+            builder.append("  ");
+        }
+
+        return builder;
+    }
+
+    /**
+     * NB: only valid for ASCII bytes.
+     */
+    public static StringBuilder appendBytes(
+        final StringBuilder builder, final byte[] value, final int offset, final int length)
+    {
+        for (int i = offset; i < offset + length; i++)
+        {
+            builder.append((char)value[i]);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Appends data in the same format as {@link java.util.Arrays#toString(byte[])}.
+     */
+    public static StringBuilder appendData(final StringBuilder builder, final byte[] value)
+    {
+        if (value == null)
+        {
+            return builder.append("null");
+        }
+
+        builder.append('[');
+        for (int i = 0; i < value.length; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(", ");
+            }
+            builder.append(value[i]);
+        }
+
+        return builder.append(']');
+    }
 }
@@ -24,8 +24,12 @@ import uk.co.real_logic.artio.fields.*;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.joining;
@@ -53,6 +57,7 @@ public class DecoderGenerator extends Generator
     public static final String REQUIRED_FIELDS = "REQUIRED_FIELDS";
     public static final String GROUP_FIELDS = "GROUP_FIELDS";
     public static final String ALL_FIELDS = "allFields";
+    private static final String REQUIRED_FIELDS_WORD = "REQUIRED_FIELDS_WORD_";
 
     public static final int INVALID_TAG_NUMBER =
         RejectReason.INVALID_TAG_NUMBER.representation();
@@ -221,12 +226,19 @@ public class DecoderGenerator extends Generator
         return "";
     }
 
+    protected String toStringGroupArguments()
+    {
+        return "";
+    }
+
     protected String toStringGroupSuffix()
     {
         return
             "        if (next != null)\n" +
             "        {\n" +
-            "            entries += \",\\n\" + next.toString();\n" +
+            "            builder.append(\",\\n\");\n" +
+            "            indent(builder, level - 1);\n" +
+            "            next.appendTo(builder, level);\n" +
             "        }\n";
     }
 
@@ -237,9 +249,8 @@ public class DecoderGenerator extends Generator
             "        {\n" +
             "            invalidTagId = NO_ERROR;\n" +
             "            rejectReason = NO_ERROR;\n" +
-            "            missingRequiredFields.clear();\n" +
+            "            resetVisitedFields();\n" +
             "            unknownFields.clear();\n" +
-            "            alreadyVisitedFields.clear();\n" +
             "        }\n";
     }
 
@@ -274,7 +285,8 @@ public class DecoderGenerator extends Generator
 
         final boolean isMessage = type == MESSAGE;
         final String messageValidation = isMessage ?
-            "        else if (unknownFieldsIterator.hasNext())\n" +
+            "        final IntIterator unknownFieldsIterator = unknownFields.iterator();\n" +
+            "        if (unknownFieldsIterator.hasNext())\n" +
             "        {\n" +
             "            invalidTagId = unknownFieldsIterator.nextValue();\n" +
             "            rejectReason = allFields.contains(invalidTagId) ? " +
@@ -295,9 +307,15 @@ public class DecoderGenerator extends Generator
             "        }\n" :
             "";
 
+        final List<Field> visitableFields = visitableFields(aggregate);
+        final int wordCount = visitedFieldsWordCount(visitableFields);
+        out.append(requiredFieldsWords(visitableFields, requiredFields, wordCount));
+        out.append(fieldOrdinalMethods(visitableFields));
+
         out.append(String.format(
-            "    private final IntHashSet alreadyVisitedFields = new IntHashSet(%5$d);\n\n" +
-            "    private final IntHashSet missingRequiredFields = new IntHashSet(%1$d);\n\n" +
+            "    private final long[] alreadyVisitedFields = new long[%1$d];\n\n" +
+            "    private final long[] missingRequiredFields = new long[%1$d];\n\n" +
+            "    private final IntHashSet alreadyVisitedUnknownFields = new IntHashSet(10);\n\n" +
             "    private final IntHashSet unknownFields = new IntHashSet(10);\n\n" +
             "    private int invalidTagId = NO_ERROR;\n\n" +
             "    public int invalidTagId()\n" +
@@ -309,6 +327,26 @@ public class DecoderGenerator extends Generator
             "    {\n" +
             "        return rejectReason;\n" +
             "    }\n\n" +
+            "    private void resetVisitedFields()\n" +
+            "    {\n" +
+            "%5$s" +
+            "        alreadyVisitedUnknownFields.clear();\n" +
+            "    }\n\n" +
+            // Returns false if the tag has already been visited since the last reset.
+            "    private boolean visitField(final int tag)\n" +
+            "    {\n" +
+            "        final int ordinal = fieldOrdinal(tag);\n" +
+            "        if (ordinal == UNKNOWN_FIELD_ORDINAL)\n" +
+            "        {\n" +
+            "            return alreadyVisitedUnknownFields.add(tag);\n" +
+            "        }\n" +
+            "        final int word = ordinal >>> 6;\n" +
+            "        final long bit = 1L << ordinal;\n" +
+            "        final long visitedFields = alreadyVisitedFields[word];\n" +
+            "        alreadyVisitedFields[word] = visitedFields | bit;\n" +
+            "        missingRequiredFields[word] &= ~bit;\n" +
+            "        return (visitedFields & bit) == 0;\n" +
+            "    }\n\n" +
             "    public boolean validate()\n" +
             "    {\n" +
             // validation for some tags performed in the decode method
@@ -316,24 +354,146 @@ public class DecoderGenerator extends Generator
             "        {\n" +
             "            return false;\n" +
             "        }\n" +
-            "        final IntIterator missingFieldsIterator = missingRequiredFields.iterator();\n" +
-            (isMessage ? "        final IntIterator unknownFieldsIterator = unknownFields.iterator();\n" : "") +
-            "        if (missingFieldsIterator.hasNext())\n" +
+            "        for (int word = 0; word < %1$d; word++)\n" +
             "        {\n" +
-            "            invalidTagId = missingFieldsIterator.nextValue();\n" +
-            "            rejectReason = " + REQUIRED_TAG_MISSING + ";\n" +
-            "            return false;\n" +
+            "            final long missingFields = missingRequiredFields[word];\n" +
+            "            if (missingFields != 0)\n" +
+            "            {\n" +
+            "                invalidTagId = fieldTag((word << 6) + Long.numberOfTrailingZeros(missingFields));\n" +
+            "                rejectReason = " + REQUIRED_TAG_MISSING + ";\n" +
+            "                return false;\n" +
+            "            }\n" +
             "        }\n" +
             "%2$s" +
             "%3$s" +
             "%4$s" +
             "        return true;\n" +
             "    }\n\n",
-            sizeHashSet(requiredFields),
+            wordCount,
             messageValidation,
             enumValidation,
             groupValidation,
-            2 * aggregate.allChildEntries().count()));
+            visitedFieldsWords("        ", wordCount, (word) -> "0")));
+    }
+
+    private String requiredFieldsWords(
+        final List<Field> visitableFields, final List<Field> requiredFields, final int wordCount)
+    {
+        final long[] words = new long[wordCount];
+        for (final Field field : requiredFields)
+        {
+            final int ordinal = ordinalOf(visitableFields, field);
+            words[ordinal >>> 6] |= 1L << ordinal;
+        }
+
+        final StringBuilder constants = new StringBuilder();
+        for (int word = 0; word < wordCount; word++)
+        {
+            constants.append(String.format(
+                "    private static final long %1$s%2$d = 0x%3$xL;\n\n",
+                REQUIRED_FIELDS_WORD,
+                word,
+                words[word]));
+        }
+
+        return constants.toString();
+    }
+
+    private String fieldOrdinalMethods(final List<Field> visitableFields)
+    {
+        final StringBuilder ordinalCases = new StringBuilder();
+        final StringBuilder tagCases = new StringBuilder();
+        for (int ordinal = 0; ordinal < visitableFields.size(); ordinal++)
+        {
+            final String constantName = constantName(visitableFields.get(ordinal).name());
+            ordinalCases.append(String.format(
+                "            case Constants.%1$s:\n" +
+                "                return %2$d;\n",
+                constantName,
+                ordinal));
+            tagCases.append(String.format(
+                "            case %2$d:\n" +
+                "                return Constants.%1$s;\n",
+                constantName,
+                ordinal));
+        }
+
+        return String.format(
+            "    private static final int UNKNOWN_FIELD_ORDINAL = -1;\n\n" +
+            "    private int fieldOrdinal(final int tag)\n" +
+            "    {\n" +
+            "        switch (tag)\n" +
+            "        {\n" +
+            "%1$s" +
+            "            default:\n" +
+            "                return UNKNOWN_FIELD_ORDINAL;\n" +
+            "        }\n" +
+            "    }\n\n" +
+            "    private int fieldTag(final int ordinal)\n" +
+            "    {\n" +
+            "        switch (ordinal)\n" +
+            "        {\n" +
+            "%2$s" +
+            "            default:\n" +
+            "                return NO_ERROR;\n" +
+            "        }\n" +
+            "    }\n\n",
+            ordinalCases,
+            tagCases);
+    }
+
+    private String visitedFieldsWords(
+        final String indentation, final int wordCount, final IntFunction<String> missingRequiredFields)
+    {
+        final StringBuilder assignments = new StringBuilder();
+        for (int word = 0; word < wordCount; word++)
+        {
+            assignments.append(String.format(
+                "%3$smissingRequiredFields[%1$d] = %2$s;\n" +
+                "%3$salreadyVisitedFields[%1$d] = 0;\n",
+                word,
+                missingRequiredFields.apply(word),
+                indentation));
+        }
+
+        return assignments.toString();
+    }
+
+    // Every tag that the aggregate's own decode loop sees, ie including the fields of its components and the
+    // number fields of its groups, is given a dense ordinal into the visited and missing fields bitsets.
+    private List<Field> visitableFields(final Aggregate aggregate)
+    {
+        final Map<Integer, Field> fieldsByTag = new LinkedHashMap<>();
+        visitableFields(aggregate.entries()).forEach((field) -> fieldsByTag.putIfAbsent(field.number(), field));
+        return new ArrayList<>(fieldsByTag.values());
+    }
+
+    private Stream<Field> visitableFields(final List<Entry> entries)
+    {
+        return entries
+            .stream()
+            .flatMap((entry) -> entry.match(
+                (e, field) -> Stream.of(field),
+                (e, group) -> Stream.of((Field)group.numberField().element()),
+                (e, component) -> visitableFields(component.entries())));
+    }
+
+    private int visitedFieldsWordCount(final List<Field> visitableFields)
+    {
+        return Math.max(1, (visitableFields.size() + 63) >>> 6);
+    }
+
+    private int ordinalOf(final List<Field> visitableFields, final Field field)
+    {
+        for (int ordinal = 0; ordinal < visitableFields.size(); ordinal++)
+        {
+            if (visitableFields.get(ordinal).number() == field.number())
+            {
+                return ordinal;
+            }
+        }
+
+        throw new IllegalStateException("Unknown field: " + field.name());
     }
 
     private String generateFieldDictionary(final Collection<Field> fields, final String name)
@@ -894,8 +1054,11 @@ public class DecoderGenerator extends Generator
             "        int seenFieldCount = 0;\n" +
             "        if (" + CODEC_VALIDATION_ENABLED + ")\n" +
             "        {\n" +
-            "            missingRequiredFields.copy(" + REQUIRED_FIELDS + ");\n" +
-            "            alreadyVisitedFields.clear();\n" +
+            visitedFieldsWords(
+                "            ",
+                visitedFieldsWordCount(visitableFields(aggregate)),
+                (word) -> REQUIRED_FIELDS_WORD + word) +
+            "            alreadyVisitedUnknownFields.clear();\n" +
             "        }\n" +
             "        this.buffer = buffer;\n" +
             "        final int end = offset + length;\n" +
@@ -925,14 +1088,14 @@ public class DecoderGenerator extends Generator
             "                }\n" +
             headerValidation(isHeader) +
 
-            (isGroup ? "" :
-            "                if (!alreadyVisitedFields.add(tag))\n" +
+            (isGroup ? "                visitField(tag);\n" :
+            "                if (!visitField(tag))\n" +
             "                {\n" +
             "                    invalidTagId = tag;\n" +
             "                    rejectReason = " + TAG_APPEARS_MORE_THAN_ONCE + ";\n" +
             "                }\n") +
 
-            "                missingRequiredFields.remove(tag);\n" +
+
             "                seenFieldCount++;\n" +
             "            }\n" +
             "            switch (tag)\n" +
@@ -1050,13 +1213,13 @@ public class DecoderGenerator extends Generator
             .collect(joining("\n", "", "\n"));
     }
 
-    protected String componentToString(final Component component)
+    protected String componentAppendTo(final Component component)
     {
         return component
             .entries()
             .stream()
-            .map(this::entryToString)
-            .collect(joining(" + \n"));
+            .map(this::entryAppendTo)
+            .collect(joining());
     }
 
     private String decodeGroup(final Entry entry)
@@ -1181,9 +1344,12 @@ public class DecoderGenerator extends Generator
         }
     }
 
-    protected String stringToString(final String fieldName)
+    protected String stringAppendTo(final Type type, final String fieldName)
     {
-        return String.format("new String(%s, 0, %1$sLength)", fieldName);
+        // Timestamps and dates are decoded into byte arrays, which StringBuilder can't append directly.
+        return "byte[]".equals(javaTypeOf(type)) ?
+            String.format("appendBytes(builder, %s, 0, %1$sLength)", fieldName) :
+            String.format("builder.append(%s, 0, %1$sLength)", fieldName);
     }
 
     protected boolean hasFlag(final Entry entry, final Field field)
@@ -1218,16 +1384,11 @@ public class DecoderGenerator extends Generator
             formatPropertyName(name));
     }
 
-    protected String groupEntryToString(final Group element, final String name)
+    protected String groupEntryAppendTo(final Group element, final String name)
     {
-        return String.format(
-            "                (has%3$s ? String.format(\"  \\\"%1$s\\\": [\\n" +
-            "  %%s" +
-            "\\n  ]" +
-            "\\n\", %2$s.toString().replace(\"\\n\", \"\\n  \")" + ") : \"\")",
-            name,
-            formatPropertyName(name),
-            element.numberField().name());
+        return optionalAppendTo(
+            "has" + element.numberField().name(),
+            groupAppendTo(name, formatPropertyName(name) + ".appendTo(builder, level + 1)"));
     }
 
     protected String optionalReset(final Field field, final String name)
@@ -89,7 +89,7 @@ public class EncoderGenerator extends Generator
     private static final int MAX_BODY_LENGTH_FIELD_LENGTH = String.valueOf(Integer.MAX_VALUE).length();
     public static final String METHOD_DELIMITER = "\n\n";
 
-    private static String encoderClassName(final String name)
+    public static String encoderClassName(final String name)
     {
         return formatClassName(name + "Encoder");
     }
@@ -743,16 +743,19 @@ public class EncoderGenerator extends Generator
             bytes));
     }
 
-    protected String stringToString(final String fieldName)
+    protected String stringAppendTo(final Type type, final String fieldName)
     {
-        return String.format("new String(%s, 0, %1$sLength, StandardCharsets.US_ASCII)", fieldName);
+        return String.format("appendBytes(builder, %s, 0, %1$sLength)", fieldName);
     }
 
-    protected String componentToString(final Component component)
+    protected String componentAppendTo(final Component component)
     {
         final String name = component.name();
         return String.format(
-            "                String.format(\"  \\\"%1$s\\\":  %%s\\n\", %2$s" + EXPAND_INDENT + ")",
+            "        indent(builder, level);\n" +
+            "        builder.append(\"\\\"%1$s\\\":  \");\n" +
+            "        %2$s.appendTo(builder, level + 1);\n" +
+            "        builder.append(\"\\n\");\n",
             name,
             formatPropertyName(name));
     }
@@ -784,12 +787,19 @@ public class EncoderGenerator extends Generator
         return "final int remainingEntries";
     }
 
+    protected String toStringGroupArguments()
+    {
+        return "remainingEntries";
+    }
+
     protected String toStringGroupSuffix()
     {
         return
             "        if (remainingEntries > 1)\n" +
             "        {\n" +
-            "            entries += \",\\n\" + next.toString(remainingEntries - 1);\n" +
+            "            builder.append(\",\\n\");\n" +
+            "            indent(builder, level - 1);\n" +
+            "            next.appendTo(builder, level, remainingEntries - 1);\n" +
             "        }\n";
     }
 
@@ -819,17 +829,13 @@ public class EncoderGenerator extends Generator
         return resetLength(name);
     }
 
-    protected String groupEntryToString(final Group element, final String name)
+    protected String groupEntryAppendTo(final Group element, final String name)
     {
-        final Entry numberField = element.numberField();
-        return String.format(
-            "                (%3$s > 0 ? String.format(\"  \\\"%1$s\\\": [\\n" +
-            "  %%s" +
-            "\\n  ]" +
-            "\\n\", %2$s.toString(%3$s).replace(\"\\n\", \"\\n  \")" + ") : \"\")",
-            name,
-            formatPropertyName(name),
-            formatPropertyName(numberField.name()));
+        final String numberField = formatPropertyName(element.numberField().name());
+        final String appendGroup = String.format(
+            "%s.appendTo(builder, level + 1, %s)", formatPropertyName(name), numberField);
+
+        return optionalAppendTo(numberField + " > 0", groupAppendTo(name, appendGroup));
     }
 
     protected String optionalReset(final Field field, final String name)
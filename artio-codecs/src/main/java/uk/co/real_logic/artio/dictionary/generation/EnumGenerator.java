@@ -17,8 +17,10 @@ package uk.co.real_logic.artio.dictionary.generation;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.agrona.LangUtil;
 import org.agrona.collections.IntHashSet;
@@ -30,6 +32,7 @@ import uk.co.real_logic.artio.dictionary.ir.Dictionary;
 import uk.co.real_logic.artio.dictionary.ir.Field;
 import uk.co.real_logic.artio.dictionary.ir.Field.Type;
 import uk.co.real_logic.artio.dictionary.ir.Field.Value;
+import uk.co.real_logic.artio.util.AsciiBuffer;
 
 import static java.lang.String.format;
 import static java.util.stream.Collectors.joining;
@@ -42,6 +45,17 @@ import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.option
 
 public final class EnumGenerator
 {
+    /**
+     * String enums whose values are all ascii and at most this long are decoded by packing the characters into a
+     * long key and switching on a collision free hash of it, rather than going through a {@link CharArrayMap}.
+     */
+    static final int MAX_PACKED_LENGTH = 8;
+    static final long NOT_PACKABLE = -1;
+
+    private static final long NO_MULTIPLIER = 0;
+    private static final long FIRST_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int MULTIPLIER_ATTEMPTS = 1024;
+
     private final Dictionary dictionary;
     private final String builderPackage;
     private final OutputManager outputManager;
@@ -83,6 +97,7 @@ public final class EnumGenerator
                 out.append(importFor(IntHashSet.class));
                 out.append(importFor(Map.class));
                 out.append(importFor(HashMap.class));
+                out.append(importFor(AsciiBuffer.class));
                 out.append(generateEnumDeclaration(enumName));
 
                 out.append(generateEnumValues(values, type));
@@ -136,8 +151,9 @@ public final class EnumGenerator
             return "";
         }
 
-        final String optionalCharArrayDecode = optionalCharArrayDecode(name, allValues, type);
-        final String enumValidation = enumValidation(name, allValues, type);
+        final long multiplier = perfectHashMultiplier(allValues, type);
+        final String optionalCharArrayDecode = optionalCharArrayDecode(name, allValues, type, multiplier);
+        final String enumValidation = enumValidation(allValues, type, multiplier);
 
         final Var representation = representation(type);
 
@@ -164,14 +180,18 @@ public final class EnumGenerator
             cases);
     }
 
-    private String enumValidation(final String typeName, final List<Value> allValues, final Type type)
+    private String enumValidation(final List<Value> allValues, final Type type, final long multiplier)
     {
+        final String lookup = multiplier == NO_MULTIPLIER ?
+            "charMap.containsKey(representation, %s, %s)" :
+            "(decode(representation, %s, %s) != null)";
+
         switch (type)
         {
             case STRING:
                 return "    public static boolean isValid(final char[] representation, final int length)\n" +
                        "    {\n" +
-                       "        return charMap.containsKey(representation, length);\n" +
+                       "        return " + format(lookup, "0", "length") + ";\n" +
                        "    }\n";
 
             case MULTIPLEVALUESTRING:
@@ -183,12 +203,12 @@ public final class EnumGenerator
                        "        {\n" +
                        "            if (representation[i] == ' ')\n" +
                        "            {\n" +
-                       "                if (! charMap.containsKey(representation, offset, i - offset))\n" +
+                       "                if (!" + format(lookup, "offset", "i - offset") + ")\n" +
                        "                    return false;\n" +
                        "                offset = i + 1;\n" +
                        "            }\n" +
                        "        }\n" +
-                       "        return charMap.containsKey(representation, offset, length - offset);\n" +
+                       "        return " + format(lookup, "offset", "length - offset") + ";\n" +
                        "    }\n";
 
             case MULTIPLECHARVALUE:
@@ -234,13 +254,19 @@ public final class EnumGenerator
         }
     }
 
-    private String optionalCharArrayDecode(final String typeName, final List<Value> allValues, final Type type)
+    private String optionalCharArrayDecode(
+        final String typeName, final List<Value> allValues, final Type type, final long multiplier)
     {
         switch (type)
         {
             case STRING:
             case MULTIPLEVALUESTRING:
             case MULTIPLESTRINGVALUE:
+                if (multiplier != NO_MULTIPLIER)
+                {
+                    return packedDecode(typeName, allValues, type, multiplier);
+                }
+
                 final String entries = allValues
                     .stream()
                     .map((v) -> format("        stringMap.put(%s, %s);\n", literal(v, type), v.description()))
@@ -258,6 +284,11 @@ public final class EnumGenerator
                     "    public static %1$s decode(final char[] representation, final int length)\n" +
                     "    {\n" +
                     "        return charMap.get(representation, length);\n" +
+                    "    }\n" +
+                    "\n" +
+                    "    public static %1$s decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
+                    "    {\n" +
+                    "        return charMap.get(buffer, offset, length);\n" +
                     "    }\n",
                     typeName,
                     entries);
@@ -279,6 +310,167 @@ public final class EnumGenerator
         }
     }
 
+    private String packedDecode(
+        final String typeName, final List<Value> allValues, final Type type, final long multiplier)
+    {
+        final String cases = allValues
+            .stream()
+            .map((value) ->
+            {
+                final long key = packedKey(value.representation());
+                return format(
+                    "        case %d: return key == 0x%XL ? %s : null; // %s\n",
+                    perfectHash(key, multiplier),
+                    key,
+                    value.description(),
+                    literal(value, type));
+            })
+            .collect(joining());
+
+        return format(
+            "    public static %1$s decode(final char[] representation, final int length)\n" +
+            "    {\n" +
+            "        return decode(representation, 0, length);\n" +
+            "    }\n" +
+            "\n" +
+            "    private static %1$s decode(final char[] representation, final int offset, final int length)\n" +
+            "    {\n" +
+            "        if (length > %2$d)\n" +
+            "        {\n" +
+            "            return null;\n" +
+            "        }\n" +
+            "\n" +
+            "        long key = length;\n" +
+            "        int bits = 0;\n" +
+            "        for (int i = offset; i < offset + length; i++)\n" +
+            "        {\n" +
+            "            final char character = representation[i];\n" +
+            "            bits |= character;\n" +
+            "            key = (key << 7) | character;\n" +
+            "        }\n" +
+            "\n" +
+            "        return (bits & ~0x7F) == 0 ? decodeKey(key) : null;\n" +
+            "    }\n" +
+            "\n" +
+            "    public static %1$s decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
+            "    {\n" +
+            "        if (length > %2$d)\n" +
+            "        {\n" +
+            "            return null;\n" +
+            "        }\n" +
+            "\n" +
+            "        long key = length;\n" +
+            "        int bits = 0;\n" +
+            "        for (int i = offset; i < offset + length; i++)\n" +
+            "        {\n" +
+            "            final byte character = buffer.getByte(i);\n" +
+            "            bits |= character;\n" +
+            "            key = (key << 7) | (character & 0x7F);\n" +
+            "        }\n" +
+            "\n" +
+            "        return (bits & ~0x7F) == 0 ? decodeKey(key) : null;\n" +
+            "    }\n" +
+            "\n" +
+            "    private static %1$s decodeKey(final long key)\n" +
+            "    {\n" +
+            "        switch ((int)((key * 0x%3$XL) >>> 32))\n" +
+            "        {\n" +
+            "%4$s" +
+            "        default: return null;\n" +
+            "        }\n" +
+            "    }\n",
+            typeName,
+            MAX_PACKED_LENGTH,
+            multiplier,
+            cases);
+    }
+
+    /**
+     * Finds a multiplier that gives every value of a string enum a distinct 32 bit hash of its packed key.
+     *
+     * @param allValues the values of the enum.
+     * @param type the type of the enum.
+     * @return the multiplier or {@link #NO_MULTIPLIER} if the enum can't be decoded from packed keys.
+     */
+    static long perfectHashMultiplier(final List<Value> allValues, final Type type)
+    {
+        if (!(type == Type.STRING || type == Type.MULTIPLEVALUESTRING || type == Type.MULTIPLESTRINGVALUE))
+        {
+            return NO_MULTIPLIER;
+        }
+
+        final long[] keys = new long[allValues.size()];
+        for (int i = 0; i < keys.length; i++)
+        {
+            final long key = packedKey(allValues.get(i).representation());
+            if (key == NOT_PACKABLE)
+            {
+                return NO_MULTIPLIER;
+            }
+            keys[i] = key;
+        }
+
+        final Set<Integer> hashes = new HashSet<>();
+        long multiplier = FIRST_MULTIPLIER;
+        for (int attempt = 0; attempt < MULTIPLIER_ATTEMPTS; attempt++)
+        {
+            hashes.clear();
+            boolean isPerfect = true;
+            for (final long key : keys)
+            {
+                if (!hashes.add(perfectHash(key, multiplier)))
+                {
+                    isPerfect = false;
+                    break;
+                }
+            }
+
+            if (isPerfect)
+            {
+                return multiplier;
+            }
+
+            // keep the multiplier odd so that it's invertible
+            multiplier += FIRST_MULTIPLIER << 1;
+        }
+
+        return NO_MULTIPLIER;
+    }
+
+    /**
+     * Packs a representation into a long: 7 bits per character after its length. Keys are unique for all ascii
+     * strings of up to {@link #MAX_PACKED_LENGTH} characters, including empty ones.
+     *
+     * @param representation the representation of the enum value.
+     * @return the packed key or {@link #NOT_PACKABLE} if it's too long or not ascii.
+     */
+    static long packedKey(final String representation)
+    {
+        final int length = representation.length();
+        if (length > MAX_PACKED_LENGTH)
+        {
+            return NOT_PACKABLE;
+        }
+
+        long key = length;
+        for (int i = 0; i < length; i++)
+        {
+            final char character = representation.charAt(i);
+            if (character > 0x7F)
+            {
+                return NOT_PACKABLE;
+            }
+            key = (key << 7) | character;
+        }
+
+        return key;
+    }
+
+    static int perfectHash(final long key, final long multiplier)
+    {
+        return (int)((key * multiplier) >>> 32);
+    }
+
     private boolean hasGeneratedValueOf(final Type type)
     {
         switch (type)
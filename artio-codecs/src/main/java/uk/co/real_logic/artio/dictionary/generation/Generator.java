@@ -23,6 +23,7 @@ import uk.co.real_logic.artio.dictionary.CharArraySet;
 import uk.co.real_logic.artio.dictionary.StandardFixConstants;
 import uk.co.real_logic.artio.dictionary.ir.*;
 import uk.co.real_logic.artio.dictionary.ir.Entry.Element;
+import uk.co.real_logic.artio.dictionary.ir.Field.Type;
 import uk.co.real_logic.artio.fields.DecimalFloat;
 import uk.co.real_logic.artio.fields.LocalMktDateEncoder;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
@@ -51,7 +52,6 @@ public abstract class Generator
     public static final String BEGIN_STRING = "BeginString";
     public static final String BODY_LENGTH = "BodyLength";
 
-    public static final String EXPAND_INDENT = ".toString().replace(\"\\n\", \"\\n  \")";
     public static final String CODEC_VALIDATION_ENABLED = "CODEC_VALIDATION_ENABLED";
 
     protected String commonCompoundImports(final String form, final boolean headerWrapsTrailer)
@@ -83,6 +83,8 @@ public abstract class Generator
     protected final OutputManager outputManager;
     protected final Class<?> validationClass;
 
+    private Predicate<Aggregate> aggregateFilter = (aggregate) -> true;
+
     protected Generator(
         final Dictionary dictionary,
         final String builderPackage,
@@ -97,12 +99,34 @@ public abstract class Generator
         this.validationClass = validationClass;
     }
 
+    /**
+     * Restrict generation to the header, trailer, components and messages that match a filter. By default every
+     * aggregate is generated. This lets generation be split up between several generators or skip aggregates whose
+     * files are already up to date.
+     *
+     * @param aggregateFilter the filter that selects which aggregates to generate files for.
+     * @return this
+     */
+    public Generator aggregateFilter(final Predicate<Aggregate> aggregateFilter)
+    {
+        this.aggregateFilter = aggregateFilter;
+        return this;
+    }
+
     public void generate()
     {
-        generateAggregateFile(dictionary.header(), AggregateType.HEADER);
-        generateAggregateFile(dictionary.trailer(), AggregateType.TRAILER);
-        dictionary.components().forEach((name, component) -> generateAggregateFile(component, COMPONENT));
-        dictionary.messages().forEach((msg) -> generateAggregateFile(msg, MESSAGE));
+        generateSelectedAggregateFile(dictionary.header(), AggregateType.HEADER);
+        generateSelectedAggregateFile(dictionary.trailer(), AggregateType.TRAILER);
+        dictionary.components().forEach((name, component) -> generateSelectedAggregateFile(component, COMPONENT));
+        dictionary.messages().forEach((msg) -> generateSelectedAggregateFile(msg, MESSAGE));
+    }
+
+    private void generateSelectedAggregateFile(final Aggregate aggregate, final AggregateType type)
+    {
+        if (aggregateFilter.test(aggregate))
+        {
+            generateAggregateFile(aggregate, type);
+        }
     }
 
     protected abstract void generateAggregateFile(Aggregate aggregate, AggregateType type);
@@ -453,56 +477,86 @@ public abstract class Generator
 
     protected String toString(final Aggregate aggregate, final boolean hasCommonCompounds)
     {
-        final String entriesToString = aggregate
+        final String entriesAppendTo = aggregate
             .entries()
             .stream()
-            .map(this::entryToString)
-            .collect(joining(" + \n"));
+            .map(this::entryAppendTo)
+            .collect(joining());
 
-        final String prefix = !hasCommonCompounds ?
-            "" : "\"  \\\"header\\\": \" + header" + EXPAND_INDENT + " + \"\\n\" + ";
+        final String prefix = !hasCommonCompounds ? "" :
+            "        indent(builder, level);\n" +
+            "        builder.append(\"\\\"header\\\": \");\n" +
+            "        header.appendTo(builder, level + 1);\n" +
+            "        builder.append(\"\\n\");\n";
 
         final String suffix;
         final String parameters;
+        final String arguments;
         if (aggregate instanceof Group)
         {
             suffix = toStringGroupSuffix();
-
             parameters = toStringGroupParameters();
+            arguments = toStringGroupArguments();
         }
         else
         {
             suffix = "";
             parameters = "";
+            arguments = "";
         }
 
+        // Groups that need extra parameters can't have a single argument appendTo without it clashing with the
+        // appendTo that takes the level
+        final String appendToWithoutLevel = !parameters.isEmpty() ? "" :
+            "    public StringBuilder appendTo(final StringBuilder builder)\n" +
+            "    {\n" +
+            "        return appendTo(builder, 1);\n" +
+            "    }\n\n";
+
         return String.format(
             "    public String toString(%5$s)\n" +
             "    {\n" +
-            "        String entries = %1$s\n" +
-            "%2$s;\n\n" +
-            "        entries = \"{\\n  \\\"MessageName\\\": \\\"%4$s\\\",\\n\" + entries + \"}\";\n" +
+            "        return appendTo(new StringBuilder(), 1%7$s).toString();\n" +
+            "    }\n\n" +
+            "%8$s" +
+            "    public StringBuilder appendTo(final StringBuilder builder, final int level%6$s)\n" +
+            "    {\n" +
+            "        builder.append(\"{\\n\");\n" +
+            "        indent(builder, level);\n" +
+            "        builder.append(\"\\\"MessageName\\\": \\\"%4$s\\\",\\n\");\n" +
+            "%1$s" +
+            "%2$s" +
+            "        indent(builder, level - 1);\n" +
+            "        builder.append(\"}\");\n" +
             "%3$s" +
-            "        return entries;\n" +
+            "        return builder;\n" +
             "    }\n\n",
             prefix,
-            entriesToString,
+            entriesAppendTo,
             suffix,
             aggregate.name(),
-            parameters);
+            parameters,
+            parameters.isEmpty() ? "" : ", " + parameters,
+            arguments.isEmpty() ? "" : ", " + arguments,
+            appendToWithoutLevel);
     }
 
     protected abstract String toStringGroupParameters();
 
+    protected abstract String toStringGroupArguments();
+
     protected abstract String toStringGroupSuffix();
 
-    protected String entryToString(final Entry entry)
+    protected String entryAppendTo(final Entry entry)
     {
-        //"  \"OnBehalfOfCompID\": \"abc\",\n" +
+        //  indent(builder, level);
+        //  builder.append("\"OnBehalfOfCompID\": \"");
+        //  builder.append(onBehalfOfCompID, 0, onBehalfOfCompIDLength);
+        //  builder.append("\",\n");
 
         if (isBodyLength(entry))
         {
-            return "\"\"";
+            return "";
         }
 
         final Element element = entry.element();
@@ -510,32 +564,63 @@ public abstract class Generator
         if (element instanceof Field)
         {
             final Field field = (Field)element;
-            final String value = fieldToString(field);
 
-            final String formatter = String.format(
-                "String.format(\"  \\\"%s\\\": \\\"%%s\\\",\\n\", %s)",
+            final String appendField = String.format(
+                "        indent(builder, level);\n" +
+                "        builder.append(\"\\\"%1$s\\\": \\\"\");\n" +
+                "        %2$s;\n" +
+                "        builder.append(\"\\\",\\n\");\n",
                 name,
-                value);
+                fieldAppendTo(field));
 
             final boolean hasFlag = toStringChecksHasGetter(entry, field);
-            return "             " +
-                (hasFlag ? String.format("(has%s() ? %s : \"\")", name, formatter) : formatter);
+            return hasFlag ? optionalAppendTo(String.format("has%s()", name), appendField) : appendField;
         }
         else if (element instanceof Group)
         {
-            return groupEntryToString((Group)element, name);
+            return groupEntryAppendTo((Group)element, name);
         }
         else if (element instanceof Component)
         {
-            return componentToString((Component)element);
+            return componentAppendTo((Component)element);
         }
 
-        return "\"\"";
+        return "";
+    }
+
+    protected String optionalAppendTo(final String condition, final String statements)
+    {
+        final String indentedStatements = Arrays
+            .stream(statements.split("\n"))
+            .map((line) -> "    " + line + "\n")
+            .collect(joining());
+
+        return String.format(
+            "        if (%s)\n" +
+            "        {\n" +
+            "%s" +
+            "        }\n",
+            condition,
+            indentedStatements);
     }
 
     protected abstract boolean toStringChecksHasGetter(Entry entry, Field field);
 
-    protected abstract String groupEntryToString(Group element, String name);
+    protected abstract String groupEntryAppendTo(Group element, String name);
+
+    protected String groupAppendTo(final String name, final String appendGroup)
+    {
+        return String.format(
+            "        indent(builder, level);\n" +
+            "        builder.append(\"\\\"%1$s\\\": [\\n\");\n" +
+            "        indent(builder, level);\n" +
+            "        %2$s;\n" +
+            "        builder.append(\"\\n\");\n" +
+            "        indent(builder, level);\n" +
+            "        builder.append(\"]\\n\");\n",
+            name,
+            appendGroup);
+    }
 
     protected abstract boolean hasFlag(Entry entry, Field field);
 
@@ -549,12 +634,13 @@ public abstract class Generator
             name);
     }
 
-    protected abstract String componentToString(Component component);
+    protected abstract String componentAppendTo(Component component);
 
-    protected String fieldToString(final Field field)
+    protected String fieldAppendTo(final Field field)
     {
         final String fieldName = formatPropertyName(field.name());
-        switch (field.type())
+        final Type type = field.type();
+        switch (type)
         {
             case STRING:
             case MULTIPLEVALUESTRING:
@@ -571,14 +657,16 @@ public abstract class Generator
             case MONTHYEAR:
             case TZTIMEONLY:
             case TZTIMESTAMP:
-                return stringToString(fieldName);
+                return stringAppendTo(type, fieldName);
 
             case DATA:
             case XMLDATA:
-                return String.format("Arrays.toString(%s)", fieldName);
+                return String.format("appendData(builder, %s)", fieldName);
 
             default:
-                return fieldName;
+                return type.isFloatBased() ?
+                    String.format("%s.appendTo(builder)", fieldName) :
+                    String.format("builder.append(%s)", fieldName);
         }
     }
 
@@ -607,7 +695,7 @@ public abstract class Generator
         return BODY_LENGTH.equals(name);
     }
 
-    protected abstract String stringToString(String fieldName);
+    protected abstract String stringAppendTo(Type type, String fieldName);
 
     protected String indent(final int times, final String suffix)
     {
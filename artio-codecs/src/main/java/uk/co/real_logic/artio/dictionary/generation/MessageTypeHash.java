@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import java.util.Arrays;
+
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
+
+/**
+ * Finds a collision free multiplicative hash, ie <code>(key * multiplier) &gt;&gt;&gt; shift</code>, over a set of
+ * packed message types, so that generated code can dispatch on message type with a single table lookup.
+ */
+final class MessageTypeHash
+{
+    static final int NO_INDEX = -1;
+
+    private static final int MIN_TABLE_SIZE = 2;
+    private static final int MAX_TABLE_SIZE = 1 << 16;
+    private static final int ATTEMPTS_PER_TABLE_SIZE = 10_000;
+    private static final int INITIAL_MULTIPLIER = 0x9E3779B9;
+
+    private final int multiplier;
+    private final int shift;
+    private final int[] slotKeys;
+    private final int[] slotIndices;
+
+    private MessageTypeHash(final int multiplier, final int shift, final int[] slotKeys, final int[] slotIndices)
+    {
+        this.multiplier = multiplier;
+        this.shift = shift;
+        this.slotKeys = slotKeys;
+        this.slotIndices = slotIndices;
+    }
+
+    static MessageTypeHash of(final int[] keys)
+    {
+        for (int tableSize = findNextPositivePowerOfTwo(Math.max(MIN_TABLE_SIZE, keys.length * 2));
+            tableSize <= MAX_TABLE_SIZE;
+            tableSize <<= 1)
+        {
+            final int shift = Integer.SIZE - Integer.numberOfTrailingZeros(tableSize);
+            final int[] slotIndices = new int[tableSize];
+            int multiplier = INITIAL_MULTIPLIER;
+            for (int attempt = 0; attempt < ATTEMPTS_PER_TABLE_SIZE; attempt++)
+            {
+                if (fill(keys, multiplier, shift, slotIndices))
+                {
+                    final int[] slotKeys = new int[tableSize];
+                    for (int slot = 0; slot < tableSize; slot++)
+                    {
+                        final int index = slotIndices[slot];
+                        slotKeys[slot] = index == NO_INDEX ? 0 : keys[index];
+                    }
+
+                    return new MessageTypeHash(multiplier, shift, slotKeys, slotIndices);
+                }
+
+                // Step through odd multipliers using a Weyl sequence.
+                multiplier += 0x6A09E666;
+                multiplier |= 1;
+            }
+        }
+
+        throw new IllegalStateException("Unable to find a perfect hash for message types: " + Arrays.toString(keys));
+    }
+
+    private static boolean fill(final int[] keys, final int multiplier, final int shift, final int[] slotIndices)
+    {
+        Arrays.fill(slotIndices, NO_INDEX);
+        for (int index = 0; index < keys.length; index++)
+        {
+            final int slot = slot(keys[index], multiplier, shift);
+            if (slotIndices[slot] != NO_INDEX)
+            {
+                return false;
+            }
+            slotIndices[slot] = index;
+        }
+
+        return true;
+    }
+
+    static int slot(final int key, final int multiplier, final int shift)
+    {
+        return (key * multiplier) >>> shift;
+    }
+
+    int multiplier()
+    {
+        return multiplier;
+    }
+
+    int shift()
+    {
+        return shift;
+    }
+
+    /**
+     * Get the key stored in each slot of the table, or 0 for an empty slot.
+     *
+     * @return the key stored in each slot of the table.
+     */
+    int[] slotKeys()
+    {
+        return slotKeys;
+    }
+
+    /**
+     * Get the index into the original keys of each slot of the table, or {@link #NO_INDEX} for an empty slot.
+     *
+     * @return the index into the original keys of each slot of the table.
+     */
+    int[] slotIndices()
+    {
+        return slotIndices;
+    }
+}
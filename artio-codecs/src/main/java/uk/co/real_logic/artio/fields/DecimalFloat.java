@@ -15,8 +15,6 @@
  */
 package uk.co.real_logic.artio.fields;
 
-import java.util.Arrays;
-
 /**
  * Fix float data type. Floats are used for a variety of things, including price.
  * <p>
@@ -125,36 +123,48 @@ public final class DecimalFloat implements Comparable<DecimalFloat>
 
     public String toString()
     {
-        String value = String.valueOf(this.value);
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the same representation as {@link #toString()} without allocating intermediate strings.
+     *
+     * @param builder the builder to append to.
+     * @return the builder.
+     */
+    public StringBuilder appendTo(final StringBuilder builder)
+    {
+        final long value = this.value;
+        final int start = builder.length();
+        builder.append(value);
         if (scale > 0)
         {
-            final boolean isNegative = this.value < 0;
-            final int split = value.length() - scale;
+            final boolean isNegative = value < 0;
+            final int split = builder.length() - start - scale;
             final int splitWithNegative = split - (isNegative ? 1 : 0);
             if (splitWithNegative < 0)
             {
                 // We have to add extra zeros between the start or '-' and the First Digit.
-                final StringBuilder builder = new StringBuilder();
-
+                builder.setLength(start);
                 if (isNegative)
                 {
-                    value = String.valueOf(-this.value());
                     builder.append('-');
                 }
 
-                final char[] zeros = new char[-splitWithNegative];
-                Arrays.fill(zeros, '0');
-                return builder
-                    .append('.')
-                    .append(zeros)
-                    .append(value).toString();
+                builder.append('.');
+                for (int i = splitWithNegative; i < 0; i++)
+                {
+                    builder.append('0');
+                }
+                builder.append(isNegative ? -value : value);
+            }
+            else
+            {
+                builder.insert(start + split, '.');
             }
-            return value.substring(0, split) + "." + value.substring(split);
-        }
-        else
-        {
-            return value;
         }
+
+        return builder;
     }
 
     public int compareTo(final DecimalFloat other)
@@ -21,13 +21,22 @@ import uk.co.real_logic.artio.fields.*;
 
 import java.nio.ByteBuffer;
 
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
 
 public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffer
 {
     private static final byte ZERO = '0';
     private static final byte DOT = (byte)'.';
     private static final byte SPACE = ' ';
+    private static final int NO_DOT = -1;
+
+    private static final long EIGHT_ZEROS = 0x3030303030303030L;
+    private static final long HIGH_NIBBLES = 0xF0F0F0F0F0F0F0F0L;
+    private static final long EIGHT_THREES = 0x3333333333333333L;
+    private static final long EIGHT_SIXES = 0x0606060606060606L;
+    private static final int EIGHT_DIGITS_MULTIPLIER = 100_000_000;
 
     private static final byte Y = (byte)'Y';
     private static final byte N = (byte)'N';
@@ -45,6 +54,14 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
         999999999_999999999L, Long.MAX_VALUE
     };
 
+    private static final long[] LONG_POWERS_OF_TEN =
+    {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+        10_000000000L, 100_000000000L, 1000_000000000L, 10000_000000000L, 100000_000000000L,
+        1000000_000000000L, 10000000_000000000L, 100000000_000000000L, 1000000000_000000000L
+    };
+    private static final int MAX_LONG_POWER_OF_TEN = LONG_POWERS_OF_TEN.length - 1;
+
     private static final byte[] MIN_INTEGER_VALUE = String.valueOf(Integer.MIN_VALUE).getBytes(US_ASCII);
     private static final byte[] MIN_LONG_VALUE = String.valueOf(Long.MIN_VALUE).getBytes(US_ASCII);
 
@@ -91,9 +108,23 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
     public int getNatural(final int startInclusive, final int endExclusive)
     {
         int tally = 0;
-        for (int index = startInclusive; index < endExclusive; index++)
+        int index = startInclusive;
+        while (endExclusive - index >= SIZE_OF_LONG)
+        {
+            final long word = getLong(index, LITTLE_ENDIAN);
+            if (!isEightDigits(word))
+            {
+                break;
+            }
+
+            tally = (tally * EIGHT_DIGITS_MULTIPLIER) + (int)eightDigitsValue(word);
+            index += SIZE_OF_LONG;
+        }
+
+        while (index < endExclusive)
         {
             tally = (tally * 10) + getDigit(index);
+            index++;
         }
 
         return tally;
@@ -102,9 +133,23 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
     public long getNaturalLong(final int startInclusive, final int endExclusive)
     {
         long tally = 0;
-        for (int index = startInclusive; index < endExclusive; index++)
+        int index = startInclusive;
+        while (endExclusive - index >= SIZE_OF_LONG)
+        {
+            final long word = getLong(index, LITTLE_ENDIAN);
+            if (!isEightDigits(word))
+            {
+                break;
+            }
+
+            tally = (tally * EIGHT_DIGITS_MULTIPLIER) + eightDigitsValue(word);
+            index += SIZE_OF_LONG;
+        }
+
+        while (index < endExclusive)
         {
             tally = (tally * 10) + getDigit(index);
+            index++;
         }
 
         return tally;
@@ -119,11 +164,7 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
             startInclusive++;
         }
 
-        int tally = 0;
-        for (int index = startInclusive; index < endExclusive; index++)
-        {
-            tally = (tally * 10) + getDigit(index);
-        }
+        int tally = getNatural(startInclusive, endExclusive);
 
         if (first == NEGATIVE)
         {
@@ -212,34 +253,15 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
     @SuppressWarnings("FinalParameters")
     public DecimalFloat getFloat(final DecimalFloat number, int offset, int length)
     {
-        // Throw away trailing spaces or zeros
+        final int startOffset = offset;
+
+        // Throw away trailing spaces
         int end = offset + length;
         for (int index = end - 1; isSpace(index) && index > offset; index--)
         {
             end--;
         }
 
-        int endDiff = 0;
-        for (int index = end - 1; isZero(index) && index > offset; index--)
-        {
-            endDiff++;
-        }
-
-        boolean isFloatingPoint = false;
-        for (int index = end - endDiff - 1; index > offset; index--)
-        {
-            if (getByte(index) == DOT)
-            {
-                isFloatingPoint = true;
-                break;
-            }
-        }
-
-        if (isFloatingPoint)
-        {
-            end -= endDiff;
-        }
-
         // Throw away leading spaces
         for (int index = offset; isSpace(index) && index < end; index++)
         {
@@ -253,29 +275,71 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
             offset++;
         }
 
-        // Throw away leading zeros
-        for (int index = offset; isZero(index) && index < end; index++)
-        {
-            offset++;
-        }
-
-        int scale = 0;
+        // Single pass over the digits: runs of zeros are held back until a significant digit follows them
+        // so that trailing zeros after the decimal point can be dropped without scanning the field twice.
         long value = 0;
-        for (int index = offset; index < end; index++)
+        int pendingZeros = 0;
+        int dotIndex = NO_DOT;
+        int index = offset;
+        while (index < end)
         {
-            final byte byteValue = getByte(index);
-            if (byteValue == DOT)
+            final long word = end - index >= SIZE_OF_LONG ? getLong(index, LITTLE_ENDIAN) : 0;
+            if (isEightDigits(word))
             {
-                // number of digits after the dot
-                scale = end - (index + 1);
+                final long digits = word - EIGHT_ZEROS;
+                if (digits == 0)
+                {
+                    pendingZeros += SIZE_OF_LONG;
+                }
+                else
+                {
+                    // Little endian load, so the last character is in the most significant byte
+                    final int wordTrailingZeros = Long.numberOfLeadingZeros(digits) >>> 3;
+                    final int significantDigits = SIZE_OF_LONG - wordTrailingZeros;
+                    value = timesPowerOfTen(value, pendingZeros + significantDigits) +
+                        eightDigitsValue(digits << (wordTrailingZeros << 3));
+                    pendingZeros = wordTrailingZeros;
+                }
+
+                index += SIZE_OF_LONG;
             }
             else
             {
-                final int digit = getDigit(index, byteValue);
-                value = value * 10 + digit;
+                final byte byteValue = getByte(index);
+                if (byteValue == DOT)
+                {
+                    value = timesPowerOfTen(value, pendingZeros);
+                    pendingZeros = 0;
+                    dotIndex = index;
+                }
+                else if (byteValue == ZERO)
+                {
+                    pendingZeros++;
+                }
+                else
+                {
+                    final int digit = getDigit(index, byteValue);
+                    value = timesPowerOfTen(value, pendingZeros + 1) + digit;
+                    pendingZeros = 0;
+                }
+
+                index++;
             }
         }
 
+        final int scale;
+        if (dotIndex > startOffset)
+        {
+            // Trailing zeros after the decimal point aren't significant
+            scale = (end - pendingZeros) - (dotIndex + 1);
+        }
+        else
+        {
+            value = timesPowerOfTen(value, pendingZeros);
+            // number of digits after the dot
+            scale = dotIndex == NO_DOT ? 0 : end - (dotIndex + 1);
+        }
+
         number.value(negative ? -1 * value : value);
         number.scale(scale);
         return number;
@@ -286,9 +350,38 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
         return getByte(index) == SPACE;
     }
 
-    private boolean isZero(final int index)
+    private static boolean isEightDigits(final long word)
     {
-        return getByte(index) == ZERO;
+        return ((word & HIGH_NIBBLES) | (((word + EIGHT_SIXES) & HIGH_NIBBLES) >>> 4)) == EIGHT_THREES;
+    }
+
+    /**
+     * Converts eight digits loaded little endian, ie the first character in the least significant byte, into their
+     * value by combining adjacent pairs of digits, then pairs of pairs and finally pairs of quads.
+     *
+     * @param word eight ascii digits or eight digit values from 0 to 9.
+     * @return the value of the eight digits.
+     */
+    private static long eightDigitsValue(final long word)
+    {
+        long value = word & 0x0F0F0F0F0F0F0F0FL;
+        value = (value * (1 + (10 << 8))) >>> 8;
+        value = ((value & 0x00FF00FF00FF00FFL) * (1 + (100 << 16))) >>> 16;
+        return ((value & 0x0000FFFF0000FFFFL) * (1 + (10000L << 32))) >>> 32;
+    }
+
+    // Multiplies in steps rather than via a wider table so that overflow wraps exactly as digit by digit would.
+    private static long timesPowerOfTen(final long value, final int exponent)
+    {
+        long result = value;
+        int remaining = exponent;
+        while (remaining > MAX_LONG_POWER_OF_TEN)
+        {
+            result *= LONG_POWERS_OF_TEN[MAX_LONG_POWER_OF_TEN];
+            remaining -= MAX_LONG_POWER_OF_TEN;
+        }
+
+        return result * LONG_POWERS_OF_TEN[remaining];
     }
 
     public int getLocalMktDate(final int offset, final int length)
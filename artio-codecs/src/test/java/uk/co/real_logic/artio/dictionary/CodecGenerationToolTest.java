@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary;
+
+import org.agrona.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.dictionary.generation.CodecFingerprints;
+import uk.co.real_logic.artio.dictionary.ir.Dictionary;
+import uk.co.real_logic.artio.dictionary.ir.Field;
+import uk.co.real_logic.artio.dictionary.ir.Message;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.DECODER_PACKAGE;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.ENCODER_PACKAGE;
+
+public class CodecGenerationToolTest
+{
+    private static final long OLD_TIMESTAMP = 0;
+    private static final int PARALLELISM = 4;
+
+    private File outputDirectory;
+    private File otherOutputDirectory;
+    private Dictionary dictionary;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        outputDirectory = Files.createTempDirectory("codecs").toFile();
+        otherOutputDirectory = Files.createTempDirectory("codecs").toFile();
+        dictionary = new DictionaryParser().parse(
+            CodecGenerationToolTest.class.getResourceAsStream("example_dictionary.xml"), null);
+    }
+
+    @After
+    public void tearDown()
+    {
+        IoUtil.delete(outputDirectory, true);
+        IoUtil.delete(otherOutputDirectory, true);
+    }
+
+    @Test
+    public void shouldGenerateTheSameCodecsInParallel() throws Exception
+    {
+        CodecGenerationTool.generate(dictionary, outputDirectory.getPath(), false, 1);
+        CodecGenerationTool.generate(dictionary, otherOutputDirectory.getPath(), false, PARALLELISM);
+
+        final List<Path> files = javaFiles(outputDirectory);
+        assertFalse(files.isEmpty());
+        assertEquals(files, javaFiles(otherOutputDirectory));
+        for (final Path file : files)
+        {
+            assertArrayEquals(
+                file.toString(),
+                Files.readAllBytes(outputDirectory.toPath().resolve(file)),
+                Files.readAllBytes(otherOutputDirectory.toPath().resolve(file)));
+        }
+    }
+
+    @Test
+    public void shouldOnlyRegenerateChangedAggregatesIncrementally() throws Exception
+    {
+        generateIncrementally();
+        assertTrue(new File(outputDirectory, CodecFingerprints.FILE_NAME).exists());
+
+        final Message message = dictionary.messages().get(0);
+        final File encoder = codec(ENCODER_PACKAGE, message.name() + "Encoder");
+        final File decoder = codec(DECODER_PACKAGE, message.name() + "Decoder");
+        final File headerDecoder = codec(DECODER_PACKAGE, "HeaderDecoder");
+        makeOld(encoder, decoder, headerDecoder);
+
+        generateIncrementally();
+        assertEquals(OLD_TIMESTAMP, encoder.lastModified());
+        assertEquals(OLD_TIMESTAMP, decoder.lastModified());
+
+        message.optionalEntry(new Field(9999, "AddedField", Field.Type.INT));
+        generateIncrementally();
+        assertNotEquals(OLD_TIMESTAMP, encoder.lastModified());
+        assertNotEquals(OLD_TIMESTAMP, decoder.lastModified());
+        assertEquals(OLD_TIMESTAMP, headerDecoder.lastModified());
+    }
+
+    @Test
+    public void shouldRegenerateDeletedCodecsIncrementally() throws Exception
+    {
+        generateIncrementally();
+
+        final File decoder = codec(DECODER_PACKAGE, "HeaderDecoder");
+        assertTrue(decoder.delete());
+
+        generateIncrementally();
+        assertTrue(decoder.exists());
+    }
+
+    @Test
+    public void shouldRemoveCodecsOfRemovedMessagesIncrementally() throws Exception
+    {
+        generateIncrementally();
+
+        final Message message = dictionary.messages().remove(dictionary.messages().size() - 1);
+        final File encoder = codec(ENCODER_PACKAGE, message.name() + "Encoder");
+        assertTrue(encoder.exists());
+
+        generateIncrementally();
+        assertFalse(encoder.exists());
+    }
+
+    private void generateIncrementally() throws Exception
+    {
+        CodecGenerationTool.generate(dictionary, outputDirectory.getPath(), true, PARALLELISM);
+    }
+
+    private File codec(final String packageName, final String className)
+    {
+        final File file = new File(
+            outputDirectory, packageName.replace('.', File.separatorChar) + File.separator + className + ".java");
+        assertTrue(file + " wasn't generated", file.exists());
+        return file;
+    }
+
+    private static void makeOld(final File... files)
+    {
+        for (final File file : files)
+        {
+            assertTrue(file.setLastModified(OLD_TIMESTAMP));
+        }
+    }
+
+    private static List<Path> javaFiles(final File directory) throws IOException
+    {
+        final Path root = directory.toPath();
+        try (Stream<Path> paths = Files.walk(root))
+        {
+            return paths
+                .filter((path) -> path.toString().endsWith(".java"))
+                .map(root::relativize)
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+}
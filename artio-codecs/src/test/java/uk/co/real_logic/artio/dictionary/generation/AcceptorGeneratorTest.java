@@ -110,11 +110,33 @@ public class AcceptorGeneratorTest
         assertTrue("Proxy not invoked", called[0]);
     }
 
+    @Test
+    public void shouldIgnoreMessageTypesOutsideOfTheDictionary() throws Exception
+    {
+        final Object acceptorInst = Proxy.newProxyInstance(
+            acceptor.getClassLoader(),
+            new Class<?>[]{AcceptorGeneratorTest.acceptor},
+            (proxy, method, args) ->
+            {
+                fail("Unexpected callback: " + method.getName());
+                return null;
+            });
+
+        final Object decoderInst = decoder.getDeclaredConstructor(acceptor).newInstance(acceptorInst);
+
+        onMessage(decoderInst, 'X');
+    }
+
     private void onMessage(final Object inst) throws Exception
+    {
+        onMessage(inst, '0');
+    }
+
+    private void onMessage(final Object inst, final int messageType) throws Exception
     {
         buffer.putAscii(1, ENCODED_MESSAGE);
         decoder.getMethod(ON_MESSAGE, AsciiBuffer.class, int.class, int.class, int.class)
-               .invoke(inst, buffer, 1, ENCODED_MESSAGE.length(), '0');
+               .invoke(inst, buffer, 1, ENCODED_MESSAGE.length(), messageType);
     }
 
 }
@@ -17,6 +17,8 @@ package uk.co.real_logic.artio.dictionary.generation;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -61,4 +63,14 @@ public class CodecUtilTest
         final int secondHash = CodecUtil.hashCode("abczyx".toCharArray(), 3, 3);
         assertEquals(firstHash, secondHash);
     }
+
+    @Test
+    public void shouldAppendDataInTheSameFormatAsArraysToString()
+    {
+        final byte[] data = {49, 50, -1};
+
+        assertEquals(Arrays.toString(data), CodecUtil.appendData(new StringBuilder(), data).toString());
+        assertEquals(Arrays.toString(new byte[0]), CodecUtil.appendData(new StringBuilder(), new byte[0]).toString());
+        assertEquals("null", CodecUtil.appendData(new StringBuilder(), null).toString());
+    }
 }
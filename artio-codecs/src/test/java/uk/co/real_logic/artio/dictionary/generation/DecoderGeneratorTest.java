@@ -341,6 +341,16 @@ public class DecoderGeneratorTest
         assertThat(decoder.toString(), containsString(STRING_ENCODED_MESSAGE_EXAMPLE));
     }
 
+    @Test
+    public void shouldAppendTheSameRepresentationAsToString() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(ENCODED_MESSAGE);
+        final StringBuilder builder = new StringBuilder("prefix:");
+
+        assertSame(builder, decoder.appendTo(builder));
+        assertEquals("prefix:" + decoder.toString(), builder.toString());
+    }
+
     @Test
     public void shouldDecodeShorterStringsAfterLongerStrings() throws Exception
     {
@@ -491,6 +501,32 @@ public class DecoderGeneratorTest
         assertEquals("Wrong reject reason", REQUIRED_TAG_MISSING, decoder.rejectReason());
     }
 
+    @Test
+    public void shouldValidateMissingRequiredFieldsWhenDecoderIsReused() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(ENCODED_MESSAGE);
+        assertValid(decoder);
+
+        decoder.reset();
+        decode(MISSING_REQUIRED_FIELDS_MESSAGE, decoder);
+
+        assertFalse("Passed validation with missing fields", decoder.validate());
+        assertEquals("Wrong tag id", 116, decoder.invalidTagId());
+        assertEquals("Wrong reject reason", REQUIRED_TAG_MISSING, decoder.rejectReason());
+    }
+
+    @Test
+    public void shouldValidateTagsAppearingMoreThanOnceWhenDecoderIsReused() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(TAG_APPEARS_MORE_THAN_ONCE_MESSAGE);
+        assertInvalid(decoder);
+
+        decoder.reset();
+        decode(ENCODED_MESSAGE, decoder);
+
+        assertValid(decoder);
+    }
+
     @Test
     public void shouldValidateMissingRequiredFieldsInRepeatingGroup() throws Exception
     {
@@ -653,6 +689,18 @@ public class DecoderGeneratorTest
         assertEquals("19700101-00:00:00", someTimeFieldAsString);
     }
 
+    @Test
+    public void shouldAppendTimestampFields() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(SHORT_TIMESTAMP_MESSAGE);
+        final StringBuilder builder = new StringBuilder();
+
+        decoder.appendTo(builder);
+
+        assertThat(builder.toString(), containsString("\"SomeTimeField\": \"19700101-00:00:00\""));
+        assertEquals(decoder.toString(), builder.toString());
+    }
+
     @Test
     public void shouldGenerateIteratorForRepeatingGroups() throws Exception
     {
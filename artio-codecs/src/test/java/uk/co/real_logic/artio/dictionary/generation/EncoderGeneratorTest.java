@@ -595,6 +595,19 @@ public class EncoderGeneratorTest
         assertThat(encoder.toString(), containsString(COMPONENT_TO_STRING));
     }
 
+    @Test
+    public void shouldAppendTheSameRepresentationAsToString() throws Exception
+    {
+        final Encoder encoder = (Encoder)heartbeat.getConstructor().newInstance();
+        setRequiredFields(encoder);
+        setOptionalFields(encoder);
+        setupComponent(encoder);
+        final StringBuilder builder = new StringBuilder("prefix:");
+
+        assertSame(builder, encoder.appendTo(builder));
+        assertEquals("prefix:" + encoder.toString(), builder.toString());
+    }
+
     @Test
     public void shouldGenerateHasMethodsForFields() throws Exception
     {
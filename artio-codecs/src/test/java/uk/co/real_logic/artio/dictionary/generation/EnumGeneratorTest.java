@@ -16,18 +16,27 @@
 package uk.co.real_logic.artio.dictionary.generation;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
 
 import org.agrona.generation.CompilerUtil;
 import org.agrona.generation.StringWriterOutputManager;
 import org.junit.Before;
 import org.junit.Test;
+import uk.co.real_logic.artio.dictionary.ir.Field.Type;
+import uk.co.real_logic.artio.dictionary.ir.Field.Value;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.hasKey;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -147,6 +156,67 @@ public class EnumGeneratorTest
         assertFalse((boolean)isValid.invoke(null, invalidArr, invalidArr.length));
     }
 
+    @Test
+    public void charArrayBasedDecodeRejectsUnknownValues() throws Exception
+    {
+        final Class<?> clazz = compile(STRING_ENUM);
+
+        final Method decode = clazz.getMethod("decode", char[].class, int.class);
+
+        assertNull(decode.invoke(null, "B".toCharArray(), 1));
+        assertNull(decode.invoke(null, "".toCharArray(), 0));
+        assertNull(decode.invoke(null, "\0A".toCharArray(), 2));
+        assertNull(decode.invoke(null, "\u0141".toCharArray(), 1));
+        assertNull(decode.invoke(null, "AAAAAAAAA".toCharArray(), 9));
+    }
+
+    @Test
+    public void generatesAsciiBufferBasedDecode() throws Exception
+    {
+        final Class<?> clazz = compile(STRING_ENUM);
+        final Enum[] values = (Enum[])clazz.getEnumConstants();
+
+        final Method decode = clazz.getMethod("decode", AsciiBuffer.class, int.class, int.class);
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer("0|A|AA|B|?".getBytes(US_ASCII));
+        buffer.putByte(9, (byte)0xC1);
+
+        assertEquals(values[0], decode.invoke(null, buffer, 0, 1));
+        assertEquals(values[1], decode.invoke(null, buffer, 2, 1));
+        assertEquals(values[2], decode.invoke(null, buffer, 4, 2));
+        assertNull(decode.invoke(null, buffer, 7, 1));
+        assertNull(decode.invoke(null, buffer, 9, 1));
+    }
+
+    @Test
+    public void findsPerfectHashesForShortAsciiValues()
+    {
+        final List<Value> values = Arrays.asList(
+            new Value("0", "_0"), new Value("A", "_A"), new Value("AA", "_AA"), new Value("ABCDEFGH", "_ABCDEFGH"));
+
+        final long multiplier = EnumGenerator.perfectHashMultiplier(values, Type.STRING);
+
+        assertNotEquals(0, multiplier);
+        assertNotEquals(
+            EnumGenerator.perfectHash(EnumGenerator.packedKey("A"), multiplier),
+            EnumGenerator.perfectHash(EnumGenerator.packedKey("AA"), multiplier));
+    }
+
+    @Test
+    public void fallsBackToMapLookupForLongValues()
+    {
+        final List<Value> values = Arrays.asList(new Value("A", "_A"), new Value("ABCDEFGHI", "_ABCDEFGHI"));
+
+        assertEquals(0, EnumGenerator.perfectHashMultiplier(values, Type.STRING));
+        assertEquals(EnumGenerator.NOT_PACKABLE, EnumGenerator.packedKey("ABCDEFGHI"));
+    }
+
+    @Test
+    public void packedKeysDistinguishLeadingNulls()
+    {
+        assertNotEquals(EnumGenerator.packedKey("A"), EnumGenerator.packedKey("\0A"));
+        assertNotEquals(EnumGenerator.packedKey(""), EnumGenerator.packedKey("\0"));
+    }
+
     private Method stringDecode(final Class<?> clazz) throws NoSuchMethodException
     {
         return clazz.getMethod("decode", String.class);
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.packMessageType;
+import static uk.co.real_logic.artio.dictionary.generation.MessageTypeHash.NO_INDEX;
+
+public class MessageTypeHashTest
+{
+    @Test
+    public void shouldMapEveryMessageTypeToItsOwnSlot()
+    {
+        final int[] keys = {
+            packMessageType("0"),
+            packMessageType("1"),
+            packMessageType("A"),
+            packMessageType("D"),
+            packMessageType("8"),
+            packMessageType("AE"),
+            packMessageType("BE"),
+            packMessageType("j"),
+        };
+
+        final MessageTypeHash hash = MessageTypeHash.of(keys);
+
+        int emptySlots = 0;
+        for (final int index : hash.slotIndices())
+        {
+            if (index == NO_INDEX)
+            {
+                emptySlots++;
+            }
+        }
+        assertEquals(hash.slotIndices().length - keys.length, emptySlots);
+
+        for (int i = 0; i < keys.length; i++)
+        {
+            final int slot = MessageTypeHash.slot(keys[i], hash.multiplier(), hash.shift());
+            assertEquals(i, hash.slotIndices()[slot]);
+            assertEquals(keys[i], hash.slotKeys()[slot]);
+        }
+    }
+
+    @Test
+    public void shouldHashEmptySetOfMessageTypes()
+    {
+        final MessageTypeHash hash = MessageTypeHash.of(new int[0]);
+
+        assertEquals(NO_INDEX, hash.slotIndices()[0]);
+    }
+}
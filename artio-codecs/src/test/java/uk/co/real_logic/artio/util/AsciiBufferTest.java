@@ -86,6 +86,34 @@ public class AsciiBufferTest
         assertEquals(145L, value);
     }
 
+    @Test
+    public void shouldGetIntegerValuesLongerThanEightDigits()
+    {
+        putAscii("1234567890");
+
+        value = buffer.getNatural(0, 10);
+
+        assertEquals(1234567890, value);
+    }
+
+    @Test
+    public void shouldGetLongValuesLongerThanEightDigits()
+    {
+        putAscii("1234567890123456789");
+
+        final long value = buffer.getNaturalLong(0, 19);
+
+        assertEquals(1234567890123456789L, value);
+    }
+
+    @Test(expected = AsciiEncodingException.class)
+    public void shouldValidateDigitsWithinLongValues()
+    {
+        putAscii("12345678901x345");
+
+        buffer.getNaturalLong(0, 15);
+    }
+
     @Test
     public void shouldDecodeSimpleMessageTypes()
     {
@@ -142,6 +170,16 @@ public class AsciiBufferTest
         assertEquals(-1, value);
     }
 
+    @Test
+    public void shouldDecodeNegativeIntegersLongerThanEightDigits()
+    {
+        putAscii("-123456789");
+
+        value = buffer.getInt(0, 10);
+
+        assertEquals(-123456789, value);
+    }
+
     private void putAscii(final String value)
     {
         buffer.putBytes(0, value.getBytes(US_ASCII));
@@ -53,6 +53,13 @@ public class DecimalFloatDecodingTest
             {"-.06", -6L, 2},
             {"10", 10L, 0},
             {"-10", -10L, 0},
+            {"1234.5678", 12345678L, 4},
+            {"0.00125000", 125L, 5},
+            {"123456789012", 123456789012L, 0},
+            {"-1234567.890123450", -123456789012345L, 8},
+            {"100000000", 100000000L, 0},
+            {"10000000.00000000", 10000000L, 0},
+            {"0.000000000000000001", 1L, 18},
         });
     }
 
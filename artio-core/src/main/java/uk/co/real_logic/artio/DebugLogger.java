@@ -291,6 +291,22 @@ public final class DebugLogger
         }
     }
 
+    public static void log(
+        final LogTag tag,
+        final String formatString,
+        final Object first,
+        final long second,
+        final long third,
+        final long fourth,
+        final long fifth,
+        final long sixth)
+    {
+        if (isEnabled(tag))
+        {
+            printf(tag, formatString, first, second, third, fourth, fifth, sixth);
+        }
+    }
+
     private static void printf(
         final LogTag tag,
         final String formatString,
@@ -27,6 +27,8 @@ public class FixCounters implements AutoCloseable
     private final AtomicCounter failedReplayPublications;
 
     private AtomicCounter failedRaftPublications = null;
+    private AtomicCounter receiverBufferBytesInUse = null;
+    private AtomicCounter receiverBufferBytesAllocated = null;
 
     FixCounters(final CountersManager countersManager)
     {
@@ -61,6 +63,41 @@ public class FixCounters implements AutoCloseable
         return failedRaftPublications;
     }
 
+    public AtomicCounter receiverBufferBytesInUse()
+    {
+        if (receiverBufferBytesInUse == null)
+        {
+            receiverBufferBytesInUse = countersManager.newCounter("Receiver buffer pool bytes in use");
+        }
+
+        return receiverBufferBytesInUse;
+    }
+
+    public AtomicCounter receiverBufferBytesAllocated()
+    {
+        if (receiverBufferBytesAllocated == null)
+        {
+            receiverBufferBytesAllocated = countersManager.newCounter("Receiver buffer pool bytes allocated");
+        }
+
+        return receiverBufferBytesAllocated;
+    }
+
+    public AtomicCounter receivedBytes(final int priorityClass)
+    {
+        return newCounter("Bytes received by receive priority class " + priorityClass);
+    }
+
+    public AtomicCounter deferredReads(final int priorityClass)
+    {
+        return newCounter("Reads deferred for receive priority class " + priorityClass);
+    }
+
+    public AtomicCounter durablePosition(final int streamId)
+    {
+        return newCounter("Archived durable position for stream " + streamId);
+    }
+
     public AtomicCounter messagesRead(final long connectionId, final String address)
     {
         return newCounter("Messages Read from " + address + " id = " + connectionId);
@@ -76,6 +113,11 @@ public class FixCounters implements AutoCloseable
         return newCounter("Invalid Library Attempts for " + address + " id = " + connectionId);
     }
 
+    public AtomicCounter throttledMessages(final long connectionId, final String address)
+    {
+        return newCounter("Throttled messages for " + address + " id = " + connectionId);
+    }
+
     public AtomicCounter sentMsgSeqNo(final long connectionId)
     {
         return newCounter("Last Sent MsgSeqNo for " + connectionId);
@@ -97,6 +139,8 @@ public class FixCounters implements AutoCloseable
         failedOutboundPublications.close();
         failedReplayPublications.close();
         CloseHelper.close(failedRaftPublications);
+        CloseHelper.close(receiverBufferBytesInUse);
+        CloseHelper.close(receiverBufferBytesAllocated);
     }
 
 }
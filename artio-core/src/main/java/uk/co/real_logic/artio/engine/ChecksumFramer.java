@@ -21,10 +21,19 @@ import org.agrona.concurrent.AtomicBuffer;
 import java.nio.ByteBuffer;
 import java.util.zip.CRC32;
 
-// TODO: optimisation: write and checksum only needed bytes
+/**
+ * Maintains a CRC32 checksum at the end of every sector of a buffer.
+ * <p>
+ * Writers mark the regions that they modify as dirty and {@link #updateChecksums()} only recalculates checksums
+ * for the sectors that have been dirtied since the last update, so the cost of an update is proportional to the
+ * amount of data written rather than the size of the buffer.
+ */
 public class ChecksumFramer extends SectorFramer
 {
     private final CRC32 crc32 = new CRC32();
+    private final long[] dirtySectors;
+    private final int sectorCount;
+    private boolean hasDirtySectors;
     private final AtomicBuffer buffer;
     private final ChecksumConsumer saveChecksumFunc;
     private final ErrorHandler errorHandler;
@@ -46,16 +55,68 @@ public class ChecksumFramer extends SectorFramer
         this.errorReportingOffset = errorReportingOffset;
         this.fileName = fileName;
         validateChecksumFunc = this::validateChecksum;
+        sectorCount = capacity / SECTOR_SIZE;
+        dirtySectors = new long[(sectorCount + (Long.SIZE - 1)) / Long.SIZE];
+    }
+
+    /**
+     * Mark a region of the buffer as modified, so that the checksums of the sectors it covers are recalculated
+     * on the next {@link #updateChecksums()}.
+     *
+     * @param offset the start of the modified region.
+     * @param length the length of the modified region.
+     */
+    public void markDirty(final int offset, final int length)
+    {
+        final int firstSector = offset / SECTOR_SIZE;
+        final int lastSector = Math.min((offset + length - 1) / SECTOR_SIZE, sectorCount - 1);
+        final long[] dirtySectors = this.dirtySectors;
+        for (int sector = firstSector; sector <= lastSector; sector++)
+        {
+            dirtySectors[sector >> 6] |= 1L << sector;
+            hasDirtySectors = true;
+        }
+    }
+
+    public void markAllDirty()
+    {
+        markDirty(0, capacity);
     }
 
     public void validateCheckSums()
     {
-        withChecksums(validateChecksumFunc);
+        for (int sector = 0; sector < sectorCount; sector++)
+        {
+            checksumSector(sector, validateChecksumFunc);
+        }
+        clearByteBuffer();
     }
 
+    /**
+     * Recalculate and save the checksums of every sector marked dirty since the last update.
+     */
     public void updateChecksums()
     {
-        withChecksums(saveChecksumFunc);
+        if (!hasDirtySectors)
+        {
+            return;
+        }
+
+        final long[] dirtySectors = this.dirtySectors;
+        for (int i = 0; i < dirtySectors.length; i++)
+        {
+            long word = dirtySectors[i];
+            while (word != 0)
+            {
+                final int sector = (i * Long.SIZE) + Long.numberOfTrailingZeros(word);
+                checksumSector(sector, saveChecksumFunc);
+                word &= word - 1;
+            }
+            dirtySectors[i] = 0;
+        }
+
+        hasDirtySectors = false;
+        clearByteBuffer();
     }
 
     private void validateChecksum(final int checksumOffset, final int calculatedChecksum)
@@ -66,32 +127,31 @@ public class ChecksumFramer extends SectorFramer
         validateCheckSum(fileName, start, end, savedChecksum, calculatedChecksum, errorHandler);
     }
 
-    private void withChecksums(final ChecksumConsumer consumer)
+    private void checksumSector(final int sector, final ChecksumConsumer consumer)
     {
         final byte[] inMemoryBytes = buffer.byteArray();
-        final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
-        final int capacity = this.capacity;
+        final int sectorStart = sector * SECTOR_SIZE;
+        final int checksumOffset = sectorStart + SECTOR_DATA_LENGTH;
 
-        for (int sectorEnd = SECTOR_SIZE; sectorEnd <= capacity; sectorEnd += SECTOR_SIZE)
+        crc32.reset();
+        if (inMemoryBytes != null)
         {
-            final int sectorStart = sectorEnd - SECTOR_SIZE;
-            final int checksumOffset = sectorEnd - CHECKSUM_SIZE;
-
-            crc32.reset();
-            if (inMemoryBytes != null)
-            {
-                crc32.update(inMemoryBytes, sectorStart, SECTOR_DATA_LENGTH);
-            }
-            else
-            {
-                ByteBufferUtil.limit(inMemoryByteBuffer, sectorStart + SECTOR_DATA_LENGTH);
-                ByteBufferUtil.position(inMemoryByteBuffer, sectorStart);
-                crc32.update(inMemoryByteBuffer);
-            }
-            final int sectorChecksum = (int)crc32.getValue();
-            consumer.accept(checksumOffset, sectorChecksum);
+            crc32.update(inMemoryBytes, sectorStart, SECTOR_DATA_LENGTH);
+        }
+        else
+        {
+            final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
+            ByteBufferUtil.limit(inMemoryByteBuffer, sectorStart + SECTOR_DATA_LENGTH);
+            ByteBufferUtil.position(inMemoryByteBuffer, sectorStart);
+            crc32.update(inMemoryByteBuffer);
         }
+        final int sectorChecksum = (int)crc32.getValue();
+        consumer.accept(checksumOffset, sectorChecksum);
+    }
 
+    private void clearByteBuffer()
+    {
+        final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
         if (inMemoryByteBuffer != null)
         {
             inMemoryByteBuffer.clear();
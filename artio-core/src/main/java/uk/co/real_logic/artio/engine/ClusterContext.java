@@ -66,7 +66,12 @@ class ClusterContext extends EngineContext
             StreamInformation.print("inboundPublication", inboundPublication, configuration);
             clusterAgent = node(configuration, fixCounters, aeron, channel, engineDescriptorStore);
             newStreams(clusterAgent.clusterStreams());
-            newIndexers(inboundArchiveReader(), outboundArchiveReader(), null);
+            newIndexers(
+                inboundArchiveReader(),
+                outboundArchiveReader(),
+                this::inboundArchiveReader,
+                this::outboundArchiveReader,
+                null);
 
             replayer = newReplayer(replayPublication, outboundArchiveReader());
 
@@ -85,22 +90,29 @@ class ClusterContext extends EngineContext
             StreamInformation.print("localOutboundSubscription", localOutboundSubscription, configuration);
             localOutboundArchiver.subscription(localOutboundSubscription);
 
+            final SessionWatermarkTracker watermarkTracker = new SessionWatermarkTracker(inboundLibraryPublication());
             final ClusterPositionSender positionSender = new ClusterPositionSender(
                 outboundLibrarySubscription("positionSender", null),
                 outboundClusterSubscription(),
                 inboundLibraryPublication(),
+                watermarkTracker,
                 configuration.agentNamePrefix());
 
             localOutboundArchiver.positionHandler(positionSender);
 
+            final DurablePositionSender durablePositionSender = new DurablePositionSender(
+                inboundLibraryPublication(), watermarkTracker, configuration.agentNamePrefix());
+            localOutboundArchiver.durablePositionHandler(durablePositionSender);
+
             archivingAgent = new CompositeAgent(
                 inboundIndexer,
                 outboundIndexer,
                 clusterAgent,
-                replayer,
                 localInboundArchiver,
                 localOutboundArchiver,
-                positionSender);
+                positionSender,
+                durablePositionSender);
+            replayAgent = replayer;
         }
         catch (final Exception e)
         {
@@ -133,6 +145,7 @@ class ClusterContext extends EngineContext
             .nodeId(configuration.nodeId())
             .otherNodes(configuration.otherNodes())
             .timeoutIntervalInMs(configuration.clusterTimeoutIntervalInMs())
+            .learner(configuration.clusterLearner())
             .idleStrategy(configuration.framerIdleStrategy())
             .archiver(archiver)
             .archiveReaderSupplier(() -> archiveReader(dataStream))
@@ -162,7 +175,7 @@ class ClusterContext extends EngineContext
 
     public ReplayQuery inboundReplayQuery()
     {
-        return newReplayQuery(inboundArchiveReader(), configuration.framerIdleStrategy());
+        return newReplayQuery(inboundArchiveReader(), configuration.archiverIdleStrategy());
     }
 
     public ClusterableStreams streams()
@@ -69,23 +69,26 @@ class ClusterPositionSender implements Agent, ArchivedPositionHandler
     private final ClusterFragmentHandler onClusterFragmentFunc = this::onClusterFragment;
     private final IntFunction<LibraryPositions> newLibraryPositionsFunc = LibraryPositions::new;
     private final GatewayPublication inboundLibraryPublication;
+    private final SessionWatermarkTracker watermarkTracker;
     private final String agentNamePrefix;
 
     ClusterPositionSender(
         final Subscription outboundLibrarySubscription,
         final ClusterableSubscription outboundClusterSubscription,
         final GatewayPublication inboundLibraryPublication,
+        final SessionWatermarkTracker watermarkTracker,
         final String agentNamePrefix)
     {
         this.outboundLibrarySubscription = outboundLibrarySubscription;
         this.outboundClusterSubscription = outboundClusterSubscription;
         this.inboundLibraryPublication = inboundLibraryPublication;
+        this.watermarkTracker = watermarkTracker;
         this.agentNamePrefix = agentNamePrefix;
     }
 
     public int doWork() throws Exception
     {
-        return pollCommands() + checkConditions();
+        return pollCommands() + checkConditions() + watermarkTracker.doWork();
     }
 
     private int pollCommands()
@@ -110,7 +113,10 @@ class ClusterPositionSender implements Agent, ArchivedPositionHandler
             case LibraryConnectDecoder.TEMPLATE_ID:
             {
                 libraryConnect.wrap(buffer, offset, blockLength, version);
-                onLibraryConnect(aeronSessionId, libraryConnect.libraryId());
+                final int libraryId = libraryConnect.libraryId();
+                onLibraryConnect(aeronSessionId, libraryId);
+                watermarkTracker.onLibraryConnect(
+                    aeronSessionId, libraryId, libraryConnect.watermarkTracking() == WatermarkTracking.ENABLED);
                 break;
             }
 
@@ -124,7 +130,9 @@ class ClusterPositionSender implements Agent, ArchivedPositionHandler
             case LibraryTimeoutDecoder.TEMPLATE_ID:
             {
                 libraryTimeout.wrap(buffer, offset, blockLength, version);
-                onLibraryTimeout(aeronSessionId, libraryTimeout.libraryId());
+                final int libraryId = libraryTimeout.libraryId();
+                onLibraryTimeout(aeronSessionId, libraryId);
+                watermarkTracker.onLibraryTimeout(libraryId);
                 break;
             }
         }
@@ -170,6 +178,11 @@ class ClusterPositionSender implements Agent, ArchivedPositionHandler
                     fixMessage.wrap(buffer, offset, actingBlockLength, version);
                     final int libraryId = fixMessage.libraryId();
                     onClusteredLibraryPosition(libraryId, position, wrappedFrameLength);
+
+                    // Messages are only seen here once they have been replicated
+                    final long sessionId = fixMessage.session();
+                    watermarkTracker.onReplicatedMessage(libraryId, sessionId, position);
+                    watermarkTracker.onArchivingMessage(libraryId, sessionId, position);
                     break;
                 }
             }
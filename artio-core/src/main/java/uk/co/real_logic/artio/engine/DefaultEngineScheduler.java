@@ -25,12 +25,17 @@ import static org.agrona.concurrent.AgentRunner.startOnThread;
 import static uk.co.real_logic.artio.CommonConfiguration.backoffIdleStrategy;
 
 /**
+ * Schedules the Framer and archiving agents onto their own threads, and the replay agent onto a third thread if
+ * {@link EngineConfiguration#dedicatedReplayThread(boolean)} is enabled.
+ *
  * NB: Ensure that a new instance is created for each engine.
  */
 public class DefaultEngineScheduler implements EngineScheduler
 {
     private AgentRunner framerRunner;
     private AgentRunner archivingRunner;
+    private AgentRunner outboundArchivingRunner;
+    private AgentRunner replayRunner;
     private AgentRunner monitoringRunner;
 
     public void launch(
@@ -40,6 +45,31 @@ public class DefaultEngineScheduler implements EngineScheduler
         final Agent archivingAgent,
         final Agent monitoringAgent,
         final Agent conductorAgent)
+    {
+        launch(configuration, errorHandler, framer, archivingAgent, null, monitoringAgent, conductorAgent);
+    }
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent archivingAgent,
+        final Agent replayAgent,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
+    {
+        launch(configuration, errorHandler, framer, archivingAgent, null, replayAgent, monitoringAgent, conductorAgent);
+    }
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent inboundArchivingAgent,
+        final Agent outboundArchivingAgent,
+        final Agent replayAgent,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
     {
         if (framerRunner != null)
         {
@@ -48,11 +78,40 @@ public class DefaultEngineScheduler implements EngineScheduler
 
         framerRunner = new AgentRunner(
             configuration.framerIdleStrategy(), errorHandler, null, framer);
-        archivingRunner = new AgentRunner(
-            configuration.archiverIdleStrategy(), errorHandler, null, archivingAgent);
-
         startOnThread(framerRunner);
-        startOnThread(archivingRunner);
+
+        final Agent archivingAgent;
+        if (configuration.dedicatedOutboundArchivingThread() && outboundArchivingAgent != null)
+        {
+            archivingAgent = inboundArchivingAgent;
+            outboundArchivingRunner = new AgentRunner(
+                configuration.outboundArchiverIdleStrategy(), errorHandler, null, outboundArchivingAgent);
+            startOnThread(outboundArchivingRunner);
+        }
+        else
+        {
+            archivingAgent = EngineScheduler.combine(inboundArchivingAgent, outboundArchivingAgent);
+        }
+
+        final Agent archivingRunnerAgent;
+        if (configuration.dedicatedReplayThread() && replayAgent != null)
+        {
+            archivingRunnerAgent = archivingAgent;
+            replayRunner = new AgentRunner(
+                configuration.replayIdleStrategy(), errorHandler, null, replayAgent);
+            startOnThread(replayRunner);
+        }
+        else
+        {
+            archivingRunnerAgent = EngineScheduler.combine(archivingAgent, replayAgent);
+        }
+
+        if (archivingRunnerAgent != null)
+        {
+            archivingRunner = new AgentRunner(
+                configuration.archiverIdleStrategy(), errorHandler, null, archivingRunnerAgent);
+            startOnThread(archivingRunner);
+        }
 
         if (monitoringAgent != null)
         {
@@ -66,9 +125,11 @@ public class DefaultEngineScheduler implements EngineScheduler
     {
         EngineScheduler.awaitRunnerStart(framerRunner);
         EngineScheduler.awaitRunnerStart(archivingRunner);
+        EngineScheduler.awaitRunnerStart(outboundArchivingRunner);
+        EngineScheduler.awaitRunnerStart(replayRunner);
         EngineScheduler.awaitRunnerStart(monitoringRunner);
 
-        Exceptions.closeAll(framerRunner, archivingRunner, monitoringRunner);
+        Exceptions.closeAll(framerRunner, archivingRunner, outboundArchivingRunner, replayRunner, monitoringRunner);
     }
 
     public void configure(final Aeron.Context aeronContext)
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.LongLongConsumer;
+import org.agrona.concurrent.Agent;
+import uk.co.real_logic.artio.Pressure;
+import uk.co.real_logic.artio.engine.logger.Archiver;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+/**
+ * Lets libraries know the position up to which their outbound publications have been archived durably.
+ * <p>
+ * Only the latest durable position of each publication is sent, so a back pressured notification is superseded
+ * by any later one rather than queued.
+ */
+class DurablePositionSender implements Agent, Archiver.DurablePositionHandler
+{
+    private static final long MISSING_POSITION = -1;
+
+    private final Long2LongHashMap aeronSessionIdToPosition = new Long2LongHashMap(MISSING_POSITION);
+    private final LongLongConsumer sendPositionFunc = this::sendPosition;
+
+    private final GatewayPublication publication;
+    private final SessionWatermarkTracker watermarkTracker;
+    private final String agentNamePrefix;
+
+    private int sentCount;
+
+    DurablePositionSender(
+        final GatewayPublication publication,
+        final SessionWatermarkTracker watermarkTracker,
+        final String agentNamePrefix)
+    {
+        this.publication = publication;
+        this.watermarkTracker = watermarkTracker;
+        this.agentNamePrefix = agentNamePrefix;
+    }
+
+    public void onDurablePosition(final int aeronSessionId, final long durablePosition)
+    {
+        aeronSessionIdToPosition.put(aeronSessionId, durablePosition);
+        watermarkTracker.onDurablePosition(aeronSessionId, durablePosition);
+    }
+
+    public int doWork()
+    {
+        sentCount = 0;
+        aeronSessionIdToPosition.longForEach(sendPositionFunc);
+        return sentCount;
+    }
+
+    private void sendPosition(final long aeronSessionId, final long durablePosition)
+    {
+        if (!Pressure.isBackPressured(publication.saveNewDurablePosition((int)aeronSessionId, durablePosition)))
+        {
+            aeronSessionIdToPosition.remove(aeronSessionId);
+            sentCount++;
+        }
+    }
+
+    public String roleName()
+    {
+        return agentNamePrefix + "DurablePositionSender";
+    }
+}
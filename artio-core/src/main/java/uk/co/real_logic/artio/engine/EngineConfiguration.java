@@ -22,13 +22,19 @@ import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.decoder.*;
+import uk.co.real_logic.artio.engine.framer.ReceivePriorityStrategy;
+import uk.co.real_logic.artio.engine.framer.SessionMigrationHandler;
+import uk.co.real_logic.artio.engine.framer.SessionPlacementStrategy;
+import uk.co.real_logic.artio.engine.framer.DefaultTcpChannelSupplier;
 import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier;
+import uk.co.real_logic.artio.engine.logger.ArchiverDurability;
 import uk.co.real_logic.artio.replication.ClusterConfiguration;
 import uk.co.real_logic.artio.replication.RoleHandler;
 import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
 
 import java.io.File;
 import java.net.InetSocketAddress;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
@@ -80,6 +86,15 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the max number of messages to read from replayer.
      */
     public static final String REPLAY_FRAGMENT_LIMIT_PROP = "fix.core.replay_fragment_limit";
+    /**
+     * Property name for the max number of catch-up replay fragments that the Framer forwards to libraries per
+     * duty cycle.
+     */
+    public static final String CATCHUP_REPLAY_FRAGMENT_LIMIT_PROP = "fix.core.catchup_replay_fragment_limit";
+    /**
+     * Property name for the max number of messages that each catch-up replays per duty cycle.
+     */
+    public static final String CATCHUP_REPLAY_MESSAGE_LIMIT_PROP = "fix.core.catchup_replay_message_limit";
     /**
      * Property name for the max number of bytes to read from all TCP Connections.
      */
@@ -88,6 +103,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the size in bytes of the receiver end point's framing buffer.
      */
     public static final String RECEIVER_BUFFER_SIZE_PROP = "fix.core.receiver_buffer_size";
+    /**
+     * Property name for the initial size in bytes of the receiver end point's framing buffer. Buffers grow
+     * towards the receiver buffer size as needed.
+     */
+    public static final String RECEIVER_BUFFER_MIN_SIZE_PROP = "fix.core.receiver_buffer_min_size";
     /**
      * Property name for the size in bytes of the TCP socket's receive buffer.
      */
@@ -112,6 +132,70 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the timeout before a connection that hasn't sent a logon is disconnected
      */
     public static final String NO_LOGON_DISCONNECT_TIMEOUT_PROP = "fix.core.no_logon_disconnect";
+    /**
+     * Property name for the interval at which the load of each library is sampled for session placement.
+     */
+    public static final String LIBRARY_LOAD_SAMPLE_INTERVAL_PROP = "fix.core.library_load_sample_interval";
+    /**
+     * Property name for the time to live of resolved initiator host addresses, 0 disables the cache.
+     */
+    public static final String ADDRESS_CACHE_TTL_PROP = "fix.core.address_cache_ttl";
+    /**
+     * Property name for enabling the secondary archive index used by queries of the
+     * {@link uk.co.real_logic.artio.engine.logger.FixArchiveScanner}.
+     */
+    public static final String ARCHIVE_QUERY_INDEX_PROP = "fix.core.archive_query_index";
+    /**
+     * Property name for the tag whose values are indexed by the secondary archive index, eg: 11 for ClOrdID.
+     */
+    public static final String ARCHIVE_QUERY_INDEX_TAG_PROP = "fix.core.archive_query_index_tag";
+    /**
+     * Property name for running the replayer on its own thread, rather than the archiving thread.
+     */
+    public static final String DEDICATED_REPLAY_THREAD_PROP = "fix.core.dedicated_replay_thread";
+    /**
+     * Property name for running the outbound archiving and indexing pipeline on its own thread, rather than
+     * alongside the inbound pipeline on the archiving thread.
+     */
+    public static final String DEDICATED_OUTBOUND_ARCHIVING_THREAD_PROP =
+        "fix.core.dedicated_outbound_archiving_thread";
+    /**
+     * Property name for the number of bytes that each TCP connection can read per poll, multiplied by its
+     * priority class weight. 0 lets each connection read as much as its buffer can take.
+     */
+    public static final String RECEIVER_READ_QUANTUM_PROP = "fix.core.receiver_read_quantum";
+    /**
+     * Property name for the maximum number of messages that each session can send per outbound throttle window,
+     * 0 disables the throttle.
+     */
+    public static final String OUTBOUND_THROTTLE_MESSAGES_PER_WINDOW_PROP =
+        "fix.core.outbound_throttle_messages_per_window";
+    /**
+     * Property name for the length in milliseconds of the outbound throttle window.
+     */
+    public static final String OUTBOUND_THROTTLE_WINDOW_PROP = "fix.core.outbound_throttle_window";
+    /**
+     * Property name for the number of threads used to catch indices up with the archive on startup.
+     */
+    public static final String INDEX_RECOVERY_THREADS_PROP = "fix.core.index_recovery_threads";
+    /**
+     * Property name for the durability mode of the archiver, one of the names of {@link ArchiverDurability}.
+     */
+    public static final String ARCHIVER_DURABILITY_PROP = "fix.core.archiver_durability";
+    /**
+     * Property name for the number of bytes after which the archiver forces a group commit to disk.
+     */
+    public static final String ARCHIVER_SYNC_BYTES_PROP = "fix.core.archiver_sync_bytes";
+    /**
+     * Property name for the maximum time in microseconds that the archiver leaves data unforced in the page cache
+     * in the periodic and group commit durability modes.
+     */
+    public static final String ARCHIVER_SYNC_INTERVAL_PROP = "fix.core.archiver_sync_interval";
+    /**
+     * Property name for letting the engine handle plain inbound heartbeats of library owned sessions itself,
+     * notifying libraries of them in batches rather than passing each one on.
+     */
+    public static final String SESSION_LEVEL_FAST_PATH_PROP = "fix.core.session_level_fast_path";
 
     // ------------------------------------------------
     //          Configuration Defaults
@@ -124,8 +208,12 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
 
     public static final int DEFAULT_OUTBOUND_LIBRARY_FRAGMENT_LIMIT = 100;
     public static final int DEFAULT_REPLAY_FRAGMENT_LIMIT = 5;
+    public static final int DEFAULT_CATCHUP_REPLAY_FRAGMENT_LIMIT = 20;
+    public static final int DEFAULT_CATCHUP_REPLAY_MESSAGE_LIMIT = 1000;
     public static final int DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT = 8 * 1024;
+    public static final int DEFAULT_RECEIVER_READ_QUANTUM = 0;
     public static final int DEFAULT_RECEIVER_BUFFER_SIZE = 16 * 1024;
+    public static final int DEFAULT_RECEIVER_BUFFER_MIN_SIZE = 1024;
     public static final int DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SENDER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE = 8 * 1024 * 1024;
@@ -133,15 +221,28 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final int DEFAULT_SENDER_MAX_BYTES_IN_BUFFER = 4 * 1024 * 1024;
     public static final int DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT = (int)SECONDS.toMillis(5);
     public static final int DEFAULT_CLUSTER_TIMEOUT_IN_MS = 1000;
+    public static final long DEFAULT_LIBRARY_LOAD_SAMPLE_INTERVAL_IN_MS = 1000;
+    public static final long DEFAULT_ADDRESS_CACHE_TTL_IN_MS = SECONDS.toMillis(30);
+    public static final int DEFAULT_ARCHIVE_QUERY_INDEX_TAG = 11;
     public static final String DEFAULT_SESSION_ID_FILE = "session_id_buffer";
     public static final String DEFAULT_SEQUENCE_NUMBERS_SENT_FILE = "sequence_numbers_sent";
     public static final String DEFAULT_SEQUENCE_NUMBERS_RECEIVED_FILE = "sequence_numbers_received";
     public static final short NO_NODE_ID = -1;
     public static final long DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS = 10_000;
+    public static final int NO_OUTBOUND_THROTTLE = 0;
+    public static final long DEFAULT_OUTBOUND_THROTTLE_WINDOW_IN_MS = 1000;
+    public static final int DEFAULT_INDEX_RECOVERY_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final ArchiverDurability DEFAULT_ARCHIVER_DURABILITY = ArchiverDurability.SYNC;
+    public static final long DEFAULT_ARCHIVER_SYNC_BYTES = 1024 * 1024;
+    public static final long DEFAULT_ARCHIVER_SYNC_INTERVAL_IN_US = 1000;
     public static final ReplayHandler DEFAULT_REPLAY_HANDLER =
         (buffer, offset, length, libraryId, sessionId, sequenceIndex, messageType) ->
         {
         };
+    public static final IndexRecoveryListener DEFAULT_INDEX_RECOVERY_LISTENER =
+        (indexName, streamId, recoveredBytes, durationInNs, recoveredIndices, totalIndices) ->
+        {
+        };
 
     /** Unmodifiable set of defaults, please make a copy if you wish to modify them. */
     public static final Set<String> DEFAULT_GAPFILL_ON_REPLAY_MESSAGE_TYPES;
@@ -167,6 +268,10 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private boolean logOutboundMessages = true;
     private IdleStrategy framerIdleStrategy = backoffIdleStrategy();
     private IdleStrategy archiverIdleStrategy = backoffIdleStrategy();
+    private IdleStrategy replayIdleStrategy = backoffIdleStrategy();
+    private boolean dedicatedReplayThread = Boolean.getBoolean(DEDICATED_REPLAY_THREAD_PROP);
+    private IdleStrategy outboundArchiverIdleStrategy = backoffIdleStrategy();
+    private boolean dedicatedOutboundArchivingThread = Boolean.getBoolean(DEDICATED_OUTBOUND_ARCHIVING_THREAD_PROP);
     private AtomicBuffer sentSequenceNumberBuffer;
     private AtomicBuffer receivedSequenceNumberBuffer;
     private MappedFile sentSequenceNumberIndex;
@@ -177,15 +282,28 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private short nodeId = NO_NODE_ID;
     private IntHashSet otherNodes = new IntHashSet();
     private long clusterTimeoutIntervalInMs = DEFAULT_CLUSTER_TIMEOUT_IN_MS;
+    private boolean clusterLearner = false;
 
     private int outboundLibraryFragmentLimit =
         getInteger(OUTBOUND_LIBRARY_FRAGMENT_LIMIT_PROP, DEFAULT_OUTBOUND_LIBRARY_FRAGMENT_LIMIT);
     private int replayFragmentLimit =
         getInteger(REPLAY_FRAGMENT_LIMIT_PROP, DEFAULT_REPLAY_FRAGMENT_LIMIT);
+    private int catchupReplayFragmentLimit =
+        getInteger(CATCHUP_REPLAY_FRAGMENT_LIMIT_PROP, DEFAULT_CATCHUP_REPLAY_FRAGMENT_LIMIT);
+    private int catchupReplayMessageLimit =
+        getInteger(CATCHUP_REPLAY_MESSAGE_LIMIT_PROP, DEFAULT_CATCHUP_REPLAY_MESSAGE_LIMIT);
     private int inboundBytesReceivedLimit =
         getInteger(INBOUND_BYTES_RECEIVED_LIMIT_PROP, DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT);
+    private int receiverReadQuantum = getInteger(RECEIVER_READ_QUANTUM_PROP, DEFAULT_RECEIVER_READ_QUANTUM);
+    private int[] receivePriorityClassWeights = { 1 };
+    private int outboundThrottleMessagesPerWindow =
+        getInteger(OUTBOUND_THROTTLE_MESSAGES_PER_WINDOW_PROP, NO_OUTBOUND_THROTTLE);
+    private long outboundThrottleWindowInMs =
+        Long.getLong(OUTBOUND_THROTTLE_WINDOW_PROP, DEFAULT_OUTBOUND_THROTTLE_WINDOW_IN_MS);
     private int receiverBufferSize =
         getInteger(RECEIVER_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_BUFFER_SIZE);
+    private int receiverBufferMinSize =
+        getInteger(RECEIVER_BUFFER_MIN_SIZE_PROP, DEFAULT_RECEIVER_BUFFER_MIN_SIZE);
     private int receiverSocketBufferSize =
         getInteger(RECEIVER_SOCKET_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE);
     private int senderSocketBufferSize =
@@ -198,14 +316,30 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         getInteger(SENDER_MAX_BYTES_IN_BUFFER_PROP, DEFAULT_SENDER_MAX_BYTES_IN_BUFFER);
     private int noLogonDisconnectTimeoutInMs =
         getInteger(NO_LOGON_DISCONNECT_TIMEOUT_PROP, DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT);
+    private long libraryLoadSampleIntervalInMs =
+        Long.getLong(LIBRARY_LOAD_SAMPLE_INTERVAL_PROP, DEFAULT_LIBRARY_LOAD_SAMPLE_INTERVAL_IN_MS);
+    private long addressCacheTtlInMs = Long.getLong(ADDRESS_CACHE_TTL_PROP, DEFAULT_ADDRESS_CACHE_TTL_IN_MS);
+    private boolean archiveQueryIndex = Boolean.getBoolean(ARCHIVE_QUERY_INDEX_PROP);
+    private int archiveQueryIndexTag = getInteger(ARCHIVE_QUERY_INDEX_TAG_PROP, DEFAULT_ARCHIVE_QUERY_INDEX_TAG);
+    private int indexRecoveryThreads = getInteger(INDEX_RECOVERY_THREADS_PROP, DEFAULT_INDEX_RECOVERY_THREADS);
+    private ArchiverDurability archiverDurability =
+        ArchiverDurability.valueOf(getProperty(ARCHIVER_DURABILITY_PROP, DEFAULT_ARCHIVER_DURABILITY.name()));
+    private long archiverSyncBytes = Long.getLong(ARCHIVER_SYNC_BYTES_PROP, DEFAULT_ARCHIVER_SYNC_BYTES);
+    private long archiverSyncIntervalInUs =
+        Long.getLong(ARCHIVER_SYNC_INTERVAL_PROP, DEFAULT_ARCHIVER_SYNC_INTERVAL_IN_US);
+    private boolean sessionLevelFastPath = Boolean.getBoolean(SESSION_LEVEL_FAST_PATH_PROP);
 
     private String libraryAeronChannel = null;
-    private Function<EngineConfiguration, TcpChannelSupplier> channelSupplierFactory = TcpChannelSupplier::new;
+    private Function<EngineConfiguration, TcpChannelSupplier> channelSupplierFactory = DefaultTcpChannelSupplier::new;
     private RoleHandler roleHandler = ClusterConfiguration.DEFAULT_NODE_HANDLER;
     private SessionPersistenceStrategy sessionPersistenceStrategy;
     private long slowConsumerTimeoutInMs = DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
     private EngineScheduler scheduler = new DefaultEngineScheduler();
     private ReplayHandler replayHandler = DEFAULT_REPLAY_HANDLER;
+    private IndexRecoveryListener indexRecoveryListener = DEFAULT_INDEX_RECOVERY_LISTENER;
+    private SessionPlacementStrategy sessionPlacementStrategy;
+    private SessionMigrationHandler sessionMigrationHandler;
+    private ReceivePriorityStrategy receivePriorityStrategy;
 
     /**
      * Sets the local address to bind to when the Gateway is used to accept connections.
@@ -239,6 +373,21 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the initial receiver buffer size. Receiver buffers are pooled, new connections borrow a buffer of
+     * this size and move up to larger buffers, up to the receiver buffer size, when they fill their buffer.
+     *
+     * @param receiverBufferMinSize the initial receiver buffer size.
+     * @return this
+     * @see EngineConfiguration#receiverBufferSize(int)
+     * @see EngineConfiguration#RECEIVER_BUFFER_MIN_SIZE_PROP
+     */
+    public EngineConfiguration receiverBufferMinSize(final int receiverBufferMinSize)
+    {
+        this.receiverBufferMinSize = receiverBufferMinSize;
+        return this;
+    }
+
     /**
      * Sets the receiver socket buffer size.
      *
@@ -381,6 +530,65 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the idle strategy for the Replayer, used both when it is back pressured and for its thread when
+     * {@link #dedicatedReplayThread(boolean)} is enabled.
+     *
+     * @param replayIdleStrategy the idle strategy for the Replayer.
+     * @return this
+     */
+    public EngineConfiguration replayIdleStrategy(final IdleStrategy replayIdleStrategy)
+    {
+        this.replayIdleStrategy = replayIdleStrategy;
+        return this;
+    }
+
+    /**
+     * Runs the Replayer, or GapFiller if outbound messages aren't logged, on its own thread rather than the
+     * archiving thread. This stops large resends delaying archiving and indexing, and bursts of archiving
+     * delaying resends. Only the {@link DefaultEngineScheduler} uses a separate thread, other schedulers
+     * run the Replayer alongside the archiving agent.
+     *
+     * @param dedicatedReplayThread true to run the Replayer on its own thread.
+     * @return this
+     * @see EngineConfiguration#DEDICATED_REPLAY_THREAD_PROP
+     */
+    public EngineConfiguration dedicatedReplayThread(final boolean dedicatedReplayThread)
+    {
+        this.dedicatedReplayThread = dedicatedReplayThread;
+        return this;
+    }
+
+    /**
+     * Sets the idle strategy for the outbound archiving thread when
+     * {@link #dedicatedOutboundArchivingThread(boolean)} is enabled.
+     *
+     * @param outboundArchiverIdleStrategy the idle strategy for the outbound archiving thread.
+     * @return this
+     */
+    public EngineConfiguration outboundArchiverIdleStrategy(final IdleStrategy outboundArchiverIdleStrategy)
+    {
+        this.outboundArchiverIdleStrategy = outboundArchiverIdleStrategy;
+        return this;
+    }
+
+    /**
+     * Runs the outbound archiving pipeline - the outbound archiver, indexer and the notifications of sent
+     * and durable positions back to libraries - on its own thread rather than alongside the inbound pipeline.
+     * This stops bursts of inbound, market facing, traffic delaying sent position notifications and vice versa.
+     * Only the {@link DefaultEngineScheduler} uses a separate thread, other schedulers run both pipelines
+     * together. Clustered engines always run a single archiving agent as the cluster agent feeds both pipelines.
+     *
+     * @param dedicatedOutboundArchivingThread true to run the outbound archiving pipeline on its own thread.
+     * @return this
+     * @see EngineConfiguration#DEDICATED_OUTBOUND_ARCHIVING_THREAD_PROP
+     */
+    public EngineConfiguration dedicatedOutboundArchivingThread(final boolean dedicatedOutboundArchivingThread)
+    {
+        this.dedicatedOutboundArchivingThread = dedicatedOutboundArchivingThread;
+        return this;
+    }
+
     /**
      * Sets the fragment limit for the subscription to outbound messages from libraries.
      *
@@ -407,6 +615,35 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the max number of catch-up replay fragments that the Framer forwards to libraries per duty cycle.
+     * Catch-ups are replayed off the Framer thread, so this bounds the Framer's share of the work.
+     *
+     * @param catchupReplayFragmentLimit the fragment limit for the subscription to catch-up replays.
+     * @return this
+     * @see EngineConfiguration#CATCHUP_REPLAY_FRAGMENT_LIMIT_PROP
+     */
+    public EngineConfiguration catchupReplayFragmentLimit(final int catchupReplayFragmentLimit)
+    {
+        this.catchupReplayFragmentLimit = catchupReplayFragmentLimit;
+        return this;
+    }
+
+    /**
+     * Sets the max number of messages that each catch-up replays per duty cycle of the catch-up replay agent.
+     * Each duty cycle queries the replay index again, so lower values are fairer between concurrent catch-ups
+     * at the cost of more index scans.
+     *
+     * @param catchupReplayMessageLimit the max number of messages that each catch-up replays per duty cycle.
+     * @return this
+     * @see EngineConfiguration#CATCHUP_REPLAY_MESSAGE_LIMIT_PROP
+     */
+    public EngineConfiguration catchupReplayMessageLimit(final int catchupReplayMessageLimit)
+    {
+        this.catchupReplayMessageLimit = catchupReplayMessageLimit;
+        return this;
+    }
+
     /**
      * Sets the bytes limit for receiving inbound messages.
      *
@@ -420,6 +657,50 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the number of bytes that each TCP connection can read per poll, multiplied by the weight of its
+     * priority class. Connections that use up their quantum carry over a deficit to the next poll, so bandwidth
+     * is shared fairly between busy connections rather than the busiest using up the
+     * {@link #inboundBytesReceivedLimit(int)}.
+     *
+     * @param receiverReadQuantum the read quantum in bytes, or 0 to let connections read as much as they can.
+     * @return this
+     * @see EngineConfiguration#RECEIVER_READ_QUANTUM_PROP
+     * @see EngineConfiguration#receivePriorityClassWeights(int...)
+     */
+    public EngineConfiguration receiverReadQuantum(final int receiverReadQuantum)
+    {
+        this.receiverReadQuantum = receiverReadQuantum;
+        return this;
+    }
+
+    /**
+     * Sets the weights of the receive priority classes, the number of weights is the number of priority classes.
+     * Lower priority classes are read first on each poll. Defaults to a single class with a weight of 1.
+     *
+     * @param receivePriorityClassWeights the weight of each priority class, indexed by priority class.
+     * @return this
+     * @see EngineConfiguration#receivePriorityStrategy(ReceivePriorityStrategy)
+     */
+    public EngineConfiguration receivePriorityClassWeights(final int... receivePriorityClassWeights)
+    {
+        this.receivePriorityClassWeights = receivePriorityClassWeights;
+        return this;
+    }
+
+    /**
+     * Sets the strategy that places sessions into receive priority classes. If this isn't set then all sessions
+     * are in the default priority class.
+     *
+     * @param receivePriorityStrategy the strategy that places sessions into priority classes.
+     * @return this
+     */
+    public EngineConfiguration receivePriorityStrategy(final ReceivePriorityStrategy receivePriorityStrategy)
+    {
+        this.receivePriorityStrategy = receivePriorityStrategy;
+        return this;
+    }
+
     public EngineConfiguration senderMaxBytesInBuffer(final int senderMaxBytesInBuffer)
     {
         this.senderMaxBytesInBuffer = senderMaxBytesInBuffer;
@@ -494,6 +775,29 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets whether this node is a non-voting learner (read replica) in the cluster. Learners archive and index the
+     * replicated log, so replay queries and archive scans can be run against their log directory without loading
+     * the leader, but they never vote or become leader.
+     *
+     * Learner nodes shouldn't be added to the other nodes of the voting members of the cluster.
+     *
+     * @param clusterLearner true if this node is a learner, false otherwise.
+     * @return this
+     */
+    public EngineConfiguration clusterLearner(final boolean clusterLearner)
+    {
+        this.clusterLearner = clusterLearner;
+        return this;
+    }
+
+    /**
+     * Sets the factory for the transport of TCP connections, defaults to the NIO based
+     * {@link DefaultTcpChannelSupplier}.
+     *
+     * @param value the factory for the transport.
+     * @return this
+     */
     public EngineConfiguration channelSupplierFactory(final Function<EngineConfiguration, TcpChannelSupplier> value)
     {
         this.channelSupplierFactory = value;
@@ -518,6 +822,42 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets a limit on the rate at which each session's messages are sent, for counter-parties that enforce
+     * message rate limits. Each session has a token bucket that holds up to this many messages and refills over
+     * {@link #outboundThrottleWindowInMs(long)}.
+     * <p>
+     * Messages over the limit aren't rejected, they're held back in the outbound stream without blocking the
+     * Framer and the owning library is notified that the session is a slow consumer until they've been sent.
+     * Up to {@link #senderMaxBytesInBuffer(int)} bytes can be held back before the session is disconnected.
+     * Resends aren't throttled.
+     *
+     * @param outboundThrottleMessagesPerWindow the maximum number of messages per window, or
+     *                                          {@link #NO_OUTBOUND_THROTTLE} to disable the throttle.
+     * @return this
+     * @see EngineConfiguration#OUTBOUND_THROTTLE_MESSAGES_PER_WINDOW_PROP
+     */
+    public EngineConfiguration outboundThrottleMessagesPerWindow(final int outboundThrottleMessagesPerWindow)
+    {
+        this.outboundThrottleMessagesPerWindow = outboundThrottleMessagesPerWindow;
+        return this;
+    }
+
+    /**
+     * Sets the window over which the {@link #outboundThrottleMessagesPerWindow(int)} applies. This should be
+     * shorter than the {@link #slowConsumerTimeoutInMs(long)}, otherwise a throttled session may be disconnected
+     * as a slow consumer.
+     *
+     * @param outboundThrottleWindowInMs the window length in milliseconds.
+     * @return this
+     * @see EngineConfiguration#OUTBOUND_THROTTLE_WINDOW_PROP
+     */
+    public EngineConfiguration outboundThrottleWindowInMs(final long outboundThrottleWindowInMs)
+    {
+        this.outboundThrottleWindowInMs = outboundThrottleWindowInMs;
+        return this;
+    }
+
     public EngineConfiguration scheduler(final EngineScheduler scheduler)
     {
         this.scheduler = scheduler;
@@ -557,11 +897,188 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the number of threads used to catch the engine's indices up with the archive on startup. Each index
+     * recovers independently, so with enough threads restart time is bounded by the slowest index.
+     *
+     * @param indexRecoveryThreads the number of threads, 1 recovers each index in turn on the starting thread.
+     * @return this
+     * @see EngineConfiguration#INDEX_RECOVERY_THREADS_PROP
+     */
+    public EngineConfiguration indexRecoveryThreads(final int indexRecoveryThreads)
+    {
+        this.indexRecoveryThreads = indexRecoveryThreads;
+        return this;
+    }
+
+    /**
+     * Sets a listener that is told about the progress and timing of index recovery on startup.
+     *
+     * @param indexRecoveryListener the index recovery listener
+     * @return this
+     */
+    public EngineConfiguration indexRecoveryListener(final IndexRecoveryListener indexRecoveryListener)
+    {
+        this.indexRecoveryListener = indexRecoveryListener;
+        return this;
+    }
+
+    /**
+     * Sets the strategy used to hand newly logged on acceptor sessions to libraries. If this isn't set then
+     * sessions stay in the engine after logon until a library requests them.
+     *
+     * @param sessionPlacementStrategy the strategy used to place sessions.
+     * @return this
+     * @see uk.co.real_logic.artio.engine.framer.LeastLoadedPlacementStrategy
+     */
+    public EngineConfiguration sessionPlacementStrategy(final SessionPlacementStrategy sessionPlacementStrategy)
+    {
+        this.sessionPlacementStrategy = sessionPlacementStrategy;
+        return this;
+    }
+
+    /**
+     * Sets a handler that is notified when the session placement strategy suggests moving a session away
+     * from a heavily loaded library. Only used if a session placement strategy has been set.
+     *
+     * @param sessionMigrationHandler the handler notified of suggested migrations.
+     * @return this
+     */
+    public EngineConfiguration sessionMigrationHandler(final SessionMigrationHandler sessionMigrationHandler)
+    {
+        this.sessionMigrationHandler = sessionMigrationHandler;
+        return this;
+    }
+
+    /**
+     * Sets the interval at which the load of each library is sampled and checked for hot spots.
+     *
+     * @param libraryLoadSampleIntervalInMs the sample interval in milliseconds.
+     * @return this
+     * @see EngineConfiguration#LIBRARY_LOAD_SAMPLE_INTERVAL_PROP
+     */
+    public EngineConfiguration libraryLoadSampleIntervalInMs(final long libraryLoadSampleIntervalInMs)
+    {
+        this.libraryLoadSampleIntervalInMs = libraryLoadSampleIntervalInMs;
+        return this;
+    }
+
+    /**
+     * Sets how long the resolved address of an initiator's host is cached for. Host names are resolved off the
+     * Framer thread, so this only avoids repeating lookups when reconnecting to the same host.
+     *
+     * @param addressCacheTtlInMs the time to live in milliseconds, 0 to disable caching.
+     * @return this
+     * @see EngineConfiguration#ADDRESS_CACHE_TTL_PROP
+     */
+    public EngineConfiguration addressCacheTtlInMs(final long addressCacheTtlInMs)
+    {
+        this.addressCacheTtlInMs = addressCacheTtlInMs;
+        return this;
+    }
+
+    /**
+     * Enables a secondary index of archived messages by time, message type, session id and the value of
+     * {@link #archiveQueryIndexTag(int)}. This lets queries through the
+     * {@link uk.co.real_logic.artio.engine.logger.FixArchiveScanner} skip most of the archive rather than
+     * scanning all of it.
+     *
+     * @param archiveQueryIndex true to enable the index.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_QUERY_INDEX_PROP
+     */
+    public EngineConfiguration archiveQueryIndex(final boolean archiveQueryIndex)
+    {
+        this.archiveQueryIndex = archiveQueryIndex;
+        return this;
+    }
+
+    /**
+     * Sets how the archiver makes archived messages durable. The default, {@link ArchiverDurability#SYNC}, writes
+     * every block synchronously, the other modes trade a window of possible data loss for archiving throughput.
+     * Libraries can wait for specific sends to become durable with a
+     * {@link uk.co.real_logic.artio.library.DurablePositionHandler}.
+     *
+     * @param archiverDurability the durability mode.
+     * @return this
+     * @see EngineConfiguration#ARCHIVER_DURABILITY_PROP
+     */
+    public EngineConfiguration archiverDurability(final ArchiverDurability archiverDurability)
+    {
+        this.archiverDurability = archiverDurability;
+        return this;
+    }
+
+    /**
+     * Sets the number of bytes after which the archiver forces data to disk in the group commit durability mode.
+     *
+     * @param archiverSyncBytes the number of bytes.
+     * @return this
+     * @see EngineConfiguration#ARCHIVER_SYNC_BYTES_PROP
+     */
+    public EngineConfiguration archiverSyncBytes(final long archiverSyncBytes)
+    {
+        this.archiverSyncBytes = archiverSyncBytes;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time that the archiver leaves data unforced in the page cache in the periodic and group
+     * commit durability modes.
+     *
+     * @param archiverSyncIntervalInUs the sync interval in microseconds.
+     * @return this
+     * @see EngineConfiguration#ARCHIVER_SYNC_INTERVAL_PROP
+     */
+    public EngineConfiguration archiverSyncIntervalInUs(final long archiverSyncIntervalInUs)
+    {
+        this.archiverSyncIntervalInUs = archiverSyncIntervalInUs;
+        return this;
+    }
+
+    /**
+     * Enables the engine's session level fast path. When enabled the framer handles inbound heartbeats of
+     * library owned sessions that aren't replicated and don't carry a TestReqID, PossDupFlag or PossResend itself:
+     * consecutive heartbeats are folded into a single run and libraries are told about these runs in batches,
+     * which keeps their sequence numbers and timeouts up to date without waking them for every heartbeat.
+     *
+     * Absorbed heartbeats aren't archived as inbound messages and aren't passed to session handlers. Test requests
+     * and other administrative messages are still handled by the library that owns the session, since it owns the
+     * session's outbound sequence numbers.
+     *
+     * @param sessionLevelFastPath true to enable the fast path, false by default.
+     * @return this
+     * @see EngineConfiguration#SESSION_LEVEL_FAST_PATH_PROP
+     */
+    public EngineConfiguration sessionLevelFastPath(final boolean sessionLevelFastPath)
+    {
+        this.sessionLevelFastPath = sessionLevelFastPath;
+        return this;
+    }
+
+    /**
+     * Sets the tag whose values are indexed by the archive query index, defaults to ClOrdID.
+     *
+     * @param archiveQueryIndexTag the tag number.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_QUERY_INDEX_TAG_PROP
+     */
+    public EngineConfiguration archiveQueryIndexTag(final int archiveQueryIndexTag)
+    {
+        this.archiveQueryIndexTag = archiveQueryIndexTag;
+        return this;
+    }
+
     public int receiverBufferSize()
     {
         return receiverBufferSize;
     }
 
+    public int receiverBufferMinSize()
+    {
+        return receiverBufferMinSize;
+    }
+
     public int receiverSocketBufferSize()
     {
         return receiverSocketBufferSize;
@@ -622,6 +1139,26 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return archiverIdleStrategy;
     }
 
+    public IdleStrategy replayIdleStrategy()
+    {
+        return replayIdleStrategy;
+    }
+
+    public boolean dedicatedReplayThread()
+    {
+        return dedicatedReplayThread;
+    }
+
+    public IdleStrategy outboundArchiverIdleStrategy()
+    {
+        return outboundArchiverIdleStrategy;
+    }
+
+    public boolean dedicatedOutboundArchivingThread()
+    {
+        return dedicatedOutboundArchivingThread;
+    }
+
     public int outboundLibraryFragmentLimit()
     {
         return outboundLibraryFragmentLimit;
@@ -632,11 +1169,36 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return replayFragmentLimit;
     }
 
+    public int catchupReplayFragmentLimit()
+    {
+        return catchupReplayFragmentLimit;
+    }
+
+    public int catchupReplayMessageLimit()
+    {
+        return catchupReplayMessageLimit;
+    }
+
     public int inboundBytesReceivedLimit()
     {
         return inboundBytesReceivedLimit;
     }
 
+    public int receiverReadQuantum()
+    {
+        return receiverReadQuantum;
+    }
+
+    public int[] receivePriorityClassWeights()
+    {
+        return receivePriorityClassWeights;
+    }
+
+    public ReceivePriorityStrategy receivePriorityStrategy()
+    {
+        return receivePriorityStrategy;
+    }
+
     public MappedFile sentSequenceNumberIndex()
     {
         return sentSequenceNumberIndex;
@@ -702,6 +1264,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return clusterTimeoutIntervalInMs;
     }
 
+    public boolean clusterLearner()
+    {
+        return clusterLearner;
+    }
+
     public RoleHandler roleHandler()
     {
         return roleHandler;
@@ -722,11 +1289,81 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return slowConsumerTimeoutInMs;
     }
 
+    public int outboundThrottleMessagesPerWindow()
+    {
+        return outboundThrottleMessagesPerWindow;
+    }
+
+    public long outboundThrottleWindowInMs()
+    {
+        return outboundThrottleWindowInMs;
+    }
+
     public ReplayHandler replayHandler()
     {
         return replayHandler;
     }
 
+    public int indexRecoveryThreads()
+    {
+        return indexRecoveryThreads;
+    }
+
+    public IndexRecoveryListener indexRecoveryListener()
+    {
+        return indexRecoveryListener;
+    }
+
+    public SessionPlacementStrategy sessionPlacementStrategy()
+    {
+        return sessionPlacementStrategy;
+    }
+
+    public SessionMigrationHandler sessionMigrationHandler()
+    {
+        return sessionMigrationHandler;
+    }
+
+    public long libraryLoadSampleIntervalInMs()
+    {
+        return libraryLoadSampleIntervalInMs;
+    }
+
+    public long addressCacheTtlInMs()
+    {
+        return addressCacheTtlInMs;
+    }
+
+    public boolean archiveQueryIndex()
+    {
+        return archiveQueryIndex;
+    }
+
+    public int archiveQueryIndexTag()
+    {
+        return archiveQueryIndexTag;
+    }
+
+    public ArchiverDurability archiverDurability()
+    {
+        return archiverDurability;
+    }
+
+    public long archiverSyncBytes()
+    {
+        return archiverSyncBytes;
+    }
+
+    public long archiverSyncIntervalInUs()
+    {
+        return archiverSyncIntervalInUs;
+    }
+
+    public boolean sessionLevelFastPath()
+    {
+        return sessionLevelFastPath;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -781,6 +1418,56 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
                 sessionBufferSize()));
         }
 
+        if (receiverReadQuantum() < 0 || receivePriorityClassWeights().length == 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "Invalid receive scheduling: receiverReadQuantum = %d, number of priority classes = %d",
+                receiverReadQuantum(),
+                receivePriorityClassWeights().length));
+        }
+
+        for (final int weight : receivePriorityClassWeights())
+        {
+            if (weight <= 0)
+            {
+                throw new IllegalArgumentException("Receive priority class weights must be positive: " +
+                    Arrays.toString(receivePriorityClassWeights()));
+            }
+        }
+
+        if (outboundThrottleMessagesPerWindow() < 0 ||
+            (outboundThrottleMessagesPerWindow() != NO_OUTBOUND_THROTTLE && outboundThrottleWindowInMs() <= 0))
+        {
+            throw new IllegalArgumentException(String.format(
+                "Invalid outbound throttle: outboundThrottleMessagesPerWindow = %d, outboundThrottleWindowInMs = %d",
+                outboundThrottleMessagesPerWindow(),
+                outboundThrottleWindowInMs()));
+        }
+
+        if (archiverSyncBytes() <= 0 || archiverSyncIntervalInUs() <= 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "Invalid archiver sync thresholds: archiverSyncBytes = %d, archiverSyncIntervalInUs = %d",
+                archiverSyncBytes(),
+                archiverSyncIntervalInUs()));
+        }
+
+        if (indexRecoveryThreads() <= 0)
+        {
+            throw new IllegalArgumentException("indexRecoveryThreads must be positive: " + indexRecoveryThreads());
+        }
+
+        if (catchupReplayMessageLimit() <= 0)
+        {
+            throw new IllegalArgumentException(
+                "catchupReplayMessageLimit must be positive: " + catchupReplayMessageLimit());
+        }
+
+        if (receiverBufferMinSize() > receiverBufferSize())
+        {
+            receiverBufferMinSize(receiverBufferSize());
+        }
+
         if (sentSequenceNumberIndex() == null)
         {
             sentSequenceNumberIndex = mapFile(DEFAULT_SEQUENCE_NUMBERS_SENT_FILE, sequenceNumberIndexSize);
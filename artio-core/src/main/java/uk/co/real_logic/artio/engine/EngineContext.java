@@ -36,8 +36,9 @@ import uk.co.real_logic.artio.replication.StreamIdentifier;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
-import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
@@ -59,10 +60,12 @@ public abstract class EngineContext implements AutoCloseable
 
     protected Streams inboundLibraryStreams;
     protected Streams outboundLibraryStreams;
-    // Indexers are owned by the archivingAgent
+    // Indexers are owned by the archivingAgent, or the outboundArchivingAgent for the outbound pipeline if it is set
     protected Indexer inboundIndexer;
     protected Indexer outboundIndexer;
     protected Agent archivingAgent;
+    protected Agent outboundArchivingAgent;
+    protected Agent replayAgent;
 
     public static EngineContext of(
         final EngineConfiguration configuration,
@@ -204,17 +207,23 @@ public abstract class EngineContext implements AutoCloseable
             configuration.loggerCacheSetSize(),
             streamId,
             configuration.agentNamePrefix(),
-            completionPosition);
+            completionPosition)
+            .durability(
+                configuration.archiverDurability(),
+                configuration.archiverSyncBytes(),
+                MICROSECONDS.toNanos(configuration.archiverSyncIntervalInUs()),
+                nanoClock)
+            .durablePositionCounter(fixCounters.durablePosition(streamId.streamId()));
     }
 
     protected Replayer newReplayer(
         final ExclusivePublication replayPublication, final ArchiveReader outboundArchiveReader)
     {
         return new Replayer(
-            newReplayQuery(outboundArchiveReader, configuration.archiverIdleStrategy()),
+            newReplayQuery(outboundArchiveReader, configuration.replayIdleStrategy()),
             replayPublication,
             new ExclusiveBufferClaim(),
-            configuration.archiverIdleStrategy(),
+            configuration.replayIdleStrategy(),
             errorHandler,
             configuration.outboundMaxClaimAttempts(),
             inboundLibraryStreams.subscription("replayer"),
@@ -227,6 +236,8 @@ public abstract class EngineContext implements AutoCloseable
     protected void newIndexers(
         final ArchiveReader inboundArchiveReader,
         final ArchiveReader outboundArchiveReader,
+        final Supplier<ArchiveReader> inboundRecoveryArchiveReaders,
+        final Supplier<ArchiveReader> outboundRecoveryArchiveReaders,
         final Index extraOutboundIndex)
     {
         final int cacheSetSize = configuration.loggerCacheSetSize();
@@ -235,8 +246,13 @@ public abstract class EngineContext implements AutoCloseable
 
         final ReplayIndex replayIndex = newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, INBOUND_LIBRARY_STREAM);
 
+        final List<Index> inboundIndices = new ArrayList<>();
+        inboundIndices.add(replayIndex);
+        inboundIndices.add(receivedSequenceNumberIndex);
+        addArchiveQueryIndex(inboundIndices, logFileDir, INBOUND_LIBRARY_STREAM);
+
         inboundIndexer = new Indexer(
-            asList(replayIndex, receivedSequenceNumberIndex),
+            inboundIndices,
             inboundArchiveReader,
             inboundLibraryStreams.subscription("inboundIndexer"),
             configuration.agentNamePrefix(),
@@ -245,6 +261,7 @@ public abstract class EngineContext implements AutoCloseable
         final List<Index> outboundIndices = new ArrayList<>();
         outboundIndices.add(newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, OUTBOUND_LIBRARY_STREAM));
         outboundIndices.add(sentSequenceNumberIndex);
+        addArchiveQueryIndex(outboundIndices, logFileDir, OUTBOUND_LIBRARY_STREAM);
         if (extraOutboundIndex != null)
         {
             outboundIndices.add(extraOutboundIndex);
@@ -256,6 +273,24 @@ public abstract class EngineContext implements AutoCloseable
             outboundLibraryStreams.subscription("outboundIndexer"),
             configuration.agentNamePrefix(),
             outboundLibraryCompletionPosition);
+
+        final IndexRecovery indexRecovery = new IndexRecovery(
+            configuration.indexRecoveryThreads(),
+            configuration.agentNamePrefix(),
+            nanoClock,
+            configuration.indexRecoveryListener());
+        indexRecovery.add(inboundIndices, INBOUND_LIBRARY_STREAM, inboundRecoveryArchiveReaders);
+        indexRecovery.add(outboundIndices, OUTBOUND_LIBRARY_STREAM, outboundRecoveryArchiveReaders);
+        indexRecovery.recover();
+    }
+
+    private void addArchiveQueryIndex(final List<Index> indices, final String logFileDir, final int streamId)
+    {
+        if (configuration.archiveQueryIndex())
+        {
+            indices.add(new ArchiveQueryIndex(
+                logFileDir, streamId, configuration.archiveQueryIndexTag(), errorHandler));
+        }
     }
 
     public abstract Streams outboundLibraryStreams();
@@ -274,6 +309,7 @@ public abstract class EngineContext implements AutoCloseable
         return subscription;
     }
 
+    // Owned by the catch-up replay agent, which runs alongside the archiving agent
     public abstract ReplayQuery inboundReplayQuery();
 
     public abstract ClusterableStreams streams();
@@ -306,4 +342,14 @@ public abstract class EngineContext implements AutoCloseable
     {
         return archivingAgent;
     }
+
+    Agent outboundArchivingAgent()
+    {
+        return outboundArchivingAgent;
+    }
+
+    Agent replayAgent()
+    {
+        return replayAgent;
+    }
 }
@@ -19,6 +19,7 @@ import io.aeron.Aeron;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
 
 /**
  * Interface for determining how an Engine's Agents are allocated to threads.
@@ -44,6 +45,75 @@ public interface EngineScheduler extends AutoCloseable
         Agent monitoringAgent,
         Agent conductorAgent);
 
+    /**
+     * Invoked by the FIX Engine to start the threads. The replay agent, that resends and gapfills messages, is
+     * passed separately from the archiving agent so that it can be scheduled on its own thread in order to isolate
+     * resend latency from bursts of archiving. By default it is scheduled alongside the archiving agent.
+     *
+     * @param configuration the engine's configuration object.
+     * @param errorHandler the ErrorHandler used by the engine.
+     * @param framer the framer agent to schedule.
+     * @param archivingAgent the archiver agent to schedule, null if nothing is archived.
+     * @param replayAgent the replay agent to schedule.
+     * @param monitoringAgent the monitoring agent to schedule.
+     * @param conductorAgent if aeron has useConductorInvoker enable it
+     *                       is the agent for the conductor, otherwise null.
+     */
+    default void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent archivingAgent,
+        final Agent replayAgent,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
+    {
+        launch(
+            configuration,
+            errorHandler,
+            framer,
+            combine(archivingAgent, replayAgent),
+            monitoringAgent,
+            conductorAgent);
+    }
+
+    /**
+     * Invoked by the FIX Engine to start the threads. The archiving work is split into an inbound pipeline and an
+     * outbound pipeline, each archiving and indexing its own stream, so that they can be scheduled on separate
+     * threads and bursts of traffic in one direction don't delay the other. By default both pipelines are
+     * scheduled together as a single archiving agent.
+     *
+     * @param configuration the engine's configuration object.
+     * @param errorHandler the ErrorHandler used by the engine.
+     * @param framer the framer agent to schedule.
+     * @param inboundArchivingAgent the inbound archiving agent to schedule, null if nothing is archived.
+     * @param outboundArchivingAgent the outbound archiving agent to schedule, null if it isn't separate from
+     *                               the inbound archiving agent.
+     * @param replayAgent the replay agent to schedule.
+     * @param monitoringAgent the monitoring agent to schedule.
+     * @param conductorAgent if aeron has useConductorInvoker enable it
+     *                       is the agent for the conductor, otherwise null.
+     */
+    default void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent inboundArchivingAgent,
+        final Agent outboundArchivingAgent,
+        final Agent replayAgent,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
+    {
+        launch(
+            configuration,
+            errorHandler,
+            framer,
+            combine(inboundArchivingAgent, outboundArchivingAgent),
+            replayAgent,
+            monitoringAgent,
+            conductorAgent);
+    }
+
     /**
      * Invoked by the FIX Engine to stop the threads. Should only return once they are completed stopped.
      */
@@ -62,6 +132,21 @@ public interface EngineScheduler extends AutoCloseable
         throw new IllegalStateException("Cannot re-use scheduler for multiple launch attempts");
     }
 
+    static Agent combine(final Agent first, final Agent second)
+    {
+        if (first == null)
+        {
+            return second;
+        }
+
+        if (second == null)
+        {
+            return first;
+        }
+
+        return new CompositeAgent(first, second);
+    }
+
     static void awaitRunnerStart(AgentRunner runner)
     {
         if (runner != null)
@@ -159,6 +159,7 @@ public final class FixEngine extends GatewayProcess
             engineDescriptorStore = new EngineDescriptorStore(errorHandler);
 
             final ExclusivePublication replayPublication = replayPublication();
+            final ExclusivePublication catchupReplayPublication = catchupReplayPublication();
             engineContext = EngineContext.of(
                 configuration,
                 errorHandler,
@@ -167,7 +168,7 @@ public final class FixEngine extends GatewayProcess
                 aeron,
                 engineDescriptorStore);
             streams = engineContext.streams();
-            initFramer(configuration, fixCounters, replayPublication.sessionId());
+            initFramer(configuration, fixCounters, replayPublication.sessionId(), catchupReplayPublication);
             initMonitoringAgent(timers.all(), configuration);
         }
         catch (final Exception e)
@@ -191,8 +192,20 @@ public final class FixEngine extends GatewayProcess
         return publication;
     }
 
+    // Catch-up replays are forwarded onto the inbound library stream, so they share its channel and MTU.
+    private ExclusivePublication catchupReplayPublication()
+    {
+        final ExclusivePublication publication = aeron.addExclusivePublication(
+            configuration.libraryAeronChannel(), CATCHUP_REPLAY_STREAM);
+        StreamInformation.print("catchupReplayPublication", publication, configuration);
+        return publication;
+    }
+
     private void initFramer(
-        final EngineConfiguration configuration, final FixCounters fixCounters, final int replaySessionId)
+        final EngineConfiguration configuration,
+        final FixCounters fixCounters,
+        final int replaySessionId,
+        final ExclusivePublication catchupReplayPublication)
     {
         framerContext = new FramerContext(
             configuration,
@@ -201,6 +214,12 @@ public final class FixEngine extends GatewayProcess
             errorHandler,
             replayImage("replay", replaySessionId),
             replayImage("slow-replay", replaySessionId),
+            catchupReplayPublication,
+            awaitImage(
+                "catchupReplay",
+                configuration.libraryAeronChannel(),
+                CATCHUP_REPLAY_STREAM,
+                catchupReplayPublication.sessionId()),
             engineDescriptorStore,
             timers,
             aeron.conductorAgentInvoker());
@@ -223,14 +242,18 @@ public final class FixEngine extends GatewayProcess
 
     private Image replayImage(final String name, final int replaySessionId)
     {
-        final Subscription subscription = aeron.addSubscription(
-            IPC_CHANNEL, OUTBOUND_REPLAY_STREAM);
+        return awaitImage(name, IPC_CHANNEL, OUTBOUND_REPLAY_STREAM, replaySessionId);
+    }
+
+    private Image awaitImage(final String name, final String channel, final int streamId, final int sessionId)
+    {
+        final Subscription subscription = aeron.addSubscription(channel, streamId);
         StreamInformation.print(name, subscription, configuration);
 
-        // Await replay publication
+        // Await publication
         while (true)
         {
-            final Image image = subscription.imageBySessionId(replaySessionId);
+            final Image image = subscription.imageBySessionId(sessionId);
             if (image != null)
             {
                 return image;
@@ -258,7 +281,9 @@ public final class FixEngine extends GatewayProcess
             configuration,
             errorHandler,
             framerContext.framer(),
-            engineContext.archivingAgent(),
+            EngineScheduler.combine(engineContext.archivingAgent(), framerContext.catchupReplayAgent()),
+            engineContext.outboundArchivingAgent(),
+            engineContext.replayAgent(),
             monitoringAgent,
             conductorAgent());
 
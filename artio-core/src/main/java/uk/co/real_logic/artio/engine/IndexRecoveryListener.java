@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+/**
+ * Callback that reports the progress and timing of catching the engine's indices up with the archive on startup.
+ *
+ * Invoked on the thread that starts the engine, once for each index as it completes, in order of completion.
+ */
+@FunctionalInterface
+public interface IndexRecoveryListener
+{
+    /**
+     * Invoked when an index has caught up with the archive.
+     *
+     * @param indexName the name of the index that has been recovered.
+     * @param streamId the stream id of the archive that the index has been recovered from.
+     * @param recoveredBytes the number of archived bytes that were re-indexed.
+     * @param durationInNs the time taken to recover this index, in nanoseconds.
+     * @param recoveredIndices the number of indices that have been recovered so far, including this one.
+     * @param totalIndices the total number of indices being recovered.
+     */
+    void onIndexRecovered(
+        String indexName,
+        int streamId,
+        long recoveredBytes,
+        long durationInNs,
+        int recoveredIndices,
+        int totalIndices);
+
+    /**
+     * Invoked when all the indices have caught up with the archive.
+     *
+     * @param totalIndices the total number of indices that were recovered.
+     * @param durationInNs the time taken to recover all of the indices, in nanoseconds.
+     */
+    default void onRecoveryComplete(final int totalIndices, final long durationInNs)
+    {
+    }
+}
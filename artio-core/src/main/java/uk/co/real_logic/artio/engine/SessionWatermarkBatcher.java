@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.LongLongConsumer;
+import uk.co.real_logic.artio.Pressure;
+import uk.co.real_logic.artio.messages.SessionWatermarkType;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+/**
+ * Batches up one kind of session watermark for the libraries that track them.
+ * <p>
+ * Only the latest position of each session is kept, so a burst of messages on a session results in a single
+ * watermark, and a back pressured batch is superseded by any later positions rather than queued. Each duty cycle
+ * sends at most one batch per library.
+ * <p>
+ * Not thread safe, owned by the agent that reports the watermarks.
+ */
+public class SessionWatermarkBatcher
+{
+    /**
+     * Kept well within the limits of the unsigned byte that SBE uses to count the entries of a group.
+     */
+    public static final int MAX_BATCH_SIZE = 128;
+
+    private static final long MISSING_POSITION = -1;
+
+    private final Int2ObjectHashMap<LibraryPositions> libraryIdToPositions = new Int2ObjectHashMap<>();
+    private final long[] sessionIds = new long[MAX_BATCH_SIZE];
+    private final long[] positions = new long[MAX_BATCH_SIZE];
+    private final LongLongConsumer addToBatchFunc = this::addToBatch;
+
+    private final GatewayPublication publication;
+    private final SessionWatermarkType type;
+
+    private int batchSize;
+
+    public SessionWatermarkBatcher(final GatewayPublication publication, final SessionWatermarkType type)
+    {
+        this.publication = publication;
+        this.type = type;
+    }
+
+    public void trackLibrary(final int libraryId)
+    {
+        if (!libraryIdToPositions.containsKey(libraryId))
+        {
+            libraryIdToPositions.put(libraryId, new LibraryPositions(libraryId));
+        }
+    }
+
+    public void untrackLibrary(final int libraryId)
+    {
+        libraryIdToPositions.remove(libraryId);
+    }
+
+    public boolean tracksLibrary(final int libraryId)
+    {
+        return libraryIdToPositions.containsKey(libraryId);
+    }
+
+    /**
+     * Record a new watermark for a session, ignored if its library doesn't track watermarks.
+     *
+     * @param libraryId the library that owns the session.
+     * @param sessionId the session whose messages have reached the position.
+     * @param position the position that the session's messages have reached.
+     */
+    public void onWatermark(final int libraryId, final long sessionId, final long position)
+    {
+        final LibraryPositions positions = libraryIdToPositions.get(libraryId);
+        if (positions != null)
+        {
+            positions.sessionIdToPosition.put(sessionId, position);
+        }
+    }
+
+    public int doWork()
+    {
+        int sentCount = 0;
+        for (final LibraryPositions positions : libraryIdToPositions.values())
+        {
+            final Long2LongHashMap sessionIdToPosition = positions.sessionIdToPosition;
+            if (!sessionIdToPosition.isEmpty() && sendBatch(positions.libraryId, sessionIdToPosition))
+            {
+                sentCount++;
+            }
+        }
+
+        return sentCount;
+    }
+
+    private boolean sendBatch(final int libraryId, final Long2LongHashMap sessionIdToPosition)
+    {
+        batchSize = 0;
+        sessionIdToPosition.longForEach(addToBatchFunc);
+
+        final int batchSize = this.batchSize;
+        if (Pressure.isBackPressured(
+            publication.saveSessionWatermarks(libraryId, type, sessionIds, positions, batchSize)))
+        {
+            return false;
+        }
+
+        final long[] sessionIds = this.sessionIds;
+        for (int i = 0; i < batchSize; i++)
+        {
+            sessionIdToPosition.remove(sessionIds[i]);
+        }
+
+        return true;
+    }
+
+    private void addToBatch(final long sessionId, final long position)
+    {
+        final int batchSize = this.batchSize;
+        if (batchSize < MAX_BATCH_SIZE)
+        {
+            sessionIds[batchSize] = sessionId;
+            positions[batchSize] = position;
+            this.batchSize = batchSize + 1;
+        }
+    }
+
+    private static final class LibraryPositions
+    {
+        private final int libraryId;
+        private final Long2LongHashMap sessionIdToPosition = new Long2LongHashMap(MISSING_POSITION);
+
+        private LibraryPositions(final int libraryId)
+        {
+            this.libraryId = libraryId;
+        }
+    }
+}
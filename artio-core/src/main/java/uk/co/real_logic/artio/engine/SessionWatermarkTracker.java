@@ -0,0 +1,216 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.Long2LongHashMap;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+import static uk.co.real_logic.artio.messages.SessionWatermarkType.ARCHIVED;
+import static uk.co.real_logic.artio.messages.SessionWatermarkType.REPLICATED;
+
+/**
+ * Works out the archived and replicated watermarks of the sessions of libraries that track them.
+ * <p>
+ * The archiver only knows how far each library's publication has been archived durably, not which sessions'
+ * messages that covers, so the end position of each message is queued up per library in publication order and
+ * handed over to the archived watermark once the durable position of the library's publication passes it.
+ * <p>
+ * Not thread safe, runs on the same thread as the outbound archiver.
+ */
+class SessionWatermarkTracker
+{
+    private static final int MISSING = -1;
+    private static final int INITIAL_PENDING_CAPACITY = 64;
+
+    private final Int2ObjectHashMap<LibraryWatermarks> libraryIdToWatermarks = new Int2ObjectHashMap<>();
+    private final Int2ObjectHashMap<LibraryWatermarks> aeronSessionIdToWatermarks = new Int2ObjectHashMap<>();
+    private final Int2IntHashMap libraryIdToAeronSessionId = new Int2IntHashMap(MISSING);
+    private final Long2LongHashMap aeronSessionIdToDurablePosition = new Long2LongHashMap(MISSING);
+
+    private final SessionWatermarkBatcher archived;
+    private final SessionWatermarkBatcher replicated;
+
+    SessionWatermarkTracker(final GatewayPublication publication)
+    {
+        archived = new SessionWatermarkBatcher(publication, ARCHIVED);
+        replicated = new SessionWatermarkBatcher(publication, REPLICATED);
+    }
+
+    void onLibraryConnect(final int aeronSessionId, final int libraryId, final boolean tracksWatermarks)
+    {
+        libraryIdToAeronSessionId.put(libraryId, aeronSessionId);
+
+        if (!tracksWatermarks)
+        {
+            return;
+        }
+
+        final LibraryWatermarks watermarks = libraryIdToWatermarks.get(libraryId);
+        if (watermarks == null || watermarks.aeronSessionId != aeronSessionId)
+        {
+            if (watermarks != null)
+            {
+                aeronSessionIdToWatermarks.remove(watermarks.aeronSessionId);
+            }
+
+            final LibraryWatermarks newWatermarks = new LibraryWatermarks(libraryId, aeronSessionId);
+            libraryIdToWatermarks.put(libraryId, newWatermarks);
+            aeronSessionIdToWatermarks.put(aeronSessionId, newWatermarks);
+            archived.trackLibrary(libraryId);
+            replicated.trackLibrary(libraryId);
+        }
+    }
+
+    void onLibraryTimeout(final int libraryId)
+    {
+        final int aeronSessionId = libraryIdToAeronSessionId.remove(libraryId);
+        if (aeronSessionId != MISSING)
+        {
+            aeronSessionIdToDurablePosition.remove(aeronSessionId);
+        }
+
+        final LibraryWatermarks watermarks = libraryIdToWatermarks.remove(libraryId);
+        if (watermarks != null)
+        {
+            aeronSessionIdToWatermarks.remove(watermarks.aeronSessionId);
+            archived.untrackLibrary(libraryId);
+            replicated.untrackLibrary(libraryId);
+        }
+    }
+
+    /**
+     * Called for each message that a library has sent on a session, once it is being archived.
+     *
+     * @param libraryId the library that sent the message.
+     * @param sessionId the session that the message was sent on.
+     * @param endPosition the end position of the message in the library's publication.
+     */
+    void onArchivingMessage(final int libraryId, final long sessionId, final long endPosition)
+    {
+        final LibraryWatermarks watermarks = libraryIdToWatermarks.get(libraryId);
+        if (watermarks == null)
+        {
+            return;
+        }
+
+        // The archiver may have already made the message durable before we saw it.
+        if (endPosition <= aeronSessionIdToDurablePosition.get(watermarks.aeronSessionId))
+        {
+            archived.onWatermark(libraryId, sessionId, endPosition);
+        }
+        else
+        {
+            watermarks.addPending(sessionId, endPosition);
+        }
+    }
+
+    void onReplicatedMessage(final int libraryId, final long sessionId, final long endPosition)
+    {
+        replicated.onWatermark(libraryId, sessionId, endPosition);
+    }
+
+    void onDurablePosition(final int aeronSessionId, final long durablePosition)
+    {
+        aeronSessionIdToDurablePosition.put(aeronSessionId, durablePosition);
+
+        final LibraryWatermarks watermarks = aeronSessionIdToWatermarks.get(aeronSessionId);
+        if (watermarks != null)
+        {
+            watermarks.drainPendingUpTo(durablePosition, archived);
+        }
+    }
+
+    int doWork()
+    {
+        return archived.doWork() + replicated.doWork();
+    }
+
+    private static final class LibraryWatermarks
+    {
+        private final int libraryId;
+        private final int aeronSessionId;
+
+        // A ring of the messages that haven't been made durable yet, head and tail only ever increase.
+        private long[] pendingSessionIds = new long[INITIAL_PENDING_CAPACITY];
+        private long[] pendingPositions = new long[INITIAL_PENDING_CAPACITY];
+        private int head;
+        private int tail;
+
+        private LibraryWatermarks(final int libraryId, final int aeronSessionId)
+        {
+            this.libraryId = libraryId;
+            this.aeronSessionId = aeronSessionId;
+        }
+
+        private void addPending(final long sessionId, final long endPosition)
+        {
+            if (tail - head == pendingPositions.length)
+            {
+                grow();
+            }
+
+            final int index = tail & (pendingPositions.length - 1);
+            pendingSessionIds[index] = sessionId;
+            pendingPositions[index] = endPosition;
+            tail++;
+        }
+
+        private void drainPendingUpTo(final long durablePosition, final SessionWatermarkBatcher archived)
+        {
+            final long[] pendingSessionIds = this.pendingSessionIds;
+            final long[] pendingPositions = this.pendingPositions;
+            final int mask = pendingPositions.length - 1;
+            final int tail = this.tail;
+
+            int head = this.head;
+            while (head != tail)
+            {
+                final int index = head & mask;
+                final long endPosition = pendingPositions[index];
+                if (endPosition > durablePosition)
+                {
+                    break;
+                }
+
+                archived.onWatermark(libraryId, pendingSessionIds[index], endPosition);
+                head++;
+            }
+
+            this.head = head;
+        }
+
+        private void grow()
+        {
+            final int size = tail - head;
+            final int oldMask = pendingPositions.length - 1;
+            final long[] sessionIds = new long[pendingPositions.length * 2];
+            final long[] positions = new long[pendingPositions.length * 2];
+            for (int i = 0; i < size; i++)
+            {
+                final int index = (head + i) & oldMask;
+                sessionIds[i] = pendingSessionIds[index];
+                positions[i] = pendingPositions[index];
+            }
+
+            pendingSessionIds = sessionIds;
+            pendingPositions = positions;
+            head = 0;
+            tail = size;
+        }
+    }
+}
@@ -42,7 +42,6 @@ import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressin
 class SoloContext extends EngineContext
 {
     private final ExclusivePublication replayPublication;
-    private final List<Archiver> archivers = new ArrayList<>();
     private final StreamIdentifier inboundStreamId;
     private final StreamIdentifier outboundStreamId;
     private final ClusterableStreams node;
@@ -93,12 +92,17 @@ class SoloContext extends EngineContext
     {
         if (configuration.logOutboundMessages())
         {
+            final SessionWatermarkTracker watermarkTracker = new SessionWatermarkTracker(inboundLibraryPublication());
             newIndexers(
                 inboundArchiveReader,
                 outboundArchiveReader,
-                new SoloPositionSender(inboundLibraryPublication()));
+                () -> configuration.logInboundMessages() ? archiveReader(inboundStreamId) : null,
+                () -> archiveReader(outboundStreamId),
+                new SoloPositionSender(inboundLibraryPublication(), watermarkTracker));
 
-            final Replayer replayer = newReplayer(replayPublication, outboundArchiveReader);
+            // The Replayer only shares the replay index with the Indexer, so it gets its own ArchiveReader and
+            // can run on a different thread to it.
+            replayAgent = newReplayer(replayPublication, archiveReader(outboundStreamId));
 
             if (configuration.logInboundMessages())
             {
@@ -111,23 +115,31 @@ class SoloContext extends EngineContext
                 archiverSubscription(outboundArchiver, outboundStreamId);
             }
 
-            final List<Agent> agents = new ArrayList<>(archivers);
-            agents.add(inboundIndexer);
-            agents.add(outboundIndexer);
-            agents.add(replayer);
+            // The inbound and outbound pipelines don't share any state, so they can be run on different threads.
+            final List<Agent> inboundAgents = new ArrayList<>();
+            if (inboundArchiver != null)
+            {
+                inboundAgents.add(inboundArchiver);
+            }
+            inboundAgents.add(inboundIndexer);
+
+            final DurablePositionSender durablePositionSender = new DurablePositionSender(
+                inboundLibraryPublication(), watermarkTracker, configuration.agentNamePrefix());
+            outboundArchiver.durablePositionHandler(durablePositionSender);
 
-            archivingAgent = new CompositeAgent(agents);
+            archivingAgent = new CompositeAgent(inboundAgents);
+            outboundArchivingAgent = new CompositeAgent(outboundArchiver, outboundIndexer, durablePositionSender);
         }
         else
         {
             final GatewayPublication replayGatewayPublication = new GatewayPublication(
                 ClusterablePublication.solo(replayPublication),
                 fixCounters.failedReplayPublications(),
-                configuration.archiverIdleStrategy(),
+                configuration.replayIdleStrategy(),
                 nanoClock,
                 configuration.outboundMaxClaimAttempts());
 
-            archivingAgent = new GapFiller(
+            replayAgent = new GapFiller(
                 inboundLibraryStreams.subscription("replayer"),
                 replayGatewayPublication,
                 configuration.agentNamePrefix());
@@ -146,24 +158,17 @@ class SoloContext extends EngineContext
     {
         if (configuration.logInboundMessages())
         {
-            inboundArchiver = addArchiver(inboundStreamId, inboundCompletionPosition());
+            inboundArchiver = archiver(inboundStreamId, inboundCompletionPosition());
             inboundArchiveReader = archiveReader(inboundStreamId);
         }
 
         if (configuration.logOutboundMessages())
         {
-            outboundArchiver = addArchiver(outboundStreamId, outboundLibraryCompletionPosition());
+            outboundArchiver = archiver(outboundStreamId, outboundLibraryCompletionPosition());
             outboundArchiveReader = archiveReader(outboundStreamId);
         }
     }
 
-    private Archiver addArchiver(final StreamIdentifier streamId, final CompletionPosition completionPosition)
-    {
-        final Archiver archiver = archiver(streamId, completionPosition);
-        archivers.add(archiver);
-        return archiver;
-    }
-
     public Streams outboundLibraryStreams()
     {
         return outboundLibraryStreams;
@@ -192,7 +197,7 @@ class SoloContext extends EngineContext
         }
 
         final ArchiveReader archiveReader = archiveReader(inboundStreamId);
-        return newReplayQuery(archiveReader, configuration.framerIdleStrategy());
+        return newReplayQuery(archiveReader, configuration.archiverIdleStrategy());
     }
 
     public GatewayPublication inboundLibraryPublication()
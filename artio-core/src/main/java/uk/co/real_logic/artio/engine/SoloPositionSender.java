@@ -21,8 +21,7 @@ import org.agrona.collections.LongLongConsumer;
 import uk.co.real_logic.artio.Pressure;
 import uk.co.real_logic.artio.engine.logger.Index;
 import uk.co.real_logic.artio.engine.logger.IndexedPositionConsumer;
-import uk.co.real_logic.artio.messages.FixMessageDecoder;
-import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 
 class SoloPositionSender implements Index
@@ -31,16 +30,20 @@ class SoloPositionSender implements Index
 
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+    private final LibraryConnectDecoder libraryConnect = new LibraryConnectDecoder();
+    private final LibraryTimeoutDecoder libraryTimeout = new LibraryTimeoutDecoder();
     private final Long2LongHashMap libraryIdToPosition = new Long2LongHashMap(MISSING_LIBRARY);
     private final LongLongConsumer resendPositionFunc = this::endPosition;
 
     private final GatewayPublication publication;
+    private final SessionWatermarkTracker watermarkTracker;
 
     private int resendCount;
 
-    SoloPositionSender(final GatewayPublication publication)
+    SoloPositionSender(final GatewayPublication publication, final SessionWatermarkTracker watermarkTracker)
     {
         this.publication = publication;
+        this.watermarkTracker = watermarkTracker;
     }
 
     @SuppressWarnings("FinalParameters")
@@ -54,13 +57,37 @@ class SoloPositionSender implements Index
     {
         messageHeader.wrap(buffer, offset);
 
-        if (messageHeader.templateId() == FixMessageDecoder.TEMPLATE_ID)
-        {
-            offset += MessageHeaderDecoder.ENCODED_LENGTH;
-
-            fixMessage.wrap(buffer, offset, messageHeader.blockLength(), messageHeader.version());
+        final int blockLength = messageHeader.blockLength();
+        final int version = messageHeader.version();
+        offset += MessageHeaderDecoder.ENCODED_LENGTH;
 
-            indexFixMessage(fixMessage.libraryId(), endPosition);
+        switch (messageHeader.templateId())
+        {
+            case FixMessageDecoder.TEMPLATE_ID:
+            {
+                fixMessage.wrap(buffer, offset, blockLength, version);
+                final int libraryId = fixMessage.libraryId();
+                indexFixMessage(libraryId, endPosition);
+                watermarkTracker.onArchivingMessage(libraryId, fixMessage.session(), endPosition);
+                break;
+            }
+
+            case LibraryConnectDecoder.TEMPLATE_ID:
+            {
+                libraryConnect.wrap(buffer, offset, blockLength, version);
+                watermarkTracker.onLibraryConnect(
+                    aeronSessionId,
+                    libraryConnect.libraryId(),
+                    libraryConnect.watermarkTracking() == WatermarkTracking.ENABLED);
+                break;
+            }
+
+            case LibraryTimeoutDecoder.TEMPLATE_ID:
+            {
+                libraryTimeout.wrap(buffer, offset, blockLength, version);
+                watermarkTracker.onLibraryTimeout(libraryTimeout.libraryId());
+                break;
+            }
         }
     }
 
@@ -73,7 +100,7 @@ class SoloPositionSender implements Index
     {
         resendCount = 0;
         libraryIdToPosition.longForEach(resendPositionFunc);
-        return resendCount;
+        return resendCount + watermarkTracker.doWork();
     }
 
     private void endPosition(final long libraryId, final long endPosition)
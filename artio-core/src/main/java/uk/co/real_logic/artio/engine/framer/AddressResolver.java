@@ -0,0 +1,244 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.ManyToOneConcurrentLinkedQueue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Resolves the host names of initiated connections off the Framer thread, since a DNS lookup can block for
+ * a long time.
+ * <p>
+ * Lookups are run on a resolver thread and completed back on the Framer thread when it calls {@link #poll()}.
+ * Successful lookups are cached for a configurable time to live and concurrent lookups of the same host are
+ * coalesced. IP address literals are resolved immediately, since they don't need a lookup.
+ * <p>
+ * Not thread safe apart from the resolver thread, owned by the Framer.
+ */
+class AddressResolver implements AutoCloseable
+{
+    private final Map<String, CachedAddress> cache = new HashMap<>();
+    private final Map<String, List<PendingResolution>> pendingResolutions = new HashMap<>();
+    private final ManyToOneConcurrentLinkedQueue<Resolution> completedResolutions =
+        new ManyToOneConcurrentLinkedQueue<>();
+    private final long cacheTtlInMs;
+    private final EpochClock clock;
+    private final String threadName;
+
+    private ExecutorService executor;
+
+    AddressResolver(final long cacheTtlInMs, final EpochClock clock, final String threadName)
+    {
+        this.cacheTtlInMs = cacheTtlInMs;
+        this.clock = clock;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Resolve a host, the handler may be invoked before this method returns if no lookup is needed.
+     *
+     * @param host the host name or address to resolve.
+     * @param port the port of the address to create.
+     * @param handler the handler to invoke on the Framer thread with the result of the resolution.
+     */
+    void resolve(final String host, final int port, final ResolvedAddressHandler handler)
+    {
+        if (isAddressLiteral(host))
+        {
+            try
+            {
+                handler.onResolved(new InetSocketAddress(InetAddress.getByName(host), port), null);
+            }
+            catch (final UnknownHostException e)
+            {
+                handler.onResolved(null, e);
+            }
+            return;
+        }
+
+        final CachedAddress cachedAddress = cache.get(host);
+        if (cachedAddress != null)
+        {
+            if (cachedAddress.expiryTimeInMs > clock.time())
+            {
+                handler.onResolved(new InetSocketAddress(cachedAddress.address, port), null);
+                return;
+            }
+
+            cache.remove(host);
+        }
+
+        List<PendingResolution> pending = pendingResolutions.get(host);
+        if (pending == null)
+        {
+            pending = new ArrayList<>();
+            pendingResolutions.put(host, pending);
+            executor().execute(() -> lookup(host));
+        }
+        pending.add(new PendingResolution(port, handler));
+    }
+
+    int poll()
+    {
+        int resolved = 0;
+        Resolution resolution;
+        while ((resolution = completedResolutions.poll()) != null)
+        {
+            resolved++;
+
+            final String host = resolution.host;
+            final InetAddress address = resolution.address;
+            if (address != null && cacheTtlInMs > 0)
+            {
+                cache.put(host, new CachedAddress(address, clock.time() + cacheTtlInMs));
+            }
+
+            final List<PendingResolution> pending = pendingResolutions.remove(host);
+            if (pending != null)
+            {
+                for (final PendingResolution pendingResolution : pending)
+                {
+                    final InetSocketAddress socketAddress =
+                        address == null ? null : new InetSocketAddress(address, pendingResolution.port);
+                    pendingResolution.handler.onResolved(socketAddress, resolution.exception);
+                }
+            }
+        }
+
+        return resolved;
+    }
+
+    public void close()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    // Runs on the resolver thread
+    private void lookup(final String host)
+    {
+        InetAddress address = null;
+        UnknownHostException exception = null;
+        try
+        {
+            address = InetAddress.getByName(host);
+        }
+        catch (final UnknownHostException e)
+        {
+            exception = e;
+        }
+
+        completedResolutions.offer(new Resolution(host, address, exception));
+    }
+
+    private ExecutorService executor()
+    {
+        if (executor == null)
+        {
+            executor = Executors.newSingleThreadExecutor((runnable) ->
+            {
+                final Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return executor;
+    }
+
+    static boolean isAddressLiteral(final String host)
+    {
+        // IPv6 literals always contain a colon, which can't appear in a host name.
+        if (host.indexOf(':') != -1)
+        {
+            return true;
+        }
+
+        final int length = host.length();
+        if (length == 0)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++)
+        {
+            final char c = host.charAt(i);
+            if ((c < '0' || c > '9') && c != '.')
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @FunctionalInterface
+    interface ResolvedAddressHandler
+    {
+        void onResolved(InetSocketAddress address, IOException exception);
+    }
+
+    private static final class CachedAddress
+    {
+        private final InetAddress address;
+        private final long expiryTimeInMs;
+
+        private CachedAddress(final InetAddress address, final long expiryTimeInMs)
+        {
+            this.address = address;
+            this.expiryTimeInMs = expiryTimeInMs;
+        }
+    }
+
+    private static final class PendingResolution
+    {
+        private final int port;
+        private final ResolvedAddressHandler handler;
+
+        private PendingResolution(final int port, final ResolvedAddressHandler handler)
+        {
+            this.port = port;
+            this.handler = handler;
+        }
+    }
+
+    private static final class Resolution
+    {
+        private final String host;
+        private final InetAddress address;
+        private final UnknownHostException exception;
+
+        private Resolution(final String host, final InetAddress address, final UnknownHostException exception)
+        {
+            this.host = host;
+            this.address = address;
+            this.exception = exception;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import uk.co.real_logic.artio.Pressure;
+import uk.co.real_logic.artio.engine.logger.ReplayQuery;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.agrona.collections.CollectionUtil.removeIf;
+
+/**
+ * Replays archived inbound messages to libraries that have requested a session with catch-up, off the Framer's
+ * thread.
+ * <p>
+ * Messages are published onto the catch-up replay stream, from which the Framer forwards them onto the inbound
+ * library publication followed by the reply to the session request. This keeps them ordered with respect to the
+ * other messages that the Framer sends to the library for that session, while the archive queries and message
+ * rewriting don't compete with live socket I/O. Each catch-up replays a bounded number of messages per duty cycle
+ * so that catch-ups of different sessions progress fairly.
+ */
+class CatchupReplayAgent implements Agent
+{
+    private static final int NEW_REPLAYS_CAPACITY = 64;
+
+    private final OneToOneConcurrentArrayQueue<CatchupReplayer> newReplays =
+        new OneToOneConcurrentArrayQueue<>(NEW_REPLAYS_CAPACITY);
+    private final List<CatchupReplayer> replayers = new ArrayList<>();
+    private final Consumer<CatchupReplayer> addReplayerFunc = replayers::add;
+    private final Predicate<CatchupReplayer> attemptReplayFunc = this::attemptReplay;
+
+    /**
+     * Null if inbound messages are not logged
+     */
+    private final ReplayQuery inboundMessages;
+    private final GatewayPublication catchupPublication;
+    private final ErrorHandler errorHandler;
+    private final EpochClock clock;
+    private final int messageLimit;
+    private final String agentNamePrefix;
+
+    CatchupReplayAgent(
+        final ReplayQuery inboundMessages,
+        final GatewayPublication catchupPublication,
+        final ErrorHandler errorHandler,
+        final EpochClock clock,
+        final int messageLimit,
+        final String agentNamePrefix)
+    {
+        this.inboundMessages = inboundMessages;
+        this.catchupPublication = catchupPublication;
+        this.errorHandler = errorHandler;
+        this.clock = clock;
+        this.messageLimit = messageLimit;
+        this.agentNamePrefix = agentNamePrefix;
+    }
+
+    // Invoked on the Framer thread.
+    CatchupReplayer newReplayer(
+        final long correlationId,
+        final long connectionId,
+        final int libraryId,
+        final int lastReceivedSeqNum,
+        final int currentSequenceIndex,
+        final int replayFromSequenceNumber,
+        final int replayFromSequenceIndex,
+        final long sessionId,
+        final long catchupTimeout)
+    {
+        return new CatchupReplayer(
+            inboundMessages,
+            catchupPublication,
+            errorHandler,
+            correlationId,
+            connectionId,
+            libraryId,
+            lastReceivedSeqNum,
+            currentSequenceIndex,
+            replayFromSequenceNumber,
+            replayFromSequenceIndex,
+            sessionId,
+            messageLimit,
+            catchupTimeout,
+            clock);
+    }
+
+    // Invoked on the Framer thread.
+    boolean enqueue(final CatchupReplayer replayer)
+    {
+        return newReplays.offer(replayer);
+    }
+
+    public int doWork()
+    {
+        return newReplays.drain(addReplayerFunc) + removeIf(replayers, attemptReplayFunc);
+    }
+
+    private boolean attemptReplay(final CatchupReplayer replayer)
+    {
+        return !Pressure.isBackPressured(replayer.attempt());
+    }
+
+    public void onClose()
+    {
+        CloseHelper.close(inboundMessages);
+    }
+
+    public String roleName()
+    {
+        return agentNamePrefix + "CatchupReplayer";
+    }
+}
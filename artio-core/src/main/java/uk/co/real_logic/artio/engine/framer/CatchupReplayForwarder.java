@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.messages.RequestSessionReplyDecoder;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+
+/**
+ * Forwards messages from the catch-up replay stream onto the inbound library publication, on the Framer's thread.
+ * <p>
+ * Expects to be polled through a fragment assembler, so that each message is forwarded with a single offer and
+ * can't be interleaved with messages the Framer writes to the same publication. The offer fragments messages that
+ * are larger than the publication's max payload length. When the reply to a session request has been forwarded
+ * the session's catch-up is complete and it can be played.
+ */
+class CatchupReplayForwarder implements ControlledFragmentHandler
+{
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final RequestSessionReplyDecoder requestSessionReply = new RequestSessionReplyDecoder();
+    private final Long2ObjectHashMap<GatewaySession> correlationIdToSession = new Long2ObjectHashMap<>();
+
+    private final GatewayPublication inboundPublication;
+
+    CatchupReplayForwarder(final GatewayPublication inboundPublication)
+    {
+        this.inboundPublication = inboundPublication;
+    }
+
+    void onCatchupStarted(final long correlationId, final GatewaySession session)
+    {
+        correlationIdToSession.put(correlationId, session);
+    }
+
+    public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        if (inboundPublication.offer(buffer, offset, length) < 0)
+        {
+            return ABORT;
+        }
+
+        onMessageForwarded(buffer, offset);
+
+        return CONTINUE;
+    }
+
+    private void onMessageForwarded(final DirectBuffer buffer, final int offset)
+    {
+        messageHeader.wrap(buffer, offset);
+        if (messageHeader.templateId() == RequestSessionReplyDecoder.TEMPLATE_ID)
+        {
+            requestSessionReply.wrap(
+                buffer,
+                offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                messageHeader.blockLength(),
+                messageHeader.version());
+
+            final GatewaySession session = correlationIdToSession.remove(requestSessionReply.replyToId());
+            if (session != null)
+            {
+                session.play();
+            }
+        }
+    }
+}
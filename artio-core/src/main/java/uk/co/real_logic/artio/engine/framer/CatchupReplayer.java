@@ -83,11 +83,13 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
     private final int libraryId;
     private final int lastReceivedSeqNum;
     private final int currentSequenceIndex;
-    private final GatewaySession session;
+    private final long sessionId;
+    private final int messageLimit;
     private final long catchupEndTimeInMs;
 
     private int replayFromSequenceNumber;
     private int replayFromSequenceIndex;
+    private int replayedMessages;
     private boolean abortedReplay;
     private State state = State.REPLAYING;
 
@@ -108,7 +110,8 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         final int currentSequenceIndex,
         final int replayFromSequenceNumber,
         final int replayFromSequenceIndex,
-        final GatewaySession session,
+        final long sessionId,
+        final int messageLimit,
         final long catchupTimeout,
         final EpochClock clock)
     {
@@ -122,7 +125,8 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         this.currentSequenceIndex = currentSequenceIndex;
         this.replayFromSequenceNumber = replayFromSequenceNumber;
         this.replayFromSequenceIndex = replayFromSequenceIndex;
-        this.session = session;
+        this.sessionId = sessionId;
+        this.messageLimit = messageLimit;
         this.catchupEndTimeInMs = clock.time() + catchupTimeout;
 
         possDupEnabler = new PossDupEnabler(
@@ -161,6 +165,13 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         final int srcLength,
         final Header header)
     {
+        if (replayedMessages >= messageLimit)
+        {
+            // Bound the work done per attempt, the replay resumes from this message on the next attempt.
+            abortedReplay = true;
+            return ABORT;
+        }
+
         final int messageLength = srcLength - FRAME_LENGTH;
         final int messageOffset = srcOffset + FRAME_LENGTH;
 
@@ -268,6 +279,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
             // store the point to continue from if an abort happens.
             replayFromSequenceNumber = headerDecoder.msgSeqNum() + 1;
             replayFromSequenceIndex = messageDecoder.sequenceIndex();
+            replayedMessages++;
 
             return CONTINUE;
         }
@@ -280,7 +292,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
 
     public long attempt()
     {
-        DebugLogger.log(CATCHUP, "Attempt replay for %d%n", session.sessionId());
+        DebugLogger.log(CATCHUP, "Attempt replay for %d%n", sessionId);
         switch (state)
         {
             case REPLAYING:
@@ -294,15 +306,16 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
                 // Know at this point that we've indexed up to the latest message.
                 // adding 1 to convert to inclusive numbering
                 abortedReplay = false;
+                replayedMessages = 0;
                 try
                 {
                     DebugLogger.log(CATCHUP,
                         "Querying for %d, currently at (%d, %d)%n",
-                        session.sessionId(), lastReceivedSeqNum, currentSequenceIndex);
+                        sessionId, lastReceivedSeqNum, currentSequenceIndex);
 
                     inboundMessages.query(
                         assembler,
-                        session.sessionId(),
+                        sessionId,
                         replayFromSequenceNumber,
                         replayFromSequenceIndex,
                         lastReceivedSeqNum,
@@ -329,7 +342,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
                 else
                 {
                     state = State.SEND_OK;
-                    return sendOk(inboundPublication, correlationId, session);
+                    return sendOk();
                 }
             }
 
@@ -340,7 +353,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
 
             case SEND_OK:
             {
-                return sendOk(inboundPublication, correlationId, session);
+                return sendOk();
             }
 
             // Javac required fall-through case that should never be reached
@@ -361,12 +374,11 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         return inboundMessages == null;
     }
 
-    private long sendOk(
-        final GatewayPublication publication,
-        final long correlationId,
-        final GatewaySession session)
+    // The session is played by the Framer once it has forwarded this reply to the library.
+    private long sendOk()
     {
-        return sendOk(publication, correlationId, session, libraryId);
+        DebugLogger.log(CATCHUP, "OK for %d%n", sessionId);
+        return inboundPublication.saveRequestSessionReply(libraryId, OK, correlationId);
     }
 
     static long sendOk(
@@ -387,7 +399,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
 
     private long sendMissingMessages()
     {
-        DebugLogger.log(CATCHUP, "Missing Messages for %d%n", session.sessionId());
+        DebugLogger.log(CATCHUP, "Missing Messages for %d%n", sessionId);
         final long position = inboundPublication.saveRequestSessionReply(libraryId, MISSING_MESSAGES, correlationId);
         if (position > 0)
         {
@@ -398,8 +410,6 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
                 replayFromSequenceNumber,
                 currentSequenceIndex,
                 lastReceivedSeqNum)));
-
-            session.play();
         }
 
         return position;
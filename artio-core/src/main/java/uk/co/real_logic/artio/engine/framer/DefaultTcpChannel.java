@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.LangUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * NIO based {@link TcpChannel}.
+ */
+public class DefaultTcpChannel extends TcpChannel
+{
+    private final SocketChannel socketChannel;
+
+    public DefaultTcpChannel(final SocketChannel socketChannel) throws IOException
+    {
+        super(socketChannel.getRemoteAddress().toString());
+        this.socketChannel = socketChannel;
+    }
+
+    public SelectionKey register(final Selector sel, final int ops, final Object att) throws ClosedChannelException
+    {
+        return socketChannel.register(sel, ops, att);
+    }
+
+    public int write(final ByteBuffer src) throws IOException
+    {
+        return socketChannel.write(src);
+    }
+
+    public int read(final ByteBuffer dst) throws IOException
+    {
+        return socketChannel.read(dst);
+    }
+
+    public void close()
+    {
+        if (socketChannel.isOpen())
+        {
+            try
+            {
+                socketChannel.close();
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+        }
+    }
+}
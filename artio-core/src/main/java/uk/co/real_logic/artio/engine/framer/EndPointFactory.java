@@ -26,6 +26,8 @@ import uk.co.real_logic.artio.protocol.GatewayPublication;
 
 import java.io.IOException;
 
+import static uk.co.real_logic.artio.engine.EngineConfiguration.NO_OUTBOUND_THROTTLE;
+
 class EndPointFactory
 {
     private final EngineConfiguration configuration;
@@ -36,6 +38,8 @@ class EndPointFactory
     private final ErrorHandler errorHandler;
     private final LongHashSet replicatedConnectionIds;
     private final GatewaySessions gatewaySessions;
+    private final ReceiverBufferPool receiverBufferPool;
+    private final HeartbeatAbsorber heartbeatAbsorber;
 
     private SlowPeeker replaySlowPeeker;
 
@@ -57,6 +61,14 @@ class EndPointFactory
         this.errorHandler = errorHandler;
         this.replicatedConnectionIds = replicatedConnectionIds;
         this.gatewaySessions = gatewaySessions;
+
+        receiverBufferPool = new ReceiverBufferPool(
+            configuration.receiverBufferMinSize(),
+            configuration.receiverBufferSize(),
+            fixCounters.receiverBufferBytesInUse(),
+            fixCounters.receiverBufferBytesAllocated());
+        heartbeatAbsorber = configuration.sessionLevelFastPath() ?
+            new HeartbeatAbsorber(inboundLibraryPublication) : null;
     }
 
     ReceiverEndPoint receiverEndPoint(
@@ -73,7 +85,7 @@ class EndPointFactory
     {
         return new ReceiverEndPoint(
             channel,
-            configuration.receiverBufferSize(),
+            receiverBufferPool,
             inboundLibraryPublication,
             inboundClusterablePublication,
             connectionId,
@@ -89,7 +101,9 @@ class EndPointFactory
             sequenceNumberType,
             connectionType,
             replicatedConnectionIds,
-            gatewaySessions
+            gatewaySessions,
+            configuration.receivePriorityStrategy(),
+            heartbeatAbsorber
         );
     }
 
@@ -101,6 +115,15 @@ class EndPointFactory
         final Framer framer) throws IOException
     {
         final String remoteAddress = channel.remoteAddress();
+        final long timeInMs = System.currentTimeMillis();
+        final int outboundThrottleMessagesPerWindow = configuration.outboundThrottleMessagesPerWindow();
+        final OutboundThrottle throttle = outboundThrottleMessagesPerWindow == NO_OUTBOUND_THROTTLE ? null :
+            new OutboundThrottle(
+                outboundThrottleMessagesPerWindow,
+                configuration.outboundThrottleWindowInMs(),
+                fixCounters.throttledMessages(connectionId, remoteAddress),
+                timeInMs);
+
         return new SenderEndPoint(
             connectionId,
             libraryId,
@@ -109,14 +132,20 @@ class EndPointFactory
             channel,
             fixCounters.bytesInBuffer(connectionId, remoteAddress),
             fixCounters.invalidLibraryAttempts(connectionId, remoteAddress),
+            throttle,
             errorHandler,
             framer,
             configuration.senderMaxBytesInBuffer(),
             configuration.slowConsumerTimeoutInMs(),
-            System.currentTimeMillis()
+            timeInMs
         );
     }
 
+    HeartbeatAbsorber heartbeatAbsorber()
+    {
+        return heartbeatAbsorber;
+    }
+
     void replaySlowPeeker(final SlowPeeker replaySlowPeeker)
     {
         this.replaySlowPeeker = replaySlowPeeker;
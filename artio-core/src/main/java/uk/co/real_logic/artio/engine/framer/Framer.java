@@ -39,9 +39,9 @@ import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.CompletionPosition;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.EngineDescriptorStore;
+import uk.co.real_logic.artio.engine.SessionWatermarkBatcher;
 import uk.co.real_logic.artio.engine.framer.SubscriptionSlowPeeker.LibrarySlowPeeker;
 import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier.NewChannelHandler;
-import uk.co.real_logic.artio.engine.logger.ReplayQuery;
 import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.protocol.*;
@@ -123,7 +123,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final ControlledFragmentHandler replaySlowSubscriber;
     private final ClusterFragmentHandler clusterSubscriber;
 
-    private final ReceiverEndPoints receiverEndPoints = new ReceiverEndPoints();
+    private final ReceiverEndPoints receiverEndPoints;
     private final ControlledFragmentAssembler senderEndPointAssembler;
     private final SenderEndPoints senderEndPoints;
 
@@ -136,8 +136,13 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final SubscriptionSlowPeeker librarySlowPeeker;
     private final Image replayImage;
     private final SlowPeeker replaySlowPeeker;
+    private final Image catchupReplayImage;
+    private final CatchupReplayForwarder catchupReplayForwarder;
+    private final ImageControlledFragmentAssembler catchupReplaySubscriber;
     private final BlockablePosition engineBlockablePosition;
     private final GatewayPublication inboundPublication;
+    private final SessionWatermarkBatcher writtenWatermarks;
+    private final HeartbeatAbsorber heartbeatAbsorber;
     private final String agentNamePrefix;
     private final CompletionPosition inboundCompletionPosition;
     private final CompletionPosition outboundLibraryCompletionPosition;
@@ -151,20 +156,25 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final int inboundBytesReceivedLimit;
     private final int outboundLibraryFragmentLimit;
     private final int replayFragmentLimit;
+    private final int catchupReplayFragmentLimit;
     private final GatewaySessions gatewaySessions;
     private final Consumer<GatewaySession> onSessionlogon = this::onSessionLogon;
-    /**
-     * Null if inbound messages are not logged
-     */
-    private final ReplayQuery inboundMessages;
+    private final CatchupReplayAgent catchupReplayAgent;
     private final ErrorHandler errorHandler;
     private final GatewayPublication outboundPublication;
     // Both connection id to library id maps
     private final Long2LongHashMap resendSlowStatus = new Long2LongHashMap(-1);
     private final Long2LongHashMap resendNotSlowStatus = new Long2LongHashMap(-1);
     private final AgentInvoker conductorAgentInvoker;
+    private final AddressResolver addressResolver;
+    private final SessionPlacementStrategy placementStrategy;
+    private final SessionMigrationHandler migrationHandler;
+    private final long libraryLoadSampleIntervalInMs;
+    private final List<GatewaySession> sessionsToPlace = new ArrayList<>();
+    private final List<LibraryLoad> libraryLoads = new ArrayList<>();
 
     private long nextConnectionId = (long)(Math.random() * Long.MAX_VALUE);
+    private long nextLibraryLoadSampleTimeInMs;
 
     Framer(
         final EpochClock clock,
@@ -172,6 +182,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final Timer sendTimer,
         final EngineConfiguration configuration,
         final EndPointFactory endPointFactory,
+        final ReceiverEndPoints receiverEndPoints,
         final ClusterableStreams clusterableStreams,
         final ClusterSubscription clusterSubscription,
         final ClusterSubscription clusterSlowSubscription,
@@ -179,7 +190,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final Subscription slowSubscription,
         final Image replayImage,
         final Image replaySlowImage,
-        final ReplayQuery inboundMessages,
+        final Image catchupReplayImage,
+        final CatchupReplayAgent catchupReplayAgent,
         final GatewayPublication outboundPublication,
         final GatewayPublication inboundPublication,
         final QueuedPipe<AdminCommand> adminCommands,
@@ -203,14 +215,20 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.sendTimer = sendTimer;
         this.configuration = configuration;
         this.endPointFactory = endPointFactory;
+        this.receiverEndPoints = receiverEndPoints;
         this.clusterSubscription = clusterSubscription;
         this.librarySubscription = librarySubscription;
         this.replayImage = replayImage;
         this.gatewaySessions = gatewaySessions;
-        this.inboundMessages = inboundMessages;
+        this.catchupReplayImage = catchupReplayImage;
+        this.catchupReplayAgent = catchupReplayAgent;
         this.errorHandler = errorHandler;
         this.outboundPublication = outboundPublication;
         this.inboundPublication = inboundPublication;
+        this.catchupReplayForwarder = new CatchupReplayForwarder(inboundPublication);
+        this.catchupReplaySubscriber = new ImageControlledFragmentAssembler(catchupReplayForwarder);
+        this.writtenWatermarks = new SessionWatermarkBatcher(inboundPublication, SessionWatermarkType.WRITTEN);
+        this.heartbeatAbsorber = endPointFactory.heartbeatAbsorber();
         this.clusterableStreams = clusterableStreams;
         this.agentNamePrefix = agentNamePrefix;
         this.inboundCompletionPosition = inboundCompletionPosition;
@@ -230,7 +248,13 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
         this.outboundLibraryFragmentLimit = configuration.outboundLibraryFragmentLimit();
         this.replayFragmentLimit = configuration.replayFragmentLimit();
+        this.catchupReplayFragmentLimit = configuration.catchupReplayFragmentLimit();
         this.inboundBytesReceivedLimit = configuration.inboundBytesReceivedLimit();
+        this.addressResolver = new AddressResolver(
+            configuration.addressCacheTtlInMs(), clock, agentNamePrefix + "AddressResolver");
+        this.placementStrategy = configuration.sessionPlacementStrategy();
+        this.migrationHandler = configuration.sessionMigrationHandler();
+        this.libraryLoadSampleIntervalInMs = configuration.libraryLoadSampleIntervalInMs();
 
         this.replaySlowPeeker = new SlowPeeker(replaySlowImage, replayImage);
         endPointFactory.replaySlowPeeker(replaySlowPeeker);
@@ -348,15 +372,25 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         return retryManager.attemptSteps() +
             sendOutboundMessages() +
             sendReplayMessages() +
+            forwardCatchupReplays() +
             pollEndPoints() +
             pollNewConnections(timeInMs) +
             pollLibraries(timeInMs) +
+            sampleLibraryLoad(timeInMs) +
+            placeSessions() +
             gatewaySessions.pollSessions(timeInMs) +
             senderEndPoints.checkTimeouts(timeInMs) +
             adminCommands.drain(onAdminCommand) +
+            writtenWatermarks.doWork() +
+            flushAbsorbedHeartbeats() +
             checkDutyCycle();
     }
 
+    private int flushAbsorbedHeartbeats()
+    {
+        return heartbeatAbsorber == null ? 0 : heartbeatAbsorber.doWork();
+    }
+
     private int checkDutyCycle()
     {
         return removeIf(replies, ResetSequenceNumberCommand::poll) +
@@ -393,6 +427,11 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             replaySlowPeeker.peek(replaySlowSubscriber);
     }
 
+    private int forwardCatchupReplays()
+    {
+        return catchupReplayImage.controlledPoll(catchupReplaySubscriber, catchupReplayFragmentLimit);
+    }
+
     private int sendOutboundMessages()
     {
         int messagesRead = librarySubscription.controlledPoll(librarySubscriber, outboundLibraryFragmentLimit);
@@ -420,6 +459,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 DebugLogger.log(CLUSTER_MANAGEMENT, "Timing out connection to library %s%n", library.libraryId());
 
                 iterator.remove();
+                writtenWatermarks.untrackLibrary(library.libraryId());
                 library.releaseSlowPeeker();
                 tryAcquireLibrarySessions(library);
                 saveLibraryTimeout(library);
@@ -431,6 +471,102 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         return total;
     }
 
+    private int sampleLibraryLoad(final long timeInMs)
+    {
+        if (placementStrategy == null || timeInMs < nextLibraryLoadSampleTimeInMs)
+        {
+            return 0;
+        }
+
+        nextLibraryLoadSampleTimeInMs = timeInMs + libraryLoadSampleIntervalInMs;
+        for (final LiveLibraryInfo library : idToLibrary.values())
+        {
+            library.sampleLoad(timeInMs);
+        }
+
+        if (migrationHandler != null)
+        {
+            placementStrategy.checkForHotSpots(libraryLoads(), migrationHandler);
+        }
+
+        return 1;
+    }
+
+    private List<LibraryLoad> libraryLoads()
+    {
+        final List<LibraryLoad> libraryLoads = this.libraryLoads;
+        libraryLoads.clear();
+        libraryLoads.addAll(idToLibrary.values());
+        return libraryLoads;
+    }
+
+    // Placement is deferred from the logon callback since the session is still in the middle of processing
+    // the logon message at that point.
+    private int placeSessions()
+    {
+        final List<GatewaySession> sessionsToPlace = this.sessionsToPlace;
+        final int size = sessionsToPlace.size();
+        if (size == 0)
+        {
+            return 0;
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            placeSession(sessionsToPlace.get(i));
+        }
+        sessionsToPlace.clear();
+
+        return size;
+    }
+
+    private void placeSession(final GatewaySession gatewaySession)
+    {
+        final Session session = gatewaySession.session();
+        if (null == session)
+        {
+            // Another library has requested the session in the meantime.
+            return;
+        }
+
+        final int libraryId = placementStrategy.placeSession(gatewaySession, libraryLoads());
+        final LiveLibraryInfo libraryInfo = idToLibrary.get(libraryId);
+        if (libraryInfo == null || !session.isActive())
+        {
+            notifySessionAvailable(gatewaySession);
+            return;
+        }
+
+        if (gatewaySessions.releaseBySessionId(gatewaySession.sessionId()) == null)
+        {
+            // The session is no longer managed by the engine, eg: it has disconnected, so it's not available either.
+            errorHandler.onError(new IllegalStateException(String.format(
+                "Failed to place session %d on library %d, since it's no longer managed by the engine",
+                gatewaySession.sessionId(),
+                libraryId)));
+            return;
+        }
+
+        final int lastSentSeqNum = session.lastSentMsgSeqNum();
+        final int lastRecvSeqNum = session.lastReceivedMsgSeqNum();
+        gatewaySession.handoverManagementTo(libraryId, libraryInfo.librarySlowPeeker());
+        libraryInfo.addSession(gatewaySession);
+
+        DebugLogger.log(
+            CLUSTER_MANAGEMENT, "Placing session %s on library %s%n", gatewaySession.sessionId(), libraryId);
+
+        schedule(() ->
+        {
+            final long position = saveManageSession(
+                libraryId, gatewaySession, lastSentSeqNum, lastRecvSeqNum, LogonStatus.NEW);
+            if (!isBackPressured(position))
+            {
+                gatewaySession.play();
+            }
+            return position;
+        });
+    }
+
     private void tryAcquireLibrarySessions(final LiveLibraryInfo library)
     {
         final int librarySessionId = library.aeronSessionId();
@@ -531,7 +667,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
     private int pollNewConnections(final long timeInMs) throws IOException
     {
-        return channelSupplier.pollSelector(timeInMs, onNewConnectionFunc);
+        return addressResolver.poll() + channelSupplier.pollSelector(timeInMs, onNewConnectionFunc);
     }
 
     private void onNewConnection(final long timeInMs, final TcpChannel channel) throws IOException
@@ -630,48 +766,56 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             return CONTINUE;
         }
 
-        try
-        {
-            final InetSocketAddress address = new InetSocketAddress(host, port);
-            channelSupplier.open(address,
-                (channel, ex) ->
+        addressResolver.resolve(host, port,
+            (address, resolutionEx) ->
+            {
+                if (resolutionEx != null)
                 {
-                    if (ex != null)
-                    {
-                        sessionContexts.onDisconnect(sessionContext.sessionId());
-                        saveError(UNABLE_TO_CONNECT, libraryId, correlationId, ex);
-                        return;
-                    }
-
-                    onConnectionOpen(
-                        libraryId,
-                        senderCompId,
-                        senderSubId,
-                        senderLocationId,
-                        targetCompId,
-                        targetSubId,
-                        targetLocationId,
-                        sequenceNumberType,
-                        resetSequenceNumber,
-                        username,
-                        password,
-                        heartbeatIntervalInS,
-                        correlationId,
-                        header,
-                        library,
-                        address,
-                        channel,
-                        sessionContext,
-                        sessionKey);
-                });
-        }
-        catch (final Exception ex)
-        {
-            sessionContexts.onDisconnect(sessionContext.sessionId());
-            saveError(UNABLE_TO_CONNECT, libraryId, correlationId, ex);
+                    sessionContexts.onDisconnect(sessionContext.sessionId());
+                    saveError(UNABLE_TO_CONNECT, libraryId, correlationId, resolutionEx);
+                    return;
+                }
 
-            return CONTINUE;
-        }
+                try
+                {
+                    channelSupplier.open(address,
+                        (channel, ex) ->
+                        {
+                            if (ex != null)
+                            {
+                                sessionContexts.onDisconnect(sessionContext.sessionId());
+                                saveError(UNABLE_TO_CONNECT, libraryId, correlationId, ex);
+                                return;
+                            }
+
+                            onConnectionOpen(
+                                libraryId,
+                                senderCompId,
+                                senderSubId,
+                                senderLocationId,
+                                targetCompId,
+                                targetSubId,
+                                targetLocationId,
+                                sequenceNumberType,
+                                resetSequenceNumber,
+                                username,
+                                password,
+                                heartbeatIntervalInS,
+                                correlationId,
+                                header,
+                                library,
+                                address,
+                                channel,
+                                sessionContext,
+                                sessionKey);
+                        });
+                }
+                catch (final Exception ex)
+                {
+                    sessionContexts.onDisconnect(sessionContext.sessionId());
+                    saveError(UNABLE_TO_CONNECT, libraryId, correlationId, ex);
+                }
+            });
 
         return CONTINUE;
     }
@@ -895,7 +1039,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final int libraryId,
         final String libraryName,
         final long correlationId,
-        final int aeronSessionId)
+        final int aeronSessionId,
+        final boolean tracksWatermarks)
     {
         final Action action = retryManager.retry(correlationId);
         if (action != null)
@@ -938,6 +1083,12 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 libraryId, libraryName, livenessDetector, aeronSessionId, librarySlowPeeker);
             idToLibrary.put(libraryId, library);
 
+            // Written positions are only in the library's coordinates when the framer reads its publication directly
+            if (tracksWatermarks && !isClustered())
+            {
+                writtenWatermarks.trackLibrary(libraryId);
+            }
+
             DebugLogger.log(CLUSTER_MANAGEMENT, "Library %s - %s connected %n", libraryId, libraryName);
 
             return COMPLETE;
@@ -1177,10 +1328,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 return;
             }
 
-            continuations.add(new CatchupReplayer(
-                inboundMessages,
-                inboundPublication,
-                errorHandler,
+            // The replay itself happens off the Framer thread, the reply is forwarded once it has completed.
+            final CatchupReplayer replayer = catchupReplayAgent.newReplayer(
                 correlationId,
                 connectionId,
                 libraryId,
@@ -1188,9 +1337,19 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 sequenceIndex,
                 replayFromSequenceNumber,
                 replayFromSequenceIndex,
-                session,
-                catchupTimeout(),
-                clock));
+                session.sessionId(),
+                catchupTimeout());
+
+            continuations.add(() ->
+            {
+                if (!catchupReplayAgent.enqueue(replayer))
+                {
+                    return BACK_PRESSURED;
+                }
+
+                catchupReplayForwarder.onCatchupStarted(correlationId, session);
+                return COMPLETE;
+            });
         }
         else
         {
@@ -1215,6 +1374,18 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     }
 
     private void onSessionLogon(final GatewaySession gatewaySession)
+    {
+        if (placementStrategy != null)
+        {
+            sessionsToPlace.add(gatewaySession);
+        }
+        else
+        {
+            notifySessionAvailable(gatewaySession);
+        }
+    }
+
+    private void notifySessionAvailable(final GatewaySession gatewaySession)
     {
         schedule(() ->
         {
@@ -1335,10 +1506,10 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     {
         Exceptions.closeAll(
             this::quiesce,
-            inboundMessages,
             receiverEndPoints,
             senderEndPoints,
-            channelSupplier);
+            channelSupplier,
+            addressResolver);
     }
 
     private void quiesce()
@@ -1383,6 +1554,11 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         }
     }
 
+    void onWrittenPosition(final int libraryId, final long sessionId, final long position)
+    {
+        writtenWatermarks.onWatermark(libraryId, sessionId, position);
+    }
+
     void slowStatus(final int libraryId, final long connectionId, final boolean hasBecomeSlow)
     {
         if (hasBecomeSlow)
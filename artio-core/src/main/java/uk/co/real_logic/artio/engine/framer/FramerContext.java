@@ -15,11 +15,13 @@
  */
 package uk.co.real_logic.artio.engine.framer;
 
+import io.aeron.ExclusivePublication;
 import io.aeron.Image;
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.*;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.Reply;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
@@ -28,6 +30,7 @@ import uk.co.real_logic.artio.engine.EngineDescriptorStore;
 import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.protocol.Streams;
+import uk.co.real_logic.artio.replication.ClusterablePublication;
 import uk.co.real_logic.artio.replication.ClusterableStreams;
 import uk.co.real_logic.artio.session.SessionIdStrategy;
 import uk.co.real_logic.artio.timing.EngineTimers;
@@ -49,6 +52,7 @@ public class FramerContext
     private final QueuedPipe<AdminCommand> adminCommands = new ManyToOneConcurrentArrayQueue<>(ADMIN_COMMAND_CAPACITY);
 
     private final Framer framer;
+    private final CatchupReplayAgent catchupReplayAgent;
 
     private final GatewaySessions gatewaySessions;
     private final SequenceNumberIndexReader sentSequenceNumberIndex;
@@ -65,6 +69,8 @@ public class FramerContext
         final ErrorHandler errorHandler,
         final Image replayImage,
         final Image slowReplayImage,
+        final ExclusivePublication catchupReplayPublication,
+        final Image catchupReplayImage,
         final EngineDescriptorStore engineDescriptorStore,
         final EngineTimers timers,
         final AgentInvoker conductorAgentInvoker)
@@ -116,12 +122,43 @@ public class FramerContext
 
         final FinalImagePositions finalImagePositions = new FinalImagePositions();
 
+        final int numPriorityClasses = configuration.receivePriorityClassWeights().length;
+        final AtomicCounter[] receivedBytes = new AtomicCounter[numPriorityClasses];
+        final AtomicCounter[] deferredReads = new AtomicCounter[numPriorityClasses];
+        for (int priorityClass = 0; priorityClass < numPriorityClasses; priorityClass++)
+        {
+            receivedBytes[priorityClass] = fixCounters.receivedBytes(priorityClass);
+            deferredReads[priorityClass] = fixCounters.deferredReads(priorityClass);
+        }
+
+        final ReceiverEndPoints receiverEndPoints = new ReceiverEndPoints(
+            configuration.receiverReadQuantum(),
+            configuration.receivePriorityClassWeights(),
+            receivedBytes,
+            deferredReads);
+
+        final GatewayPublication catchupPublication = new GatewayPublication(
+            ClusterablePublication.solo(catchupReplayPublication),
+            fixCounters.failedInboundPublications(),
+            configuration.archiverIdleStrategy(),
+            configuration.nanoClock(),
+            configuration.inboundMaxClaimAttempts());
+
+        catchupReplayAgent = new CatchupReplayAgent(
+            engineContext.inboundReplayQuery(),
+            catchupPublication,
+            errorHandler,
+            clock,
+            configuration.catchupReplayMessageLimit(),
+            configuration.agentNamePrefix());
+
         framer = new Framer(
             clock,
             timers.outboundTimer(),
             timers.sendTimer(),
             configuration,
             endPointFactory,
+            receiverEndPoints,
             streams,
             engineContext.outboundClusterSubscription(),
             engineContext.outboundClusterSubscription(),
@@ -131,7 +168,8 @@ public class FramerContext
                 "outboundSlowSubscription", null),
             replayImage,
             slowReplayImage,
-            engineContext.inboundReplayQuery(),
+            catchupReplayImage,
+            catchupReplayAgent,
             outboundPublication,
             inboundLibraryPublication,
             adminCommands,
@@ -156,6 +194,11 @@ public class FramerContext
         return framer;
     }
 
+    public Agent catchupReplayAgent()
+    {
+        return catchupReplayAgent;
+    }
+
     public Reply<List<LibraryInfo>> libraries()
     {
         final QueryLibrariesCommand reply = new QueryLibrariesCommand();
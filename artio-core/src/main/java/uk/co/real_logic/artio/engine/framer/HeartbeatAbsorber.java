@@ -0,0 +1,197 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.collections.Long2ObjectHashMap;
+import uk.co.real_logic.artio.Pressure;
+import uk.co.real_logic.artio.decoder.HeaderDecoder;
+import uk.co.real_logic.artio.decoder.HeartbeatDecoder;
+import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static uk.co.real_logic.artio.builder.Validation.CODEC_VALIDATION_ENABLED;
+import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
+import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_LONG;
+
+/**
+ * Handles plain inbound heartbeats of library owned sessions on the framer, rather than passing each one through
+ * to the library that owns the session.
+ * <p>
+ * Consecutive heartbeats on a connection are folded into a single run, which only records the sequence numbers
+ * of its first and last heartbeat and the sending time of its last. Runs are published to libraries in batches
+ * on each duty cycle. A heartbeat that can't extend its connection's run, or that carries anything that the
+ * library needs to act on, isn't absorbed and any pending runs must be published before it.
+ * <p>
+ * Not thread safe, owned by the Framer.
+ */
+class HeartbeatAbsorber
+{
+    static final int MAX_BATCH_SIZE = 128;
+
+    private final HeartbeatDecoder heartbeat = new HeartbeatDecoder();
+    private final UtcTimestampDecoder timestampDecoder = new UtcTimestampDecoder();
+    private final Long2ObjectHashMap<Run> connectionIdToRun = new Long2ObjectHashMap<>();
+    private final List<Run> pendingRuns = new ArrayList<>();
+    private final ArrayDeque<Run> freeRuns = new ArrayDeque<>();
+
+    private final long[] connectionIds = new long[MAX_BATCH_SIZE];
+    private final long[] sessionIds = new long[MAX_BATCH_SIZE];
+    private final int[] firstMsgSeqNums = new int[MAX_BATCH_SIZE];
+    private final int[] lastMsgSeqNums = new int[MAX_BATCH_SIZE];
+    private final long[] sendingTimes = new long[MAX_BATCH_SIZE];
+
+    private final GatewayPublication publication;
+
+    HeartbeatAbsorber(final GatewayPublication publication)
+    {
+        this.publication = publication;
+    }
+
+    /**
+     * Attempt to absorb an inbound heartbeat.
+     *
+     * @param buffer the buffer containing the heartbeat.
+     * @param offset the offset of the heartbeat within the buffer.
+     * @param length the length of the heartbeat.
+     * @param connectionId the connection that the heartbeat was received on.
+     * @param sessionId the session that the heartbeat was received on.
+     * @return true if the heartbeat has been absorbed, false if it needs to be handled as a normal message.
+     */
+    boolean absorb(
+        final AsciiBuffer buffer,
+        final int offset,
+        final int length,
+        final long connectionId,
+        final long sessionId)
+    {
+        final HeartbeatDecoder heartbeat = this.heartbeat;
+        heartbeat.reset();
+        heartbeat.decode(buffer, offset, length);
+        final HeaderDecoder header = heartbeat.header();
+        if ((CODEC_VALIDATION_ENABLED && !heartbeat.validate()) ||
+            heartbeat.hasTestReqID() ||
+            (header.hasPossDupFlag() && header.possDupFlag()) ||
+            (header.hasPossResend() && header.possResend()))
+        {
+            return false;
+        }
+
+        final int msgSeqNum = header.msgSeqNum();
+        if (msgSeqNum == MISSING_INT)
+        {
+            return false;
+        }
+
+        Run run = connectionIdToRun.get(connectionId);
+        if (run == null)
+        {
+            run = freeRuns.isEmpty() ? new Run() : freeRuns.poll();
+            run.connectionId = connectionId;
+            run.sessionId = sessionId;
+            run.firstMsgSeqNum = msgSeqNum;
+            connectionIdToRun.put(connectionId, run);
+            pendingRuns.add(run);
+        }
+        else if (msgSeqNum != run.lastMsgSeqNum + 1)
+        {
+            // Let the library deal with gaps and low sequence numbers.
+            return false;
+        }
+
+        run.lastMsgSeqNum = msgSeqNum;
+        run.sendingTime = sendingTime(header);
+
+        return true;
+    }
+
+    boolean hasPendingRun(final long connectionId)
+    {
+        return connectionIdToRun.containsKey(connectionId);
+    }
+
+    int doWork()
+    {
+        final int pendingRunCount = pendingRuns.size();
+        flush();
+        return pendingRunCount - pendingRuns.size();
+    }
+
+    /**
+     * Publish all pending runs.
+     *
+     * @return true if all the runs have been published, false if the publication was back pressured.
+     */
+    boolean flush()
+    {
+        final List<Run> pendingRuns = this.pendingRuns;
+        while (!pendingRuns.isEmpty())
+        {
+            final int count = Math.min(pendingRuns.size(), MAX_BATCH_SIZE);
+            for (int i = 0; i < count; i++)
+            {
+                final Run run = pendingRuns.get(i);
+                connectionIds[i] = run.connectionId;
+                sessionIds[i] = run.sessionId;
+                firstMsgSeqNums[i] = run.firstMsgSeqNum;
+                lastMsgSeqNums[i] = run.lastMsgSeqNum;
+                sendingTimes[i] = run.sendingTime;
+            }
+
+            final long position = publication.saveAbsorbedHeartbeats(
+                connectionIds, sessionIds, firstMsgSeqNums, lastMsgSeqNums, sendingTimes, count);
+            if (Pressure.isBackPressured(position))
+            {
+                return false;
+            }
+
+            final List<Run> publishedRuns = pendingRuns.subList(0, count);
+            for (int i = 0; i < count; i++)
+            {
+                final Run run = publishedRuns.get(i);
+                connectionIdToRun.remove(run.connectionId);
+                freeRuns.add(run);
+            }
+            publishedRuns.clear();
+        }
+
+        return true;
+    }
+
+    private long sendingTime(final HeaderDecoder header)
+    {
+        if (!CODEC_VALIDATION_ENABLED)
+        {
+            return MISSING_LONG;
+        }
+
+        final byte[] sendingTime = header.sendingTime();
+        return timestampDecoder.decode(sendingTime, sendingTime.length);
+    }
+
+    private static final class Run
+    {
+        private long connectionId;
+        private long sessionId;
+        private int firstMsgSeqNum;
+        private int lastMsgSeqNum;
+        private long sendingTime;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import uk.co.real_logic.artio.engine.SessionInfo;
+
+import java.util.List;
+
+/**
+ * Places sessions on the library with the lowest load, where load is the library's outbound rate plus its
+ * outbound backlog, ties are broken by the number of sessions each library manages.
+ * <p>
+ * A library is considered a hot spot when its load is more than the hot spot ratio times the mean load and above
+ * a minimum load, in which case the most recently acquired session is suggested for migration to the least loaded
+ * library. At most one migration is suggested per check in order to avoid every session moving at once.
+ */
+public class LeastLoadedPlacementStrategy implements SessionPlacementStrategy
+{
+    public static final double DEFAULT_HOT_SPOT_RATIO = 2.0;
+    public static final long DEFAULT_MINIMUM_HOT_SPOT_LOAD = 64 * 1024;
+
+    private final double hotSpotRatio;
+    private final long minimumHotSpotLoad;
+
+    public LeastLoadedPlacementStrategy()
+    {
+        this(DEFAULT_HOT_SPOT_RATIO, DEFAULT_MINIMUM_HOT_SPOT_LOAD);
+    }
+
+    /**
+     * Create the strategy.
+     *
+     * @param hotSpotRatio how many times the mean load a library needs to exceed before it's a hot spot.
+     * @param minimumHotSpotLoad the load in bytes below which a library is never considered a hot spot.
+     */
+    public LeastLoadedPlacementStrategy(final double hotSpotRatio, final long minimumHotSpotLoad)
+    {
+        if (hotSpotRatio <= 1.0)
+        {
+            throw new IllegalArgumentException("hotSpotRatio must be greater than 1, but was " + hotSpotRatio);
+        }
+
+        this.hotSpotRatio = hotSpotRatio;
+        this.minimumHotSpotLoad = minimumHotSpotLoad;
+    }
+
+    public int placeSession(final SessionInfo session, final List<LibraryLoad> libraries)
+    {
+        final LibraryLoad leastLoaded = leastLoaded(libraries);
+        return leastLoaded == null ? KEEP_IN_ENGINE : leastLoaded.libraryId();
+    }
+
+    public void checkForHotSpots(final List<LibraryLoad> libraries, final SessionMigrationHandler migrationHandler)
+    {
+        final int size = libraries.size();
+        if (size < 2)
+        {
+            return;
+        }
+
+        LibraryLoad mostLoaded = null;
+        long mostLoad = Long.MIN_VALUE;
+        long totalLoad = 0;
+        for (int i = 0; i < size; i++)
+        {
+            final LibraryLoad library = libraries.get(i);
+            final long load = load(library);
+            totalLoad += load;
+            if (load > mostLoad)
+            {
+                mostLoad = load;
+                mostLoaded = library;
+            }
+        }
+
+        final double meanLoad = (double)totalLoad / size;
+        if (mostLoad < minimumHotSpotLoad || mostLoad <= hotSpotRatio * meanLoad || mostLoaded.sessionCount() < 2)
+        {
+            return;
+        }
+
+        final LibraryLoad leastLoaded = leastLoaded(libraries);
+        final List<? extends SessionInfo> sessions = mostLoaded.sessions();
+        if (leastLoaded == mostLoaded || sessions.isEmpty())
+        {
+            return;
+        }
+
+        final SessionInfo session = sessions.get(sessions.size() - 1);
+        migrationHandler.onMigrationSuggested(session.sessionId(), mostLoaded.libraryId(), leastLoaded.libraryId());
+    }
+
+    private static LibraryLoad leastLoaded(final List<LibraryLoad> libraries)
+    {
+        LibraryLoad leastLoaded = null;
+        long leastLoad = Long.MAX_VALUE;
+        for (int i = 0, size = libraries.size(); i < size; i++)
+        {
+            final LibraryLoad library = libraries.get(i);
+            final long load = load(library);
+            if (load < leastLoad || (load == leastLoad && library.sessionCount() < leastLoaded.sessionCount()))
+            {
+                leastLoad = load;
+                leastLoaded = library;
+            }
+        }
+
+        return leastLoaded;
+    }
+
+    private static long load(final LibraryLoad library)
+    {
+        return library.outboundBytesPerSecond() + library.outboundBacklog();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+/**
+ * Engine side view of how busy a library instance is, used in order to decide where sessions get placed.
+ *
+ * @see SessionPlacementStrategy
+ */
+public interface LibraryLoad extends LibraryInfo
+{
+    /**
+     * Get the number of sessions currently managed by this library.
+     *
+     * @return the number of sessions currently managed by this library.
+     */
+    int sessionCount();
+
+    /**
+     * Get the rate at which the engine has been reading messages that this library has sent, measured over the last
+     * library load sample interval.
+     *
+     * @return the outbound rate from this library in bytes per second.
+     * @see uk.co.real_logic.artio.engine.EngineConfiguration#libraryLoadSampleIntervalInMs(long)
+     */
+    long outboundBytesPerSecond();
+
+    /**
+     * Get the number of bytes that this library has sent, but the engine hasn't yet managed to write out to
+     * slow sessions. This is the difference between the normal and slow Aeron positions of the library's stream.
+     *
+     * @return the outbound backlog of this library in bytes.
+     */
+    long outboundBacklog();
+}
@@ -24,8 +24,10 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
 import static java.util.Collections.unmodifiableList;
 
-final class LiveLibraryInfo implements LibraryInfo
+final class LiveLibraryInfo implements LibraryLoad
 {
+    private static final long NO_SAMPLE = -1;
+
     private final int libraryId;
     private final String libraryName;
     private final LivenessDetector livenessDetector;
@@ -34,6 +36,9 @@ final class LiveLibraryInfo implements LibraryInfo
     private final List<GatewaySession> allSessions = new CopyOnWriteArrayList<>();
     private final List<SessionInfo> unmodifiableAllSessions = unmodifiableList(allSessions);
     private long acquireAtPosition;
+    private long lastSampleTimeInMs = NO_SAMPLE;
+    private long lastSamplePosition;
+    private volatile long outboundBytesPerSecond;
 
     LiveLibraryInfo(
         final int libraryId,
@@ -64,6 +69,21 @@ final class LiveLibraryInfo implements LibraryInfo
         return unmodifiableAllSessions;
     }
 
+    public int sessionCount()
+    {
+        return allSessions.size();
+    }
+
+    public long outboundBytesPerSecond()
+    {
+        return outboundBytesPerSecond;
+    }
+
+    public long outboundBacklog()
+    {
+        return Math.max(0, librarySlowPeeker.normalImage.position() - librarySlowPeeker.peekImage.position());
+    }
+
     public String toString()
     {
         return "LibraryInfo{" +
@@ -92,6 +112,19 @@ final class LiveLibraryInfo implements LibraryInfo
         return livenessDetector.poll(timeInMs);
     }
 
+    void sampleLoad(final long timeInMs)
+    {
+        final long position = librarySlowPeeker.normalImage.position();
+        final long elapsedInMs = timeInMs - lastSampleTimeInMs;
+        if (lastSampleTimeInMs != NO_SAMPLE && elapsedInMs > 0)
+        {
+            outboundBytesPerSecond = ((position - lastSamplePosition) * 1000) / elapsedInMs;
+        }
+
+        lastSamplePosition = position;
+        lastSampleTimeInMs = timeInMs;
+    }
+
     boolean isConnected()
     {
         return livenessDetector.isConnected();
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.status.AtomicCounter;
+
+/**
+ * Token bucket that limits the rate at which a connection's outbound messages are written to TCP.
+ * <p>
+ * The bucket holds up to a window's worth of messages and is refilled continuously over the window, so a
+ * session can burst up to the limit but not sustain more than the limit per window. Messages that can't
+ * acquire a token aren't dropped, the sender end point holds them back in the outbound stream in the same way
+ * that it handles slow consumers.
+ * <p>
+ * Not thread safe, owned by the Framer.
+ */
+class OutboundThrottle implements AutoCloseable
+{
+    private final int messagesPerWindow;
+    private final long windowInMs;
+    private final AtomicCounter throttledMessages;
+
+    private long tokens;
+    private long lastRefillTimeInMs;
+    private long lastThrottledPosition = Long.MIN_VALUE;
+
+    OutboundThrottle(
+        final int messagesPerWindow,
+        final long windowInMs,
+        final AtomicCounter throttledMessages,
+        final long timeInMs)
+    {
+        if (messagesPerWindow <= 0 || windowInMs <= 0)
+        {
+            throw new IllegalArgumentException(String.format(
+                "Invalid outbound throttle: messagesPerWindow = %d, windowInMs = %d", messagesPerWindow, windowInMs));
+        }
+
+        this.messagesPerWindow = messagesPerWindow;
+        this.windowInMs = windowInMs;
+        this.throttledMessages = throttledMessages;
+
+        tokens = messagesPerWindow;
+        lastRefillTimeInMs = timeInMs;
+    }
+
+    /**
+     * Attempt to acquire a token to send the message ending at the given position.
+     *
+     * @param position the position of the end of the message in the outbound stream.
+     * @param timeInMs the current time.
+     * @return true if the message can be sent, false if it should be held back and retried.
+     */
+    boolean tryAcquire(final long position, final long timeInMs)
+    {
+        refill(timeInMs);
+
+        if (tokens > 0)
+        {
+            tokens--;
+            return true;
+        }
+
+        // A held back message is retried until it can be sent, only count it once.
+        if (position != lastThrottledPosition)
+        {
+            lastThrottledPosition = position;
+            throttledMessages.incrementOrdered();
+        }
+
+        return false;
+    }
+
+    private void refill(final long timeInMs)
+    {
+        final long elapsedInMs = timeInMs - lastRefillTimeInMs;
+        final long newTokens = (elapsedInMs * messagesPerWindow) / windowInMs;
+        if (newTokens > 0)
+        {
+            final long tokens = this.tokens + newTokens;
+            if (tokens >= messagesPerWindow)
+            {
+                this.tokens = messagesPerWindow;
+                lastRefillTimeInMs = timeInMs;
+            }
+            else
+            {
+                this.tokens = tokens;
+                // Only advance by the time converted into tokens, so that fractions of a token aren't lost.
+                lastRefillTimeInMs += (newTokens * windowInMs) / messagesPerWindow;
+            }
+        }
+    }
+
+    public void close()
+    {
+        throttledMessages.close();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import uk.co.real_logic.artio.engine.SessionInfo;
+
+/**
+ * Decides which priority class a session's inbound TCP reads are scheduled in.
+ * <p>
+ * Receiver end points are polled in ascending order of priority class on each duty cycle, so latency sensitive
+ * sessions can be placed in class 0 in order to be read ahead of noisier sessions. When a read quantum is configured
+ * each class is also weighted, so that a chatty session can't consume the Framer's whole inbound read budget.
+ * <p>
+ * Sessions are classified when their session key is known, on logon for acceptors, and are in
+ * {@link #DEFAULT_PRIORITY_CLASS} until then. Invoked on the Framer thread.
+ *
+ * @see uk.co.real_logic.artio.engine.EngineConfiguration#receivePriorityStrategy(ReceivePriorityStrategy)
+ * @see uk.co.real_logic.artio.engine.EngineConfiguration#receivePriorityClassWeights(int...)
+ */
+@FunctionalInterface
+public interface ReceivePriorityStrategy
+{
+    int DEFAULT_PRIORITY_CLASS = 0;
+
+    /**
+     * Choose the priority class of a session.
+     *
+     * @param session the session that has just been identified.
+     * @return the priority class, from 0 up to the number of configured priority class weights minus one. Out of
+     * range values are clamped into that range.
+     */
+    int priorityClass(SessionInfo session);
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
+
+/**
+ * Pool of off-heap framing buffers for receiver end points.
+ * <p>
+ * Buffers come in power of two size classes from the minimum buffer size up to the maximum buffer size. Each size
+ * class is carved out of slabs of direct memory in order to avoid fragmenting the native heap and buffers
+ * are never freed, only returned to the pool, so connection churn doesn't allocate new direct buffers.
+ * <p>
+ * Not thread safe, owned by the Framer.
+ */
+class ReceiverBufferPool
+{
+    static final int SLAB_SIZE = 64 * 1024;
+
+    private final int[] sizeClasses;
+    private final ArrayDeque<ByteBuffer>[] freeBuffers;
+    private final AtomicCounter bytesInUse;
+    private final AtomicCounter bytesAllocated;
+
+    ReceiverBufferPool(
+        final int minBufferSize,
+        final int maxBufferSize,
+        final AtomicCounter bytesInUse,
+        final AtomicCounter bytesAllocated)
+    {
+        if (minBufferSize <= 0 || minBufferSize > maxBufferSize)
+        {
+            throw new IllegalArgumentException(String.format(
+                "Invalid receiver buffer sizes: min = %d, max = %d", minBufferSize, maxBufferSize));
+        }
+
+        this.bytesInUse = bytesInUse;
+        this.bytesAllocated = bytesAllocated;
+
+        int numberOfClasses = 1;
+        for (int size = minBufferSize; size < maxBufferSize; size = findNextPositivePowerOfTwo(size + 1))
+        {
+            numberOfClasses++;
+        }
+
+        sizeClasses = new int[numberOfClasses];
+        freeBuffers = newFreeBuffers(numberOfClasses);
+        int size = minBufferSize;
+        for (int i = 0; i < numberOfClasses; i++)
+        {
+            sizeClasses[i] = Math.min(size, maxBufferSize);
+            freeBuffers[i] = new ArrayDeque<>();
+            size = findNextPositivePowerOfTwo(size + 1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArrayDeque<ByteBuffer>[] newFreeBuffers(final int numberOfClasses)
+    {
+        return (ArrayDeque<ByteBuffer>[])new ArrayDeque<?>[numberOfClasses];
+    }
+
+    int minBufferSize()
+    {
+        return sizeClasses[0];
+    }
+
+    int maxBufferSize()
+    {
+        return sizeClasses[sizeClasses.length - 1];
+    }
+
+    ByteBuffer acquireSmallest()
+    {
+        return acquire(0);
+    }
+
+    /**
+     * Acquire a buffer from the next size class up from the provided buffer.
+     *
+     * @param buffer the buffer currently in use.
+     * @return the new buffer or null if the buffer is already of the maximum size.
+     */
+    ByteBuffer acquireLarger(final ByteBuffer buffer)
+    {
+        final int sizeClass = sizeClassOf(buffer);
+        if (sizeClass == sizeClasses.length - 1)
+        {
+            return null;
+        }
+
+        return acquire(sizeClass + 1);
+    }
+
+    /**
+     * Acquire a buffer from the next size class down from the provided buffer.
+     *
+     * @param buffer the buffer currently in use.
+     * @return the new buffer or null if the buffer is already of the minimum size.
+     */
+    ByteBuffer acquireSmaller(final ByteBuffer buffer)
+    {
+        final int sizeClass = sizeClassOf(buffer);
+        if (sizeClass == 0)
+        {
+            return null;
+        }
+
+        return acquire(sizeClass - 1);
+    }
+
+    void release(final ByteBuffer buffer)
+    {
+        buffer.clear();
+        freeBuffers[sizeClassOf(buffer)].addLast(buffer);
+        bytesInUse.getAndAddOrdered(-buffer.capacity());
+    }
+
+    private ByteBuffer acquire(final int sizeClass)
+    {
+        final ArrayDeque<ByteBuffer> freeBuffers = this.freeBuffers[sizeClass];
+        if (freeBuffers.isEmpty())
+        {
+            allocateSlab(sizeClass, freeBuffers);
+        }
+
+        final ByteBuffer buffer = freeBuffers.pollFirst();
+        bytesInUse.getAndAddOrdered(buffer.capacity());
+        return buffer;
+    }
+
+    private void allocateSlab(final int sizeClass, final ArrayDeque<ByteBuffer> freeBuffers)
+    {
+        final int bufferSize = sizeClasses[sizeClass];
+        final int buffersPerSlab = Math.max(1, SLAB_SIZE / bufferSize);
+        final ByteBuffer slab = ByteBuffer.allocateDirect(bufferSize * buffersPerSlab);
+        for (int i = 0; i < buffersPerSlab; i++)
+        {
+            final int offset = i * bufferSize;
+            ByteBufferUtil.limit(slab, offset + bufferSize);
+            ByteBufferUtil.position(slab, offset);
+            freeBuffers.addLast(slab.slice());
+        }
+
+        bytesAllocated.getAndAddOrdered(slab.capacity());
+    }
+
+    private int sizeClassOf(final ByteBuffer buffer)
+    {
+        final int capacity = buffer.capacity();
+        final int[] sizeClasses = this.sizeClasses;
+        for (int i = 0; i < sizeClasses.length; i++)
+        {
+            if (sizeClasses[i] == capacity)
+            {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException("Buffer of capacity " + capacity + " wasn't acquired from this pool");
+    }
+}
@@ -20,6 +20,7 @@ import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.Pressure;
+import uk.co.real_logic.artio.decoder.HeartbeatDecoder;
 import uk.co.real_logic.artio.decoder.LogonDecoder;
 import uk.co.real_logic.artio.dictionary.StandardFixConstants;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
@@ -41,6 +42,7 @@ import static java.nio.channels.SelectionKey.OP_READ;
 import static uk.co.real_logic.artio.LogTag.FIX_MESSAGE;
 import static uk.co.real_logic.artio.dictionary.StandardFixConstants.MIN_MESSAGE_SIZE;
 import static uk.co.real_logic.artio.dictionary.StandardFixConstants.START_OF_HEADER;
+import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
 import static uk.co.real_logic.artio.messages.ConnectionType.INITIATOR;
 import static uk.co.real_logic.artio.messages.DisconnectReason.*;
 import static uk.co.real_logic.artio.messages.MessageStatus.*;
@@ -72,6 +74,17 @@ class ReceiverEndPoint
     private static final int MIN_CHECKSUM_SIZE = " 10=".length() + 1;
     private static final int SOCKET_DISCONNECTED = -1;
     private static final int UNKNOWN_MESSAGE_TYPE = -1;
+    private static final byte[] EMPTY_BUFFER = new byte[0];
+
+    // Number of consecutive polls that leave the buffer empty, having read less than a quarter of it, before
+    // the end point's buffer is swapped for a smaller one.
+    static final int SHRINK_AFTER_UNDERUSED_POLLS = 64;
+
+    // Passed to pollForData() in order to read as much as the buffer can take.
+    static final int NO_READ_QUANTUM = 0;
+
+    // A backlogged end point can carry over at most this many quanta of unused read deficit.
+    private static final int MAX_DEFICIT_QUANTA = 2;
 
     private final LogonDecoder logon = new LogonDecoder();
 
@@ -86,9 +99,11 @@ class ReceiverEndPoint
     private final Framer framer;
     private final ErrorHandler errorHandler;
     private final MutableAsciiBuffer buffer;
-    private final ByteBuffer byteBuffer;
+    private final ReceiverBufferPool bufferPool;
     private final LongHashSet replicatedConnectionIds;
     private final GatewaySessions gatewaySessions;
+    private final ReceivePriorityStrategy receivePriorityStrategy;
+    private final HeartbeatAbsorber heartbeatAbsorber;
 
     private GatewayPublication publication;
     private int libraryId;
@@ -99,10 +114,16 @@ class ReceiverEndPoint
     private boolean hasDisconnected = false;
     private SelectionKey selectionKey;
     private boolean isPaused = false;
+    private ByteBuffer byteBuffer;
+    private int underusedPolls = 0;
+    private int priorityClass = ReceivePriorityStrategy.DEFAULT_PRIORITY_CLASS;
+    private int readDeficit = 0;
+    private int lastDataRead = 0;
+    private boolean readDeferred = false;
 
     ReceiverEndPoint(
         final TcpChannel channel,
-        final int bufferSize,
+        final ReceiverBufferPool bufferPool,
         final GatewayPublication libraryPublication,
         final GatewayPublication clusterablePublication,
         final long connectionId,
@@ -118,7 +139,9 @@ class ReceiverEndPoint
         final SequenceNumberType sequenceNumberType,
         final ConnectionType connectionType,
         final LongHashSet replicatedConnectionIds,
-        final GatewaySessions gatewaySessions)
+        final GatewaySessions gatewaySessions,
+        final ReceivePriorityStrategy receivePriorityStrategy,
+        final HeartbeatAbsorber heartbeatAbsorber)
     {
         Objects.requireNonNull(clusterablePublication, "clusterablePublication");
         Objects.requireNonNull(libraryPublication, "libraryPublication");
@@ -140,8 +163,12 @@ class ReceiverEndPoint
         this.libraryId = libraryId;
         this.replicatedConnectionIds = replicatedConnectionIds;
         this.gatewaySessions = gatewaySessions;
+        this.receivePriorityStrategy = receivePriorityStrategy;
+        this.heartbeatAbsorber = heartbeatAbsorber;
 
-        byteBuffer = ByteBuffer.allocateDirect(bufferSize);
+        this.bufferPool = bufferPool;
+
+        byteBuffer = bufferPool.acquireSmallest();
         buffer = new MutableAsciiBuffer(byteBuffer);
         // Initiator sessions are persistent if the sequence numbers are expected to be persistent.
         if (connectionType == INITIATOR)
@@ -157,6 +184,24 @@ class ReceiverEndPoint
 
     int pollForData()
     {
+        return pollForData(NO_READ_QUANTUM);
+    }
+
+    /**
+     * Read and frame any available data.
+     * <p>
+     * Reads are scheduled by deficit round robin: each poll adds the quantum to the end point's read deficit and
+     * no more than the deficit is read. Unused deficit is only carried over whilst the end point remains backlogged.
+     *
+     * @param readQuantum the number of bytes that the end point is allowed to read on this poll, or
+     *                    {@link #NO_READ_QUANTUM} to read as much as the buffer can take.
+     * @return the amount of work done.
+     */
+    int pollForData(final int readQuantum)
+    {
+        lastDataRead = 0;
+        readDeferred = false;
+
         if (isPaused || hasDisconnected())
         {
             return 0;
@@ -164,7 +209,10 @@ class ReceiverEndPoint
 
         try
         {
-            return readData() + frameMessages();
+            final int dataRead = readData(readQuantum);
+            final int bytesFramed = frameMessages();
+            resizeBuffer(dataRead);
+            return dataRead + bytesFramed;
         }
         catch (final ClosedChannelException ex)
         {
@@ -184,9 +232,36 @@ class ReceiverEndPoint
         }
     }
 
-    private int readData() throws IOException
+    private int readData(final int readQuantum) throws IOException
     {
-        final int dataRead = channel.read(byteBuffer);
+        final ByteBuffer byteBuffer = this.byteBuffer;
+        final int limit = byteBuffer.limit();
+        final int remaining = limit - byteBuffer.position();
+        int readLimit = remaining;
+        if (readQuantum != NO_READ_QUANTUM)
+        {
+            readDeficit = Math.min(readDeficit + readQuantum, MAX_DEFICIT_QUANTA * readQuantum);
+            readLimit = Math.min(remaining, readDeficit);
+        }
+
+        final int dataRead;
+        if (readLimit < remaining)
+        {
+            ByteBufferUtil.limit(byteBuffer, byteBuffer.position() + readLimit);
+            try
+            {
+                dataRead = channel.read(byteBuffer);
+            }
+            finally
+            {
+                ByteBufferUtil.limit(byteBuffer, limit);
+            }
+        }
+        else
+        {
+            dataRead = channel.read(byteBuffer);
+        }
+
         if (dataRead != SOCKET_DISCONNECTED)
         {
             if (dataRead > 0)
@@ -194,6 +269,16 @@ class ReceiverEndPoint
                 DebugLogger.log(FIX_MESSAGE, "Read     %s%n", buffer, 0, dataRead);
             }
             usedBufferData += dataRead;
+            lastDataRead = dataRead;
+
+            if (readQuantum != NO_READ_QUANTUM)
+            {
+                // Reading less than allowed means the socket has been drained, so as in DRR an idle flow
+                // doesn't get to bank its deficit.
+                final boolean backlogged = dataRead == readLimit;
+                readDeficit = backlogged ? readDeficit - dataRead : 0;
+                readDeferred = backlogged && readLimit < remaining;
+            }
         }
         else
         {
@@ -204,6 +289,48 @@ class ReceiverEndPoint
     }
 
 
+    // Connections whose buffers fill up move into a larger size class, idle connections drop down a size class.
+    private void resizeBuffer(final int dataRead)
+    {
+        if (hasDisconnected)
+        {
+            return;
+        }
+
+        final ByteBuffer byteBuffer = this.byteBuffer;
+        final int capacity = byteBuffer.capacity();
+        if (usedBufferData == capacity)
+        {
+            underusedPolls = 0;
+            swapBuffer(bufferPool.acquireLarger(byteBuffer));
+        }
+        else if (usedBufferData == 0 && dataRead < (capacity >> 2) && capacity > bufferPool.minBufferSize())
+        {
+            if (++underusedPolls >= SHRINK_AFTER_UNDERUSED_POLLS)
+            {
+                underusedPolls = 0;
+                swapBuffer(bufferPool.acquireSmaller(byteBuffer));
+            }
+        }
+        else
+        {
+            underusedPolls = 0;
+        }
+    }
+
+    private void swapBuffer(final ByteBuffer newByteBuffer)
+    {
+        if (newByteBuffer != null)
+        {
+            final ByteBuffer oldByteBuffer = byteBuffer;
+            buffer.getBytes(0, newByteBuffer, usedBufferData);
+            byteBuffer = newByteBuffer;
+            buffer.wrap(newByteBuffer);
+            ByteBufferUtil.position(newByteBuffer, usedBufferData);
+            bufferPool.release(oldByteBuffer);
+        }
+    }
+
     private int frameMessages()
     {
         int offset = 0;
@@ -379,6 +506,7 @@ class ReceiverEndPoint
 
         sessionId = gatewaySession.sessionId();
         sequenceIndex = gatewaySession.sequenceIndex();
+        classifyPriority();
 
         choosePublication(gatewaySession.persistenceLevel());
 
@@ -398,6 +526,20 @@ class ReceiverEndPoint
 
     private boolean saveMessage(final int offset, final int messageType, final int length)
     {
+        final HeartbeatAbsorber heartbeatAbsorber = this.heartbeatAbsorber;
+        if (heartbeatAbsorber != null && canAbsorb(messageType) &&
+            heartbeatAbsorber.absorb(buffer, offset, length, connectionId, sessionId))
+        {
+            return false;
+        }
+
+        // Absorbed heartbeats have to reach the library before any later message on this connection.
+        if (heartbeatAbsorber != null && heartbeatAbsorber.hasPendingRun(connectionId) && !heartbeatAbsorber.flush())
+        {
+            moveRemainingDataToBufferStart(offset);
+            return true;
+        }
+
         final long position = publication.saveMessage(buffer,
             offset,
             length,
@@ -420,6 +562,14 @@ class ReceiverEndPoint
         }
     }
 
+    // Engine managed sessions run their own session logic and replicated messages have to go through the cluster.
+    private boolean canAbsorb(final int messageType)
+    {
+        return messageType == HeartbeatDecoder.MESSAGE_TYPE &&
+            libraryId != ENGINE_LIBRARY_ID &&
+            publication == libraryPublication;
+    }
+
     private boolean validateBodyLength(final int startOfChecksumTag)
     {
         return buffer.getByte(startOfChecksumTag) == CHECKSUM0 &&
@@ -458,6 +608,12 @@ class ReceiverEndPoint
 
     private void moveRemainingDataToBufferStart(final int offset)
     {
+        // The end point can be closed whilst framing, at which point its buffer has been returned to the pool.
+        if (byteBuffer == null)
+        {
+            return;
+        }
+
         usedBufferData -= offset;
         buffer.putBytes(0, buffer, offset, usedBufferData);
         // position set to ensure that back pressure is applied to TCP when read(byteBuffer) called.
@@ -549,6 +705,14 @@ class ReceiverEndPoint
         {
             errorHandler.onError(ex);
         }
+
+        if (byteBuffer != null)
+        {
+            // Pooled memory gets reused by other end points, so this end point mustn't be able to touch it.
+            buffer.wrap(EMPTY_BUFFER);
+            bufferPool.release(byteBuffer);
+            byteBuffer = null;
+        }
     }
 
     private void removeEndpointFromFramer()
@@ -592,9 +756,17 @@ class ReceiverEndPoint
         return hasDisconnected;
     }
 
-    public void register(final Selector selector) throws IOException
+    /**
+     * Register the end point for selection.
+     *
+     * @param selector the selector to register with.
+     * @return true if registered, false if the channel can't be selected and needs polling on every duty cycle.
+     * @throws IOException if the channel is closed.
+     */
+    public boolean register(final Selector selector) throws IOException
     {
         selectionKey = channel.register(selector, OP_READ, this);
+        return selectionKey != null;
     }
 
     public int libraryId()
@@ -610,6 +782,45 @@ class ReceiverEndPoint
     void gatewaySession(final GatewaySession gatewaySession)
     {
         this.gatewaySession = gatewaySession;
+
+        // Initiated sessions are already identified, acceptors are classified on logon.
+        if (gatewaySession.sessionKey() != null)
+        {
+            classifyPriority();
+        }
+    }
+
+    private void classifyPriority()
+    {
+        if (receivePriorityStrategy != null)
+        {
+            priorityClass = receivePriorityStrategy.priorityClass(gatewaySession);
+        }
+    }
+
+    int priorityClass()
+    {
+        return priorityClass;
+    }
+
+    /**
+     * Get the number of bytes read from the TCP connection by the last poll.
+     *
+     * @return the number of bytes read from the TCP connection by the last poll.
+     */
+    int lastDataRead()
+    {
+        return lastDataRead;
+    }
+
+    /**
+     * Check whether the last poll's read was cut short by the end point's read deficit.
+     *
+     * @return true if the last poll's read was cut short by the end point's read deficit.
+     */
+    boolean readDeferred()
+    {
+        return readDeferred;
     }
 
     void pause()
@@ -17,6 +17,7 @@ package uk.co.real_logic.artio.engine.framer;
 
 import org.agrona.LangUtil;
 import org.agrona.collections.ArrayUtil;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.nio.TransportPoller;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 
@@ -27,16 +28,72 @@ import java.util.stream.Stream;
 import static org.agrona.collections.ArrayUtil.UNKNOWN_INDEX;
 import static uk.co.real_logic.artio.messages.DisconnectReason.ENGINE_SHUTDOWN;
 
+/**
+ * Schedules inbound reads across receiver end points.
+ * <p>
+ * End points are polled in ascending order of their priority class. If a read quantum is configured then each end
+ * point reads at most its class's weight multiplied by the quantum, plus any deficit carried over, per poll.
+ * This is deficit round robin across end points, so a chatty session can't starve quieter ones of the Framer's
+ * inbound read budget.
+ */
 class ReceiverEndPoints extends TransportPoller
 {
+    private final int[] readQuanta;
+    private final int lastPriorityClass;
+    private final AtomicCounter[] classBytesReceived;
+    private final AtomicCounter[] classDeferredReads;
+
     private ReceiverEndPoint[] endPoints = new ReceiverEndPoint[0];
+    // End points whose transport doesn't support NIO selection, so they're always polled.
+    private ReceiverEndPoint[] unselectableEndPoints = new ReceiverEndPoint[0];
+
+    /**
+     * Create the receiver end points.
+     *
+     * @param readQuantum the number of bytes read per poll by an end point with a weight of 1, or
+     *                    {@link ReceiverEndPoint#NO_READ_QUANTUM} for end points to read as much as they can.
+     * @param priorityClassWeights the weight of each priority class, indexed by priority class.
+     * @param bytesReceived counters of the bytes received by each priority class.
+     * @param deferredReads counters of the reads that each priority class has had cut short by its read quantum.
+     */
+    ReceiverEndPoints(
+        final int readQuantum,
+        final int[] priorityClassWeights,
+        final AtomicCounter[] bytesReceived,
+        final AtomicCounter[] deferredReads)
+    {
+        final int numPriorityClasses = priorityClassWeights.length;
+        if (numPriorityClasses == 0 ||
+            bytesReceived.length != numPriorityClasses ||
+            deferredReads.length != numPriorityClasses)
+        {
+            throw new IllegalArgumentException(String.format(
+                "Invalid priority classes: weights = %d, bytesReceived = %d, deferredReads = %d",
+                numPriorityClasses,
+                bytesReceived.length,
+                deferredReads.length));
+        }
+
+        readQuanta = new int[numPriorityClasses];
+        for (int i = 0; i < numPriorityClasses; i++)
+        {
+            readQuanta[i] = readQuantum * priorityClassWeights[i];
+        }
+
+        this.lastPriorityClass = numPriorityClasses - 1;
+        this.classBytesReceived = bytesReceived;
+        this.classDeferredReads = deferredReads;
+    }
 
     void add(final ReceiverEndPoint endPoint)
     {
         try
         {
             endPoints = ArrayUtil.add(endPoints, endPoint);
-            endPoint.register(selector);
+            if (!endPoint.register(selector))
+            {
+                unselectableEndPoints = ArrayUtil.add(unselectableEndPoints, endPoint);
+            }
         }
         catch (final IOException ex)
         {
@@ -60,6 +117,10 @@ class ReceiverEndPoints extends TransportPoller
             }
         }
 
+        if (index != UNKNOWN_INDEX)
+        {
+            this.unselectableEndPoints = ArrayUtil.remove(unselectableEndPoints, endPoints[index]);
+        }
         this.endPoints = ArrayUtil.remove(endPoints, index);
 
         selectNowToForceProcessing();
@@ -82,13 +143,17 @@ class ReceiverEndPoints extends TransportPoller
         int bytesReceived = 0;
         try
         {
+            final int lastPriorityClass = this.lastPriorityClass;
             final ReceiverEndPoint[] endPoints = this.endPoints;
             final int numEndPoints = endPoints.length;
             if (numEndPoints <= ITERATION_THRESHOLD)
             {
-                for (int i = numEndPoints - 1; i >= 0; i--)
+                for (int priorityClass = 0; priorityClass <= lastPriorityClass; priorityClass++)
                 {
-                    bytesReceived += endPoints[i].pollForData();
+                    for (int i = numEndPoints - 1; i >= 0; i--)
+                    {
+                        bytesReceived += poll(endPoints[i], priorityClass);
+                    }
                 }
             }
             else
@@ -96,9 +161,19 @@ class ReceiverEndPoints extends TransportPoller
                 selector.selectNow();
 
                 final SelectionKey[] keys = selectedKeySet.keys();
-                for (int i = selectedKeySet.size() - 1; i >= 0; i--)
+                final int numKeys = selectedKeySet.size();
+                final ReceiverEndPoint[] unselectableEndPoints = this.unselectableEndPoints;
+                for (int priorityClass = 0; priorityClass <= lastPriorityClass; priorityClass++)
                 {
-                    bytesReceived += ((ReceiverEndPoint)keys[i].attachment()).pollForData();
+                    for (int i = numKeys - 1; i >= 0; i--)
+                    {
+                        bytesReceived += poll((ReceiverEndPoint)keys[i].attachment(), priorityClass);
+                    }
+
+                    for (int i = unselectableEndPoints.length - 1; i >= 0; i--)
+                    {
+                        bytesReceived += poll(unselectableEndPoints[i], priorityClass);
+                    }
                 }
 
                 selectedKeySet.reset();
@@ -112,6 +187,31 @@ class ReceiverEndPoints extends TransportPoller
         return bytesReceived;
     }
 
+    // Polls the end point if it's in the given priority class.
+    private int poll(final ReceiverEndPoint endPoint, final int priorityClass)
+    {
+        final int endPointPriorityClass = Math.max(0, Math.min(endPoint.priorityClass(), lastPriorityClass));
+        if (endPointPriorityClass != priorityClass)
+        {
+            return 0;
+        }
+
+        final int bytesReceived = endPoint.pollForData(readQuanta[priorityClass]);
+
+        final int dataRead = endPoint.lastDataRead();
+        if (dataRead > 0)
+        {
+            classBytesReceived[priorityClass].getAndAddOrdered(dataRead);
+        }
+
+        if (endPoint.readDeferred())
+        {
+            classDeferredReads[priorityClass].incrementOrdered();
+        }
+
+        return bytesReceived;
+    }
+
     public void close()
     {
         Stream.of(endPoints).forEach(receiverEndPoint -> receiverEndPoint.close(ENGINE_SHUTDOWN));
@@ -41,6 +41,7 @@ class SenderEndPoint implements AutoCloseable
     private final TcpChannel channel;
     private final AtomicCounter bytesInBuffer;
     private final AtomicCounter invalidLibraryAttempts;
+    private final OutboundThrottle throttle;
     private final ErrorHandler errorHandler;
     private final Framer framer;
     private final int maxBytesInBuffer;
@@ -61,6 +62,7 @@ class SenderEndPoint implements AutoCloseable
         final TcpChannel channel,
         final AtomicCounter bytesInBuffer,
         final AtomicCounter invalidLibraryAttempts,
+        final OutboundThrottle throttle,
         final ErrorHandler errorHandler,
         final Framer framer,
         final int maxBytesInBuffer,
@@ -72,6 +74,7 @@ class SenderEndPoint implements AutoCloseable
         this.channel = channel;
         this.bytesInBuffer = bytesInBuffer;
         this.invalidLibraryAttempts = invalidLibraryAttempts;
+        this.throttle = throttle;
         this.errorHandler = errorHandler;
         this.framer = framer;
         this.maxBytesInBuffer = maxBytesInBuffer;
@@ -146,6 +149,14 @@ class SenderEndPoint implements AutoCloseable
             return;
         }
 
+        if (isThrottled(position, timeInMs, tracker))
+        {
+            // Held back messages are retried from the slow stream, in the same way as a slow consumer's.
+            sendingTimeoutTimeInMs = timeInMs + slowConsumerTimeoutInMs;
+            becomeSlowConsumer(0, bodyLength, position, tracker);
+            return;
+        }
+
         try
         {
             final int written = writeFramedMessage(directBuffer, offset, bodyLength, timeInMs);
@@ -156,7 +167,7 @@ class SenderEndPoint implements AutoCloseable
             }
             else
             {
-                tracker.sentPosition = position;
+                onMessageWritten(position, tracker);
             }
         }
         catch (final IOException ex)
@@ -213,6 +224,15 @@ class SenderEndPoint implements AutoCloseable
         sendSlowStatus(false);
     }
 
+    private void onMessageWritten(final long position, final StreamTracker tracker)
+    {
+        tracker.sentPosition = position;
+        if (tracker == outboundTracker)
+        {
+            framer.onWrittenPosition(libraryId, sessionId, position);
+        }
+    }
+
     private void sendSlowStatus(final boolean hasBecomeSlow)
     {
         framer.slowStatus(libraryId, connectionId, hasBecomeSlow);
@@ -243,6 +263,10 @@ class SenderEndPoint implements AutoCloseable
     {
         bytesInBuffer.close();
         invalidLibraryAttempts.close();
+        if (throttle != null)
+        {
+            throttle.close();
+        }
     }
 
     Action onSlowOutboundMessage(
@@ -317,6 +341,11 @@ class SenderEndPoint implements AutoCloseable
                 bytesPreviouslySent = bodyLength - remainingLength;
             }
 
+            if (bytesPreviouslySent == 0 && isThrottled(position, timeInMs, tracker))
+            {
+                return blockPosition(position, length, tracker);
+            }
+
             final int dataOffset = offsetAfterHeader + FRAME_SIZE + bytesPreviouslySent;
             final ByteBuffer buffer = directBuffer.byteBuffer();
 
@@ -335,7 +364,7 @@ class SenderEndPoint implements AutoCloseable
             }
             else
             {
-                tracker.sentPosition = position;
+                onMessageWritten(position, tracker);
                 tracker.partiallySentMessage = false;
                 tracker.skipPosition = Long.MAX_VALUE;
 
@@ -369,6 +398,12 @@ class SenderEndPoint implements AutoCloseable
             outboundTracker.partiallySentMessage;
     }
 
+    // Only messages from the outbound stream are throttled, resends are a response to the counter-party.
+    private boolean isThrottled(final long position, final long timeInMs, final StreamTracker tracker)
+    {
+        return throttle != null && tracker == outboundTracker && !throttle.tryAcquire(position, timeInMs);
+    }
+
     private boolean isWrongLibraryId(final int libraryId)
     {
         // We allow the engine's messages to pass through in case the session
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+/**
+ * Callback that is notified when a {@link SessionPlacementStrategy} spots that a library is much busier than the
+ * others and suggests moving a session. The engine doesn't migrate sessions itself, since the owning library
+ * needs to release the session, but a handler can forward the suggestion to the application, for example using
+ * {@link uk.co.real_logic.artio.library.FixLibraryExecutor#migrate}.
+ * <p>
+ * Invoked on the Framer thread, so implementations shouldn't block.
+ */
+@FunctionalInterface
+public interface SessionMigrationHandler
+{
+    /**
+     * Invoked when a session should be moved from one library to another.
+     *
+     * @param sessionId the id of the session to move.
+     * @param fromLibraryId the id of the library that currently owns the session.
+     * @param toLibraryId the id of the library that the session should be moved to.
+     */
+    void onMigrationSuggested(long sessionId, int fromLibraryId, int toLibraryId);
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import uk.co.real_logic.artio.engine.SessionInfo;
+
+import java.util.List;
+
+import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
+
+/**
+ * Decides which library an acceptor session is handed to when it logs on to the engine.
+ * <p>
+ * Without a placement strategy sessions stay in the engine after logon, and libraries are notified that they
+ * can request them. With a placement strategy the engine hands the session straight to the chosen library,
+ * whose {@link uk.co.real_logic.artio.library.SessionAcquireHandler} is then invoked.
+ * <p>
+ * Invoked on the Framer thread.
+ *
+ * @see LeastLoadedPlacementStrategy
+ */
+@FunctionalInterface
+public interface SessionPlacementStrategy
+{
+    /**
+     * Returned from {@link #placeSession(SessionInfo, List)} in order to keep a session in the engine.
+     */
+    int KEEP_IN_ENGINE = ENGINE_LIBRARY_ID;
+
+    /**
+     * Choose the library that a newly logged on session gets handed to.
+     *
+     * @param session the session that has just logged on.
+     * @param libraries the currently connected libraries.
+     * @return the id of the library to hand the session to, or {@link #KEEP_IN_ENGINE}.
+     */
+    int placeSession(SessionInfo session, List<LibraryLoad> libraries);
+
+    /**
+     * Check the load of the currently connected libraries, after they've been sampled, and suggest any sessions
+     * that should be moved in order to alleviate a hot spot.
+     *
+     * @param libraries the currently connected libraries.
+     * @param migrationHandler the handler to notify of suggested migrations.
+     */
+    default void checkForHotSpots(final List<LibraryLoad> libraries, final SessionMigrationHandler migrationHandler)
+    {
+    }
+}
@@ -15,8 +15,6 @@
  */
 package uk.co.real_logic.artio.engine.framer;
 
-import org.agrona.LangUtil;
-
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
@@ -24,15 +22,37 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 
+/**
+ * A connected TCP socket, supplied by a {@link TcpChannelSupplier}. Reads and writes are non-blocking.
+ */
 public class TcpChannel implements AutoCloseable
 {
-    private final SocketChannel socketChannel;
     private final String remoteAddress;
+    private final TcpChannel delegate;
 
+    /**
+     * Create an NIO based channel.
+     *
+     * @param socketChannel the connected socket.
+     * @throws IOException if the remote address of the socket can't be read.
+     * @deprecated use {@link DefaultTcpChannel}, this class will become abstract in a future release.
+     */
+    @Deprecated
     public TcpChannel(final SocketChannel socketChannel) throws IOException
     {
-        this.socketChannel = socketChannel;
-        remoteAddress = socketChannel.getRemoteAddress().toString();
+        delegate = new DefaultTcpChannel(socketChannel);
+        remoteAddress = delegate.remoteAddress();
+    }
+
+    /**
+     * Constructor for alternative transports, which override all the I/O methods of this class.
+     *
+     * @param remoteAddress the address of the remote end of the connection.
+     */
+    protected TcpChannel(final String remoteAddress)
+    {
+        this.remoteAddress = remoteAddress;
+        delegate = null;
     }
 
     public String remoteAddress()
@@ -40,33 +60,34 @@ public class TcpChannel implements AutoCloseable
         return remoteAddress;
     }
 
+    /**
+     * Register the channel with an NIO selector, so that it's only read when there is data available once there are
+     * many connections.
+     *
+     * @param sel the selector to register with.
+     * @param ops the interest set of the key.
+     * @param att the attachment of the key.
+     * @return the selection key, or null if the channel can't be selected, in which case it's read on every duty
+     * cycle of the Framer.
+     * @throws ClosedChannelException if the channel is closed.
+     */
     public SelectionKey register(final Selector sel, final int ops, final Object att) throws ClosedChannelException
     {
-        return socketChannel.register(sel, ops, att);
+        return delegate.register(sel, ops, att);
     }
 
     public int write(final ByteBuffer src) throws IOException
     {
-        return socketChannel.write(src);
+        return delegate.write(src);
     }
 
     public int read(final ByteBuffer dst) throws IOException
     {
-        return socketChannel.read(dst);
+        return delegate.read(dst);
     }
 
     public void close()
     {
-        if (socketChannel.isOpen())
-        {
-            try
-            {
-                socketChannel.close();
-            }
-            catch (final IOException ex)
-            {
-                LangUtil.rethrowUnchecked(ex);
-            }
-        }
+        delegate.close();
     }
 }
@@ -15,138 +15,94 @@
  */
 package uk.co.real_logic.artio.engine.framer;
 
-import org.agrona.CloseHelper;
-import org.agrona.LangUtil;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
-import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.Iterator;
-import java.util.Set;
-
-import static java.net.StandardSocketOptions.*;
-import static java.nio.channels.SelectionKey.OP_CONNECT;
 
 /**
- * Mockable class for intercepting network communications
+ * Transport for the engine's TCP connections, mockable for intercepting network communications.
+ *
+ * The {@link DefaultTcpChannelSupplier} uses NIO, alternative transports can be plugged in with
+ * {@link uk.co.real_logic.artio.engine.EngineConfiguration#channelSupplierFactory(java.util.function.Function)}.
+ * All methods are invoked on the Framer thread, which also polls each {@link TcpChannel} for data.
  */
 public class TcpChannelSupplier implements AutoCloseable
 {
-    private final EngineConfiguration configuration;
-
-    private Selector selector;
-    private ServerSocketChannel listeningChannel;
-
+    private final TcpChannelSupplier delegate;
+
+    /**
+     * Create an NIO based supplier.
+     *
+     * @param configuration the configuration of the engine.
+     * @deprecated use {@link DefaultTcpChannelSupplier}, this class will become abstract in a future release.
+     */
+    @Deprecated
     public TcpChannelSupplier(final EngineConfiguration configuration)
     {
-        final boolean hasBindAddress = configuration.hasBindAddress();
-        this.configuration = configuration;
-        try
+        delegate = new DefaultTcpChannelSupplier(configuration)
         {
-            selector = Selector.open();
-
-            if (hasBindAddress)
-            {
-
-                listeningChannel = ServerSocketChannel.open();
-                listeningChannel.bind(configuration.bindAddress()).configureBlocking(false);
-                listeningChannel.register(selector, SelectionKey.OP_ACCEPT);
-            }
-            else
+            protected TcpChannel newTcpChannel(final SocketChannel channel) throws IOException
             {
-                listeningChannel = null;
+                return TcpChannelSupplier.this.newTcpChannel(channel);
             }
-        }
-        catch (final IOException ex)
-        {
-            LangUtil.rethrowUnchecked(ex);
-        }
+        };
     }
 
-    public int pollSelector(final long timeInMs, final NewChannelHandler handler) throws IOException
+    /**
+     * Constructor for alternative transports, which override all the public methods of this class.
+     */
+    protected TcpChannelSupplier()
     {
-        selector.selectNow();
-        final Set<SelectionKey> selectionKeys = selector.selectedKeys();
-        final int unprocessedConnections = selectionKeys.size();
-        if (unprocessedConnections > 0)
-        {
-            final Iterator<SelectionKey> it = selectionKeys.iterator();
-            while (it.hasNext())
-            {
-                final SelectionKey selectionKey = it.next();
-
-                if (selectionKey.isAcceptable())
-                {
-                    final SocketChannel channel = listeningChannel.accept();
-                    if (channel != null)
-                    {
-                        configure(channel);
-                        channel.configureBlocking(false);
-
-                        handler.onNewChannel(timeInMs, newTcpChannel(channel));
-                    }
-
-                    it.remove();
-                }
-                else if (selectionKey.isConnectable())
-                {
-                    final InitiatedChannelHandler channelHandler = (InitiatedChannelHandler)selectionKey.attachment();
-                    final SocketChannel channel = (SocketChannel)selectionKey.channel();
-                    try
-                    {
-                        if (channel.finishConnect())
-                        {
-                            channelHandler.onInitiatedChannel(newTcpChannel(channel), null);
-                            it.remove();
-                        }
-                    }
-                    catch (final IOException e)
-                    {
-                        channelHandler.onInitiatedChannel(null, e);
-                        it.remove();
-                    }
-                }
-            }
-        }
-
-        return unprocessedConnections;
+        delegate = null;
     }
 
-    private void configure(final SocketChannel channel) throws IOException
+    /**
+     * Poll for newly accepted connections and for the completion of initiated connections. This is invoked on
+     * every duty cycle of the Framer, so transports that complete I/O in batches can also process their completions
+     * here.
+     *
+     * @param timeInMs the current time in milliseconds.
+     * @param handler the handler for newly accepted connections.
+     * @return the amount of work done.
+     * @throws IOException if there is an error polling the transport.
+     */
+    public int pollSelector(final long timeInMs, final NewChannelHandler handler) throws IOException
     {
-        channel.setOption(TCP_NODELAY, true);
-        if (configuration.receiverSocketBufferSize() > 0)
-        {
-            channel.setOption(SO_RCVBUF, configuration.receiverSocketBufferSize());
-        }
-        if (configuration.senderSocketBufferSize() > 0)
-        {
-            channel.setOption(SO_SNDBUF, configuration.senderSocketBufferSize());
-        }
+        return delegate.pollSelector(timeInMs, handler);
     }
 
-    public void close() throws Exception
+    /**
+     * Initiate a connection, the handler is invoked from {@link #pollSelector(long, NewChannelHandler)} when the
+     * connection has completed or failed.
+     *
+     * @param address the address to connect to.
+     * @param channelHandler the handler for the result of the connection.
+     * @throws IOException if the connection can't be initiated.
+     */
+    public void open(final InetSocketAddress address, final InitiatedChannelHandler channelHandler) throws IOException
     {
-        CloseHelper.close(listeningChannel);
-        CloseHelper.close(selector);
+        delegate.open(address, channelHandler);
     }
 
-    public void open(final InetSocketAddress address, final InitiatedChannelHandler channelHandler) throws IOException
+    public void close() throws Exception
     {
-        final SocketChannel channel = SocketChannel.open();
-        channel.configureBlocking(false);
-        channel.register(selector, OP_CONNECT, channelHandler);
-        configure(channel);
-        channel.connect(address);
+        delegate.close();
     }
 
+    /**
+     * Wrap a connected socket of the NIO based supplier.
+     *
+     * @param channel the connected socket.
+     * @return the channel passed to the Framer.
+     * @throws IOException if the channel can't be created.
+     * @deprecated override {@link DefaultTcpChannelSupplier#newTcpChannel(SocketChannel)} instead.
+     */
+    @Deprecated
     protected TcpChannel newTcpChannel(final SocketChannel channel) throws IOException
     {
-        return new TcpChannel(channel);
+        return new DefaultTcpChannel(channel);
     }
 
     @FunctionalInterface
@@ -0,0 +1,479 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FrameDescriptor;
+import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.collections.IntHashSet;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.file.StandardOpenOption.*;
+import static uk.co.real_logic.artio.engine.logger.ArchiveQueryIndexDescriptor.*;
+import static uk.co.real_logic.artio.engine.logger.IndexedPositionReader.UNKNOWN_POSITION;
+
+/**
+ * Secondary index of the archive that lets the {@link FixArchiveScanner} find messages by time, message type,
+ * fix session id or the value of a configurable tag, eg: ClOrdID, without scanning the whole archive.
+ *
+ * Entries are batched up and appended to the files described by {@link ArchiveQueryIndexDescriptor}. Messages of
+ * every {@link uk.co.real_logic.artio.messages.MessageStatus} are indexed, but only those archived whilst the index is
+ * enabled, so the position of the first entry of each aeron session is recorded in order for the scanner to read the
+ * rest of the archive.
+ */
+public class ArchiveQueryIndex implements Index
+{
+    private static final int ENTRIES_PER_BATCH = 64;
+
+    private final MessageHeaderDecoder frameHeaderDecoder = new MessageHeaderDecoder();
+    private final FixMessageDecoder messageFrame = new FixMessageDecoder();
+    private final ByteBuffer entryByteBuffer = ByteBuffer.allocateDirect(ENTRIES_PER_BATCH * ENTRY_LENGTH);
+    private final UnsafeBuffer entryBuffer = new UnsafeBuffer(entryByteBuffer);
+    private final long[] batchEndPositions = new long[ENTRIES_PER_BATCH];
+    private final ByteBuffer blockByteBuffer = ByteBuffer.allocateDirect(BLOCK_SUMMARY_LENGTH);
+    private final UnsafeBuffer blockBuffer = new UnsafeBuffer(blockByteBuffer);
+
+    private final int requiredStreamId;
+    private final byte[] tagPrefix;
+    private final FileChannel entriesChannel;
+    private final FileChannel blocksChannel;
+    private final AtomicBuffer positionBuffer;
+    private final IndexedPositionWriter positionWriter;
+    private final IndexedPositionReader positionReader;
+    private final AtomicBuffer startPositionBuffer;
+    private final IndexedPositionWriter startPositionWriter;
+    private final IndexedPositionReader startPositionReader;
+    private final IntHashSet startedSessions = new IntHashSet();
+
+    private long entryCount;
+    private int batchedEntries;
+
+    public ArchiveQueryIndex(
+        final String logFileDir,
+        final int requiredStreamId,
+        final int indexedTag,
+        final ErrorHandler errorHandler)
+    {
+        checkTag(indexedTag);
+        this.requiredStreamId = requiredStreamId;
+        this.tagPrefix = tagPrefix(indexedTag);
+
+        entriesChannel = open(entriesFile(logFileDir, requiredStreamId));
+        try
+        {
+            checkIndexedTag(indexedTag);
+        }
+        catch (final RuntimeException e)
+        {
+            CloseHelper.quietClose(entriesChannel);
+            throw e;
+        }
+        blocksChannel = open(blocksFile(logFileDir, requiredStreamId));
+
+        final File positionFile = positionFile(logFileDir, requiredStreamId);
+        positionBuffer = new UnsafeBuffer(LoggerUtil.map(positionFile, INDEX_POSITION_BUFFER_SIZE));
+        positionWriter = new IndexedPositionWriter(positionBuffer, errorHandler, 0, positionFile.getPath());
+        positionReader = new IndexedPositionReader(positionBuffer);
+
+        final File startPositionFile = startPositionFile(logFileDir, requiredStreamId);
+        startPositionBuffer = new UnsafeBuffer(LoggerUtil.map(startPositionFile, INDEX_POSITION_BUFFER_SIZE));
+        startPositionWriter = new IndexedPositionWriter(
+            startPositionBuffer, errorHandler, 0, startPositionFile.getPath());
+        startPositionReader = new IndexedPositionReader(startPositionBuffer);
+
+        recover();
+    }
+
+    public void indexRecord(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int srcLength,
+        final int streamId,
+        final int aeronSessionId,
+        final long endPosition)
+    {
+        if (streamId != requiredStreamId)
+        {
+            return;
+        }
+
+        int offset = srcOffset;
+        frameHeaderDecoder.wrap(srcBuffer, offset);
+        if (frameHeaderDecoder.templateId() == FixMessageEncoder.TEMPLATE_ID)
+        {
+            final int actingBlockLength = frameHeaderDecoder.blockLength();
+            offset += frameHeaderDecoder.encodedLength();
+
+            final FixMessageDecoder messageFrame = this.messageFrame;
+            messageFrame.wrap(srcBuffer, offset, actingBlockLength, frameHeaderDecoder.version());
+            final int messageType = messageFrame.messageType();
+            final long timestamp = messageFrame.timestamp();
+            final long fixSessionId = messageFrame.session();
+            final int bodyLength = messageFrame.bodyLength();
+            final int bodyOffset = offset + actingBlockLength + 2;
+
+            final long tagHash = tagHash(srcBuffer, bodyOffset, bodyLength);
+            final int alignedLength = BitUtil.align(srcLength, FrameDescriptor.FRAME_ALIGNMENT);
+            final long beginPosition = endPosition - alignedLength;
+
+            onEntry(aeronSessionId, messageType, timestamp, beginPosition, fixSessionId, tagHash, endPosition);
+        }
+    }
+
+    public int doWork()
+    {
+        if (batchedEntries > 0)
+        {
+            flush();
+            return 1;
+        }
+
+        return 0;
+    }
+
+    public void close()
+    {
+        try
+        {
+            if (batchedEntries > 0)
+            {
+                flush();
+            }
+            entriesChannel.close();
+            blocksChannel.close();
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+        finally
+        {
+            positionWriter.close();
+            IoUtil.unmap(positionBuffer.byteBuffer());
+            startPositionWriter.close();
+            IoUtil.unmap(startPositionBuffer.byteBuffer());
+        }
+    }
+
+    public void readLastPosition(final IndexedPositionConsumer consumer)
+    {
+        positionReader.readLastPosition(consumer);
+    }
+
+    void readStartPositions(final IndexedPositionConsumer consumer)
+    {
+        startPositionReader.readLastPosition(consumer);
+    }
+
+    private long tagHash(final DirectBuffer buffer, final int bodyOffset, final int bodyLength)
+    {
+        final int valueOffset = tagValueOffset(buffer, bodyOffset, bodyLength, tagPrefix);
+        if (valueOffset == NO_TAG)
+        {
+            return NO_TAG_HASH;
+        }
+
+        final int valueLength = tagValueLength(buffer, valueOffset, bodyOffset + bodyLength);
+        return ArchiveQueryIndexDescriptor.tagHash(buffer, valueOffset, valueLength);
+    }
+
+    private void onEntry(
+        final int aeronSessionId,
+        final int messageType,
+        final long timestamp,
+        final long beginPosition,
+        final long fixSessionId,
+        final long tagHash,
+        final long endPosition)
+    {
+        if (entryCount % ENTRIES_PER_BLOCK == 0)
+        {
+            if (batchedEntries > 0)
+            {
+                flush();
+            }
+            resetBlockSummary();
+        }
+
+        final int offset = batchedEntries * ENTRY_LENGTH;
+        final UnsafeBuffer entryBuffer = this.entryBuffer;
+        entryBuffer.putInt(offset + AERON_SESSION_ID_OFFSET, aeronSessionId);
+        entryBuffer.putInt(offset + MESSAGE_TYPE_OFFSET, messageType);
+        entryBuffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        entryBuffer.putLong(offset + POSITION_OFFSET, beginPosition);
+        entryBuffer.putLong(offset + SESSION_ID_OFFSET, fixSessionId);
+        entryBuffer.putLong(offset + TAG_HASH_OFFSET, tagHash);
+        batchEndPositions[batchedEntries] = endPosition;
+
+        addToBlockSummary(messageType, timestamp, fixSessionId, tagHash);
+
+        entryCount++;
+        batchedEntries++;
+        if (batchedEntries == ENTRIES_PER_BATCH)
+        {
+            flush();
+        }
+    }
+
+    private void flush()
+    {
+        final int batchedEntries = this.batchedEntries;
+        final long firstEntryIndex = entryCount - batchedEntries;
+
+        ByteBufferUtil.limit(entryByteBuffer, batchedEntries * ENTRY_LENGTH);
+        ByteBufferUtil.position(entryByteBuffer, 0);
+        write(entriesChannel, entryByteBuffer, entryOffset(firstEntryIndex));
+
+        blockByteBuffer.clear();
+        write(blocksChannel, blockByteBuffer, blockOffset(firstEntryIndex));
+
+        recordStartPositions(batchedEntries);
+
+        // Positions are only recorded once the entries are written so that a restart re-indexes unwritten entries.
+        for (int i = 0; i < batchedEntries; i++)
+        {
+            final int aeronSessionId = entryBuffer.getInt(i * ENTRY_LENGTH + AERON_SESSION_ID_OFFSET);
+            positionWriter.indexedUpTo(aeronSessionId, batchEndPositions[i]);
+        }
+        positionWriter.updateChecksums();
+
+        this.batchedEntries = 0;
+    }
+
+    // A session's start position is written before its indexed position, so a session is only treated as covered by
+    // the index once both are known.
+    private void recordStartPositions(final int batchedEntries)
+    {
+        boolean hasNewSessions = false;
+        for (int i = 0; i < batchedEntries; i++)
+        {
+            final int offset = i * ENTRY_LENGTH;
+            final int aeronSessionId = entryBuffer.getInt(offset + AERON_SESSION_ID_OFFSET);
+            if (startedSessions.add(aeronSessionId))
+            {
+                startPositionWriter.indexedUpTo(aeronSessionId, entryBuffer.getLong(offset + POSITION_OFFSET));
+                hasNewSessions = true;
+            }
+        }
+
+        if (hasNewSessions)
+        {
+            startPositionWriter.updateChecksums();
+        }
+    }
+
+    private void resetBlockSummary()
+    {
+        blockBuffer.setMemory(0, BLOCK_SUMMARY_LENGTH, (byte)0);
+        blockBuffer.putLong(MIN_TIMESTAMP_OFFSET, Long.MAX_VALUE);
+        blockBuffer.putLong(MAX_TIMESTAMP_OFFSET, Long.MIN_VALUE);
+    }
+
+    private void addToBlockSummary(
+        final int messageType, final long timestamp, final long fixSessionId, final long tagHash)
+    {
+        final UnsafeBuffer blockBuffer = this.blockBuffer;
+        blockBuffer.putLong(MIN_TIMESTAMP_OFFSET, Math.min(timestamp, blockBuffer.getLong(MIN_TIMESTAMP_OFFSET)));
+        blockBuffer.putLong(MAX_TIMESTAMP_OFFSET, Math.max(timestamp, blockBuffer.getLong(MAX_TIMESTAMP_OFFSET)));
+        orFilter(MESSAGE_TYPE_FILTER_OFFSET, filterBit(messageType));
+        orFilter(SESSION_ID_FILTER_OFFSET, filterBit(fixSessionId));
+
+        if (tagHash != NO_TAG_HASH)
+        {
+            setTagFilterBit(firstTagFilterBit(tagHash));
+            setTagFilterBit(secondTagFilterBit(tagHash));
+        }
+    }
+
+    private void orFilter(final int offset, final long bit)
+    {
+        blockBuffer.putLong(offset, blockBuffer.getLong(offset) | bit);
+    }
+
+    private void setTagFilterBit(final int bit)
+    {
+        final int offset = TAG_FILTER_OFFSET + (bit >> 3);
+        blockBuffer.putByte(offset, (byte)(blockBuffer.getByte(offset) | (1 << (bit & 7))));
+    }
+
+    private void checkIndexedTag(final int indexedTag)
+    {
+        ByteBufferUtil.limit(entryByteBuffer, ENTRIES_HEADER_LENGTH);
+        ByteBufferUtil.position(entryByteBuffer, 0);
+        if (size(entriesChannel) < ENTRIES_HEADER_LENGTH)
+        {
+            entryBuffer.putLong(0, 0);
+            entryBuffer.putInt(INDEXED_TAG_OFFSET, indexedTag);
+            write(entriesChannel, entryByteBuffer, 0);
+        }
+        else
+        {
+            read(entriesChannel, entryByteBuffer, 0);
+            final int existingTag = entryBuffer.getInt(INDEXED_TAG_OFFSET);
+            if (existingTag != indexedTag)
+            {
+                throw new IllegalStateException(String.format(
+                    "Archive query index was built for tag %d, but tag %d is configured, " +
+                    "delete the archive-query-index files for stream %d in order to rebuild it",
+                    existingTag,
+                    indexedTag,
+                    requiredStreamId));
+            }
+        }
+    }
+
+    // Discards entries written after the last recorded position, they get re-indexed when the Indexer catches up.
+    private void recover()
+    {
+        long entryCount = entryCount(size(entriesChannel));
+        while (entryCount > 0)
+        {
+            readEntry(entryCount - 1);
+            final int aeronSessionId = entryBuffer.getInt(AERON_SESSION_ID_OFFSET);
+            final long indexedPosition = positionReader.indexedPosition(aeronSessionId);
+            if (indexedPosition != UNKNOWN_POSITION && entryBuffer.getLong(POSITION_OFFSET) < indexedPosition)
+            {
+                break;
+            }
+
+            entryCount--;
+        }
+
+        truncate(entriesChannel, entryOffset(entryCount));
+        truncate(blocksChannel, blockCount(entryCount) * BLOCK_SUMMARY_LENGTH);
+
+        final long blockStart = (entryCount / ENTRIES_PER_BLOCK) * ENTRIES_PER_BLOCK;
+        resetBlockSummary();
+        for (long i = blockStart; i < entryCount; i++)
+        {
+            readEntry(i);
+            addToBlockSummary(
+                entryBuffer.getInt(MESSAGE_TYPE_OFFSET),
+                entryBuffer.getLong(TIMESTAMP_OFFSET),
+                entryBuffer.getLong(SESSION_ID_OFFSET),
+                entryBuffer.getLong(TAG_HASH_OFFSET));
+        }
+
+        this.entryCount = entryCount;
+
+        // Sessions whose start was written without any indexed position get a new start when they're next indexed.
+        startPositionReader.readLastPosition((aeronSessionId, startPosition) ->
+        {
+            if (positionReader.indexedPosition(aeronSessionId) != UNKNOWN_POSITION)
+            {
+                startedSessions.add(aeronSessionId);
+            }
+        });
+    }
+
+    private void readEntry(final long entryIndex)
+    {
+        ByteBufferUtil.limit(entryByteBuffer, ENTRY_LENGTH);
+        ByteBufferUtil.position(entryByteBuffer, 0);
+        read(entriesChannel, entryByteBuffer, entryOffset(entryIndex));
+    }
+
+    static void read(final FileChannel channel, final ByteBuffer buffer, final long filePosition)
+    {
+        try
+        {
+            long position = filePosition;
+            while (buffer.hasRemaining())
+            {
+                final int read = channel.read(buffer, position);
+                if (read < 0)
+                {
+                    throw new IOException("Unexpected end of archive query index at " + position);
+                }
+                position += read;
+            }
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    private static FileChannel open(final File file)
+    {
+        try
+        {
+            final File parentDir = file.getParentFile();
+            IoUtil.ensureDirectoryExists(parentDir, parentDir.getAbsolutePath());
+            return FileChannel.open(file.toPath(), CREATE, READ, WRITE);
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+            return null;
+        }
+    }
+
+    private static void write(final FileChannel channel, final ByteBuffer buffer, final long filePosition)
+    {
+        try
+        {
+            long position = filePosition;
+            while (buffer.hasRemaining())
+            {
+                position += channel.write(buffer, position);
+            }
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    static long size(final FileChannel channel)
+    {
+        try
+        {
+            return channel.size();
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+            return 0;
+        }
+    }
+
+    private static void truncate(final FileChannel channel, final long size)
+    {
+        try
+        {
+            channel.truncate(size);
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+}
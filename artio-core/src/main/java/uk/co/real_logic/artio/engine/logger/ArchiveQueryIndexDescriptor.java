@@ -0,0 +1,230 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.DirectBuffer;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * File layout of the {@link ArchiveQueryIndex}.
+ *
+ * The entries file consists of a header containing the indexed tag, followed by one fixed length entry per
+ * archived fix message, in the order that they were archived:
+ *
+ * Aeron Session Id, Message Type, Timestamp, Position of the message, Fix Session Id, Hash of the indexed tag value
+ *
+ * The blocks file consists of a summary of each block of {@link #ENTRIES_PER_BLOCK} entries:
+ *
+ * Min Timestamp, Max Timestamp, Message Type filter, Fix Session Id filter, Indexed tag value filter
+ *
+ * The filters are bloom filters, so a block whose filter doesn't contain a value can be skipped entirely.
+ *
+ * The positions file records the position that each aeron session has been indexed up to and the start positions
+ * file records the position of the first entry of each aeron session. Messages outside of that range aren't indexed.
+ */
+final class ArchiveQueryIndexDescriptor
+{
+    static final int INDEXED_TAG_OFFSET = 0;
+    static final int ENTRIES_HEADER_LENGTH = SIZE_OF_LONG;
+
+    static final int AERON_SESSION_ID_OFFSET = 0;
+    static final int MESSAGE_TYPE_OFFSET = AERON_SESSION_ID_OFFSET + SIZE_OF_INT;
+    static final int TIMESTAMP_OFFSET = MESSAGE_TYPE_OFFSET + SIZE_OF_INT;
+    static final int POSITION_OFFSET = TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    static final int SESSION_ID_OFFSET = POSITION_OFFSET + SIZE_OF_LONG;
+    static final int TAG_HASH_OFFSET = SESSION_ID_OFFSET + SIZE_OF_LONG;
+    static final int ENTRY_LENGTH = TAG_HASH_OFFSET + SIZE_OF_LONG;
+
+    static final int ENTRIES_PER_BLOCK = 1024;
+
+    static final int MIN_TIMESTAMP_OFFSET = 0;
+    static final int MAX_TIMESTAMP_OFFSET = MIN_TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    static final int MESSAGE_TYPE_FILTER_OFFSET = MAX_TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    static final int SESSION_ID_FILTER_OFFSET = MESSAGE_TYPE_FILTER_OFFSET + SIZE_OF_LONG;
+    static final int TAG_FILTER_OFFSET = SESSION_ID_FILTER_OFFSET + SIZE_OF_LONG;
+    // Roughly 8 bits per entry for a block full of distinct values, eg: ClOrdIDs
+    static final int TAG_FILTER_BITS = ENTRIES_PER_BLOCK * 8;
+    static final int BLOCK_SUMMARY_LENGTH = TAG_FILTER_OFFSET + TAG_FILTER_BITS / 8;
+
+    static final int INDEX_POSITION_BUFFER_SIZE = 128 * 1024;
+
+    static final long NO_TAG_HASH = 0;
+    static final int NO_TAG = -1;
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final byte SOH = 1;
+
+    private ArchiveQueryIndexDescriptor()
+    {
+    }
+
+    static File entriesFile(final String logFileDir, final int streamId)
+    {
+        return new File(logFileDir + File.separator + "archive-query-index-entries-" + streamId);
+    }
+
+    static File blocksFile(final String logFileDir, final int streamId)
+    {
+        return new File(logFileDir + File.separator + "archive-query-index-blocks-" + streamId);
+    }
+
+    static File positionFile(final String logFileDir, final int streamId)
+    {
+        return new File(logFileDir + File.separator + "archive-query-index-positions-" + streamId);
+    }
+
+    static File startPositionFile(final String logFileDir, final int streamId)
+    {
+        return new File(logFileDir + File.separator + "archive-query-index-start-positions-" + streamId);
+    }
+
+    static long entryOffset(final long entryIndex)
+    {
+        return ENTRIES_HEADER_LENGTH + entryIndex * ENTRY_LENGTH;
+    }
+
+    static long entryCount(final long entriesFileSize)
+    {
+        return Math.max(0, entriesFileSize - ENTRIES_HEADER_LENGTH) / ENTRY_LENGTH;
+    }
+
+    static long blockCount(final long entryCount)
+    {
+        return (entryCount + ENTRIES_PER_BLOCK - 1) / ENTRIES_PER_BLOCK;
+    }
+
+    static long blockOffset(final long entryIndex)
+    {
+        return (entryIndex / ENTRIES_PER_BLOCK) * BLOCK_SUMMARY_LENGTH;
+    }
+
+    /**
+     * Bit to set in a single long bloom filter for a value.
+     *
+     * @param value the value to add to the filter.
+     * @return the bit of the filter.
+     */
+    static long filterBit(final long value)
+    {
+        return 1L << ((value * GOLDEN_RATIO) >>> 58);
+    }
+
+    static int firstTagFilterBit(final long tagHash)
+    {
+        return (int)tagHash & (TAG_FILTER_BITS - 1);
+    }
+
+    static int secondTagFilterBit(final long tagHash)
+    {
+        return (int)(tagHash >>> 32) & (TAG_FILTER_BITS - 1);
+    }
+
+    static boolean isTagFilterBitSet(final DirectBuffer blockBuffer, final int bit)
+    {
+        final byte filterByte = blockBuffer.getByte(TAG_FILTER_OFFSET + (bit >> 3));
+        return (filterByte & (1 << (bit & 7))) != 0;
+    }
+
+    static byte[] tagPrefix(final int tag)
+    {
+        return ("\001" + tag + "=").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Find the value of a tag within a fix message.
+     *
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the message within the buffer.
+     * @param length the length of the message.
+     * @param tagPrefix the separator, tag and equals sign that prefix the value, see {@link #tagPrefix(int)}.
+     * @return the offset of the start of the value, or {@link #NO_TAG} if the tag isn't in the message.
+     */
+    static int tagValueOffset(final DirectBuffer buffer, final int offset, final int length, final byte[] tagPrefix)
+    {
+        final int prefixLength = tagPrefix.length;
+        final int lastPrefixOffset = offset + length - prefixLength;
+        for (int i = offset; i <= lastPrefixOffset; i++)
+        {
+            if (buffer.getByte(i) == SOH && matches(buffer, i, tagPrefix))
+            {
+                return i + prefixLength;
+            }
+        }
+
+        return NO_TAG;
+    }
+
+    static int tagValueLength(final DirectBuffer buffer, final int valueOffset, final int end)
+    {
+        int i = valueOffset;
+        while (i < end && buffer.getByte(i) != SOH)
+        {
+            i++;
+        }
+
+        return i - valueOffset;
+    }
+
+    static long tagHash(final DirectBuffer buffer, final int offset, final int length)
+    {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = offset; i < offset + length; i++)
+        {
+            hash = (hash ^ (buffer.getByte(i) & 0xFF)) * FNV_PRIME;
+        }
+
+        return hash == NO_TAG_HASH ? 1 : hash;
+    }
+
+    static long tagHash(final String value)
+    {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++)
+        {
+            hash = (hash ^ (value.charAt(i) & 0xFF)) * FNV_PRIME;
+        }
+
+        return hash == NO_TAG_HASH ? 1 : hash;
+    }
+
+    static void checkTag(final int tag)
+    {
+        if (tag <= 0)
+        {
+            throw new IllegalArgumentException("Indexed tag must be positive: " + tag);
+        }
+    }
+
+    private static boolean matches(final DirectBuffer buffer, final int offset, final byte[] expected)
+    {
+        for (int i = 1; i < expected.length; i++)
+        {
+            if (buffer.getByte(offset + i) != expected[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -25,7 +25,9 @@ import org.agrona.LangUtil;
 import org.agrona.collections.Int2ObjectCache;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
 import uk.co.real_logic.artio.engine.CompletionPosition;
 import uk.co.real_logic.artio.replication.ReservedValue;
@@ -36,12 +38,15 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.IntFunction;
 import java.util.zip.CRC32;
 
 import static io.aeron.driver.Configuration.TERM_BUFFER_LENGTH_DEFAULT;
 import static io.aeron.logbuffer.LogBufferDescriptor.computePosition;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static uk.co.real_logic.artio.engine.logger.ArchiverDurability.*;
 
 public class Archiver implements Agent, RawBlockHandler
 {
@@ -50,6 +55,11 @@ public class Archiver implements Agent, RawBlockHandler
         void onArchivedPosition(int aeronSessionId, long endPosition, int length);
     }
 
+    public interface DurablePositionHandler
+    {
+        void onDurablePosition(int aeronSessionId, long durablePosition);
+    }
+
     private static final int POLL_LENGTH = TERM_BUFFER_LENGTH_DEFAULT;
 
     private static final long UNKNOWN_POSITION = -1;
@@ -64,7 +74,15 @@ public class Archiver implements Agent, RawBlockHandler
     private final CRC32 checksum = new CRC32();
     private final DataHeaderFlyweight header = new DataHeaderFlyweight();
 
+    private final List<SessionArchiver> sessionsAwaitingSync = new ArrayList<>();
+
     private ArchivedPositionHandler positionHandler = (aeronSessionId, endPosition, length) -> {};
+    private DurablePositionHandler durablePositionHandler = (aeronSessionId, durablePosition) -> {};
+    private AtomicCounter durablePositionCounter;
+    private ArchiverDurability durability = SYNC;
+    private long syncBytes;
+    private long syncIntervalInNs;
+    private NanoClock nanoClock;
 
     private boolean isClosed = false;
     private Subscription subscription;
@@ -91,6 +109,47 @@ public class Archiver implements Agent, RawBlockHandler
         return this;
     }
 
+    /**
+     * Sets how the archived data is made durable, defaults to {@link ArchiverDurability#SYNC}.
+     *
+     * @param durability the durability mode.
+     * @param syncBytes the number of bytes after which a group commit is forced to the storage device.
+     * @param syncIntervalInNs the maximum time data is left in the page cache in periodic and group commit modes.
+     * @param nanoClock the clock used to time the sync interval.
+     * @return this
+     */
+    public Archiver durability(
+        final ArchiverDurability durability,
+        final long syncBytes,
+        final long syncIntervalInNs,
+        final NanoClock nanoClock)
+    {
+        this.durability = durability;
+        this.syncBytes = syncBytes;
+        this.syncIntervalInNs = syncIntervalInNs;
+        this.nanoClock = nanoClock;
+        return this;
+    }
+
+    public Archiver durablePositionHandler(final DurablePositionHandler durablePositionHandler)
+    {
+        this.durablePositionHandler = durablePositionHandler;
+        return this;
+    }
+
+    /**
+     * Sets a counter that is updated with the position up to which the most recently synced session of this
+     * archiver's stream has been made durable.
+     *
+     * @param durablePositionCounter the counter to update.
+     * @return this
+     */
+    public Archiver durablePositionCounter(final AtomicCounter durablePositionCounter)
+    {
+        this.durablePositionCounter = durablePositionCounter;
+        return this;
+    }
+
     public Archiver subscription(final Subscription subscription)
     {
         // Clear to ensure not holding references to old subscription objects
@@ -106,7 +165,30 @@ public class Archiver implements Agent, RawBlockHandler
             return 0;
         }
 
-        return (int)subscription.rawPoll(this, POLL_LENGTH);
+        return (int)subscription.rawPoll(this, POLL_LENGTH) + syncSessions();
+    }
+
+    private int syncSessions()
+    {
+        final List<SessionArchiver> sessionsAwaitingSync = this.sessionsAwaitingSync;
+        if (sessionsAwaitingSync.isEmpty())
+        {
+            return 0;
+        }
+
+        int work = 0;
+        final long timeInNs = nanoClock.nanoTime();
+        for (int i = sessionsAwaitingSync.size() - 1; i >= 0; i--)
+        {
+            final SessionArchiver sessionArchiver = sessionsAwaitingSync.get(i);
+            if (timeInNs >= sessionArchiver.syncDeadlineInNs)
+            {
+                sessionArchiver.syncOrRethrow();
+                work++;
+            }
+        }
+
+        return work;
     }
 
     private SessionArchiver newSessionArchiver(final int sessionId)
@@ -175,6 +257,7 @@ public class Archiver implements Agent, RawBlockHandler
 
             sessionIdToArchive.clear();
             metaData.close();
+            CloseHelper.close(durablePositionCounter);
             CloseHelper.close(subscription);
 
             isClosed = true;
@@ -226,6 +309,11 @@ public class Archiver implements Agent, RawBlockHandler
         private RandomAccessFile currentLogFile;
         private FileChannel currentLogChannel;
 
+        private long writtenPosition;
+        private long durablePosition;
+        private long unsyncedBytes;
+        private long syncDeadlineInNs;
+
         protected SessionArchiver(final int sessionId, final Image image)
         {
             this.sessionId = sessionId;
@@ -276,6 +364,55 @@ public class Archiver implements Agent, RawBlockHandler
                         location,
                         transferred));
                 }
+
+                onWritten(endPosition, length);
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+        }
+
+        private void onWritten(final long endPosition, final int length) throws IOException
+        {
+            writtenPosition = endPosition;
+            if (durability == SYNC)
+            {
+                // Already written through to the storage device by the "rwd" file mode.
+                onDurable(endPosition);
+                return;
+            }
+
+            if (unsyncedBytes == 0 && durability != ASYNC)
+            {
+                syncDeadlineInNs = nanoClock.nanoTime() + syncIntervalInNs;
+                sessionsAwaitingSync.add(this);
+            }
+
+            unsyncedBytes += length;
+
+            if (durability == GROUP_COMMIT && unsyncedBytes >= syncBytes)
+            {
+                sync();
+            }
+        }
+
+        private void sync() throws IOException
+        {
+            if (unsyncedBytes > 0)
+            {
+                currentLogChannel.force(false);
+                unsyncedBytes = 0;
+                sessionsAwaitingSync.remove(this);
+                onDurable(writtenPosition);
+            }
+        }
+
+        private void syncOrRethrow()
+        {
+            try
+            {
+                sync();
             }
             catch (final IOException ex)
             {
@@ -283,6 +420,26 @@ public class Archiver implements Agent, RawBlockHandler
             }
         }
 
+        private void onDurable(final long position)
+        {
+            durablePosition = position;
+            if (durablePositionCounter != null)
+            {
+                durablePositionCounter.setOrdered(position);
+            }
+            durablePositionHandler.onDurablePosition(sessionId, position);
+        }
+
+        /**
+         * Gets the position up to which this session's data has been made durable.
+         *
+         * @return the position up to which this session's data has been made durable.
+         */
+        public long durablePosition()
+        {
+            return durablePosition;
+        }
+
         private void writeChecksumForBlock(final UnsafeBuffer termBuffer, final int termOffset, final int length)
         {
             final ByteBuffer byteBuffer = termBuffer.byteBuffer();
@@ -373,6 +530,10 @@ public class Archiver implements Agent, RawBlockHandler
 
                 writeToFile(
                     bodyBuffer, readOffset, bodyLength, termWriteOffset, patchTermLogChannel, patchTermLogFile);
+                if (durability != SYNC)
+                {
+                    patchTermLogChannel.force(false);
+                }
 
                 close(patchTermLogChannel);
 
@@ -387,12 +548,19 @@ public class Archiver implements Agent, RawBlockHandler
 
         public void close()
         {
-            CloseHelper.close(currentLogChannel);
+            try
+            {
+                syncOrRethrow();
+            }
+            finally
+            {
+                CloseHelper.close(currentLogChannel);
+            }
         }
 
         private RandomAccessFile openFile(final File location) throws IOException
         {
-            final RandomAccessFile file = new RandomAccessFile(location, "rwd");
+            final RandomAccessFile file = new RandomAccessFile(location, durability == SYNC ? "rwd" : "rw");
             file.setLength(termBufferLength);
             return file;
         }
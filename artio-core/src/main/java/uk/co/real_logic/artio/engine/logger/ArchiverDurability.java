@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+/**
+ * How the {@link Archiver} makes the data that it archives durable.
+ * <p>
+ * Whatever the mode, the archiver publishes the position up to which each stream has been made durable, so that
+ * libraries can wait for the durability of specific sends.
+ */
+public enum ArchiverDurability
+{
+    /**
+     * Every block is written synchronously through to the storage device before archiving continues.
+     */
+    SYNC,
+
+    /**
+     * Blocks are only written to the page cache, term files are forced to the storage device when they're
+     * finished with.
+     */
+    ASYNC,
+
+    /**
+     * Blocks are written to the page cache and forced to the storage device once the sync interval has passed
+     * since the first block that hasn't been forced.
+     */
+    PERIODIC,
+
+    /**
+     * Blocks are written to the page cache and forced to the storage device once the sync bytes threshold has
+     * been written or the sync interval has passed, whichever comes first.
+     */
+    GROUP_COMMIT
+}
@@ -17,10 +17,15 @@ package uk.co.real_logic.artio.engine.logger;
 
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
 import java.util.function.Predicate;
 
 import static java.lang.Long.parseLong;
@@ -35,6 +40,8 @@ import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.*;
  */
 public final class FixArchivePrinter
 {
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     public static void main(final String[] args)
     {
         String logFileDir = null;
@@ -128,12 +135,18 @@ public final class FixArchivePrinter
             predicate = whereHeader(headerPredicate).and(predicate);
         }
 
+        // System.out flushes on every write, which dominates the cost of printing a large archive.
+        final PrintStream output = new PrintStream(
+            new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE), false);
+
         final FixArchiveScanner scanner = new FixArchiveScanner(logFileDir);
         scanner.scan(
             aeronChannel,
             direction,
-            filterBy(FixArchivePrinter::print, predicate),
+            filterBy(new BodyPrinter(output), predicate),
             Throwable::printStackTrace);
+
+        output.flush();
     }
 
     private static void requiredArgument(final String argument, final String description)
@@ -221,13 +234,33 @@ public final class FixArchivePrinter
         return left == null ? right : left.and(right);
     }
 
-    private static void print(
-        final FixMessageDecoder message,
-        final DirectBuffer buffer,
-        final int offset,
-        final int length,
-        final Header header)
+    /**
+     * Copies each message body into a reused buffer and writes the bytes straight to the output rather than
+     * decoding them into a String first.
+     */
+    static final class BodyPrinter implements FixMessageConsumer
     {
-        System.out.println(message.body());
+        private final ExpandableArrayBuffer body = new ExpandableArrayBuffer(1024);
+        private final PrintStream output;
+
+        BodyPrinter(final PrintStream output)
+        {
+            this.output = output;
+        }
+
+        public void onMessage(
+            final FixMessageDecoder message,
+            final DirectBuffer buffer,
+            final int offset,
+            final int length,
+            final Header header)
+        {
+            final int bodyLength = message.bodyLength();
+            body.checkLimit(bodyLength);
+            message.getBody(body, 0, bodyLength);
+
+            output.write(body.byteArray(), 0, bodyLength);
+            output.println();
+        }
     }
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.IntHashSet;
+import uk.co.real_logic.artio.dictionary.generation.GenerationUtil;
+
+import java.util.stream.Stream;
+
+import static uk.co.real_logic.artio.engine.logger.ArchiveQueryIndexDescriptor.*;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.alwaysTrue;
+
+/**
+ * A query over the fix message archive that can be answered by the {@link ArchiveQueryIndex} when it has been
+ * enabled, or by a full scan of the archive when it hasn't.
+ *
+ * Criteria that haven't been set match every message.
+ *
+ * @see FixArchiveScanner#scan(String, FixArchiveScanner.MessageType, FixArchiveQuery, FixMessageConsumer,
+ * org.agrona.ErrorHandler)
+ */
+public class FixArchiveQuery
+{
+    private long beginTimestampInclusive = Long.MIN_VALUE;
+    private long endTimestampExclusive = Long.MAX_VALUE;
+    private IntHashSet messageTypes;
+    private long messageTypesFilter;
+    private boolean hasSessionId;
+    private long sessionId;
+    private int tag = NO_TAG;
+    private String tagValue;
+    private byte[] tagPrefix;
+    private long tagHash;
+
+    /**
+     * Only match messages whose timestamp is between these begin and end times.
+     *
+     * @param beginTimestampInclusive the earliest timestamp to match.
+     * @param endTimestampExclusive the timestamp to match up to.
+     * @return this
+     * @see FixMessagePredicates#between(long, long)
+     */
+    public FixArchiveQuery between(final long beginTimestampInclusive, final long endTimestampExclusive)
+    {
+        this.beginTimestampInclusive = beginTimestampInclusive;
+        this.endTimestampExclusive = endTimestampExclusive;
+        return this;
+    }
+
+    /**
+     * Only match messages of one of these message types.
+     *
+     * @param messageTypes the fix message type strings that you see in the message.
+     * @return this
+     * @see FixMessagePredicates#messageTypeOf(String...)
+     */
+    public FixArchiveQuery messageTypes(final String... messageTypes)
+    {
+        this.messageTypes = new IntHashSet();
+        messageTypesFilter = 0;
+        Stream.of(messageTypes)
+            .mapToInt(GenerationUtil::packMessageType)
+            .forEach((messageType) ->
+            {
+                this.messageTypes.add(messageType);
+                messageTypesFilter |= filterBit(messageType);
+            });
+        return this;
+    }
+
+    /**
+     * Only match messages of the session with this surrogate session id.
+     *
+     * @param sessionId the surrogate session id key.
+     * @return this
+     * @see FixMessagePredicates#sessionOf(long)
+     */
+    public FixArchiveQuery sessionId(final long sessionId)
+    {
+        this.hasSessionId = true;
+        this.sessionId = sessionId;
+        return this;
+    }
+
+    /**
+     * Only match messages where a tag has this value, eg: all messages for a ClOrdID. This can be looked up in
+     * the index if it is the tag configured by {@link uk.co.real_logic.artio.engine.EngineConfiguration
+     * #archiveQueryIndexTag(int)}, otherwise candidate messages are checked as they're read.
+     *
+     * @param tag the tag number of the field.
+     * @param value the value of the field.
+     * @return this
+     * @see FixMessagePredicates#tagValueOf(int, String)
+     */
+    public FixArchiveQuery tagValue(final int tag, final String value)
+    {
+        checkTag(tag);
+        this.tag = tag;
+        this.tagValue = value;
+        this.tagPrefix = tagPrefix(tag);
+        this.tagHash = ArchiveQueryIndexDescriptor.tagHash(value);
+        return this;
+    }
+
+    /**
+     * Create a predicate equivalent to this query, used when the archive hasn't been indexed.
+     *
+     * @return the predicate
+     */
+    public FixMessagePredicate toPredicate()
+    {
+        FixMessagePredicate predicate = alwaysTrue();
+        if (beginTimestampInclusive != Long.MIN_VALUE || endTimestampExclusive != Long.MAX_VALUE)
+        {
+            predicate = predicate.and(FixMessagePredicates.between(beginTimestampInclusive, endTimestampExclusive));
+        }
+
+        if (messageTypes != null)
+        {
+            final IntHashSet messageTypes = this.messageTypes;
+            predicate = predicate.and((message) -> messageTypes.contains(message.messageType()));
+        }
+
+        if (hasSessionId)
+        {
+            predicate = predicate.and(FixMessagePredicates.sessionOf(sessionId));
+        }
+
+        if (tag != NO_TAG)
+        {
+            predicate = predicate.and(FixMessagePredicates.tagValueOf(tag, tagValue));
+        }
+
+        return predicate;
+    }
+
+    boolean hasTagValue()
+    {
+        return tag != NO_TAG;
+    }
+
+    boolean matchesBlock(final DirectBuffer block, final boolean useTagFilter)
+    {
+        if (block.getLong(MAX_TIMESTAMP_OFFSET) < beginTimestampInclusive ||
+            block.getLong(MIN_TIMESTAMP_OFFSET) >= endTimestampExclusive)
+        {
+            return false;
+        }
+
+        if (messageTypes != null && (block.getLong(MESSAGE_TYPE_FILTER_OFFSET) & messageTypesFilter) == 0)
+        {
+            return false;
+        }
+
+        if (hasSessionId && (block.getLong(SESSION_ID_FILTER_OFFSET) & filterBit(sessionId)) == 0)
+        {
+            return false;
+        }
+
+        return !useTagFilter ||
+            (isTagFilterBitSet(block, firstTagFilterBit(tagHash)) &&
+            isTagFilterBitSet(block, secondTagFilterBit(tagHash)));
+    }
+
+    boolean matchesEntry(final DirectBuffer entries, final int offset, final boolean useTagHash)
+    {
+        final long timestamp = entries.getLong(offset + TIMESTAMP_OFFSET);
+        return timestamp >= beginTimestampInclusive && timestamp < endTimestampExclusive &&
+            (messageTypes == null || messageTypes.contains(entries.getInt(offset + MESSAGE_TYPE_OFFSET))) &&
+            (!hasSessionId || entries.getLong(offset + SESSION_ID_OFFSET) == sessionId) &&
+            (!useTagHash || entries.getLong(offset + TAG_HASH_OFFSET) == tagHash);
+    }
+
+    boolean usesTagIndex(final int indexedTag)
+    {
+        return tag != NO_TAG && tag == indexedTag;
+    }
+
+    // Checks the actual value of the tag, since different values can have the same hash.
+    boolean matchesTagValue(final DirectBuffer buffer, final int bodyOffset, final int bodyLength)
+    {
+        if (tag == NO_TAG)
+        {
+            return true;
+        }
+
+        final int valueOffset = tagValueOffset(buffer, bodyOffset, bodyLength, tagPrefix);
+        if (valueOffset == NO_TAG)
+        {
+            return false;
+        }
+
+        final String tagValue = this.tagValue;
+        final int valueLength = tagValueLength(buffer, valueOffset, bodyOffset + bodyLength);
+        if (valueLength != tagValue.length())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < valueLength; i++)
+        {
+            if (buffer.getByte(valueOffset + i) != tagValue.charAt(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
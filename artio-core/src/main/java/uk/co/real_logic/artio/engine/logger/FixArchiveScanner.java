@@ -15,20 +15,49 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import io.aeron.logbuffer.ControlledFragmentHandler;
 import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.replication.StreamIdentifier;
+import uk.co.real_logic.artio.storage.messages.ArchiveMetaDataDecoder;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.logbuffer.LogBufferDescriptor.computeTermBeginPosition;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.nio.file.StandardOpenOption.READ;
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_NUM_SETS;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_SET_SIZE;
+import static uk.co.real_logic.artio.engine.logger.ArchiveDescriptor.alignTerm;
+import static uk.co.real_logic.artio.engine.logger.ArchiveQueryIndexDescriptor.*;
 import static uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType.SENT;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.filterBy;
+import static uk.co.real_logic.artio.engine.logger.IndexedPositionReader.UNKNOWN_POSITION;
+import static uk.co.real_logic.artio.engine.logger.LogDirectoryDescriptor.computeSessionId;
+import static uk.co.real_logic.artio.engine.logger.LogDirectoryDescriptor.computeTermId;
+import static uk.co.real_logic.artio.replication.ReservedValue.NO_FILTER;
 
 /**
- * Scan the archive for fix messages. Can be combined with predicates to create rich queries.
+ * Scan the archive for fix messages. Can be combined with predicates to create rich queries. Queries that
+ * can be expressed as a {@link FixArchiveQuery} can use the {@link ArchiveQueryIndex}, if it has been enabled,
+ * in order to avoid scanning the whole archive.
  *
  * @see FixMessageConsumer
  * @see FixMessagePredicate
@@ -39,10 +68,15 @@ public class FixArchiveScanner
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder fixMessage = new FixMessageDecoder();
     private final LogEntryHandler logEntryHandler = new LogEntryHandler();
+    private final IndexedEntryHandler indexedEntryHandler = new IndexedEntryHandler();
+    private final UnindexedEntryHandler unindexedEntryHandler = new UnindexedEntryHandler();
 
+    private final String logFileDir;
+    private final LogDirectoryDescriptor directoryDescriptor;
     private final ArchiveScanner archiveScanner;
 
     private FixMessageConsumer handler;
+    private FixArchiveQuery query;
 
     public enum MessageType
     {
@@ -55,6 +89,8 @@ public class FixArchiveScanner
 
     public FixArchiveScanner(final String logFileDir)
     {
+        this.logFileDir = logFileDir;
+        directoryDescriptor = new LogDirectoryDescriptor(logFileDir);
         archiveScanner = new ArchiveScanner(logFileDir);
     }
 
@@ -65,9 +101,217 @@ public class FixArchiveScanner
         final ErrorHandler errorHandler)
     {
         this.handler = handler;
-        final StreamIdentifier id = new StreamIdentifier(
+        archiveScanner.forEachFragment(streamId(aeronChannel, messageType), logEntryHandler, errorHandler);
+    }
+
+    /**
+     * Scan the archive for messages that match a query. If the archive has been indexed by the
+     * {@link ArchiveQueryIndex} then only the blocks of the index that can contain matching messages and the
+     * matching messages themselves are read, otherwise this is equivalent to a scan using
+     * {@link FixArchiveQuery#toPredicate()}. Parts of the archive that the index doesn't cover, for example messages
+     * archived before the index was enabled, are scanned using that predicate.
+     *
+     * @param aeronChannel the aeron channel that the archive was recorded from.
+     * @param messageType whether to scan sent or received messages.
+     * @param query the query that messages have to match.
+     * @param handler the consumer of the matching messages.
+     * @param errorHandler the handler of errors when reading the archive.
+     */
+    public void scan(
+        final String aeronChannel,
+        final MessageType messageType,
+        final FixArchiveQuery query,
+        final FixMessageConsumer handler,
+        final ErrorHandler errorHandler)
+    {
+        final StreamIdentifier id = streamId(aeronChannel, messageType);
+        final File entriesFile = entriesFile(logFileDir, id.streamId());
+        final File blocksFile = blocksFile(logFileDir, id.streamId());
+        final File positionFile = positionFile(logFileDir, id.streamId());
+        final File startPositionFile = startPositionFile(logFileDir, id.streamId());
+        if (!entriesFile.exists() || !blocksFile.exists() || !positionFile.exists() || !startPositionFile.exists())
+        {
+            scan(aeronChannel, messageType, filterBy(handler, query.toPredicate()), errorHandler);
+            return;
+        }
+
+        // Read before the entries, so that every entry up to these positions has been written.
+        final Long2LongHashMap indexedPositions = readPositions(positionFile);
+        final Long2LongHashMap startPositions = readPositions(startPositionFile);
+
+        this.query = query;
+        final FixMessageConsumer unindexedHandler = filterBy(handler, query.toPredicate());
+        final ArchiveMetaData metaData = LoggerUtil.newArchiveMetaData(logFileDir);
+        try (FileChannel entriesChannel = FileChannel.open(entriesFile.toPath(), READ);
+            FileChannel blocksChannel = FileChannel.open(blocksFile.toPath(), READ);
+            ArchiveReader archiveReader = new ArchiveReader(
+                metaData,
+                DEFAULT_LOGGER_CACHE_NUM_SETS,
+                DEFAULT_LOGGER_CACHE_SET_SIZE,
+                id,
+                NO_FILTER))
+        {
+            final Int2IntHashMap firstTermIds = firstTermIds(id);
+
+            this.handler = unindexedHandler;
+            scanBeforeIndex(id, metaData, archiveReader, firstTermIds, startPositions, indexedPositions);
+
+            this.handler = handler;
+            scanIndex(entriesChannel, blocksChannel, archiveReader, startPositions, indexedPositions);
+
+            this.handler = unindexedHandler;
+            scanAfterIndex(archiveReader, firstTermIds, startPositions, indexedPositions);
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    private void scanBeforeIndex(
+        final StreamIdentifier id,
+        final ArchiveMetaData metaData,
+        final ArchiveReader archiveReader,
+        final Int2IntHashMap firstTermIds,
+        final Long2LongHashMap startPositions,
+        final Long2LongHashMap indexedPositions)
+    {
+        firstTermIds.forEach((aeronSessionId, firstTermId) ->
+        {
+            final ArchiveMetaDataDecoder sessionMetaData = metaData.read(id, aeronSessionId);
+            if (sessionMetaData == null)
+            {
+                return;
+            }
+
+            final int termBufferLength = sessionMetaData.termBufferLength();
+            final long firstPosition = computeTermBeginPosition(
+                firstTermId, Integer.numberOfTrailingZeros(termBufferLength), sessionMetaData.initialTermId());
+            final long endPosition = isCovered(aeronSessionId, startPositions, indexedPositions) ?
+                startPositions.get(aeronSessionId) - 1 : Long.MAX_VALUE;
+
+            final long beginPosition = firstPosition + HEADER_LENGTH;
+            if (beginPosition <= endPosition)
+            {
+                archiveReader.readUpTo(aeronSessionId, beginPosition, endPosition, unindexedEntryHandler);
+            }
+        });
+    }
+
+    private void scanAfterIndex(
+        final ArchiveReader archiveReader,
+        final Int2IntHashMap firstTermIds,
+        final Long2LongHashMap startPositions,
+        final Long2LongHashMap indexedPositions)
+    {
+        firstTermIds.forEach((aeronSessionId, firstTermId) ->
+        {
+            if (isCovered(aeronSessionId, startPositions, indexedPositions))
+            {
+                final long indexedPosition = indexedPositions.get(aeronSessionId);
+                archiveReader.readUpTo(
+                    aeronSessionId, alignTerm(indexedPosition) + HEADER_LENGTH, Long.MAX_VALUE, unindexedEntryHandler);
+            }
+        });
+    }
+
+    private void scanIndex(
+        final FileChannel entriesChannel,
+        final FileChannel blocksChannel,
+        final ArchiveReader archiveReader,
+        final Long2LongHashMap startPositions,
+        final Long2LongHashMap indexedPositions)
+    {
+        final FixArchiveQuery query = this.query;
+        final ByteBuffer entriesByteBuffer = ByteBuffer.allocateDirect(ENTRIES_PER_BLOCK * ENTRY_LENGTH);
+        final UnsafeBuffer entriesBuffer = new UnsafeBuffer(entriesByteBuffer);
+        final ByteBuffer blockByteBuffer = ByteBuffer.allocateDirect(BLOCK_SUMMARY_LENGTH);
+        final UnsafeBuffer blockBuffer = new UnsafeBuffer(blockByteBuffer);
+
+        ByteBufferUtil.limit(entriesByteBuffer, ENTRIES_HEADER_LENGTH);
+        ArchiveQueryIndex.read(entriesChannel, entriesByteBuffer, 0);
+        final boolean useTagIndex = query.usesTagIndex(entriesBuffer.getInt(INDEXED_TAG_OFFSET));
+
+        final long entryCount = entryCount(ArchiveQueryIndex.size(entriesChannel));
+        final long blockCount = Math.min(
+            blockCount(entryCount), ArchiveQueryIndex.size(blocksChannel) / BLOCK_SUMMARY_LENGTH);
+        for (long block = 0; block < blockCount; block++)
+        {
+            final long firstEntry = block * ENTRIES_PER_BLOCK;
+
+            // The last block's summary may be being updated by the indexer, so always check its entries.
+            if (block < blockCount - 1)
+            {
+                blockByteBuffer.clear();
+                ArchiveQueryIndex.read(blocksChannel, blockByteBuffer, blockOffset(firstEntry));
+                if (!query.matchesBlock(blockBuffer, useTagIndex))
+                {
+                    continue;
+                }
+            }
+
+            final int entries = (int)Math.min(ENTRIES_PER_BLOCK, entryCount - firstEntry);
+            entriesByteBuffer.clear();
+            ByteBufferUtil.limit(entriesByteBuffer, entries * ENTRY_LENGTH);
+            ArchiveQueryIndex.read(entriesChannel, entriesByteBuffer, entryOffset(firstEntry));
+            for (int i = 0; i < entries; i++)
+            {
+                final int offset = i * ENTRY_LENGTH;
+                final int aeronSessionId = entriesBuffer.getInt(offset + AERON_SESSION_ID_OFFSET);
+                final long position = entriesBuffer.getLong(offset + POSITION_OFFSET);
+                if (isCovered(aeronSessionId, startPositions, indexedPositions) &&
+                    position >= startPositions.get(aeronSessionId) &&
+                    position < indexedPositions.get(aeronSessionId) &&
+                    query.matchesEntry(entriesBuffer, offset, useTagIndex))
+                {
+                    archiveReader.read(aeronSessionId, position, indexedEntryHandler);
+                }
+            }
+        }
+    }
+
+    private static boolean isCovered(
+        final int aeronSessionId, final Long2LongHashMap startPositions, final Long2LongHashMap indexedPositions)
+    {
+        return startPositions.containsKey(aeronSessionId) && indexedPositions.containsKey(aeronSessionId);
+    }
+
+    private Int2IntHashMap firstTermIds(final StreamIdentifier id)
+    {
+        final Int2IntHashMap firstTermIds = new Int2IntHashMap(Integer.MAX_VALUE);
+        for (final File logFile : directoryDescriptor.listLogFiles(id))
+        {
+            final int aeronSessionId = computeSessionId(logFile);
+            final int termId = computeTermId(logFile);
+            if (termId < firstTermIds.get(aeronSessionId))
+            {
+                firstTermIds.put(aeronSessionId, termId);
+            }
+        }
+
+        return firstTermIds;
+    }
+
+    private static Long2LongHashMap readPositions(final File file)
+    {
+        final Long2LongHashMap positions = new Long2LongHashMap(UNKNOWN_POSITION);
+        final MappedByteBuffer buffer = LoggerUtil.mapExistingFile(file);
+        try
+        {
+            new IndexedPositionReader(new UnsafeBuffer(buffer)).readLastPosition(positions::put);
+        }
+        finally
+        {
+            IoUtil.unmap(buffer);
+        }
+
+        return positions;
+    }
+
+    private StreamIdentifier streamId(final String aeronChannel, final MessageType messageType)
+    {
+        return new StreamIdentifier(
             aeronChannel, messageType == SENT ? OUTBOUND_LIBRARY_STREAM : INBOUND_LIBRARY_STREAM);
-        archiveScanner.forEachFragment(id, logEntryHandler, errorHandler);
     }
 
     class LogEntryHandler implements FragmentHandler
@@ -88,4 +332,39 @@ public class FixArchiveScanner
         }
     }
 
+    class UnindexedEntryHandler implements ControlledFragmentHandler
+    {
+        public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            logEntryHandler.onFragment(buffer, offset, length, header);
+
+            return CONTINUE;
+        }
+    }
+
+    class IndexedEntryHandler implements ControlledFragmentHandler
+    {
+        @SuppressWarnings("FinalParameters")
+        public Action onFragment(
+            final DirectBuffer buffer, int offset, final int length, final Header header)
+        {
+            messageHeader.wrap(buffer, offset);
+            if (messageHeader.templateId() == FixMessageDecoder.TEMPLATE_ID)
+            {
+                offset += MessageHeaderDecoder.ENCODED_LENGTH;
+
+                final int actingBlockLength = messageHeader.blockLength();
+                fixMessage.wrap(buffer, offset, actingBlockLength, messageHeader.version());
+                final int bodyLength = fixMessage.bodyLength();
+                final int bodyOffset = offset + actingBlockLength + 2;
+                if (query.matchesTagValue(buffer, bodyOffset, bodyLength))
+                {
+                    handler.onMessage(fixMessage, buffer, offset, length, header);
+                }
+            }
+
+            return CONTINUE;
+        }
+    }
+
 }
@@ -215,6 +215,26 @@ public final class FixMessagePredicates
         return (message) -> message.session() == sessionId;
     }
 
+    /**
+     * Filter messages by the value of a tag in their body, eg: a ClOrdID.
+     *
+     * @param tag the tag number of the field.
+     * @param value the value that the field should have.
+     * @return the resulting predicate.
+     */
+    public static FixMessagePredicate tagValueOf(final int tag, final String value)
+    {
+        final FixArchiveQuery query = new FixArchiveQuery().tagValue(tag, value);
+        final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(1024);
+        return message ->
+        {
+            final int length = message.bodyLength();
+            buffer.checkLimit(length);
+            message.getBody(buffer, 0, length);
+            return query.matchesTagValue(buffer, 0, length);
+        };
+    }
+
     public static FixMessagePredicate bodyMatches(final Pattern pattern)
     {
         final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(1024);
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.LangUtil;
+import org.agrona.concurrent.NanoClock;
+import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.LogTag;
+import uk.co.real_logic.artio.engine.IndexRecoveryListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static uk.co.real_logic.artio.engine.logger.ArchiveDescriptor.alignTerm;
+
+/**
+ * Catches indices up with the archive when the engine starts.
+ * <p>
+ * Each index is re-indexed from its own last indexed position using its own {@link ArchiveReader}, so independent
+ * indices can be recovered concurrently and restart time after a crash is bounded by the slowest index rather than
+ * the sum of all of them.
+ */
+public class IndexRecovery
+{
+    private final List<RecoveryTask> tasks = new ArrayList<>();
+    private final int threadCount;
+    private final String agentNamePrefix;
+    private final NanoClock nanoClock;
+    private final IndexRecoveryListener listener;
+
+    public IndexRecovery(
+        final int threadCount,
+        final String agentNamePrefix,
+        final NanoClock nanoClock,
+        final IndexRecoveryListener listener)
+    {
+        this.threadCount = threadCount;
+        this.agentNamePrefix = agentNamePrefix;
+        this.nanoClock = nanoClock;
+        this.listener = listener;
+    }
+
+    /**
+     * Add indices to be recovered.
+     *
+     * @param indices the indices to recover.
+     * @param streamId the stream id of the archive that the indices are recovered from.
+     * @param archiveReaders supplies a new archive reader for each index, or null if there's no archive to read.
+     */
+    public void add(final List<Index> indices, final int streamId, final Supplier<ArchiveReader> archiveReaders)
+    {
+        for (final Index index : indices)
+        {
+            tasks.add(new RecoveryTask(index, streamId, archiveReaders));
+        }
+    }
+
+    /**
+     * Recover all of the added indices, blocking until they have all caught up with the archive.
+     */
+    public void recover()
+    {
+        final long startInNs = nanoClock.nanoTime();
+        final int totalIndices = tasks.size();
+        final int threadCount = Math.min(this.threadCount, totalIndices);
+
+        if (threadCount <= 1)
+        {
+            for (int i = 0; i < totalIndices; i++)
+            {
+                onIndexRecovered(tasks.get(i).call(), i + 1, totalIndices);
+            }
+        }
+        else
+        {
+            final ExecutorService executor = Executors.newFixedThreadPool(threadCount, (runnable) ->
+            {
+                final Thread thread = new Thread(runnable, agentNamePrefix + "IndexRecovery");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            try
+            {
+                final CompletionService<RecoveryTask> completionService = new ExecutorCompletionService<>(executor);
+                tasks.forEach(completionService::submit);
+                for (int i = 0; i < totalIndices; i++)
+                {
+                    onIndexRecovered(completionService.take().get(), i + 1, totalIndices);
+                }
+            }
+            catch (final ExecutionException e)
+            {
+                LangUtil.rethrowUnchecked(e.getCause());
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                LangUtil.rethrowUnchecked(e);
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+        }
+
+        tasks.clear();
+
+        final long durationInNs = nanoClock.nanoTime() - startInNs;
+        DebugLogger.log(
+            LogTag.INDEX,
+            "Recovered %d indices in %dms%n",
+            totalIndices,
+            NANOSECONDS.toMillis(durationInNs));
+        listener.onRecoveryComplete(totalIndices, durationInNs);
+    }
+
+    private void onIndexRecovered(final RecoveryTask task, final int recoveredIndices, final int totalIndices)
+    {
+        final String indexName = task.index.getName();
+        DebugLogger.log(
+            LogTag.INDEX,
+            "Recovered %s on stream %d (%d/%d): %d bytes in %dms%n",
+            indexName,
+            task.streamId,
+            recoveredIndices,
+            totalIndices,
+            task.recoveredBytes,
+            NANOSECONDS.toMillis(task.durationInNs));
+        listener.onIndexRecovered(
+            indexName, task.streamId, task.recoveredBytes, task.durationInNs, recoveredIndices, totalIndices);
+    }
+
+    private final class RecoveryTask implements Callable<RecoveryTask>
+    {
+        private final Index index;
+        private final int streamId;
+        private final Supplier<ArchiveReader> archiveReaders;
+
+        private long recoveredBytes;
+        private long durationInNs;
+
+        RecoveryTask(final Index index, final int streamId, final Supplier<ArchiveReader> archiveReaders)
+        {
+            this.index = index;
+            this.streamId = streamId;
+            this.archiveReaders = archiveReaders;
+        }
+
+        public RecoveryTask call()
+        {
+            final long startInNs = nanoClock.nanoTime();
+            try (ArchiveReader archiveReader = archiveReaders.get())
+            {
+                if (archiveReader != null)
+                {
+                    index.readLastPosition((aeronSessionId, endOfLastMessagePosition) ->
+                        catchUp(archiveReader, aeronSessionId, endOfLastMessagePosition));
+                }
+            }
+            durationInNs = nanoClock.nanoTime() - startInNs;
+
+            return this;
+        }
+
+        private void catchUp(
+            final ArchiveReader archiveReader, final int aeronSessionId, final long endOfLastMessagePosition)
+        {
+            final ArchiveReader.SessionReader sessionReader = archiveReader.session(aeronSessionId);
+            if (sessionReader != null)
+            {
+                long position = endOfLastMessagePosition;
+                do
+                {
+                    final long nextMessagePosition = alignTerm(position) + HEADER_LENGTH;
+                    final long endOfMessagePosition = sessionReader.read(nextMessagePosition, index);
+                    if (endOfMessagePosition > 0)
+                    {
+                        recoveredBytes += endOfMessagePosition - position;
+                    }
+                    position = endOfMessagePosition;
+                }
+                while (position > 0);
+            }
+        }
+    }
+}
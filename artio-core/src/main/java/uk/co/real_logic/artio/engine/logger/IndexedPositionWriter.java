@@ -75,6 +75,7 @@ class IndexedPositionWriter
                 .blockLength(actingBlockLength)
                 .version(actingVersion);
 
+            checksumFramer.markAllDirty();
             checksumFramer.updateChecksums();
         }
         else
@@ -145,5 +146,6 @@ class IndexedPositionWriter
     private void putPosition(final long position, final AtomicBuffer buffer, final int offset)
     {
         buffer.putLongVolatile(offset + POSITION_OFFSET, position);
+        checksumFramer.markDirty(offset, RECORD_LENGTH);
     }
 }
@@ -30,11 +30,11 @@ import uk.co.real_logic.artio.replication.ClusterableSubscription;
 import java.util.List;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
-import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
-import static uk.co.real_logic.artio.engine.logger.ArchiveDescriptor.alignTerm;
 
 /**
  * Incrementally builds indexes by polling a subscription.
+ * <p>
+ * The indices should have been caught up with the archive by an {@link IndexRecovery} before they are polled.
  */
 public class Indexer implements Agent, ClusterFragmentHandler
 {
@@ -58,7 +58,6 @@ public class Indexer implements Agent, ClusterFragmentHandler
         this.subscription = subscription;
         this.agentNamePrefix = agentNamePrefix;
         this.completionPosition = completionPosition;
-        catchIndexUp();
     }
 
     public int doWork() throws Exception
@@ -66,27 +65,6 @@ public class Indexer implements Agent, ClusterFragmentHandler
         return subscription.poll(this, LIMIT) + CollectionUtil.sum(indices, Index::doWork);
     }
 
-    private void catchIndexUp()
-    {
-        for (final Index index : indices)
-        {
-            index.readLastPosition((aeronSessionId, endOfLastMessageposition) ->
-            {
-                final ArchiveReader.SessionReader sessionReader = archiveReader.session(aeronSessionId);
-                if (sessionReader != null)
-                {
-                    do
-                    {
-
-                        final long nextMessagePosition = alignTerm(endOfLastMessageposition) + HEADER_LENGTH;
-                        endOfLastMessageposition = sessionReader.read(nextMessagePosition, index);
-                    }
-                    while (endOfLastMessageposition > 0);
-                }
-            });
-        }
-    }
-
     public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final ClusterHeader header)
     {
         final int streamId = header.streamId();
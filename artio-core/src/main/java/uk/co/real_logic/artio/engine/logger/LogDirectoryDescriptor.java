@@ -56,9 +56,18 @@ public class LogDirectoryDescriptor
     public static int computeTermId(final File logFile)
     {
         final String logFileName = logFile.getName();
-        final int startOfTermId = logFileName.lastIndexOf('-');
+        final int startOfTermId = logFileName.lastIndexOf('_') + 1;
         final int endOfTermId = logFileName.length() - EXTENSION_LENGTH;
 
         return Integer.parseInt(logFileName.substring(startOfTermId, endOfTermId));
     }
+
+    public static int computeSessionId(final File logFile)
+    {
+        final String logFileName = logFile.getName();
+        final int endOfSessionId = logFileName.lastIndexOf('_');
+        final int startOfSessionId = logFileName.lastIndexOf('_', endOfSessionId - 1) + 1;
+
+        return Integer.parseInt(logFileName.substring(startOfSessionId, endOfSessionId));
+    }
 }
@@ -18,14 +18,23 @@ package uk.co.real_logic.artio.engine.logger;
 import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.replication.StreamIdentifier;
-import uk.co.real_logic.artio.sbe_util.MessageDumper;
 import uk.co.real_logic.artio.sbe_util.MessageSchemaIr;
 import uk.co.real_logic.sbe.json.JsonPrinter;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 
 /**
  * Eg: -Dlogging.dir=/home/richard/monotonic/Fix-Engine/artio-system-tests/client-logs \
@@ -35,11 +44,18 @@ public class RawArchivePrinter implements FragmentHandler
 {
     private static final int CHANNEL_ARG = 0;
     private static final int ID_ARG = 1;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
 
+    private final StringBuilder json = new StringBuilder();
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
     private final PrintStream output;
+    private final CharsetEncoder encoder;
     private final JsonPrinter dumper = new JsonPrinter(MessageSchemaIr.SCHEMA_IR);
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
 
+    private CharBuffer jsonChars = CharBuffer.allocate(1024);
+    private ByteBuffer jsonBytes = ByteBuffer.allocate(1024);
+
     public static void main(final String[] args)
     {
         if (args.length < 2)
@@ -51,21 +67,79 @@ public class RawArchivePrinter implements FragmentHandler
         final StreamIdentifier streamId = new StreamIdentifier(args[CHANNEL_ARG], Integer.parseInt(args[ID_ARG]));
         final EngineConfiguration configuration = new EngineConfiguration();
         final String logFileDir = configuration.logFileDir();
+        final PrintStream output = new PrintStream(
+            new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE), false);
         final ArchiveScanner scanner = new ArchiveScanner(logFileDir);
-        scanner.forEachFragment(streamId, new RawArchivePrinter(System.out), Throwable::printStackTrace);
+        scanner.forEachFragment(streamId, new RawArchivePrinter(output), Throwable::printStackTrace);
+        output.flush();
     }
 
     public RawArchivePrinter(final PrintStream output)
+    {
+        this(output, Charset.defaultCharset());
+    }
+
+    /**
+     * Create a printer that writes each fragment as a line of JSON.
+     *
+     * @param output the stream to print to.
+     * @param charset the charset to encode the JSON with, this should be the charset of the output.
+     */
+    public RawArchivePrinter(final PrintStream output, final Charset charset)
     {
         this.output = output;
+        encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
     }
 
     public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
     {
         headerDecoder.wrap(buffer, offset);
 
-        final String result = MessageDumper.print(dumper, buffer, offset, length);
+        json.setLength(0);
+        message.wrap(buffer, offset, length);
+        dumper.print(json, message, 0);
+
+        encodeJson();
+
+        output.write(jsonBytes.array(), 0, jsonBytes.position());
+        output.println();
+    }
+
+    private void encodeJson()
+    {
+        final int jsonLength = json.length();
+        if (jsonChars.capacity() < jsonLength)
+        {
+            jsonChars = CharBuffer.allocate(jsonLength);
+        }
+
+        final CharBuffer jsonChars = this.jsonChars;
+        jsonChars.clear();
+        json.getChars(0, jsonLength, jsonChars.array(), 0);
+        jsonChars.limit(jsonLength);
+
+        final CharsetEncoder encoder = this.encoder;
+        encoder.reset();
+        jsonBytes.clear();
+        CoderResult result = encoder.encode(jsonChars, jsonBytes, true);
+        while (result.isOverflow())
+        {
+            growJsonBytes();
+            result = encoder.encode(jsonChars, jsonBytes, true);
+        }
+
+        while (encoder.flush(jsonBytes).isOverflow())
+        {
+            growJsonBytes();
+        }
+    }
 
-        output.println(result);
+    private void growJsonBytes()
+    {
+        final ByteBuffer jsonBytes = this.jsonBytes;
+        jsonBytes.flip();
+        this.jsonBytes = ByteBuffer.allocate(jsonBytes.capacity() * 2).put(jsonBytes);
     }
 }
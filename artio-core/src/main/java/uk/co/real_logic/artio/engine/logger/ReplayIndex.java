@@ -45,6 +45,10 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  *
  * Written Positions are stored in a separate file at {@link ReplayIndexDescriptor#replayPositionPath(String, int)}.
  *
+ * The index is written by the Indexer and read by the {@link ReplayQuery} of the Replayer, which can be on a
+ * different thread. Each record is written between ordered updates of the begin and end change positions, so
+ * a reader can detect that a record it has read was overwritten and retry.
+ *
  * Buffer Consists of:
  *
  * MessageHeader
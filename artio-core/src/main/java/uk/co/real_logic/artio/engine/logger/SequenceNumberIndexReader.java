@@ -16,6 +16,7 @@
 package uk.co.real_logic.artio.engine.logger;
 
 import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import uk.co.real_logic.artio.engine.SectorFramer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
@@ -28,14 +29,32 @@ import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.BLOCK_LENGTH;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.SCHEMA_VERSION;
 
+/**
+ * Reads the last known sequence numbers of sessions from a buffer that is concurrently written to by
+ * the {@link SequenceNumberIndexWriter}.
+ * <p>
+ * Keeps an index from session id to the offset of its record, so that repeated lookups don't scan the buffer.
+ * Records are only appended until the buffer is reset, so lookups that miss the index only scan the records
+ * appended since the last scan. A reset is detected by an indexed record no longer matching its session id, or
+ * by the first record no longer carrying the reset generation that the writer stamped into it, and discards the
+ * index.
+ */
 public class SequenceNumberIndexReader
 {
+    private static final long MISSING_RECORD = -1L;
+
     private final MessageHeaderDecoder fileHeaderDecoder = new MessageHeaderDecoder();
     private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
     private final AtomicBuffer inMemoryBuffer;
     private final SectorFramer sectorFramer;
     private final IndexedPositionReader positions;
     private final ErrorHandler errorHandler;
+    private final Long2LongHashMap recordOffsets = new Long2LongHashMap(MISSING_RECORD);
+
+    private final int firstRecordOffset;
+
+    private int scannedUpTo = HEADER_SIZE;
+    private int resetGeneration;
 
     public SequenceNumberIndexReader(final AtomicBuffer inMemoryBuffer, final ErrorHandler errorHandler)
     {
@@ -43,29 +62,88 @@ public class SequenceNumberIndexReader
         this.errorHandler = errorHandler;
         final int positionTableOffset = positionTableOffset(inMemoryBuffer.capacity());
         sectorFramer = new SectorFramer(positionTableOffset);
+        firstRecordOffset = sectorFramer.claim(HEADER_SIZE, RECORD_SIZE);
         validateBuffer();
         positions = new IndexedPositionReader(positionsBuffer(inMemoryBuffer, positionTableOffset));
     }
 
     public int lastKnownSequenceNumber(final long sessionId)
     {
-        int position = SequenceNumberIndexDescriptor.HEADER_SIZE;
+        final int recordOffset = (int)recordOffsets.get(sessionId);
+        if (recordOffset != MISSING_RECORD)
+        {
+            lastKnownDecoder.wrap(inMemoryBuffer, recordOffset, BLOCK_LENGTH, SCHEMA_VERSION);
+            if (lastKnownDecoder.sessionId() == sessionId)
+            {
+                return lastKnownDecoder.sequenceNumber();
+            }
+
+            // The record has been moved by a reset.
+            onReset();
+        }
+        else if (hasBeenReset())
+        {
+            onReset();
+        }
+
+        return scanForSequenceNumber(sessionId);
+    }
+
+    private boolean hasBeenReset()
+    {
+        if (recordOffsets.isEmpty())
+        {
+            return false;
+        }
+
+        lastKnownDecoder.wrap(inMemoryBuffer, firstRecordOffset, BLOCK_LENGTH, SCHEMA_VERSION);
+        return lastKnownDecoder.sequenceNumber() == 0 || lastKnownDecoder.padding() != resetGeneration;
+    }
+
+    private void onReset()
+    {
+        recordOffsets.clear();
+        scannedUpTo = HEADER_SIZE;
+    }
+
+    private int scanForSequenceNumber(final long sessionId)
+    {
+        final LastKnownSequenceNumberDecoder lastKnownDecoder = this.lastKnownDecoder;
+        final AtomicBuffer inMemoryBuffer = this.inMemoryBuffer;
+        int sequenceNumber = UNK_SESSION;
+        int position = scannedUpTo;
         while (true)
         {
             position = sectorFramer.claim(position, RECORD_SIZE);
             if (position == OUT_OF_SPACE)
             {
-                return UNK_SESSION;
+                return sequenceNumber;
             }
 
             lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
 
-            if (lastKnownDecoder.sessionId() == sessionId)
+            // Records are allocated in order, so the first empty slot marks the end of the records.
+            final int recordSequenceNumber = lastKnownDecoder.sequenceNumber();
+            if (recordSequenceNumber == 0)
             {
-                return lastKnownDecoder.sequenceNumber();
+                scannedUpTo = position;
+                return sequenceNumber;
+            }
+
+            if (position == firstRecordOffset)
+            {
+                resetGeneration = lastKnownDecoder.padding();
+            }
+
+            final long recordSessionId = lastKnownDecoder.sessionId();
+            recordOffsets.put(recordSessionId, position);
+            if (recordSessionId == sessionId)
+            {
+                sequenceNumber = recordSequenceNumber;
             }
 
             position += RECORD_SIZE;
+            scannedUpTo = position;
         }
     }
 
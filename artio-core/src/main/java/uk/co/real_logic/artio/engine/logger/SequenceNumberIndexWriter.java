@@ -50,6 +50,7 @@ public class SequenceNumberIndexWriter implements Index
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder messageFrame = new FixMessageDecoder();
     private final ResetSequenceNumberDecoder resetSequenceNumber = new ResetSequenceNumberDecoder();
+    private final AbsorbedHeartbeatsDecoder absorbedHeartbeats = new AbsorbedHeartbeatsDecoder();
     private final HeaderDecoder fixHeader = new HeaderDecoder();
 
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
@@ -74,6 +75,9 @@ public class SequenceNumberIndexWriter implements Index
     private MappedFile indexFile;
     private long nextRollPosition = UNINITIALISED;
 
+    // Stamped into the padding of new records, so that readers can tell that the records have been reset.
+    private int resetGeneration;
+
     public SequenceNumberIndexWriter(
         final AtomicBuffer inMemoryBuffer,
         final MappedFile indexFile,
@@ -99,6 +103,7 @@ public class SequenceNumberIndexWriter implements Index
         try
         {
             initialiseBuffer();
+            resetGeneration = firstRecordGeneration();
             positions = new IndexedPositionWriter(
                 positionsBuffer(inMemoryBuffer, indexedPositionsOffset),
                 errorHandler,
@@ -161,6 +166,20 @@ public class SequenceNumberIndexWriter implements Index
             {
                 resetSequenceNumber.wrap(buffer, offset, actingBlockLength, version);
                 saveRecord(1, resetSequenceNumber.session());
+                break;
+            }
+
+            case AbsorbedHeartbeatsDecoder.TEMPLATE_ID:
+            {
+                // Heartbeats absorbed by the engine's session level fast path aren't archived as FIX messages.
+                absorbedHeartbeats.wrap(buffer, offset, actingBlockLength, version);
+                final AbsorbedHeartbeatsDecoder.HeartbeatsDecoder heartbeats = absorbedHeartbeats.heartbeats();
+                while (heartbeats.hasNext())
+                {
+                    heartbeats.next();
+                    saveRecord(heartbeats.lastMsgSeqNum(), heartbeats.session());
+                }
+                break;
             }
         }
 
@@ -171,9 +190,18 @@ public class SequenceNumberIndexWriter implements Index
     void resetSequenceNumbers()
     {
         inMemoryBuffer.setMemory(0, indexedPositionsOffset, (byte)0);
+        recordOffsets.clear();
+        resetGeneration++;
         initialiseBlankBuffer();
     }
 
+    private int firstRecordGeneration()
+    {
+        final int position = checksumFramer.claim(SequenceNumberIndexDescriptor.HEADER_SIZE, RECORD_SIZE);
+        lastKnownDecoder.wrap(inMemoryBuffer, position, RECORD_SIZE, SCHEMA_VERSION);
+        return lastKnownDecoder.padding();
+    }
+
     private void checkTermRoll(final DirectBuffer buffer, final int offset, final long endPosition, final int length)
     {
         final long termBufferLength = buffer.capacity();
@@ -296,6 +324,7 @@ public class SequenceNumberIndexWriter implements Index
                 }
                 else if (lastKnownDecoder.sessionId() == sessionId)
                 {
+                    recordOffsets.put(sessionId, position);
                     updateSequenceNumber(position, newSequenceNumber);
                     return;
                 }
@@ -317,7 +346,8 @@ public class SequenceNumberIndexWriter implements Index
         recordOffsets.put(sessionId, position);
         lastKnownEncoder
             .wrap(inMemoryBuffer, position)
-            .sessionId(sessionId);
+            .sessionId(sessionId)
+            .padding(resetGeneration);
         updateSequenceNumber(position, sequenceNumber);
     }
 
@@ -362,6 +392,7 @@ public class SequenceNumberIndexWriter implements Index
             lastKnownEncoder.sbeSchemaVersion(),
             lastKnownEncoder.sbeBlockLength(),
             errorHandler);
+        checksumFramer.markAllDirty();
     }
 
     private boolean fileHasBeenInitialized(final AtomicBuffer fileBuffer)
@@ -406,5 +437,6 @@ public class SequenceNumberIndexWriter implements Index
         final int value)
     {
         inMemoryBuffer.putIntOrdered(recordOffset + SEQUENCE_NUMBER_OFFSET, value);
+        checksumFramer.markDirty(recordOffset, RECORD_SIZE);
     }
 }
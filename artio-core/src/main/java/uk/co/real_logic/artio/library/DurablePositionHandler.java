@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+
+/**
+ * Callback handler to let clients know when the messages that they have sent have been written durably to the
+ * engine's archive, according to the engine's archiver durability mode. This lets a client wait for the durability
+ * of specific sends without the engine paying for a synchronous write of every message.
+ *
+ * This can be correlated against the position returned by the session's send method.
+ *
+ * @see uk.co.real_logic.artio.session.Session#send(uk.co.real_logic.artio.builder.Encoder)
+ * @see uk.co.real_logic.artio.engine.EngineConfiguration#archiverDurability(
+ * uk.co.real_logic.artio.engine.logger.ArchiverDurability)
+ */
+@FunctionalInterface
+public interface DurablePositionHandler
+{
+    /**
+     * Called when one or more messages have been archived durably.
+     *
+     * @param position the position up to which this library's messages have been archived durably.
+     * @return appropriate action to indicate back pressure
+     */
+    Action onDurable(long position);
+}
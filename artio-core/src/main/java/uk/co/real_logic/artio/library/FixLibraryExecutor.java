@@ -0,0 +1,625 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.collections.ArrayUtil;
+import org.agrona.collections.CollectionUtil;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.ManyToOneConcurrentLinkedQueue;
+import uk.co.real_logic.artio.Reply;
+import uk.co.real_logic.artio.messages.SessionReplyStatus;
+import uk.co.real_logic.artio.session.Session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.agrona.concurrent.AgentRunner.startOnThread;
+import static uk.co.real_logic.artio.library.FixLibrary.NO_MESSAGE_REPLAY;
+
+/**
+ * Polls a set of {@link FixLibrary} instances on a pool of worker threads.
+ * <p>
+ * Each library is homed on a single worker, which is the only thread that polls it. A worker that has been idle
+ * for a while steals a library from the most heavily loaded worker, so libraries get spread over threads by their
+ * load rather than by the order in which they were added.
+ * <p>
+ * {@link FixLibrary} instances aren't thread safe, so operations on a library that is run by this executor, for
+ * example {@link FixLibrary#initiate(SessionConfiguration)}, should either be invoked from the library's own
+ * callbacks or submitted through {@link #execute(FixLibrary, Consumer)}. Sessions can be moved between libraries
+ * using {@link #migrate(FixLibrary, Session, FixLibrary, long)} or {@link #rebalance(FixLibrary, Session, long)}.
+ */
+public class FixLibraryExecutor implements AutoCloseable
+{
+    static final int STEAL_AFTER_IDLE_CYCLES = 100;
+    private static final int LOAD_DECAY_SHIFT = 4;
+
+    private final int fragmentLimit;
+    private final ErrorHandler errorHandler;
+    private final Worker[] workers;
+    private final AgentRunner[] runners;
+
+    private volatile LibraryWorkItem[] workItems = new LibraryWorkItem[0];
+    private boolean started = false;
+
+    /**
+     * Create the executor, the worker threads aren't started until {@link #start()} is invoked.
+     *
+     * @param threadCount the number of worker threads to poll libraries on.
+     * @param fragmentLimit the fragment limit to use when polling each library.
+     * @param idleStrategySupplier supplies the idle strategy for each worker thread.
+     * @param errorHandler the handler for exceptions thrown by libraries or submitted commands.
+     */
+    public FixLibraryExecutor(
+        final int threadCount,
+        final int fragmentLimit,
+        final Supplier<IdleStrategy> idleStrategySupplier,
+        final ErrorHandler errorHandler)
+    {
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException("threadCount should be >= 1, but is " + threadCount);
+        }
+
+        this.fragmentLimit = fragmentLimit;
+        this.errorHandler = errorHandler;
+
+        workers = new Worker[threadCount];
+        runners = new AgentRunner[threadCount];
+        for (int i = 0; i < threadCount; i++)
+        {
+            workers[i] = new Worker(i, threadCount);
+            runners[i] = new AgentRunner(idleStrategySupplier.get(), errorHandler, null, workers[i]);
+        }
+    }
+
+    public synchronized void start()
+    {
+        if (started)
+        {
+            throw new IllegalStateException("FixLibraryExecutor has already been started");
+        }
+
+        started = true;
+        for (final AgentRunner runner : runners)
+        {
+            startOnThread(runner);
+        }
+    }
+
+    /**
+     * Add a library to be polled by this executor. The library gets homed on the least loaded worker.
+     *
+     * @param library the library to poll.
+     */
+    public synchronized void add(final FixLibrary library)
+    {
+        final LibraryWorkItem[] workItems = this.workItems;
+        final long[] workerLoads = new long[workers.length];
+        final int[] workerLibraryCounts = new int[workers.length];
+        sumLoads(workItems, workerLoads, workerLibraryCounts);
+
+        int homeWorker = 0;
+        for (int i = 1; i < workers.length; i++)
+        {
+            if (workerLoads[i] < workerLoads[homeWorker] ||
+                (workerLoads[i] == workerLoads[homeWorker] &&
+                workerLibraryCounts[i] < workerLibraryCounts[homeWorker]))
+            {
+                homeWorker = i;
+            }
+        }
+
+        this.workItems = ArrayUtil.add(workItems, new LibraryWorkItem(library, homeWorker));
+    }
+
+    /**
+     * Stop polling a library. Returns once the library is no longer being polled, after which it can be closed
+     * from the calling thread. Commands that haven't been run yet are discarded, and session migrations to or from
+     * the library that haven't completed yet have their replies completed with an error.
+     *
+     * @param library the library to stop polling.
+     * @return true if the library was being polled by this executor, false otherwise.
+     */
+    public synchronized boolean remove(final FixLibrary library)
+    {
+        final LibraryWorkItem workItem = workItem(library);
+        if (workItem == null)
+        {
+            return false;
+        }
+
+        workItems = ArrayUtil.remove(workItems, workItem);
+        workItem.removed = true;
+
+        // Never released, so workers with a stale copy of the work items can't poll it.
+        while (!workItem.claim())
+        {
+            Thread.yield();
+        }
+
+        workItem.onRemoved();
+
+        return true;
+    }
+
+    /**
+     * Run a command on the thread that is currently polling the library.
+     *
+     * @param library the library to run the command against.
+     * @param command the command to run.
+     * @return true if the command was submitted, false if the library isn't polled by this executor.
+     */
+    public boolean execute(final FixLibrary library, final Consumer<FixLibrary> command)
+    {
+        final LibraryWorkItem workItem = workItem(library);
+        if (workItem == null)
+        {
+            return false;
+        }
+
+        return workItem.commands.offer(command);
+    }
+
+    /**
+     * Gets the library with the lowest recent load, using the number of sessions as a tie breaker.
+     *
+     * @return the library with the lowest recent load or null if there are no libraries.
+     */
+    public FixLibrary leastLoadedLibrary()
+    {
+        final LibraryWorkItem workItem = leastLoadedWorkItem();
+        return workItem == null ? null : workItem.library;
+    }
+
+    /**
+     * Move a session from its current library to the least loaded library.
+     *
+     * @param from the library that currently owns the session.
+     * @param session the session to move.
+     * @param timeoutInMs the timeout for each of the release and the request operations.
+     * @return the reply for the request of the session by its new library, completes with
+     * {@link SessionReplyStatus#OK} immediately if the session is already on the least loaded library.
+     * @see #migrate(FixLibrary, Session, FixLibrary, long)
+     */
+    public Reply<SessionReplyStatus> rebalance(final FixLibrary from, final Session session, final long timeoutInMs)
+    {
+        final LibraryWorkItem to = leastLoadedWorkItem();
+        if (to == null || to.library == from)
+        {
+            final SessionMigration migration = new SessionMigration(session.id(), null, timeoutInMs);
+            migration.onComplete(SessionReplyStatus.OK);
+            return migration;
+        }
+
+        return migrate(from, session, to.library, timeoutInMs);
+    }
+
+    /**
+     * Move a session between two libraries run by this executor, by releasing it to the gateway from its current
+     * library and then requesting it from the other library. No messages are replayed to the new library.
+     *
+     * @param from the library that currently owns the session.
+     * @param session the session to move.
+     * @param to the library to move the session to.
+     * @param timeoutInMs the timeout for each of the release and the request operations.
+     * @return the reply for the request of the session by its new library. If the release fails then the reply
+     * completes with the status of the release.
+     */
+    public Reply<SessionReplyStatus> migrate(
+        final FixLibrary from, final Session session, final FixLibrary to, final long timeoutInMs)
+    {
+        final LibraryWorkItem fromWorkItem = workItem(from);
+        final LibraryWorkItem toWorkItem = workItem(to);
+        if (fromWorkItem == null || toWorkItem == null)
+        {
+            throw new IllegalArgumentException("Both libraries need to be polled by this executor");
+        }
+
+        final SessionMigration migration = new SessionMigration(session.id(), toWorkItem, timeoutInMs);
+        fromWorkItem.offer(new MigrationStep(migration, (library) -> migration.release(fromWorkItem, session)));
+        return migration;
+    }
+
+    public synchronized void close()
+    {
+        for (final AgentRunner runner : runners)
+        {
+            // Wait for it to start, so that closing joins the worker thread.
+            while (started && runner.thread() == null)
+            {
+                Thread.yield();
+            }
+
+            CloseHelper.close(runner);
+        }
+    }
+
+    private LibraryWorkItem workItem(final FixLibrary library)
+    {
+        for (final LibraryWorkItem workItem : workItems)
+        {
+            if (workItem.library == library)
+            {
+                return workItem;
+            }
+        }
+
+        return null;
+    }
+
+    private LibraryWorkItem leastLoadedWorkItem()
+    {
+        LibraryWorkItem leastLoaded = null;
+        for (final LibraryWorkItem workItem : workItems)
+        {
+            if (leastLoaded == null ||
+                workItem.load < leastLoaded.load ||
+                (workItem.load == leastLoaded.load && workItem.sessionCount < leastLoaded.sessionCount))
+            {
+                leastLoaded = workItem;
+            }
+        }
+
+        return leastLoaded;
+    }
+
+    private static void sumLoads(
+        final LibraryWorkItem[] workItems, final long[] workerLoads, final int[] workerLibraryCounts)
+    {
+        Arrays.fill(workerLoads, 0);
+        Arrays.fill(workerLibraryCounts, 0);
+        for (final LibraryWorkItem workItem : workItems)
+        {
+            final int homeWorker = workItem.homeWorker;
+            workerLoads[homeWorker] += workItem.load;
+            workerLibraryCounts[homeWorker]++;
+        }
+    }
+
+    private final class Worker implements Agent
+    {
+        private final int index;
+        private final long[] workerLoads;
+        private final int[] workerLibraryCounts;
+
+        private int idleCycles;
+
+        private Worker(final int index, final int threadCount)
+        {
+            this.index = index;
+            workerLoads = new long[threadCount];
+            workerLibraryCounts = new int[threadCount];
+        }
+
+        public int doWork()
+        {
+            final LibraryWorkItem[] workItems = FixLibraryExecutor.this.workItems;
+
+            int work = 0;
+            for (final LibraryWorkItem workItem : workItems)
+            {
+                if (workItem.homeWorker == index && workItem.claim())
+                {
+                    try
+                    {
+                        work += workItem.doWork(fragmentLimit, errorHandler);
+                    }
+                    finally
+                    {
+                        workItem.release();
+                    }
+                }
+            }
+
+            if (work > 0)
+            {
+                idleCycles = 0;
+            }
+            else if (++idleCycles >= STEAL_AFTER_IDLE_CYCLES)
+            {
+                idleCycles = 0;
+                work += steal(workItems);
+            }
+
+            return work;
+        }
+
+        // Move the busiest library from the busiest worker that still leaves it with at least as much load as
+        // has been moved, so that the victim doesn't immediately go idle and steal it back.
+        private int steal(final LibraryWorkItem[] workItems)
+        {
+            final long[] workerLoads = this.workerLoads;
+            final int[] workerLibraryCounts = this.workerLibraryCounts;
+            sumLoads(workItems, workerLoads, workerLibraryCounts);
+
+            int busiestWorker = -1;
+            for (int i = 0; i < workerLoads.length; i++)
+            {
+                if (i != index && workerLibraryCounts[i] > 1 &&
+                    (busiestWorker == -1 || workerLoads[i] > workerLoads[busiestWorker]))
+                {
+                    busiestWorker = i;
+                }
+            }
+
+            if (busiestWorker == -1 || workerLoads[busiestWorker] == 0)
+            {
+                return 0;
+            }
+
+            final long busiestLoad = workerLoads[busiestWorker];
+            LibraryWorkItem toSteal = null;
+            for (final LibraryWorkItem workItem : workItems)
+            {
+                final long load = workItem.load;
+                if (workItem.homeWorker == busiestWorker && load > 0 && load <= busiestLoad - load &&
+                    (toSteal == null || load > toSteal.load))
+                {
+                    toSteal = workItem;
+                }
+            }
+
+            if (toSteal == null)
+            {
+                return 0;
+            }
+
+            toSteal.homeWorker = index;
+            return 1;
+        }
+
+        public String roleName()
+        {
+            return "[FixLibraryExecutor:" + index + "]";
+        }
+    }
+
+    private static final class LibraryWorkItem
+    {
+        private final FixLibrary library;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private final ManyToOneConcurrentLinkedQueue<Consumer<FixLibrary>> commands =
+            new ManyToOneConcurrentLinkedQueue<>();
+
+        // Only accessed by the thread that has claimed the work item
+        private final List<SessionMigration> pendingMigrations = new ArrayList<>();
+
+        private volatile int homeWorker;
+        private volatile long load;
+        private volatile int sessionCount;
+        private volatile boolean removed;
+
+        private LibraryWorkItem(final FixLibrary library, final int homeWorker)
+        {
+            this.library = library;
+            this.homeWorker = homeWorker;
+        }
+
+        boolean claim()
+        {
+            return !claimed.get() && claimed.compareAndSet(false, true);
+        }
+
+        void release()
+        {
+            claimed.lazySet(false);
+        }
+
+        void offer(final MigrationStep step)
+        {
+            commands.offer(step);
+
+            // The removing thread may have already failed the migrations that were queued when it was removed.
+            if (removed)
+            {
+                step.migration.onLibraryRemoved();
+            }
+        }
+
+        // Invoked by the removing thread, once it has claimed the work item for good.
+        void onRemoved()
+        {
+            Consumer<FixLibrary> command;
+            while ((command = commands.poll()) != null)
+            {
+                if (command instanceof MigrationStep)
+                {
+                    ((MigrationStep)command).migration.onLibraryRemoved();
+                }
+            }
+
+            for (final SessionMigration migration : pendingMigrations)
+            {
+                migration.onLibraryRemoved();
+            }
+            pendingMigrations.clear();
+        }
+
+        int doWork(final int fragmentLimit, final ErrorHandler errorHandler)
+        {
+            final FixLibrary library = this.library;
+            int work = 0;
+
+            Consumer<FixLibrary> command;
+            while ((command = commands.poll()) != null)
+            {
+                try
+                {
+                    command.accept(library);
+                }
+                catch (final Throwable throwable)
+                {
+                    errorHandler.onError(throwable);
+                }
+                work++;
+            }
+
+            int polled = 0;
+            try
+            {
+                polled = library.poll(fragmentLimit);
+            }
+            catch (final Throwable throwable)
+            {
+                errorHandler.onError(throwable);
+            }
+
+            work += polled + CollectionUtil.removeIf(pendingMigrations, SessionMigration::poll);
+
+            final long load = this.load;
+            this.load = load - (load >> LOAD_DECAY_SHIFT) + polled;
+            sessionCount = library.sessions().size();
+
+            return work;
+        }
+    }
+
+    private static final class MigrationStep implements Consumer<FixLibrary>
+    {
+        private final SessionMigration migration;
+        private final Consumer<FixLibrary> step;
+
+        private MigrationStep(final SessionMigration migration, final Consumer<FixLibrary> step)
+        {
+            this.migration = migration;
+            this.step = step;
+        }
+
+        public void accept(final FixLibrary library)
+        {
+            step.accept(library);
+        }
+    }
+
+    private static final class SessionMigration implements Reply<SessionReplyStatus>
+    {
+        private final long sessionId;
+        private final LibraryWorkItem to;
+        private final long timeoutInMs;
+
+        private Reply<SessionReplyStatus> releaseReply;
+        private Reply<SessionReplyStatus> requestReply;
+
+        private volatile State state = State.EXECUTING;
+        private volatile SessionReplyStatus result;
+        private volatile Exception error;
+
+        private SessionMigration(final long sessionId, final LibraryWorkItem to, final long timeoutInMs)
+        {
+            this.sessionId = sessionId;
+            this.to = to;
+            this.timeoutInMs = timeoutInMs;
+        }
+
+        // Invoked on the thread polling the source library
+        void release(final LibraryWorkItem from, final Session session)
+        {
+            releaseReply = from.library.releaseToGateway(session, timeoutInMs);
+            from.pendingMigrations.add(this);
+        }
+
+        // Invoked on the thread polling the destination library
+        void request(final FixLibrary library)
+        {
+            requestReply = library.requestSession(sessionId, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY, timeoutInMs);
+            to.pendingMigrations.add(this);
+        }
+
+        boolean poll()
+        {
+            if (requestReply == null)
+            {
+                if (releaseReply.isExecuting())
+                {
+                    return false;
+                }
+
+                if (releaseReply.hasCompleted() && releaseReply.resultIfPresent() == SessionReplyStatus.OK)
+                {
+                    to.offer(new MigrationStep(this, this::request));
+                }
+                else
+                {
+                    onComplete(releaseReply);
+                }
+
+                return true;
+            }
+            else
+            {
+                if (requestReply.isExecuting())
+                {
+                    return false;
+                }
+
+                onComplete(requestReply);
+                return true;
+            }
+        }
+
+        private void onComplete(final Reply<SessionReplyStatus> reply)
+        {
+            if (reply.hasCompleted())
+            {
+                onComplete(reply.resultIfPresent());
+            }
+            else
+            {
+                error = reply.error();
+                state = reply.state();
+            }
+        }
+
+        void onComplete(final SessionReplyStatus result)
+        {
+            this.result = result;
+            state = State.COMPLETED;
+        }
+
+        void onLibraryRemoved()
+        {
+            if (state == State.EXECUTING)
+            {
+                error = new IllegalStateException(
+                    "Library removed from the executor before the migration of session " + sessionId + " completed");
+                state = State.ERRORED;
+            }
+        }
+
+        public Exception error()
+        {
+            return error;
+        }
+
+        public SessionReplyStatus resultIfPresent()
+        {
+            return result;
+        }
+
+        public State state()
+        {
+            return state;
+        }
+    }
+}
@@ -40,6 +40,7 @@ public final class LibraryConfiguration extends CommonConfiguration
     public static final GatewayErrorHandler DEFAULT_GATEWAY_ERROR_HANDLER =
         (errorType, libraryId, message) -> CONTINUE;
     public static final SentPositionHandler DEFAULT_SENT_POSITION_HANDLER = position -> CONTINUE;
+    public static final DurablePositionHandler DEFAULT_DURABLE_POSITION_HANDLER = position -> CONTINUE;
     public static final SessionExistsHandler DEFAULT_SESSION_EXISTS_HANDLER =
         (library,
         sessionId,
@@ -78,6 +79,8 @@ public final class LibraryConfiguration extends CommonConfiguration
     private SessionExistsHandler sessionExistsHandler = DEFAULT_SESSION_EXISTS_HANDLER;
     private GatewayErrorHandler gatewayErrorHandler = DEFAULT_GATEWAY_ERROR_HANDLER;
     private SentPositionHandler sentPositionHandler = DEFAULT_SENT_POSITION_HANDLER;
+    private DurablePositionHandler durablePositionHandler = DEFAULT_DURABLE_POSITION_HANDLER;
+    private SessionWatermarkHandler sessionWatermarkHandler;
     private List<String> libraryAeronChannels = new ArrayList<>();
     private LibraryConnectHandler libraryConnectHandler = DEFAULT_LIBRARY_CONNECT_HANDLER;
     private LibraryScheduler scheduler = new DefaultLibraryScheduler();
@@ -128,6 +131,32 @@ public final class LibraryConfiguration extends CommonConfiguration
         return this;
     }
 
+    /**
+     * Sets the handler that is told when this library's sent messages have been archived durably by the engine.
+     *
+     * @param durablePositionHandler the durable position handler
+     * @return this
+     */
+    public LibraryConfiguration durablePositionHandler(final DurablePositionHandler durablePositionHandler)
+    {
+        this.durablePositionHandler = durablePositionHandler;
+        return this;
+    }
+
+    /**
+     * Sets the handler that is told the archived, written and replicated watermarks of this library's sessions.
+     *
+     * The engine only tracks these watermarks for libraries that have a handler, so by default they aren't tracked.
+     *
+     * @param sessionWatermarkHandler the session watermark handler, or null to not track watermarks
+     * @return this
+     */
+    public LibraryConfiguration sessionWatermarkHandler(final SessionWatermarkHandler sessionWatermarkHandler)
+    {
+        this.sessionWatermarkHandler = sessionWatermarkHandler;
+        return this;
+    }
+
     public LibraryConfiguration libraryConnectHandler(final LibraryConnectHandler libraryConnectHandler)
     {
         this.libraryConnectHandler = libraryConnectHandler;
@@ -165,6 +194,16 @@ public final class LibraryConfiguration extends CommonConfiguration
         return sentPositionHandler;
     }
 
+    public DurablePositionHandler durablePositionHandler()
+    {
+        return durablePositionHandler;
+    }
+
+    public SessionWatermarkHandler sessionWatermarkHandler()
+    {
+        return sessionWatermarkHandler;
+    }
+
     public LibraryConnectHandler libraryConnectHandler()
     {
         return libraryConnectHandler;
@@ -30,7 +30,9 @@ import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.*;
 import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.messages.*;
+import uk.co.real_logic.artio.messages.AbsorbedHeartbeatsDecoder.HeartbeatsDecoder;
 import uk.co.real_logic.artio.messages.ControlNotificationDecoder.SessionsDecoder;
+import uk.co.real_logic.artio.messages.SessionWatermarksDecoder.WatermarksDecoder;
 import uk.co.real_logic.artio.protocol.*;
 import uk.co.real_logic.artio.session.*;
 import uk.co.real_logic.artio.timing.LibraryTimers;
@@ -108,6 +110,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final Timer receiveTimer;
     private final SessionExistsHandler sessionExistsHandler;
     private final SentPositionHandler sentPositionHandler;
+    private final DurablePositionHandler durablePositionHandler;
+    private final SessionWatermarkHandler sessionWatermarkHandler;
     private final boolean enginesAreClustered;
     private final FixCounters fixCounters;
 
@@ -157,6 +161,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         this.sessionIdStrategy = configuration.sessionIdStrategy();
         this.sessionExistsHandler = configuration.sessionExistsHandler();
         this.sentPositionHandler = configuration.sentPositionHandler();
+        this.durablePositionHandler = configuration.durablePositionHandler();
+        this.sessionWatermarkHandler = configuration.sessionWatermarkHandler();
         this.clock = clock;
         this.enginesAreClustered = configuration.libraryAeronChannels().size() > 1;
     }
@@ -443,7 +449,10 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         try
         {
             final long correlationId = ++currentCorrelationId;
-            if (outboundPublication.saveLibraryConnect(libraryId, configuration.libraryName(), correlationId) < 0)
+            final WatermarkTracking watermarkTracking = sessionWatermarkHandler == null ?
+                WatermarkTracking.DISABLED : WatermarkTracking.ENABLED;
+            if (outboundPublication.saveLibraryConnect(
+                libraryId, configuration.libraryName(), correlationId, watermarkTracking) < 0)
             {
                 connectToNextEngineNow(timeInMs);
             }
@@ -818,6 +827,59 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         return CONTINUE;
     }
 
+    public Action onNewDurablePosition(final int aeronSessionId, final long position)
+    {
+        final GatewayPublication outboundPublication = this.outboundPublication;
+        if (outboundPublication != null && outboundPublication.id() == aeronSessionId)
+        {
+            return durablePositionHandler.onDurable(position);
+        }
+
+        return CONTINUE;
+    }
+
+    public Action onSessionWatermarks(
+        final int libraryId, final SessionWatermarkType type, final WatermarksDecoder watermarks)
+    {
+        if (this.libraryId == libraryId && sessionWatermarkHandler != null)
+        {
+            // Watermarks only ever move forwards, so redelivering a batch after an abort is harmless.
+            while (watermarks.hasNext())
+            {
+                watermarks.next();
+                final Action action = sessionWatermarkHandler.onWatermark(
+                    type, watermarks.sessionId(), watermarks.position());
+                if (action == ABORT)
+                {
+                    return ABORT;
+                }
+            }
+        }
+
+        return CONTINUE;
+    }
+
+    public Action onAbsorbedHeartbeats(final HeartbeatsDecoder heartbeats)
+    {
+        // Connections are only ever owned by one library, so each library just picks out its own.
+        while (heartbeats.hasNext())
+        {
+            heartbeats.next();
+            final SessionSubscriber subscriber = connectionIdToSession.get(heartbeats.connection());
+            if (subscriber != null)
+            {
+                final Action action = subscriber.onAbsorbedHeartbeats(
+                    heartbeats.firstMsgSeqNum(), heartbeats.lastMsgSeqNum(), heartbeats.sendingTime());
+                if (action == ABORT)
+                {
+                    return ABORT;
+                }
+            }
+        }
+
+        return CONTINUE;
+    }
+
     public Action onNotLeader(final int libraryId, final long replyToId, final String libraryChannel)
     {
         if (libraryId == this.libraryId && replyToId >= connectCorrelationId)
@@ -110,6 +110,11 @@ class SessionSubscriber implements AutoCloseable
         }
     }
 
+    Action onAbsorbedHeartbeats(final int firstMsgSeqNum, final int lastMsgSeqNum, final long sendingTime)
+    {
+        return parser.onAbsorbedHeartbeats(firstMsgSeqNum, lastMsgSeqNum, sendingTime);
+    }
+
     Action onDisconnect(final int libraryId, final DisconnectReason reason)
     {
         session.onDisconnect();
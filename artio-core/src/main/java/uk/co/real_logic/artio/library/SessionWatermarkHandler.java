@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import uk.co.real_logic.artio.messages.SessionWatermarkType;
+
+/**
+ * Callback handler to let clients know how far through the engine the messages sent on each of their sessions have
+ * got. The engine reports the latest position of each session that it has archived, written to the session's
+ * TCP connection or replicated, batching up the sessions that have moved on since its last report.
+ *
+ * These positions can be correlated against the position returned by the session's send method, so a client can
+ * retire its own journal of a session's unacknowledged sends once the relevant watermark has passed them.
+ *
+ * Solo engines report the written watermark, and the archived watermark if they log outbound messages. Clustered
+ * engines report the archived and replicated watermarks.
+ *
+ * @see uk.co.real_logic.artio.session.Session#send(uk.co.real_logic.artio.builder.Encoder)
+ * @see LibraryConfiguration#sessionWatermarkHandler(SessionWatermarkHandler)
+ */
+@FunctionalInterface
+public interface SessionWatermarkHandler
+{
+    /**
+     * Called when the messages of a session have reached a new watermark.
+     *
+     * @param type the kind of progress that the watermark reports.
+     * @param sessionId the id of the session whose messages have progressed.
+     * @param position the position of the session's latest message that has reached this watermark.
+     * @return appropriate action to indicate back pressure
+     */
+    Action onWatermark(SessionWatermarkType type, long sessionId, long position);
+}
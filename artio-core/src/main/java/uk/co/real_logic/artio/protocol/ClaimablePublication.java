@@ -16,6 +16,7 @@
 package uk.co.real_logic.artio.protocol;
 
 import io.aeron.logbuffer.ExclusiveBufferClaim;
+import org.agrona.DirectBuffer;
 import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
@@ -89,6 +90,49 @@ class ClaimablePublication implements AutoCloseable
         }
     }
 
+    /**
+     * Offer a whole message, fragmenting it if it's larger than the publication's max payload length, unlike
+     * claiming which is limited to a single fragment.
+     *
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the message within the buffer.
+     * @param length the length of the message.
+     * @return the new position or a negative value if the message couldn't be published.
+     */
+    public long offer(final DirectBuffer buffer, final int offset, final int length)
+    {
+        long position;
+        long i = 0;
+        do
+        {
+            position = dataPublication.offer(buffer, offset, length);
+
+            if (position > 0L)
+            {
+                return position;
+            }
+            else
+            {
+                idleStrategy.idle();
+            }
+
+            fails.increment();
+            i++;
+        }
+        while (i <= maxClaimAttempts);
+
+        idleStrategy.reset();
+
+        if (position == CLOSED)
+        {
+            throw new NotConnectedException(position);
+        }
+        else
+        {
+            return position;
+        }
+    }
+
     public void close()
     {
         dataPublication.close();
@@ -27,7 +27,8 @@ public interface EngineEndPointHandler
         int libraryId,
         String libraryName,
         long correlationId,
-        int aeronSessionId);
+        int aeronSessionId,
+        boolean tracksWatermarks);
 
     Action onInitiateConnection(
         int libraryId,
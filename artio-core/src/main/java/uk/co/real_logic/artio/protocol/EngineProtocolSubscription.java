@@ -111,7 +111,8 @@ public final class EngineProtocolSubscription implements ControlledFragmentHandl
             libraryId,
             libraryName,
             libraryConnect.correlationId(),
-            header.sessionId());
+            header.sessionId(),
+            libraryConnect.watermarkTracking() == WatermarkTracking.ENABLED);
     }
 
     private Action onReleaseSession(
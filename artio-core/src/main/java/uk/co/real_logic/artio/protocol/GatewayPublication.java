@@ -24,7 +24,9 @@ import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.messages.*;
+import uk.co.real_logic.artio.messages.AbsorbedHeartbeatsEncoder.HeartbeatsEncoder;
 import uk.co.real_logic.artio.messages.ControlNotificationEncoder.SessionsEncoder;
+import uk.co.real_logic.artio.messages.SessionWatermarksEncoder.WatermarksEncoder;
 import uk.co.real_logic.artio.replication.ClusterablePublication;
 
 import java.util.List;
@@ -71,6 +73,10 @@ public class GatewayPublication extends ClaimablePublication
         InitiateConnectionEncoder.BLOCK_LENGTH + InitiateConnectionDecoder.hostHeaderLength() * 9;
     private static final int CONTROL_NOTIFICATION_LENGTH = HEADER_LENGTH + ControlNotificationEncoder.BLOCK_LENGTH +
         GroupSizeEncodingEncoder.ENCODED_LENGTH;
+    private static final int ABSORBED_HEARTBEATS_LENGTH = HEADER_LENGTH + AbsorbedHeartbeatsEncoder.BLOCK_LENGTH +
+        GroupSizeEncodingEncoder.ENCODED_LENGTH;
+    private static final int SESSION_WATERMARKS_LENGTH = HEADER_LENGTH + SessionWatermarksEncoder.BLOCK_LENGTH +
+        GroupSizeEncodingEncoder.ENCODED_LENGTH;
 
     private final ManageSessionEncoder manageSessionEncoder = new ManageSessionEncoder();
     private final InitiateConnectionEncoder initiateConnection = new InitiateConnectionEncoder();
@@ -86,6 +92,7 @@ public class GatewayPublication extends ClaimablePublication
     private final ReleaseSessionReplyEncoder releaseSessionReply = new ReleaseSessionReplyEncoder();
     private final ConnectEncoder connect = new ConnectEncoder();
     private final NewSentPositionEncoder newSentPosition = new NewSentPositionEncoder();
+    private final NewDurablePositionEncoder newDurablePosition = new NewDurablePositionEncoder();
     private final ResetSessionIdsEncoder resetSessionIds = new ResetSessionIdsEncoder();
     private final NotLeaderEncoder notLeader = new NotLeaderEncoder();
     private final ControlNotificationEncoder controlNotification = new ControlNotificationEncoder();
@@ -94,6 +101,8 @@ public class GatewayPublication extends ClaimablePublication
     private final ResetLibrarySequenceNumberEncoder resetLibrarySequenceNumber =
         new ResetLibrarySequenceNumberEncoder();
     private final SlowStatusNotificationEncoder slowStatusNotification = new SlowStatusNotificationEncoder();
+    private final SessionWatermarksEncoder sessionWatermarks = new SessionWatermarksEncoder();
+    private final AbsorbedHeartbeatsEncoder absorbedHeartbeats = new AbsorbedHeartbeatsEncoder();
 
     private final NanoClock nanoClock;
     private final int maxPayloadLength;
@@ -517,7 +526,11 @@ public class GatewayPublication extends ClaimablePublication
         return position;
     }
 
-    public long saveLibraryConnect(final int libraryId, final String libraryName, final long correlationId)
+    public long saveLibraryConnect(
+        final int libraryId,
+        final String libraryName,
+        final long correlationId,
+        final WatermarkTracking watermarkTracking)
     {
         final byte[] libraryNameBytes = bytes(libraryName);
 
@@ -533,8 +546,9 @@ public class GatewayPublication extends ClaimablePublication
         libraryConnect
             .wrapAndApplyHeader(buffer, offset, header)
             .libraryId(libraryId)
-            .putLibraryName(libraryNameBytes, 0, libraryNameBytes.length)
-            .correlationId(correlationId);
+            .correlationId(correlationId)
+            .watermarkTracking(watermarkTracking)
+            .putLibraryName(libraryNameBytes, 0, libraryNameBytes.length);
 
         bufferClaim.commit();
 
@@ -702,6 +716,29 @@ public class GatewayPublication extends ClaimablePublication
         return position;
     }
 
+    public long saveNewDurablePosition(final int aeronSessionId, final long durablePosition)
+    {
+        final long position = claim(NewDurablePositionEncoder.BLOCK_LENGTH + HEADER_LENGTH);
+        if (position < 0)
+        {
+            return position;
+        }
+
+        final MutableDirectBuffer buffer = bufferClaim.buffer();
+        final int offset = bufferClaim.offset();
+
+        newDurablePosition
+            .wrapAndApplyHeader(buffer, offset, header)
+            .aeronSessionId(aeronSessionId)
+            .position(durablePosition);
+
+        bufferClaim.commit();
+
+        logSbeMessage(GATEWAY_MESSAGE, newDurablePosition);
+
+        return position;
+    }
+
     public long saveLibraryTimeout(final int libraryId, final long connectCorrelationId)
     {
         final long position = claim(LibraryTimeoutEncoder.BLOCK_LENGTH + HEADER_LENGTH);
@@ -755,6 +792,77 @@ public class GatewayPublication extends ClaimablePublication
         return position;
     }
 
+    public long saveSessionWatermarks(
+        final int libraryId,
+        final SessionWatermarkType type,
+        final long[] sessionIds,
+        final long[] positions,
+        final int count)
+    {
+        final long position = claim(SESSION_WATERMARKS_LENGTH + count * WatermarksEncoder.sbeBlockLength());
+        if (position < 0)
+        {
+            return position;
+        }
+
+        final MutableDirectBuffer buffer = bufferClaim.buffer();
+        final int offset = bufferClaim.offset();
+
+        sessionWatermarks
+            .wrapAndApplyHeader(buffer, offset, header)
+            .libraryId(libraryId)
+            .type(type);
+
+        final WatermarksEncoder watermarksEncoder = sessionWatermarks.watermarksCount(count);
+        for (int i = 0; i < count; i++)
+        {
+            watermarksEncoder.next().sessionId(sessionIds[i]).position(positions[i]);
+        }
+
+        bufferClaim.commit();
+
+        logSbeMessage(GATEWAY_MESSAGE, sessionWatermarks);
+
+        return position;
+    }
+
+    public long saveAbsorbedHeartbeats(
+        final long[] connectionIds,
+        final long[] sessionIds,
+        final int[] firstMsgSeqNums,
+        final int[] lastMsgSeqNums,
+        final long[] sendingTimes,
+        final int count)
+    {
+        final long position = claim(ABSORBED_HEARTBEATS_LENGTH + count * HeartbeatsEncoder.sbeBlockLength());
+        if (position < 0)
+        {
+            return position;
+        }
+
+        final MutableDirectBuffer buffer = bufferClaim.buffer();
+        final int offset = bufferClaim.offset();
+
+        absorbedHeartbeats.wrapAndApplyHeader(buffer, offset, header);
+
+        final HeartbeatsEncoder heartbeatsEncoder = absorbedHeartbeats.heartbeatsCount(count);
+        for (int i = 0; i < count; i++)
+        {
+            heartbeatsEncoder.next()
+                .connection(connectionIds[i])
+                .session(sessionIds[i])
+                .firstMsgSeqNum(firstMsgSeqNums[i])
+                .lastMsgSeqNum(lastMsgSeqNums[i])
+                .sendingTime(sendingTimes[i]);
+        }
+
+        bufferClaim.commit();
+
+        logSbeMessage(GATEWAY_MESSAGE, absorbedHeartbeats);
+
+        return position;
+    }
+
     public long saveSlowStatusNotification(final int libraryId, final long connectionId, final SlowStatus status)
     {
         final long position = claim(SLOW_STATUS_NOTIFICATION_LENGTH);
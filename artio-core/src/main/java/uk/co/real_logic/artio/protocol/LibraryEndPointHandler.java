@@ -17,7 +17,9 @@ package uk.co.real_logic.artio.protocol;
 
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import uk.co.real_logic.artio.messages.*;
+import uk.co.real_logic.artio.messages.AbsorbedHeartbeatsDecoder.HeartbeatsDecoder;
 import uk.co.real_logic.artio.messages.ControlNotificationDecoder.SessionsDecoder;
+import uk.co.real_logic.artio.messages.SessionWatermarksDecoder.WatermarksDecoder;
 
 public interface LibraryEndPointHandler
 {
@@ -31,6 +33,12 @@ public interface LibraryEndPointHandler
 
     Action onNewSentPosition(int libraryId, long position);
 
+    Action onNewDurablePosition(int aeronSessionId, long position);
+
+    Action onSessionWatermarks(int libraryId, SessionWatermarkType type, WatermarksDecoder watermarks);
+
+    Action onAbsorbedHeartbeats(HeartbeatsDecoder heartbeats);
+
     Action onNotLeader(int libraryId, long replyToId, String libraryChannel);
 
     Action onControlNotification(int libraryId, SessionsDecoder sessions);
@@ -31,6 +31,9 @@ public final class LibraryProtocolSubscription implements ControlledFragmentHand
     private final ReleaseSessionReplyDecoder releaseSessionReply = new ReleaseSessionReplyDecoder();
     private final RequestSessionReplyDecoder requestSessionReply = new RequestSessionReplyDecoder();
     private final NewSentPositionDecoder newSentPosition = new NewSentPositionDecoder();
+    private final NewDurablePositionDecoder newDurablePosition = new NewDurablePositionDecoder();
+    private final SessionWatermarksDecoder sessionWatermarks = new SessionWatermarksDecoder();
+    private final AbsorbedHeartbeatsDecoder absorbedHeartbeats = new AbsorbedHeartbeatsDecoder();
     private final NotLeaderDecoder libraryConnect = new NotLeaderDecoder();
     private final ControlNotificationDecoder controlNotification = new ControlNotificationDecoder();
     private final SlowStatusNotificationDecoder slowStatusNotification = new SlowStatusNotificationDecoder();
@@ -61,6 +64,21 @@ public final class LibraryProtocolSubscription implements ControlledFragmentHand
                 return onNewSentPosition(buffer, offset, blockLength, version);
             }
 
+            case NewDurablePositionDecoder.TEMPLATE_ID:
+            {
+                return onNewDurablePosition(buffer, offset, blockLength, version);
+            }
+
+            case SessionWatermarksDecoder.TEMPLATE_ID:
+            {
+                return onSessionWatermarks(buffer, offset, blockLength, version);
+            }
+
+            case AbsorbedHeartbeatsDecoder.TEMPLATE_ID:
+            {
+                return onAbsorbedHeartbeats(buffer, offset, blockLength, version);
+            }
+
             case ManageSessionDecoder.TEMPLATE_ID:
             {
                 return onManageSession(buffer, offset, blockLength, version);
@@ -256,6 +274,35 @@ public final class LibraryProtocolSubscription implements ControlledFragmentHand
             newSentPosition.position());
     }
 
+    private Action onNewDurablePosition(
+        final DirectBuffer buffer, final int offset, final int blockLength, final int version)
+    {
+        newDurablePosition.wrap(buffer, offset, blockLength, version);
+
+        return handler.onNewDurablePosition(
+            newDurablePosition.aeronSessionId(),
+            newDurablePosition.position());
+    }
+
+    private Action onSessionWatermarks(
+        final DirectBuffer buffer, final int offset, final int blockLength, final int version)
+    {
+        sessionWatermarks.wrap(buffer, offset, blockLength, version);
+
+        return handler.onSessionWatermarks(
+            sessionWatermarks.libraryId(),
+            sessionWatermarks.type(),
+            sessionWatermarks.watermarks());
+    }
+
+    private Action onAbsorbedHeartbeats(
+        final DirectBuffer buffer, final int offset, final int blockLength, final int version)
+    {
+        absorbedHeartbeats.wrap(buffer, offset, blockLength, version);
+
+        return handler.onAbsorbedHeartbeats(absorbedHeartbeats.heartbeats());
+    }
+
     private Action onManageSession(
         final DirectBuffer buffer,
         final int offset,
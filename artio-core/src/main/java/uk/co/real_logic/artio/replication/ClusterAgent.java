@@ -43,6 +43,7 @@ public class ClusterAgent implements Agent
     private final Leader leader;
     private final Candidate candidate;
     private final Follower follower;
+    private final Learner learner;
     private final RaftTransport transport;
     private final OutboundPipe outboundPipe;
     private final ClusterStreams clusterStreams;
@@ -121,9 +122,24 @@ public class ClusterAgent implements Agent
             nodeState,
             nodeStateHandler);
 
-        transport.initialiseRoles(leader, candidate, follower);
+        learner = new Learner(
+            nodeId,
+            this,
+            timeInMs,
+            timeoutIntervalInMs,
+            termState,
+            raftArchiver);
 
-        startAsFollower(timeInMs);
+        transport.initialiseRoles(leader, candidate, follower, learner);
+
+        if (configuration.learner())
+        {
+            startAsLearner(timeInMs);
+        }
+        else
+        {
+            startAsFollower(timeInMs);
+        }
 
         clusterStreams = new ClusterStreams(
             transport, ourSessionId, termState, dataPublication, archiveReaderSupplier);
@@ -241,6 +257,18 @@ public class ClusterAgent implements Agent
         roleHandler.onTransitionToFollower(termState.leadershipTerm());
     }
 
+    private void startAsLearner(final long timeInMs)
+    {
+        DebugLogger.log(RAFT, "%d: Learner @ %d%n", nodeId, timeInMs);
+
+        transport.injectLearnerSubscriptions(learner);
+
+        currentRole = learner.learn(timeInMs);
+
+        onNoLeader();
+        roleHandler.onTransitionToLearner(termState.leadershipTerm());
+    }
+
     void transitionToFollower(final Candidate candidate, final short votedFor, final long timeInMs)
     {
         candidateState.transitionToFollower(candidate, votedFor, timeInMs);
@@ -303,6 +331,11 @@ public class ClusterAgent implements Agent
         return currentRole == follower;
     }
 
+    public boolean isLearner()
+    {
+        return currentRole == learner;
+    }
+
     public short nodeId()
     {
         return nodeId;
@@ -323,6 +356,7 @@ public class ClusterAgent implements Agent
         leader.closeStreams();
         follower.closeStreams();
         candidate.closeStreams();
+        learner.closeStreams();
         archiver.onClose();
         agentArchiveReader.close();
     }
@@ -70,6 +70,7 @@ public class ClusterConfiguration
     private RoleHandler roleHandler = DEFAULT_NODE_HANDLER;
     private String agentNamePrefix = DEFAULT_NAME_PREFIX;
     private boolean printAeronStreamIdentifiers = DEFAULT_PRINT_AERON_STREAM_IDENTIFIERS;
+    private boolean learner = false;
 
     /**
      * Sets the control, data and acknowledge streams to all this aeron
@@ -206,6 +207,20 @@ public class ClusterConfiguration
         return this;
     }
 
+    /**
+     * Sets whether this node is a non-voting learner. Learners replicate and archive the log, but never vote or
+     * stand for election and aren't counted towards the quorum. Learners shouldn't be included in the other nodes
+     * of the voting members of the cluster.
+     *
+     * @param learner true if this node is a learner, false otherwise.
+     * @return this
+     */
+    public ClusterConfiguration learner(final boolean learner)
+    {
+        this.learner = learner;
+        return this;
+    }
+
     public StreamIdentifier controlStream()
     {
         return controlStream;
@@ -318,4 +333,9 @@ public class ClusterConfiguration
     {
         return printAeronStreamIdentifiers;
     }
+
+    public boolean learner()
+    {
+        return learner;
+    }
 }
@@ -16,7 +16,9 @@
 package uk.co.real_logic.artio.replication;
 
 import io.aeron.ExclusivePublication;
+import io.aeron.ReservedValueSupplier;
 import io.aeron.logbuffer.ExclusiveBufferClaim;
+import org.agrona.DirectBuffer;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -33,6 +35,7 @@ class ClusterPublication extends ClusterablePublication
     private final AtomicInteger leaderSessionId;
     private final int ourSessionId;
     private final long reservedValue;
+    private final ReservedValueSupplier reservedValueSupplier;
     private final int streamId;
 
     ClusterPublication(
@@ -47,6 +50,7 @@ class ClusterPublication extends ClusterablePublication
         this.leaderSessionId = leaderSessionId;
         this.ourSessionId = ourSessionId;
         this.reservedValue = ReservedValue.ofClusterStreamId(streamId);
+        this.reservedValueSupplier = (termBuffer, termOffset, frameLength) -> reservedValue;
         this.streamId = streamId;
     }
 
@@ -67,6 +71,21 @@ class ClusterPublication extends ClusterablePublication
         return transportPosition;
     }
 
+    public long offer(final DirectBuffer buffer, final int offset, final int length)
+    {
+        if (!ClusterStreams.isLeader(ourSessionId, leaderSessionId))
+        {
+            return CANT_PUBLISH;
+        }
+
+        final long transportPosition = dataPublication.offer(buffer, offset, length, reservedValueSupplier);
+        if (transportPosition > 0)
+        {
+            return transportToReplicated(transportPosition, termState.transportPositionDelta());
+        }
+        return transportPosition;
+    }
+
     public int id()
     {
         return streamId;
@@ -17,6 +17,7 @@ package uk.co.real_logic.artio.replication;
 
 import io.aeron.ExclusivePublication;
 import io.aeron.logbuffer.ExclusiveBufferClaim;
+import org.agrona.DirectBuffer;
 
 import java.io.Closeable;
 
@@ -39,6 +40,16 @@ public abstract class ClusterablePublication implements Closeable
 
     public abstract long tryClaim(int length, ExclusiveBufferClaim bufferClaim);
 
+    /**
+     * Offer a message, which gets fragmented if it's larger than the {@link #maxPayloadLength()}.
+     *
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the message within the buffer.
+     * @param length the length of the message.
+     * @return the new position or a negative value if the message couldn't be published.
+     */
+    public abstract long offer(DirectBuffer buffer, int offset, int length);
+
     public abstract void close();
 
     public abstract int id();
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+import io.aeron.Subscription;
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.replication.messages.AcknowledgementStatus;
+import uk.co.real_logic.artio.replication.messages.Vote;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static uk.co.real_logic.artio.replication.PositionTranslations.transportToReplicated;
+import static uk.co.real_logic.artio.replication.messages.AcknowledgementStatus.MISSING_LOG_ENTRIES;
+
+/**
+ * A non-voting read replica. Learners archive the replicated log from the current leader, and thus maintain their
+ * own indices, but never vote, never stand for election and never acknowledge log entries as received. This means
+ * that they don't count towards the cluster's quorum, so replay queries and archive scans can be directed at
+ * them without affecting the live path on the leader.
+ *
+ * Learners do request resends of missing log entries from the leader, since that doesn't count as an
+ * acknowledgement.
+ */
+class Learner implements Role, RaftHandler
+{
+    private final RaftSubscription raftSubscription;
+
+    private final short nodeId;
+    private final ClusterAgent clusterNode;
+    private final TermState termState;
+    private final AtomicLong consensusPosition;
+    private final RandomTimeout leaderTimeout;
+    private final RaftArchiver raftArchiver;
+
+    private RaftPublication acknowledgementPublication;
+    private Subscription controlSubscription;
+    private long missingAckedPosition;
+
+    private long timeInMs;
+
+    Learner(
+        final short nodeId,
+        final ClusterAgent clusterNode,
+        final long timeInMs,
+        final long leaderTimeoutInMs,
+        final TermState termState,
+        final RaftArchiver raftArchiver)
+    {
+        this.nodeId = nodeId;
+        this.clusterNode = clusterNode;
+        this.termState = termState;
+        this.raftArchiver = raftArchiver;
+        this.consensusPosition = termState.consensusPosition();
+        leaderTimeout = new RandomTimeout(leaderTimeoutInMs, timeInMs);
+        raftSubscription = new RaftSubscription(DebugRaftHandler.wrap(nodeId, this));
+    }
+
+    public int pollCommands(final int fragmentLimit, final long timeInMs)
+    {
+        this.timeInMs = timeInMs;
+
+        return controlSubscription.controlledPoll(raftSubscription, fragmentLimit);
+    }
+
+    public int checkConditions(final long timeInMs)
+    {
+        if (leaderTimeout.hasTimedOut(timeInMs))
+        {
+            leaderTimeout.onKeepAlive(timeInMs);
+
+            // Unlike a follower we don't stand for election, just wait for the voting nodes to pick a new leader.
+            if (termState.hasLeader())
+            {
+                termState.noLeader();
+                checkLeaderChange();
+
+                return 1;
+            }
+        }
+
+        return 0;
+    }
+
+    public int readData()
+    {
+        if (raftArchiver.checkLeaderArchiver())
+        {
+            return 0;
+        }
+
+        final long imageTransportPosition = raftArchiver.archivedTransportPosition();
+        final long imagePosition = transportToReplicated(imageTransportPosition, termState.transportPositionDelta());
+        if (imagePosition > termState.receivedPosition() && imagePosition > missingAckedPosition)
+        {
+            if (acknowledgementPublication.saveMessageAcknowledgement(
+                termState.receivedPosition(), nodeId, MISSING_LOG_ENTRIES) >= 0)
+            {
+                missingAckedPosition = imagePosition;
+            }
+
+            return 1;
+        }
+
+        final int bytesRead = raftArchiver.poll();
+        if (bytesRead > 0)
+        {
+            termState.moveReceivedPosition(bytesRead);
+        }
+
+        return bytesRead;
+    }
+
+    public void closeStreams()
+    {
+    }
+
+    public Action onMessageAcknowledgement(
+        final long newAckedPosition, final short nodeId, final AcknowledgementStatus status)
+    {
+        // not interested in this message
+        return Action.CONTINUE;
+    }
+
+    public Action onRequestVote(
+        final short candidateId, final int candidateSessionId, final int leaderShipTerm, final long candidatePosition)
+    {
+        // Learners don't vote
+        return Action.CONTINUE;
+    }
+
+    public Action onReplyVote(
+        final short senderNodeId,
+        final short candidateId,
+        final int leaderShipTerm,
+        final Vote vote,
+        final DirectBuffer nodeStateBuffer,
+        final int nodeStateLength,
+        final int aeronSessionId)
+    {
+        return Action.CONTINUE;
+    }
+
+    public Action onConsensusHeartbeat(
+        final short leaderNodeId,
+        final int leaderShipTerm,
+        final long position,
+        final long transportStartPosition,
+        final long transportPosition,
+        final int leaderSessionId)
+    {
+        if (leaderNodeId != this.nodeId)
+        {
+            if (leaderShipTerm == termState.leadershipTerm() && termState.hasLeader())
+            {
+                consensusPosition.set(position);
+                termState.leaderSessionId(leaderSessionId);
+                leaderTimeout.onKeepAlive(timeInMs);
+            }
+            else if (leaderShipTerm >= termState.leadershipTerm())
+            {
+                consensusPosition.set(position);
+                termState
+                    .leadershipTerm(leaderShipTerm)
+                    .leaderSessionId(leaderSessionId);
+
+                learn(timeInMs);
+            }
+        }
+
+        return Action.CONTINUE;
+    }
+
+    public Action onResend(
+        final int leaderSessionId,
+        final int leaderShipTerm,
+        final long startPosition,
+        final DirectBuffer bodyBuffer,
+        final int bodyOffset,
+        final int bodyLength)
+    {
+        if (isValidPosition(leaderSessionId, leaderShipTerm, startPosition))
+        {
+            if (!raftArchiver.checkLeaderArchiver())
+            {
+                raftArchiver.patch(bodyBuffer, bodyOffset, bodyLength);
+                termState.moveReceivedPosition(bodyLength);
+                leaderTimeout.onKeepAlive(timeInMs);
+            }
+        }
+
+        return Action.CONTINUE;
+    }
+
+    private boolean isValidPosition(final int leaderSessionId, final int leaderShipTerm, final long position)
+    {
+        return position == termState.receivedPosition() &&
+            leaderSessionId == termState.leaderSessionId().get() &&
+            leaderShipTerm == termState.leadershipTerm();
+    }
+
+    Learner learn(final long timeInMs)
+    {
+        leaderTimeout.onKeepAlive(timeInMs);
+        checkLeaderChange();
+        missingAckedPosition = 0;
+        return this;
+    }
+
+    private void checkLeaderChange()
+    {
+        if (termState.hasLeader())
+        {
+            raftArchiver.onLeader();
+            clusterNode.onNewLeader();
+        }
+        else
+        {
+            raftArchiver.onNoLeader();
+            clusterNode.onNoLeader();
+        }
+    }
+
+    Learner acknowledgementPublication(final RaftPublication acknowledgementPublication)
+    {
+        this.acknowledgementPublication = acknowledgementPublication;
+        return this;
+    }
+
+    Learner controlSubscription(final Subscription controlSubscription)
+    {
+        this.controlSubscription = controlSubscription;
+        return this;
+    }
+
+    Learner dataSubscription(final Subscription dataSubscription)
+    {
+        raftArchiver.dataSubscription(dataSubscription);
+        return this;
+    }
+}
@@ -28,7 +28,8 @@ class RaftTransport
         this.configuration = configuration;
     }
 
-    void initialiseRoles(final Leader leader, final Candidate candidate, final Follower follower)
+    void initialiseRoles(
+        final Leader leader, final Candidate candidate, final Follower follower, final Learner learner)
     {
         final RaftPublication acknowledgementPublication = raftPublication(
             configuration.acknowledgementStream(), "acknowledgementPublication");
@@ -48,6 +49,10 @@ class RaftTransport
             .controlPublication(controlPublication)
             .acknowledgementPublication(acknowledgementPublication)
             .controlSubscription(controlSubscription);
+
+        learner
+            .acknowledgementPublication(acknowledgementPublication)
+            .controlSubscription(controlSubscription);
     }
 
     void injectLeaderSubscriptions(final Leader leader)
@@ -83,6 +88,11 @@ class RaftTransport
         follower.dataSubscription(dataSubscription());
     }
 
+    void injectLearnerSubscriptions(final Learner learner)
+    {
+        learner.dataSubscription(dataSubscription());
+    }
+
     private ExclusivePublication publication(final StreamIdentifier id, final String name)
     {
         final ExclusivePublication publication = configuration
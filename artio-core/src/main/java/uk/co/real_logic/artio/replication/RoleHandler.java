@@ -44,4 +44,14 @@ public interface RoleHandler
      * @param leadershipTerm the current leadership term.
      */
     void onTransitionToCandidate(int leadershipTerm);
+
+    /**
+     * Invoked when the node that the handler has been registered with starts as a non-voting learner. Learners
+     * never transition to another role.
+     *
+     * @param leadershipTerm the current leadership term.
+     */
+    default void onTransitionToLearner(final int leadershipTerm)
+    {
+    }
 }
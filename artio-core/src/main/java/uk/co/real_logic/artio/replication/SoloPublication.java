@@ -17,6 +17,7 @@ package uk.co.real_logic.artio.replication;
 
 import io.aeron.ExclusivePublication;
 import io.aeron.logbuffer.ExclusiveBufferClaim;
+import org.agrona.DirectBuffer;
 
 class SoloPublication extends ClusterablePublication
 {
@@ -32,6 +33,11 @@ class SoloPublication extends ClusterablePublication
         return dataPublication.tryClaim(length, bufferClaim);
     }
 
+    public long offer(final DirectBuffer buffer, final int offset, final int length)
+    {
+        return dataPublication.offer(buffer, offset, length);
+    }
+
     public void close()
     {
         dataPublication.close();
@@ -1295,6 +1295,27 @@ public class Session implements AutoCloseable
             msgSeqNum, HeartbeatDecoder.MESSAGE_TYPE_BYTES, sendingTime, origSendingTime, isPossDupOrResend);
     }
 
+    Action onAbsorbedHeartbeats(final int firstMsgSeqNum, final int lastMsgSeqNum, final long sendingTime)
+    {
+        // A batch is redelivered if a later run in it aborts, so runs that have already been applied are skipped.
+        if (lastMsgSeqNum == lastReceivedMsgSeqNum)
+        {
+            return CONTINUE;
+        }
+
+        // The run is checked as its first heartbeat, so that gaps and low sequence numbers are dealt with as usual.
+        // The rest of the run is consecutive, so it only needs accepting if its first heartbeat was.
+        final boolean followsOn = firstMsgSeqNum == expectedReceivedSeqNum();
+        final Action action = onMessage(
+            firstMsgSeqNum, HeartbeatDecoder.MESSAGE_TYPE_BYTES, sendingTime, UNKNOWN, false);
+        if (followsOn && action == CONTINUE && lastReceivedMsgSeqNum == firstMsgSeqNum)
+        {
+            lastReceivedMsgSeqNum(lastMsgSeqNum);
+        }
+
+        return action;
+    }
+
     Action onInvalidMessageType(final int msgSeqNum, final char[] msgType, final int msgTypeLength)
     {
         return checkPosition(proxy.reject(
@@ -126,6 +126,25 @@ public class SessionParser
         }
     }
 
+    /**
+     * Handle a run of consecutive heartbeats that the engine has absorbed on behalf of this session.
+     *
+     * @param firstMsgSeqNum the sequence number of the first heartbeat in the run.
+     * @param lastMsgSeqNum the sequence number of the last heartbeat in the run.
+     * @param sendingTime the sending time of the last heartbeat in the run.
+     * @return appropriate action to indicate back pressure
+     * @see uk.co.real_logic.artio.engine.EngineConfiguration#sessionLevelFastPath(boolean)
+     */
+    public Action onAbsorbedHeartbeats(final int firstMsgSeqNum, final int lastMsgSeqNum, final long sendingTime)
+    {
+        if (isDisconnectedOrAwaitingLogout())
+        {
+            return CONTINUE;
+        }
+
+        return session.onAbsorbedHeartbeats(firstMsgSeqNum, lastMsgSeqNum, sendingTime);
+    }
+
     private Action onHeartbeat(final int offset, final int length)
     {
         final HeartbeatDecoder heartbeat = this.heartbeat;
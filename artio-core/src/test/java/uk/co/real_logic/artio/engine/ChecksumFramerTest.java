@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.FileSystemCorruptionException;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.SectorFramer.SECTOR_DATA_LENGTH;
+import static uk.co.real_logic.artio.engine.SectorFramer.SECTOR_SIZE;
+
+public class ChecksumFramerTest
+{
+    private static final int SECTORS = 4;
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(SECTORS * SECTOR_SIZE));
+    private final ChecksumFramer checksumFramer = new ChecksumFramer(
+        buffer, buffer.capacity(), errorHandler, 0, "ChecksumFramerTest");
+
+    @Before
+    public void setUp()
+    {
+        checksumFramer.markAllDirty();
+        checksumFramer.updateChecksums();
+    }
+
+    @After
+    public void tearDown()
+    {
+        checksumFramer.validateCheckSums();
+        verify(errorHandler, never()).onError(any());
+    }
+
+    @Test
+    public void shouldOnlyUpdateChecksumsOfDirtySectors()
+    {
+        final int secondSector = SECTOR_SIZE;
+        final int firstChecksum = checksumOf(0);
+        final int secondChecksum = checksumOf(secondSector);
+
+        buffer.putLong(secondSector + 8, 1L);
+        checksumFramer.markDirty(secondSector + 8, 8);
+        checksumFramer.updateChecksums();
+
+        assertEquals(firstChecksum, checksumOf(0));
+        assertNotEquals(secondChecksum, checksumOf(secondSector));
+    }
+
+    @Test
+    public void shouldUpdateEverySectorSpannedByDirtyRegion()
+    {
+        final int offset = SECTOR_SIZE - 8;
+        buffer.putLong(offset - 8, 1L);
+        buffer.putLong(SECTOR_SIZE + 8, 2L);
+
+        checksumFramer.markDirty(offset - 8, 32);
+        checksumFramer.updateChecksums();
+    }
+
+    @Test
+    public void shouldDetectWritesThatWereNotMarkedDirty()
+    {
+        buffer.putLong(SECTOR_SIZE * 2, 1L);
+        checksumFramer.updateChecksums();
+
+        checksumFramer.validateCheckSums();
+
+        verify(errorHandler).onError(any(FileSystemCorruptionException.class));
+        reset(errorHandler);
+
+        checksumFramer.markDirty(SECTOR_SIZE * 2, 8);
+        checksumFramer.updateChecksums();
+    }
+
+    private int checksumOf(final int sectorStart)
+    {
+        return buffer.getInt(sectorStart + SECTOR_DATA_LENGTH);
+    }
+}
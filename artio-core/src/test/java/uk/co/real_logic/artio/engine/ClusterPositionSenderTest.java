@@ -45,6 +45,7 @@ public class ClusterPositionSenderTest
         mock(Subscription.class),
         mock(ClusterableSubscription.class),
         publication,
+        new SessionWatermarkTracker(publication),
         DEFAULT_NAME_PREFIX);
 
     @Test
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+
+public class DefaultEngineSchedulerTest
+{
+    private final Agent framer = mock(Agent.class);
+    private final Agent archivingAgent = mock(Agent.class);
+    private final Agent outboundArchivingAgent = mock(Agent.class);
+    private final Agent replayAgent = mock(Agent.class);
+    private final EngineConfiguration configuration = mock(EngineConfiguration.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final AtomicReference<Thread> archivingThread = new AtomicReference<>();
+    private final AtomicReference<Thread> outboundArchivingThread = new AtomicReference<>();
+    private final AtomicReference<Thread> replayThread = new AtomicReference<>();
+    private final DefaultEngineScheduler scheduler = new DefaultEngineScheduler();
+
+    @Before
+    public void setUp() throws Exception
+    {
+        when(configuration.framerIdleStrategy()).thenReturn(new YieldingIdleStrategy());
+        when(configuration.archiverIdleStrategy()).thenReturn(new YieldingIdleStrategy());
+        when(configuration.outboundArchiverIdleStrategy()).thenReturn(new YieldingIdleStrategy());
+        when(configuration.replayIdleStrategy()).thenReturn(new YieldingIdleStrategy());
+        when(framer.roleName()).thenReturn("framer");
+        when(archivingAgent.roleName()).thenReturn("archiver");
+        when(outboundArchivingAgent.roleName()).thenReturn("outboundArchiver");
+        when(replayAgent.roleName()).thenReturn("replayer");
+        recordThread(archivingAgent, archivingThread);
+        recordThread(outboundArchivingAgent, outboundArchivingThread);
+        recordThread(replayAgent, replayThread);
+    }
+
+    @After
+    public void tearDown()
+    {
+        scheduler.close();
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldRunReplayAgentOnTheArchivingThreadByDefault()
+    {
+        launch();
+
+        assertSame(archivingThread.get(), replayThread.get());
+    }
+
+    @Test
+    public void shouldRunReplayAgentOnItsOwnThreadWhenDedicated()
+    {
+        when(configuration.dedicatedReplayThread()).thenReturn(true);
+
+        launch();
+
+        assertNotSame(archivingThread.get(), replayThread.get());
+    }
+
+    @Test
+    public void shouldRunReplayAgentWithoutAnArchivingAgent()
+    {
+        when(configuration.dedicatedReplayThread()).thenReturn(true);
+
+        scheduler.launch(configuration, errorHandler, framer, null, replayAgent, null, null);
+
+        assertEventuallyTrue("replay agent never run", () -> replayThread.get() != null);
+    }
+
+    @Test
+    public void shouldRunOutboundArchivingAgentOnTheArchivingThreadByDefault()
+    {
+        launchSplitPipelines();
+
+        assertSame(archivingThread.get(), outboundArchivingThread.get());
+    }
+
+    @Test
+    public void shouldRunOutboundArchivingAgentOnItsOwnThreadWhenDedicated()
+    {
+        when(configuration.dedicatedOutboundArchivingThread()).thenReturn(true);
+
+        launchSplitPipelines();
+
+        assertNotSame(archivingThread.get(), outboundArchivingThread.get());
+        assertSame(archivingThread.get(), replayThread.get());
+    }
+
+    private void launchSplitPipelines()
+    {
+        scheduler.launch(
+            configuration, errorHandler, framer, archivingAgent, outboundArchivingAgent, replayAgent, null, null);
+
+        assertEventuallyTrue(
+            "agents never run",
+            () -> archivingThread.get() != null && outboundArchivingThread.get() != null &&
+            replayThread.get() != null);
+    }
+
+    private void launch()
+    {
+        scheduler.launch(configuration, errorHandler, framer, archivingAgent, replayAgent, null, null);
+
+        assertEventuallyTrue(
+            "agents never run", () -> archivingThread.get() != null && replayThread.get() != null);
+    }
+
+    private void recordThread(final Agent agent, final AtomicReference<Thread> thread) throws Exception
+    {
+        when(agent.doWork()).then((invocation) ->
+        {
+            thread.set(Thread.currentThread());
+            return 0;
+        });
+    }
+}
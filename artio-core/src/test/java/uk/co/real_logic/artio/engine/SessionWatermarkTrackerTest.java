@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+import uk.co.real_logic.artio.messages.SessionWatermarkType;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.aeron.Publication.BACK_PRESSURED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.messages.SessionWatermarkType.ARCHIVED;
+import static uk.co.real_logic.artio.messages.SessionWatermarkType.REPLICATED;
+
+public class SessionWatermarkTrackerTest
+{
+    private static final int AERON_SESSION_ID = 11;
+    private static final int LIBRARY_ID = 3;
+    private static final int OTHER_LIBRARY_ID = 4;
+    private static final long SESSION_ID = 1;
+    private static final long OTHER_SESSION_ID = 2;
+
+    private final Map<SessionWatermarkType, Map<Long, Long>> savedWatermarks = new HashMap<>();
+    private final GatewayPublication publication = mock(GatewayPublication.class);
+    private final SessionWatermarkTracker tracker = new SessionWatermarkTracker(publication);
+
+    // The batcher reuses its arrays, so they're copied out when they're saved.
+    private final Answer<Long> recordWatermarks = (inv) ->
+    {
+        final SessionWatermarkType type = inv.getArgument(1);
+        final long[] sessionIds = inv.getArgument(2);
+        final long[] positions = inv.getArgument(3);
+        final int count = inv.getArgument(4);
+        final Map<Long, Long> watermarks = savedWatermarks.computeIfAbsent(type, (key) -> new HashMap<>());
+        for (int i = 0; i < count; i++)
+        {
+            watermarks.put(sessionIds[i], positions[i]);
+        }
+        return 1024L;
+    };
+
+    @Before
+    public void setUp()
+    {
+        when(publication.saveSessionWatermarks(anyInt(), any(), any(), any(), anyInt())).then(recordWatermarks);
+    }
+
+    @Test
+    public void shouldReportArchivedWatermarksOnceDurable()
+    {
+        tracker.onLibraryConnect(AERON_SESSION_ID, LIBRARY_ID, true);
+        tracker.onArchivingMessage(LIBRARY_ID, SESSION_ID, 128);
+        tracker.onArchivingMessage(LIBRARY_ID, OTHER_SESSION_ID, 256);
+        tracker.onArchivingMessage(LIBRARY_ID, SESSION_ID, 384);
+
+        tracker.doWork();
+        assertTrue(savedWatermarks.isEmpty());
+
+        tracker.onDurablePosition(AERON_SESSION_ID, 256);
+        tracker.doWork();
+
+        assertWatermark(ARCHIVED, SESSION_ID, 128);
+        assertWatermark(ARCHIVED, OTHER_SESSION_ID, 256);
+        verify(publication).saveSessionWatermarks(eq(LIBRARY_ID), eq(ARCHIVED), any(), any(), eq(2));
+
+        tracker.onDurablePosition(AERON_SESSION_ID, 384);
+        tracker.doWork();
+
+        assertWatermark(ARCHIVED, SESSION_ID, 384);
+        verify(publication).saveSessionWatermarks(eq(LIBRARY_ID), eq(ARCHIVED), any(), any(), eq(1));
+    }
+
+    @Test
+    public void shouldReportMessagesThatWereAlreadyDurable()
+    {
+        tracker.onLibraryConnect(AERON_SESSION_ID, LIBRARY_ID, true);
+        tracker.onDurablePosition(AERON_SESSION_ID, 512);
+        tracker.onArchivingMessage(LIBRARY_ID, SESSION_ID, 256);
+        tracker.doWork();
+
+        assertWatermark(ARCHIVED, SESSION_ID, 256);
+    }
+
+    @Test
+    public void shouldReportReplicatedWatermarks()
+    {
+        tracker.onLibraryConnect(AERON_SESSION_ID, LIBRARY_ID, true);
+        tracker.onReplicatedMessage(LIBRARY_ID, SESSION_ID, 128);
+        tracker.onReplicatedMessage(LIBRARY_ID, SESSION_ID, 256);
+        tracker.doWork();
+
+        assertWatermark(REPLICATED, SESSION_ID, 256);
+        verify(publication).saveSessionWatermarks(eq(LIBRARY_ID), eq(REPLICATED), any(), any(), eq(1));
+    }
+
+    @Test
+    public void shouldOnlyReportWatermarksOfLibrariesThatTrackThem()
+    {
+        tracker.onLibraryConnect(AERON_SESSION_ID, LIBRARY_ID, false);
+        tracker.onArchivingMessage(LIBRARY_ID, SESSION_ID, 128);
+        tracker.onReplicatedMessage(LIBRARY_ID, SESSION_ID, 128);
+        tracker.onArchivingMessage(OTHER_LIBRARY_ID, SESSION_ID, 128);
+        tracker.onDurablePosition(AERON_SESSION_ID, 128);
+        tracker.doWork();
+
+        verify(publication, never()).saveSessionWatermarks(anyInt(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void shouldStopReportingWatermarksOfTimedOutLibraries()
+    {
+        tracker.onLibraryConnect(AERON_SESSION_ID, LIBRARY_ID, true);
+        tracker.onArchivingMessage(LIBRARY_ID, SESSION_ID, 128);
+        tracker.onLibraryTimeout(LIBRARY_ID);
+        tracker.onDurablePosition(AERON_SESSION_ID, 128);
+        tracker.doWork();
+
+        verify(publication, never()).saveSessionWatermarks(anyInt(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void shouldResendLatestWatermarksWhenBackPressured()
+    {
+        doReturn(BACK_PRESSURED).doAnswer(recordWatermarks)
+            .when(publication).saveSessionWatermarks(anyInt(), any(), any(), any(), anyInt());
+
+        tracker.onLibraryConnect(AERON_SESSION_ID, LIBRARY_ID, true);
+        tracker.onReplicatedMessage(LIBRARY_ID, SESSION_ID, 128);
+        tracker.doWork();
+        assertTrue(savedWatermarks.isEmpty());
+
+        tracker.onReplicatedMessage(LIBRARY_ID, SESSION_ID, 256);
+        tracker.doWork();
+
+        assertWatermark(REPLICATED, SESSION_ID, 256);
+        verify(publication, times(2)).saveSessionWatermarks(eq(LIBRARY_ID), eq(REPLICATED), any(), any(), eq(1));
+    }
+
+    @Test
+    public void shouldQueueUpMoreMessagesThanItsInitialCapacity()
+    {
+        tracker.onLibraryConnect(AERON_SESSION_ID, LIBRARY_ID, true);
+        tracker.onDurablePosition(AERON_SESSION_ID, 64);
+        final int messageCount = 1000;
+        for (int i = 1; i <= messageCount; i++)
+        {
+            tracker.onArchivingMessage(LIBRARY_ID, i, i * 128L);
+            if (i % 100 == 0)
+            {
+                tracker.onDurablePosition(AERON_SESSION_ID, (i - 50) * 128L);
+            }
+        }
+
+        tracker.onDurablePosition(AERON_SESSION_ID, messageCount * 128L);
+        for (int i = 0; i < messageCount / SessionWatermarkBatcher.MAX_BATCH_SIZE + 1; i++)
+        {
+            tracker.doWork();
+        }
+
+        final Map<Long, Long> watermarks = savedWatermarks.get(ARCHIVED);
+        assertEquals(messageCount, watermarks.size());
+        for (long i = 1; i <= messageCount; i++)
+        {
+            assertEquals(Long.valueOf(i * 128L), watermarks.get(i));
+        }
+    }
+
+    private void assertWatermark(final SessionWatermarkType type, final long sessionId, final long position)
+    {
+        assertEquals(Long.valueOf(position), savedWatermarks.get(type).get(sessionId));
+    }
+}
@@ -14,7 +14,8 @@ public class SoloPositionSenderTest
     private static final int OTHER_LIBRARY_ID = 2;
 
     private GatewayPublication publication = mock(GatewayPublication.class);
-    private SoloPositionSender positionSender = new SoloPositionSender(publication);
+    private SoloPositionSender positionSender = new SoloPositionSender(
+        publication, new SessionWatermarkTracker(publication));
 
     @Test
     public void shouldSendUpdatedPositions()
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.EpochClock;
+import org.junit.After;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.framer.AddressResolver.ResolvedAddressHandler;
+
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+
+public class AddressResolverTest
+{
+    private static final long TTL_IN_MS = 1000;
+    private static final int PORT = 9999;
+    private static final String HOST = "localhost";
+
+    private final EpochClock clock = mock(EpochClock.class);
+    private final ResolvedAddressHandler handler = mock(ResolvedAddressHandler.class);
+    private final ResolvedAddressHandler otherHandler = mock(ResolvedAddressHandler.class);
+    private final AddressResolver resolver = new AddressResolver(TTL_IN_MS, clock, "AddressResolverTest");
+
+    @After
+    public void tearDown()
+    {
+        resolver.close();
+    }
+
+    @Test
+    public void shouldResolveAddressLiteralsImmediately()
+    {
+        resolver.resolve("127.0.0.1", PORT, handler);
+
+        verify(handler).onResolved(new InetSocketAddress("127.0.0.1", PORT), null);
+    }
+
+    @Test
+    public void shouldResolveHostNamesWhenPolled()
+    {
+        resolver.resolve(HOST, PORT, handler);
+        resolver.resolve(HOST, PORT + 1, otherHandler);
+
+        verifyNoMoreInteractions(handler, otherHandler);
+        pollUntilResolved();
+
+        verify(handler).onResolved(new InetSocketAddress(HOST, PORT), null);
+        verify(otherHandler).onResolved(new InetSocketAddress(HOST, PORT + 1), null);
+    }
+
+    @Test
+    public void shouldResolveCachedHostNamesImmediately()
+    {
+        resolver.resolve(HOST, PORT, handler);
+        pollUntilResolved();
+
+        resolver.resolve(HOST, PORT, otherHandler);
+
+        verify(otherHandler).onResolved(new InetSocketAddress(HOST, PORT), null);
+    }
+
+    @Test
+    public void shouldLookupHostNamesAgainOnceCacheExpires()
+    {
+        resolver.resolve(HOST, PORT, handler);
+        pollUntilResolved();
+
+        when(clock.time()).thenReturn(TTL_IN_MS + 1);
+        resolver.resolve(HOST, PORT, otherHandler);
+
+        verifyNoMoreInteractions(otherHandler);
+        pollUntilResolved();
+        verify(otherHandler).onResolved(new InetSocketAddress(HOST, PORT), null);
+    }
+
+    @Test
+    public void shouldNotifyHandlersOfUnknownHosts()
+    {
+        resolver.resolve("unknown.host.invalid", PORT, handler);
+
+        pollUntilResolved();
+
+        verify(handler).onResolved(isNull(), any(UnknownHostException.class));
+    }
+
+    @Test
+    public void shouldIdentifyAddressLiterals()
+    {
+        assertTrue(AddressResolver.isAddressLiteral("10.0.0.1"));
+        assertTrue(AddressResolver.isAddressLiteral("::1"));
+        assertFalse(AddressResolver.isAddressLiteral("localhost"));
+        assertFalse(AddressResolver.isAddressLiteral(""));
+    }
+
+    private void pollUntilResolved()
+    {
+        assertEventuallyTrue("address never resolved", () -> resolver.poll() > 0);
+    }
+}
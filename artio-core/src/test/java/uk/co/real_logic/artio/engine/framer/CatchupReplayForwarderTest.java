@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import io.aeron.ImageControlledFragmentAssembler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.RequestSessionReplyEncoder;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+import static io.aeron.Publication.BACK_PRESSURED;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.logbuffer.FrameDescriptor.BEGIN_FRAG_FLAG;
+import static io.aeron.logbuffer.FrameDescriptor.END_FRAG_FLAG;
+import static io.aeron.logbuffer.FrameDescriptor.UNFRAGMENTED;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.messages.SessionReplyStatus.OK;
+
+public class CatchupReplayForwarderTest
+{
+    private static final long CORRELATION_ID = 2L;
+    private static final long POSITION = 1024L;
+    private static final int OFFSET = 8;
+    private static final int MTU_LENGTH = 1408;
+    private static final int LARGE_MESSAGE_LENGTH = 3 * MTU_LENGTH;
+
+    private final UnsafeBuffer srcBuffer = new UnsafeBuffer(new byte[OFFSET + LARGE_MESSAGE_LENGTH]);
+    private final UnsafeBuffer forwardedBuffer = new UnsafeBuffer(new byte[LARGE_MESSAGE_LENGTH]);
+    private final GatewayPublication inboundPublication = mock(GatewayPublication.class);
+    private final GatewaySession session = mock(GatewaySession.class);
+    private final Header header = mock(Header.class);
+    private final CatchupReplayForwarder forwarder = new CatchupReplayForwarder(inboundPublication);
+
+    private int length;
+    private int forwardedLength;
+
+    @Before
+    public void setUp()
+    {
+        when(header.flags()).thenReturn(UNFRAGMENTED);
+
+        length = encodeReply(srcBuffer, OFFSET);
+
+        forwarder.onCatchupStarted(CORRELATION_ID, session);
+    }
+
+    @Test
+    public void shouldPlaySessionOnceReplyHasBeenForwarded()
+    {
+        offerSucceeds();
+
+        assertEquals(CONTINUE, forwarder.onFragment(srcBuffer, OFFSET, length, header));
+
+        assertForwarded(srcBuffer, OFFSET, length);
+        verify(session).play();
+    }
+
+    @Test
+    public void shouldAbortWhenBackPressured()
+    {
+        when(inboundPublication.offer(any(), anyInt(), anyInt())).thenReturn(BACK_PRESSURED);
+
+        assertEquals(ABORT, forwarder.onFragment(srcBuffer, OFFSET, length, header));
+
+        verify(session, never()).play();
+    }
+
+    @Test
+    public void shouldForwardMessagesLargerThanTheMtuWithASingleOffer()
+    {
+        offerSucceeds();
+        for (int i = 0; i < LARGE_MESSAGE_LENGTH; i++)
+        {
+            srcBuffer.putByte(OFFSET + i, (byte)i);
+        }
+
+        final ImageControlledFragmentAssembler assembler = new ImageControlledFragmentAssembler(forwarder);
+        int fragmentOffset = OFFSET;
+        for (int i = 0; i < 3; i++)
+        {
+            final byte flags = i == 0 ? BEGIN_FRAG_FLAG : i == 2 ? END_FRAG_FLAG : 0;
+            when(header.flags()).thenReturn(flags);
+
+            assertEquals(CONTINUE, assembler.onFragment(srcBuffer, fragmentOffset, MTU_LENGTH, header));
+            fragmentOffset += MTU_LENGTH;
+        }
+
+        verify(inboundPublication).offer(any(), anyInt(), eq(LARGE_MESSAGE_LENGTH));
+        assertForwarded(srcBuffer, OFFSET, LARGE_MESSAGE_LENGTH);
+    }
+
+    private int encodeReply(final UnsafeBuffer buffer, final int offset)
+    {
+        final MessageHeaderEncoder messageHeader = new MessageHeaderEncoder();
+        final RequestSessionReplyEncoder requestSessionReply = new RequestSessionReplyEncoder();
+        requestSessionReply
+            .wrapAndApplyHeader(buffer, offset, messageHeader)
+            .replyToId(CORRELATION_ID)
+            .status(OK);
+        return MessageHeaderEncoder.ENCODED_LENGTH + requestSessionReply.encodedLength();
+    }
+
+    private void assertForwarded(final DirectBuffer expected, final int offset, final int length)
+    {
+        assertEquals(length, forwardedLength);
+        for (int i = 0; i < length; i++)
+        {
+            assertEquals(expected.getByte(offset + i), forwardedBuffer.getByte(i));
+        }
+    }
+
+    private void offerSucceeds()
+    {
+        when(inboundPublication.offer(any(), anyInt(), anyInt())).then((invocation) ->
+        {
+            final DirectBuffer buffer = invocation.getArgument(0);
+            final int offset = invocation.getArgument(1);
+            forwardedLength = invocation.getArgument(2);
+            buffer.getBytes(offset, forwardedBuffer, 0, forwardedLength);
+            return POSITION;
+        });
+    }
+}
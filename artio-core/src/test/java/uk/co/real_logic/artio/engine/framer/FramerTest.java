@@ -24,6 +24,7 @@ import org.agrona.LangUtil;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.AgentInvoker;
 import org.agrona.concurrent.QueuedPipe;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.junit.After;
@@ -37,7 +38,6 @@ import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.EngineDescriptorStore;
 import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.engine.framer.SubscriptionSlowPeeker.LibrarySlowPeeker;
-import uk.co.real_logic.artio.engine.logger.ReplayQuery;
 import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
@@ -66,6 +66,7 @@ import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_NAME_PREFIX;
 import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
 import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
+import static uk.co.real_logic.artio.engine.framer.ReceiverEndPoint.NO_READ_QUANTUM;
 import static uk.co.real_logic.artio.library.FixLibrary.NO_MESSAGE_REPLAY;
 import static uk.co.real_logic.artio.library.SessionConfiguration.AUTOMATIC_INITIAL_SEQUENCE_NUMBER;
 import static uk.co.real_logic.artio.messages.ConnectionType.INITIATOR;
@@ -88,6 +89,7 @@ public class FramerTest
     private static final long POSITION = 1024;
     private static final int AERON_SESSION_ID = 234;
     private static final long SESSION_ID = 123;
+    private static final int REPLAY_FROM_SEQ_NUM = 1;
     private static final String LIBRARY_NAME = "library";
 
     private ServerSocketChannel server;
@@ -104,7 +106,8 @@ public class FramerTest
     private final FakeEpochClock mockClock = new FakeEpochClock();
     private final SequenceNumberIndexReader sentSequenceNumberIndex = mock(SequenceNumberIndexReader.class);
     private final SequenceNumberIndexReader receivedSequenceNumberIndex = mock(SequenceNumberIndexReader.class);
-    private final ReplayQuery replayQuery = mock(ReplayQuery.class);
+    private final CatchupReplayAgent catchupReplayAgent = mock(CatchupReplayAgent.class);
+    private final CatchupReplayer catchupReplayer = mock(CatchupReplayer.class);
     private final SessionContexts sessionContexts = mock(SessionContexts.class);
     private final GatewaySessions gatewaySessions = mock(GatewaySessions.class);
     private final GatewaySession gatewaySession = mock(GatewaySession.class);
@@ -113,6 +116,7 @@ public class FramerTest
     private final Subscription outboundSlowSubscription = mock(Subscription.class);
     private final Image replayImage = mock(Image.class);
     private final Image replaySlowImage = mock(Image.class);
+    private final Image catchupReplayImage = mock(Image.class);
     private final Image peekImage = mock(Image.class);
     private final Image normalImage = mock(Image.class);
     private final ClusterableStreams node = mock(ClusterableStreams.class);
@@ -174,6 +178,11 @@ public class FramerTest
             mock(Timer.class),
             engineConfiguration,
             mockEndPointFactory,
+            new ReceiverEndPoints(
+                NO_READ_QUANTUM,
+                new int[]{ 1 },
+                new AtomicCounter[]{ mock(AtomicCounter.class) },
+                new AtomicCounter[]{ mock(AtomicCounter.class) }),
             node,
             null,
             null,
@@ -181,7 +190,8 @@ public class FramerTest
             outboundSlowSubscription,
             replayImage,
             replaySlowImage,
-            replayQuery,
+            catchupReplayImage,
+            catchupReplayAgent,
             mock(GatewayPublication.class),
             inboundPublication,
             mock(QueuedPipe.class),
@@ -263,7 +273,7 @@ public class FramerTest
             () ->
             {
                 doWork();
-                verify(mockReceiverEndPoint).pollForData();
+                verify(mockReceiverEndPoint).pollForData(NO_READ_QUANTUM);
             });
     }
 
@@ -285,6 +295,12 @@ public class FramerTest
         initiateConnection();
     }
 
+    @Test
+    public void shouldConnectToHostName() throws Exception
+    {
+        initiateConnection(TEST_ADDRESS.getHostName());
+    }
+
     @Test
     public void shouldNotConnectIfLibraryUnknown() throws Exception
     {
@@ -593,6 +609,28 @@ public class FramerTest
         neverSavesUnknownSession();
     }
 
+    @Test
+    public void shouldHandCatchupReplaysToTheCatchupReplayAgent() throws IOException
+    {
+        when(catchupReplayAgent.newReplayer(
+            anyLong(), anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyLong(), anyLong()))
+            .thenReturn(catchupReplayer);
+        when(catchupReplayAgent.enqueue(catchupReplayer)).thenReturn(false, true);
+        when(session.lastReceivedMsgSeqNum()).thenReturn(REPLAY_FROM_SEQ_NUM + 1);
+
+        aClientConnects();
+
+        sessionIsActive();
+
+        assertEquals(ABORT, onRequestSessionWithCatchup());
+
+        assertEquals(CONTINUE, onRequestSessionWithCatchup());
+
+        verify(catchupReplayAgent, times(2)).enqueue(catchupReplayer);
+        verify(inboundPublication, never()).saveRequestSessionReply(anyInt(), any(), anyLong());
+        verify(gatewaySession, never()).play();
+    }
+
     private void neverSavesUnknownSession()
     {
         verify(inboundPublication, never())
@@ -641,7 +679,7 @@ public class FramerTest
 
     private void duplicateLibraryConnect()
     {
-        framer.onLibraryConnect(LIBRARY_ID, LIBRARY_NAME, CORR_ID + 1, AERON_SESSION_ID);
+        framer.onLibraryConnect(LIBRARY_ID, LIBRARY_NAME, CORR_ID + 1, AERON_SESSION_ID, false);
     }
 
     private void verifyLibraryControlNotified(final Matcher<? super Collection<?>> sessionMatcher)
@@ -694,6 +732,11 @@ public class FramerTest
         return framer.onRequestSession(LIBRARY_ID, SESSION_ID, CORR_ID, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY);
     }
 
+    private Action onRequestSessionWithCatchup()
+    {
+        return framer.onRequestSession(LIBRARY_ID, SESSION_ID, CORR_ID, REPLAY_FROM_SEQ_NUM, 0);
+    }
+
     private void sessionIsActive()
     {
         when(gatewaySessions.releaseBySessionId(SESSION_ID)).thenReturn(gatewaySession, (GatewaySession)null);
@@ -725,7 +768,7 @@ public class FramerTest
 
     private Action onLibraryConnect()
     {
-        return framer.onLibraryConnect(LIBRARY_ID, LIBRARY_NAME, CORR_ID, AERON_SESSION_ID);
+        return framer.onLibraryConnect(LIBRARY_ID, LIBRARY_NAME, CORR_ID, AERON_SESSION_ID, false);
     }
 
     private void givenAGatewayToManage()
@@ -819,10 +862,15 @@ public class FramerTest
     }
 
     private void initiateConnection() throws Exception
+    {
+        initiateConnection(TEST_ADDRESS.getAddress().getHostAddress());
+    }
+
+    private void initiateConnection(final String host) throws Exception
     {
         libraryConnects();
 
-        assertEquals(CONTINUE, onInitiateConnection());
+        assertEquals(CONTINUE, onInitiateConnection(host));
 
         do
         {
@@ -834,11 +882,16 @@ public class FramerTest
     }
 
     private Action onInitiateConnection()
+    {
+        return onInitiateConnection(TEST_ADDRESS.getAddress().getHostAddress());
+    }
+
+    private Action onInitiateConnection(final String host)
     {
         return framer.onInitiateConnection(
             LIBRARY_ID,
             TEST_ADDRESS.getPort(),
-            TEST_ADDRESS.getHostName(),
+            host,
             "LEH_LZJ02",
             null,
             null,
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.HeaderEncoder;
+import uk.co.real_logic.artio.builder.HeartbeatEncoder;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.Publication.BACK_PRESSURED;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class HeartbeatAbsorberTest
+{
+    private static final long CONNECTION_ID = 20L;
+    private static final long OTHER_CONNECTION_ID = 21L;
+    private static final long SESSION_ID = 4L;
+    private static final long OTHER_SESSION_ID = 5L;
+    private static final long POSITION = 1024L;
+
+    private final GatewayPublication publication = mock(GatewayPublication.class);
+    private final HeartbeatAbsorber absorber = new HeartbeatAbsorber(publication);
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[512]);
+    private final List<long[]> publishedRuns = new ArrayList<>();
+
+    private final Answer<Long> recordRuns = (inv) ->
+    {
+        final long[] connectionIds = inv.getArgument(0);
+        final long[] sessionIds = inv.getArgument(1);
+        final int[] firstMsgSeqNums = inv.getArgument(2);
+        final int[] lastMsgSeqNums = inv.getArgument(3);
+        final int count = inv.getArgument(5);
+        for (int i = 0; i < count; i++)
+        {
+            publishedRuns.add(
+                new long[]{ connectionIds[i], sessionIds[i], firstMsgSeqNums[i], lastMsgSeqNums[i] });
+        }
+        return POSITION;
+    };
+
+    @Before
+    public void setUp()
+    {
+        when(publication.saveAbsorbedHeartbeats(any(), any(), any(), any(), any(), anyInt())).then(recordRuns);
+    }
+
+    @Test
+    public void shouldFoldConsecutiveHeartbeatsIntoOneRun()
+    {
+        for (int msgSeqNum = 2; msgSeqNum <= 4; msgSeqNum++)
+        {
+            assertTrue(absorb(CONNECTION_ID, SESSION_ID, heartbeat(msgSeqNum)));
+        }
+
+        assertTrue(absorber.hasPendingRun(CONNECTION_ID));
+        assertEquals(1, absorber.doWork());
+
+        assertPublishedRun(0, CONNECTION_ID, SESSION_ID, 2, 4);
+        assertEquals(1, publishedRuns.size());
+        assertFalse(absorber.hasPendingRun(CONNECTION_ID));
+    }
+
+    @Test
+    public void shouldBatchRunsOfDifferentConnections()
+    {
+        absorb(CONNECTION_ID, SESSION_ID, heartbeat(2));
+        absorb(OTHER_CONNECTION_ID, OTHER_SESSION_ID, heartbeat(7));
+
+        assertTrue(absorber.flush());
+
+        verify(publication).saveAbsorbedHeartbeats(any(), any(), any(), any(), any(), eq(2));
+        assertPublishedRun(0, CONNECTION_ID, SESSION_ID, 2, 2);
+        assertPublishedRun(1, OTHER_CONNECTION_ID, OTHER_SESSION_ID, 7, 7);
+    }
+
+    @Test
+    public void shouldNotAbsorbHeartbeatsWithATestReqID()
+    {
+        final HeartbeatEncoder heartbeat = heartbeat(2);
+        heartbeat.testReqID("abc");
+
+        assertFalse(absorb(CONNECTION_ID, SESSION_ID, heartbeat));
+        assertFalse(absorber.hasPendingRun(CONNECTION_ID));
+    }
+
+    @Test
+    public void shouldNotAbsorbPossDupHeartbeats()
+    {
+        final HeartbeatEncoder heartbeat = heartbeat(2);
+        heartbeat.header().possDupFlag(true);
+
+        assertFalse(absorb(CONNECTION_ID, SESSION_ID, heartbeat));
+    }
+
+    @Test
+    public void shouldNotExtendRunOverAGap()
+    {
+        absorb(CONNECTION_ID, SESSION_ID, heartbeat(2));
+
+        assertFalse(absorb(CONNECTION_ID, SESSION_ID, heartbeat(4)));
+
+        absorber.flush();
+        assertPublishedRun(0, CONNECTION_ID, SESSION_ID, 2, 2);
+    }
+
+    @Test
+    public void shouldRetryRunsWhenBackPressured()
+    {
+        when(publication.saveAbsorbedHeartbeats(any(), any(), any(), any(), any(), anyInt()))
+            .thenReturn(BACK_PRESSURED)
+            .then(recordRuns);
+        absorb(CONNECTION_ID, SESSION_ID, heartbeat(2));
+
+        assertFalse(absorber.flush());
+        assertTrue(absorber.hasPendingRun(CONNECTION_ID));
+
+        assertTrue(absorber.flush());
+        assertPublishedRun(0, CONNECTION_ID, SESSION_ID, 2, 2);
+        assertFalse(absorber.hasPendingRun(CONNECTION_ID));
+    }
+
+    private HeartbeatEncoder heartbeat(final int msgSeqNum)
+    {
+        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+        final int timestampLength = timestampEncoder.encode(System.currentTimeMillis());
+
+        final HeartbeatEncoder heartbeat = new HeartbeatEncoder();
+        final HeaderEncoder header = heartbeat.header();
+        header
+            .sendingTime(timestampEncoder.buffer(), timestampLength)
+            .senderCompID("initiator")
+            .targetCompID("acceptor")
+            .msgSeqNum(msgSeqNum);
+
+        return heartbeat;
+    }
+
+    private boolean absorb(final long connectionId, final long sessionId, final Encoder heartbeat)
+    {
+        final long result = heartbeat.encode(buffer, 0);
+        return absorber.absorb(buffer, Encoder.offset(result), Encoder.length(result), connectionId, sessionId);
+    }
+
+    private void assertPublishedRun(
+        final int index,
+        final long connectionId,
+        final long sessionId,
+        final int firstMsgSeqNum,
+        final int lastMsgSeqNum)
+    {
+        assertArrayEquals(
+            new long[]{ connectionId, sessionId, firstMsgSeqNum, lastMsgSeqNum }, publishedRuns.get(index));
+    }
+}
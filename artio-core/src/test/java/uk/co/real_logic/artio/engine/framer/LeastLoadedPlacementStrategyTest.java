@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.SessionInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.framer.SessionPlacementStrategy.KEEP_IN_ENGINE;
+
+public class LeastLoadedPlacementStrategyTest
+{
+    private static final long MINIMUM_HOT_SPOT_LOAD = 1000;
+    private static final long HOT_SESSION_ID = 3;
+
+    private final SessionInfo session = mock(SessionInfo.class);
+    private final SessionMigrationHandler migrationHandler = mock(SessionMigrationHandler.class);
+    private final LeastLoadedPlacementStrategy strategy = new LeastLoadedPlacementStrategy(
+        2.0, MINIMUM_HOT_SPOT_LOAD);
+
+    @Test
+    public void shouldKeepSessionsInEngineWithoutLibraries()
+    {
+        assertEquals(KEEP_IN_ENGINE, strategy.placeSession(session, Collections.emptyList()));
+    }
+
+    @Test
+    public void shouldPlaceSessionOnLeastLoadedLibrary()
+    {
+        final List<LibraryLoad> libraries = Arrays.asList(
+            library(1, 2, 500, 100),
+            library(2, 5, 100, 0),
+            library(3, 0, 300, 300));
+
+        assertEquals(2, strategy.placeSession(session, libraries));
+    }
+
+    @Test
+    public void shouldBreakTiesWithSessionCount()
+    {
+        final List<LibraryLoad> libraries = Arrays.asList(
+            library(1, 2, 0, 0),
+            library(2, 1, 0, 0),
+            library(3, 3, 0, 0));
+
+        assertEquals(2, strategy.placeSession(session, libraries));
+    }
+
+    @Test
+    public void shouldSuggestMigratingSessionFromHotSpot()
+    {
+        final List<LibraryLoad> libraries = Arrays.asList(
+            library(1, 3, 10_000, 5_000),
+            library(2, 3, 100, 0),
+            library(3, 3, 200, 0));
+
+        strategy.checkForHotSpots(libraries, migrationHandler);
+
+        verify(migrationHandler).onMigrationSuggested(HOT_SESSION_ID, 1, 2);
+    }
+
+    @Test
+    public void shouldNotSuggestMigrationWhenLoadIsBalanced()
+    {
+        final List<LibraryLoad> libraries = Arrays.asList(
+            library(1, 3, 10_000, 0),
+            library(2, 3, 9_000, 0));
+
+        strategy.checkForHotSpots(libraries, migrationHandler);
+
+        verifyNoSuggestion();
+    }
+
+    @Test
+    public void shouldNotSuggestMigrationBelowMinimumLoad()
+    {
+        final List<LibraryLoad> libraries = Arrays.asList(
+            library(1, 3, MINIMUM_HOT_SPOT_LOAD - 1, 0),
+            library(2, 3, 0, 0));
+
+        strategy.checkForHotSpots(libraries, migrationHandler);
+
+        verifyNoSuggestion();
+    }
+
+    @Test
+    public void shouldNotSuggestMigratingALibrarysOnlySession()
+    {
+        final List<LibraryLoad> libraries = Arrays.asList(
+            library(1, 1, 10_000, 0),
+            library(2, 0, 0, 0));
+
+        strategy.checkForHotSpots(libraries, migrationHandler);
+
+        verifyNoSuggestion();
+    }
+
+    private void verifyNoSuggestion()
+    {
+        verify(migrationHandler, never()).onMigrationSuggested(anyLong(), anyInt(), anyInt());
+    }
+
+    private LibraryLoad library(
+        final int libraryId, final int sessionCount, final long bytesPerSecond, final long backlog)
+    {
+        final List<SessionInfo> sessions = new ArrayList<>();
+        for (int i = 0; i < sessionCount; i++)
+        {
+            final SessionInfo session = mock(SessionInfo.class);
+            when(session.sessionId()).thenReturn((long)(i + 1));
+            sessions.add(session);
+        }
+
+        final LibraryLoad library = mock(LibraryLoad.class);
+        when(library.libraryId()).thenReturn(libraryId);
+        when(library.sessionCount()).thenReturn(sessionCount);
+        when(library.sessions()).thenReturn(sessions);
+        when(library.outboundBytesPerSecond()).thenReturn(bytesPerSecond);
+        when(library.outboundBacklog()).thenReturn(backlog);
+        return library;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class OutboundThrottleTest
+{
+    private static final int MESSAGES_PER_WINDOW = 4;
+    private static final long WINDOW_IN_MS = 1000;
+
+    private final AtomicCounter throttledMessages = mock(AtomicCounter.class);
+    private final OutboundThrottle throttle = new OutboundThrottle(
+        MESSAGES_PER_WINDOW, WINDOW_IN_MS, throttledMessages, 0);
+
+    private long position = 0;
+
+    @Test
+    public void shouldAllowABurstUpToTheLimit()
+    {
+        exhaust();
+
+        assertFalse(tryAcquire(0));
+        verify(throttledMessages).incrementOrdered();
+    }
+
+    @Test
+    public void shouldRefillOverTheWindow()
+    {
+        exhaust();
+
+        final long refillIntervalInMs = WINDOW_IN_MS / MESSAGES_PER_WINDOW;
+        assertFalse(tryAcquire(refillIntervalInMs - 1));
+        assertTrue(tryAcquire(refillIntervalInMs));
+        assertFalse(tryAcquire(refillIntervalInMs));
+        assertTrue(tryAcquire(2 * refillIntervalInMs));
+    }
+
+    @Test
+    public void shouldNotRefillBeyondTheLimit()
+    {
+        exhaust();
+
+        final long timeInMs = 10 * WINDOW_IN_MS;
+        for (int i = 0; i < MESSAGES_PER_WINDOW; i++)
+        {
+            assertTrue(tryAcquire(timeInMs));
+        }
+
+        assertFalse(tryAcquire(timeInMs));
+    }
+
+    @Test
+    public void shouldOnlyCountARetriedMessageOnce()
+    {
+        exhaust();
+        reset(throttledMessages);
+
+        position++;
+        assertFalse(throttle.tryAcquire(position, 1));
+        assertFalse(throttle.tryAcquire(position, 2));
+
+        verify(throttledMessages, times(1)).incrementOrdered();
+    }
+
+    private void exhaust()
+    {
+        for (int i = 0; i < MESSAGES_PER_WINDOW; i++)
+        {
+            assertTrue(tryAcquire(0));
+        }
+    }
+
+    private boolean tryAcquire(final long timeInMs)
+    {
+        return throttle.tryAcquire(++position, timeInMs);
+    }
+}
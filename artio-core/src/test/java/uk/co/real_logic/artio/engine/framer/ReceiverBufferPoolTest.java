@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static uk.co.real_logic.artio.engine.framer.ReceiverBufferPool.SLAB_SIZE;
+
+public class ReceiverBufferPoolTest
+{
+    private static final int MIN_SIZE = 1024;
+    private static final int MAX_SIZE = 10_000;
+
+    private final AtomicCounter bytesInUse = mock(AtomicCounter.class);
+    private final AtomicCounter bytesAllocated = mock(AtomicCounter.class);
+    private final ReceiverBufferPool pool = new ReceiverBufferPool(MIN_SIZE, MAX_SIZE, bytesInUse, bytesAllocated);
+
+    @Test
+    public void shouldAcquireDirectBuffersOfTheMinimumSize()
+    {
+        final ByteBuffer buffer = pool.acquireSmallest();
+
+        assertTrue(buffer.isDirect());
+        assertEquals(MIN_SIZE, buffer.capacity());
+        assertEquals(0, buffer.position());
+        verify(bytesInUse).getAndAddOrdered(MIN_SIZE);
+        verify(bytesAllocated).getAndAddOrdered(SLAB_SIZE);
+    }
+
+    @Test
+    public void shouldGrowThroughSizeClassesUpToTheMaximumSize()
+    {
+        ByteBuffer buffer = pool.acquireSmallest();
+        int expectedSize = MIN_SIZE;
+        while (buffer != null)
+        {
+            assertEquals(Math.min(expectedSize, MAX_SIZE), buffer.capacity());
+            expectedSize *= 2;
+            final ByteBuffer larger = pool.acquireLarger(buffer);
+            if (larger == null)
+            {
+                assertEquals(MAX_SIZE, buffer.capacity());
+            }
+            buffer = larger;
+        }
+    }
+
+    @Test
+    public void shouldShrinkDownToTheMinimumSize()
+    {
+        final ByteBuffer larger = pool.acquireLarger(pool.acquireSmallest());
+        final ByteBuffer smaller = pool.acquireSmaller(larger);
+
+        assertEquals(MIN_SIZE, smaller.capacity());
+        assertNull(pool.acquireSmaller(smaller));
+    }
+
+    @Test
+    public void shouldReuseReleasedBuffers()
+    {
+        final ByteBuffer buffer = pool.acquireSmallest();
+        buffer.putInt(0, 1).position(4);
+
+        pool.release(buffer);
+
+        final int buffersPerSlab = SLAB_SIZE / MIN_SIZE;
+        ByteBuffer reacquired = null;
+        for (int i = 0; i < buffersPerSlab; i++)
+        {
+            reacquired = pool.acquireSmallest();
+        }
+
+        assertSame(buffer, reacquired);
+        assertEquals(0, reacquired.position());
+        verify(bytesInUse).getAndAddOrdered(-MIN_SIZE);
+        verify(bytesAllocated).getAndAddOrdered(SLAB_SIZE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBuffersFromElsewhere()
+    {
+        pool.release(ByteBuffer.allocateDirect(MIN_SIZE + 1));
+    }
+}
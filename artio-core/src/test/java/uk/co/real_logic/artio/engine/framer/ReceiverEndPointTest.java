@@ -79,11 +79,19 @@ public class ReceiverEndPointTest
         .senderAndTarget()
         .onInitiateLogon("ACCEPTOR", "", "", "INIATOR", "", "");
 
-    private ReceiverEndPoint endPoint = new ReceiverEndPoint(
-        mockChannel, BUFFER_SIZE, libraryPublication, clusterablePublication,
-        CONNECTION_ID, UNKNOWN, SEQUENCE_INDEX, mockSessionContexts,
-        sentSequenceNumbers, receivedSequenceNumbers, messagesRead, framer, errorHandler, LIBRARY_ID,
-        DETERMINE_AT_LOGON, ConnectionType.ACCEPTOR, replicatedConnectionIds, mockGatewaySessions);
+    private ReceiverEndPoint endPoint = newEndPoint(BUFFER_SIZE);
+
+    private ReceiverEndPoint newEndPoint(final int minBufferSize)
+    {
+        final ReceiverBufferPool bufferPool = new ReceiverBufferPool(
+            minBufferSize, BUFFER_SIZE, mock(AtomicCounter.class), mock(AtomicCounter.class));
+
+        return new ReceiverEndPoint(
+            mockChannel, bufferPool, libraryPublication, clusterablePublication,
+            CONNECTION_ID, UNKNOWN, SEQUENCE_INDEX, mockSessionContexts,
+            sentSequenceNumbers, receivedSequenceNumbers, messagesRead, framer, errorHandler, LIBRARY_ID,
+            DETERMINE_AT_LOGON, ConnectionType.ACCEPTOR, replicatedConnectionIds, mockGatewaySessions, null, null);
+    }
 
     @Before
     public void setUp()
@@ -190,6 +198,66 @@ public class ReceiverEndPointTest
         sessionReceivesOneMessage();
     }
 
+    @Test
+    public void shouldNotReadMoreThanTheReadQuantum()
+    {
+        final int readQuantum = MSG_LEN - 8;
+        theEndpointCanRead(EG_MESSAGE);
+
+        endPoint.pollForData(readQuantum);
+
+        assertEquals(readQuantum, endPoint.lastDataRead());
+        assertTrue(endPoint.readDeferred());
+        nothingMoreSaved();
+
+        endPoint.pollForData(readQuantum);
+
+        assertEquals(8, endPoint.lastDataRead());
+        assertFalse(endPoint.readDeferred());
+        savesAFramedMessage();
+    }
+
+    @Test
+    public void shouldNotBankReadDeficitWhenIdle()
+    {
+        final int readQuantum = MSG_LEN - 8;
+        theEndpointReceivesNothing();
+        endPoint.pollForData(readQuantum);
+        endPoint.pollForData(readQuantum);
+
+        theEndpointCanRead(EG_MESSAGE);
+        endPoint.pollForData(readQuantum);
+
+        assertEquals(readQuantum, endPoint.lastDataRead());
+        nothingMoreSaved();
+    }
+
+    @Test
+    public void shouldGrowBufferToFrameMessageLargerThanInitialBuffer()
+    {
+        endPoint = newEndPoint(64);
+        endPoint.gatewaySession(gatewaySession);
+
+        final int[] received = {0};
+        endpointBufferUpdatedWith(
+            (buffer) ->
+            {
+                final int length = Math.min(buffer.remaining(), MSG_LEN - received[0]);
+                buffer.put(EG_MESSAGE, received[0], length);
+                received[0] += length;
+                return length;
+            });
+
+        for (int i = 0; i < 4; i++)
+        {
+            endPoint.pollForData();
+        }
+
+        savesAFramedMessage();
+
+        sessionReceivesOneMessage();
+    }
+
     @Test
     public void shouldFrameTwoCompleteFixMessagesInOnePacket()
     {
@@ -495,6 +563,20 @@ public class ReceiverEndPointTest
             });
     }
 
+    // Unlike theEndpointReceives() this only reads as much data as fits in the buffer.
+    private void theEndpointCanRead(final byte[] data)
+    {
+        final int[] readOffset = { 0 };
+        endpointBufferUpdatedWith(
+            (buffer) ->
+            {
+                final int length = Math.min(buffer.remaining(), data.length - readOffset[0]);
+                buffer.put(data, readOffset[0], length);
+                readOffset[0] += length;
+                return length;
+            });
+    }
+
     private void theEndpointReceivesNothing()
     {
         endpointBufferUpdatedWith(buffer -> 0);
@@ -42,6 +42,7 @@ public class SenderEndPointTest
 {
     private static final long CONNECTION_ID = 1;
     private static final int LIBRARY_ID = 2;
+    private static final long SESSION_ID = 3;
     private static final int HEADER_LENGTH = MessageHeaderDecoder.ENCODED_LENGTH;
 
     private static final long POSITION = 8 * 1024;
@@ -50,6 +51,7 @@ public class SenderEndPointTest
     private static final int FRAGMENT_LENGTH = alignTerm(HEADER_LENGTH + FRAME_SIZE + BODY_LENGTH);
     private static final long BEGIN_POSITION = POSITION - FRAGMENT_LENGTH;
     private static final int MAX_BYTES_IN_BUFFER = 3 * BODY_LENGTH;
+    private static final long THROTTLE_WINDOW_IN_MS = 1000;
 
     private TcpChannel tcpChannel = mock(TcpChannel.class);
     private AtomicCounter bytesInBuffer = fakeCounter();
@@ -61,19 +63,27 @@ public class SenderEndPointTest
     private BlockablePosition libraryBlockablePosition = mock(BlockablePosition.class);
     private BlockablePosition replayBlockablePosition = mock(BlockablePosition.class);
 
-    private SenderEndPoint endPoint = new SenderEndPoint(
-        CONNECTION_ID,
-        LIBRARY_ID,
-        libraryBlockablePosition,
-        replayBlockablePosition,
-        tcpChannel,
-        bytesInBuffer,
-        invalidLibraryAttempts,
-        errorHandler,
-        framer,
-        MAX_BYTES_IN_BUFFER,
-        DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
-        0);
+    private AtomicCounter throttledMessages = mock(AtomicCounter.class);
+
+    private SenderEndPoint endPoint = newEndPoint(null);
+
+    private SenderEndPoint newEndPoint(final OutboundThrottle throttle)
+    {
+        return new SenderEndPoint(
+            CONNECTION_ID,
+            LIBRARY_ID,
+            libraryBlockablePosition,
+            replayBlockablePosition,
+            tcpChannel,
+            bytesInBuffer,
+            invalidLibraryAttempts,
+            throttle,
+            errorHandler,
+            framer,
+            MAX_BYTES_IN_BUFFER,
+            DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
+            0);
+    }
 
     @Test
     public void shouldRetrySlowConsumerMessage() throws IOException
@@ -110,6 +120,36 @@ public class SenderEndPointTest
         verifyNoMoreErrors();
     }
 
+    @Test
+    public void shouldReportWrittenPositionOfFullyWrittenMessages()
+    {
+        endPoint.sessionId(SESSION_ID);
+        channelWillWrite(BODY_LENGTH);
+
+        onOutboundMessage(0, POSITION);
+
+        byteBufferWritten();
+        verify(framer).onWrittenPosition(LIBRARY_ID, SESSION_ID, POSITION);
+    }
+
+    @Test
+    public void shouldNotReportWrittenPositionUntilPartiallyWrittenMessageIsComplete()
+    {
+        endPoint.sessionId(SESSION_ID);
+        final int firstWrites = 41;
+        final int remaining = BODY_LENGTH - firstWrites;
+
+        channelWillWrite(firstWrites);
+        onOutboundMessage(0, POSITION);
+        byteBufferWritten();
+        verify(framer, never()).onWrittenPosition(anyInt(), anyLong(), anyLong());
+
+        channelWillWrite(remaining);
+        onSlowOutboundMessage();
+        byteBufferWritten();
+        verify(framer).onWrittenPosition(LIBRARY_ID, SESSION_ID, POSITION);
+    }
+
     @Test
     public void shouldDisconnectSlowConsumerAfterTimeout() throws IOException
     {
@@ -218,6 +258,47 @@ public class SenderEndPointTest
         errorLogged();
     }
 
+    @Test
+    public void shouldHoldBackMessagesOverTheThrottleLimitUntilTheThrottleRefills()
+    {
+        endPoint = newEndPoint(new OutboundThrottle(1, THROTTLE_WINDOW_IN_MS, throttledMessages, 0));
+
+        channelWillWrite(BODY_LENGTH);
+        onOutboundMessage(0, POSITION - FRAGMENT_LENGTH);
+        byteBufferWritten();
+
+        onOutboundMessage(1, POSITION);
+        byteBufferNotWritten();
+        assertBytesInBuffer(BODY_LENGTH);
+        verify(framer).slowStatus(LIBRARY_ID, CONNECTION_ID, true);
+
+        onSlowOutboundMessage(THROTTLE_WINDOW_IN_MS - 1);
+        byteBufferNotWritten();
+        verifyBlocksLibraryAt(BEGIN_POSITION);
+        verify(throttledMessages, times(1)).incrementOrdered();
+
+        channelWillWrite(BODY_LENGTH);
+        onSlowOutboundMessage(THROTTLE_WINDOW_IN_MS);
+        byteBufferWritten();
+        assertBytesInBuffer(0);
+        verifyDoesNotBlockLibrary();
+        verify(framer).slowStatus(LIBRARY_ID, CONNECTION_ID, false);
+    }
+
+    @Test
+    public void shouldNotThrottleReplays()
+    {
+        endPoint = newEndPoint(new OutboundThrottle(1, THROTTLE_WINDOW_IN_MS, throttledMessages, 0));
+
+        channelWillWrite(BODY_LENGTH);
+        onOutboundMessage(0, POSITION - FRAGMENT_LENGTH);
+        onReplayMessage(1, POSITION);
+
+        byteBufferWritten(times(2));
+        assertBytesInBuffer(0);
+        verifyNoMoreInteractions(throttledMessages);
+    }
+
     @Test
     public void shouldBecomeReplaySlowConsumer()
     {
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.decoder.ExampleMessageDecoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.messages.MessageStatus.CATCHUP_REPLAY;
+import static uk.co.real_logic.artio.engine.logger.ArchiveQueryIndexDescriptor.*;
+
+public class ArchiveQueryIndexTest extends AbstractLogTest
+{
+    private static final String LOG_FILE_DIR = IoUtil.tmpDirName() + "archive-query-index-test";
+    private static final int TEST_REQ_ID = 112;
+    private static final long TIMESTAMP = 1_000L;
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final IndexedPositionConsumer positionConsumer = mock(IndexedPositionConsumer.class);
+    private ArchiveQueryIndex index;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(new File(LOG_FILE_DIR), true);
+        index = newIndex(TEST_REQ_ID);
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (index != null)
+        {
+            index.close();
+        }
+        IoUtil.delete(new File(LOG_FILE_DIR), true);
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldIndexFixMessages() throws IOException
+    {
+        indexExampleMessage();
+        index.doWork();
+
+        final UnsafeBuffer entries = entries();
+        assertEquals(1, entryCount(entries.capacity()));
+        final int offset = (int)entryOffset(0);
+        assertEquals(AERON_SESSION_ID, entries.getInt(offset + AERON_SESSION_ID_OFFSET));
+        assertEquals(ExampleMessageDecoder.MESSAGE_TYPE, entries.getInt(offset + MESSAGE_TYPE_OFFSET));
+        assertEquals(TIMESTAMP, entries.getLong(offset + TIMESTAMP_OFFSET));
+        assertEquals(START, entries.getLong(offset + POSITION_OFFSET));
+        assertEquals(SESSION_ID, entries.getLong(offset + SESSION_ID_OFFSET));
+        assertEquals(tagHash("abc"), entries.getLong(offset + TAG_HASH_OFFSET));
+    }
+
+    @Test
+    public void shouldOnlyRecordPositionsOnceEntriesAreWritten()
+    {
+        indexExampleMessage();
+
+        index.readLastPosition(positionConsumer);
+        verifyNoMoreInteractions(positionConsumer);
+
+        index.doWork();
+
+        index.readLastPosition(positionConsumer);
+        verify(positionConsumer).accept(AERON_SESSION_ID, alignedEndPosition());
+    }
+
+    @Test
+    public void shouldIndexMessagesOfEveryStatus() throws IOException
+    {
+        bufferContainsExampleMessage(false);
+        messageFrame.status(CATCHUP_REPLAY);
+        index.indexRecord(buffer, START, fragmentLength(), STREAM_ID, AERON_SESSION_ID, alignedEndPosition());
+        index.doWork();
+
+        assertEquals(1, entryCount(entries().capacity()));
+    }
+
+    @Test
+    public void shouldRecordTheStartPositionOfEachSession()
+    {
+        indexExampleMessage();
+        index.doWork();
+        indexExampleMessage();
+        index.doWork();
+
+        index.readStartPositions(positionConsumer);
+        verify(positionConsumer).accept(AERON_SESSION_ID, START);
+        verifyNoMoreInteractions(positionConsumer);
+    }
+
+    @Test
+    public void shouldKeepWrittenEntriesOverARestart() throws IOException
+    {
+        indexExampleMessage();
+        index.close();
+
+        index = newIndex(TEST_REQ_ID);
+        indexExampleMessage();
+        index.doWork();
+
+        assertEquals(2, entryCount(entries().capacity()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotReopenIndexForADifferentTag()
+    {
+        index.close();
+        index = null;
+
+        index = newIndex(TEST_REQ_ID + 1);
+    }
+
+    @Test
+    public void shouldMatchEntriesByQueryCriteria() throws IOException
+    {
+        indexExampleMessage();
+        index.doWork();
+
+        final UnsafeBuffer entries = entries();
+        final int offset = (int)entryOffset(0);
+
+        assertTrue(matches(new FixArchiveQuery(), entries, offset));
+        assertTrue(matches(new FixArchiveQuery().between(TIMESTAMP, TIMESTAMP + 1), entries, offset));
+        assertFalse(matches(new FixArchiveQuery().between(0, TIMESTAMP), entries, offset));
+        assertTrue(matches(new FixArchiveQuery().sessionId(SESSION_ID), entries, offset));
+        assertFalse(matches(new FixArchiveQuery().sessionId(SESSION_ID_2), entries, offset));
+        assertTrue(matches(new FixArchiveQuery().messageTypes("0", "B"), entries, offset));
+        assertFalse(matches(new FixArchiveQuery().messageTypes("0"), entries, offset));
+        assertTrue(matches(new FixArchiveQuery().tagValue(TEST_REQ_ID, "abc"), entries, offset));
+        assertFalse(matches(new FixArchiveQuery().tagValue(TEST_REQ_ID, "abd"), entries, offset));
+    }
+
+    @Test
+    public void shouldMatchTagValuesInMessageBodies()
+    {
+        bufferContainsExampleMessage(false);
+        final int bodyLength = logEntryLength;
+
+        assertTrue(new FixArchiveQuery().tagValue(TEST_REQ_ID, "abc").matchesTagValue(buffer, offset, bodyLength));
+        assertFalse(new FixArchiveQuery().tagValue(TEST_REQ_ID, "ab").matchesTagValue(buffer, offset, bodyLength));
+        assertFalse(new FixArchiveQuery().tagValue(11, "abc").matchesTagValue(buffer, offset, bodyLength));
+    }
+
+    private boolean matches(final FixArchiveQuery query, final UnsafeBuffer entries, final int offset)
+    {
+        return query.matchesEntry(entries, offset, query.usesTagIndex(TEST_REQ_ID));
+    }
+
+    private ArchiveQueryIndex newIndex(final int indexedTag)
+    {
+        return new ArchiveQueryIndex(LOG_FILE_DIR, STREAM_ID, indexedTag, errorHandler);
+    }
+
+    private void indexExampleMessage()
+    {
+        bufferContainsExampleMessage(false);
+        messageFrame.timestamp(TIMESTAMP);
+        index.indexRecord(buffer, START, fragmentLength(), STREAM_ID, AERON_SESSION_ID, alignedEndPosition());
+    }
+
+    private UnsafeBuffer entries() throws IOException
+    {
+        return new UnsafeBuffer(Files.readAllBytes(entriesFile(LOG_FILE_DIR, STREAM_ID).toPath()));
+    }
+}
@@ -102,6 +102,8 @@ public class ArchiverTest
     private final ArgumentCaptor<Integer> lengthCaptor = ArgumentCaptor.forClass(Integer.class);
     private final CompletionPosition completionPosition = mock(CompletionPosition.class);
     private final Long2LongHashMap completedPositions = new Long2LongHashMap(CompletionPosition.MISSING_VALUE);
+    private final Archiver.DurablePositionHandler durablePositionHandler =
+        mock(Archiver.DurablePositionHandler.class);
 
     private final int size;
     private final int endOfFirstMessage;
@@ -119,6 +121,7 @@ public class ArchiverTest
 
     private int lastArchivedValue;
     private int work = 0;
+    private long timeInNs = 0;
 
     public ArchiverTest(final int size, final UnsafeBuffer buffer)
     {
@@ -151,6 +154,8 @@ public class ArchiverTest
             metaData, DEFAULT_LOGGER_CACHE_NUM_SETS, DEFAULT_LOGGER_CACHE_SET_SIZE, dataStream, DEFAULT_NAME_PREFIX,
             completionPosition);
 
+        archiver.durablePositionHandler(durablePositionHandler);
+
         publication = aeron.addPublication(CHANNEL, STREAM_ID);
         archiver.subscription(aeron.addSubscription(CHANNEL, STREAM_ID));
     }
@@ -628,6 +633,58 @@ public class ArchiverTest
         assertReadsValueAt(PATCH_VALUE, startOfSecondBuffer, endOfSecondBuffer);
     }
 
+    @Test
+    public void shouldReportEveryArchivedPositionAsDurableWhenSynchronous()
+    {
+        final long endPosition = writeAndArchiveBuffer(INITIAL_VALUE);
+
+        verify(durablePositionHandler).onDurablePosition(sessionId(), endPosition);
+        assertEquals(endPosition, archiver.session(sessionId()).durablePosition());
+    }
+
+    @Test
+    public void shouldGroupCommitOnceSyncBytesHaveBeenArchived()
+    {
+        archiver.durability(ArchiverDurability.GROUP_COMMIT, Long.MAX_VALUE, Long.MAX_VALUE, () -> timeInNs);
+
+        // Fragmented messages archive a frame header per fragment, so use the position that was actually reached.
+        final long endOfFirstBuffer = writeAndArchiveBuffer(INITIAL_VALUE);
+        archiver.durability(ArchiverDurability.GROUP_COMMIT, endOfFirstBuffer + 1, Long.MAX_VALUE, () -> timeInNs);
+
+        verify(durablePositionHandler, never()).onDurablePosition(anyInt(), anyLong());
+
+        final long endPosition = writeAndArchiveBuffer(PATCH_VALUE);
+
+        verify(durablePositionHandler).onDurablePosition(sessionId(), endPosition);
+    }
+
+    @Test
+    public void shouldSyncPeriodicallyOnceTheSyncIntervalHasPassed()
+    {
+        final long syncIntervalInNs = 1000;
+        archiver.durability(ArchiverDurability.PERIODIC, Long.MAX_VALUE, syncIntervalInNs, () -> timeInNs);
+
+        final long endPosition = writeAndArchiveBuffer(INITIAL_VALUE);
+        archiver.doWork();
+
+        verify(durablePositionHandler, never()).onDurablePosition(anyInt(), anyLong());
+
+        timeInNs += syncIntervalInNs;
+        archiver.doWork();
+
+        verify(durablePositionHandler).onDurablePosition(sessionId(), endPosition);
+    }
+
+    @Test
+    public void shouldSyncWhenRotatingFilesAsynchronously()
+    {
+        archiver.durability(ArchiverDurability.ASYNC, Long.MAX_VALUE, Long.MAX_VALUE, () -> timeInNs);
+
+        archiveBeyondEndOfTerm();
+
+        verify(durablePositionHandler, atLeastOnce()).onDurablePosition(eq(sessionId()), anyLong());
+    }
+
     private int lengthOfTwoMessages()
     {
         return alignTerm(size) * 2 + HEADER_LENGTH;
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.concurrent.SystemNanoClock;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.IndexRecoveryListener;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.logger.ArchiveDescriptor.alignTerm;
+import static uk.co.real_logic.artio.engine.logger.ArchiveReader.UNKNOWN_TERM;
+
+public class IndexRecoveryTest
+{
+    private static final int STREAM_ID = 1;
+    private static final int AERON_SESSION_ID = 2;
+    private static final long LAST_POSITION = 1024;
+    private static final long END_POSITION = 2048;
+
+    private final IndexRecoveryListener listener = mock(IndexRecoveryListener.class);
+    private final AtomicInteger archiveReadersCreated = new AtomicInteger();
+
+    @Test
+    public void shouldCatchIndexUpFromItsLastIndexedPosition()
+    {
+        final Index index = indexWithLastPosition("index");
+        final ArchiveReader archiveReader = archiveReaderWith(index);
+
+        final IndexRecovery indexRecovery = newIndexRecovery(1);
+        indexRecovery.add(Collections.singletonList(index), STREAM_ID, () -> archiveReader);
+        indexRecovery.recover();
+
+        verify(archiveReader).close();
+        verify(listener).onIndexRecovered(
+            eq("index"), eq(STREAM_ID), eq(END_POSITION - LAST_POSITION), anyLong(), eq(1), eq(1));
+        verify(listener).onRecoveryComplete(eq(1), anyLong());
+    }
+
+    @Test
+    public void shouldRecoverEachIndexWithItsOwnArchiveReader()
+    {
+        final Index first = indexWithLastPosition("first");
+        final Index second = indexWithLastPosition("second");
+
+        final IndexRecovery indexRecovery = newIndexRecovery(2);
+        indexRecovery.add(Arrays.asList(first, second), STREAM_ID, () ->
+        {
+            archiveReadersCreated.incrementAndGet();
+            return archiveReaderWith(first, second);
+        });
+        indexRecovery.recover();
+
+        assertEquals(2, archiveReadersCreated.get());
+        verify(listener).onIndexRecovered(
+            eq("first"), eq(STREAM_ID), eq(END_POSITION - LAST_POSITION), anyLong(), anyInt(), eq(2));
+        verify(listener).onIndexRecovered(
+            eq("second"), eq(STREAM_ID), eq(END_POSITION - LAST_POSITION), anyLong(), anyInt(), eq(2));
+        verify(listener).onRecoveryComplete(eq(2), anyLong());
+    }
+
+    @Test
+    public void shouldSkipIndicesWithoutAnArchive()
+    {
+        final Index index = indexWithLastPosition("index");
+
+        final IndexRecovery indexRecovery = newIndexRecovery(1);
+        indexRecovery.add(Collections.singletonList(index), STREAM_ID, () -> null);
+        indexRecovery.recover();
+
+        verify(index, never()).onFragment(any(), anyInt(), anyInt(), any());
+        verify(listener).onIndexRecovered(eq("index"), eq(STREAM_ID), eq(0L), anyLong(), eq(1), eq(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldPropagateRecoveryFailures()
+    {
+        final Index index = mock(Index.class);
+        doThrow(new IllegalStateException()).when(index).readLastPosition(any());
+        final Index other = indexWithLastPosition("other");
+        final ArchiveReader archiveReader = archiveReaderWith(other);
+
+        final IndexRecovery indexRecovery = newIndexRecovery(2);
+        indexRecovery.add(Arrays.asList(index, other), STREAM_ID, () -> archiveReader);
+        indexRecovery.recover();
+    }
+
+    private IndexRecovery newIndexRecovery(final int threadCount)
+    {
+        return new IndexRecovery(threadCount, "", new SystemNanoClock(), listener);
+    }
+
+    private Index indexWithLastPosition(final String name)
+    {
+        final Index index = mock(Index.class);
+        when(index.getName()).thenReturn(name);
+        doAnswer((invocation) ->
+        {
+            final IndexedPositionConsumer consumer = invocation.getArgument(0);
+            consumer.accept(AERON_SESSION_ID, LAST_POSITION);
+            return null;
+        }).when(index).readLastPosition(any());
+
+        return index;
+    }
+
+    private ArchiveReader archiveReaderWith(final Index... indices)
+    {
+        final ArchiveReader archiveReader = mock(ArchiveReader.class);
+        final ArchiveReader.SessionReader sessionReader = mock(ArchiveReader.SessionReader.class);
+        when(archiveReader.session(AERON_SESSION_ID)).thenReturn(sessionReader);
+        for (final Index index : indices)
+        {
+            when(sessionReader.read(alignTerm(LAST_POSITION) + HEADER_LENGTH, index)).thenReturn(END_POSITION);
+            when(sessionReader.read(alignTerm(END_POSITION) + HEADER_LENGTH, index)).thenReturn((long)UNKNOWN_TERM);
+        }
+
+        return archiveReader;
+    }
+}
@@ -246,6 +246,52 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         assertUnknownSession();
     }
 
+    @Test
+    public void shouldFindSessionsIndexedAfterAPreviousLookup()
+    {
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+
+        final int otherSequenceNumber = 5;
+        bufferContainsExampleMessage(true, SESSION_ID_2, otherSequenceNumber, SEQUENCE_INDEX);
+        indexRecord(alignedEndPosition() + fragmentLength());
+
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, otherSequenceNumber);
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+    }
+
+    @Test
+    public void shouldNotReadRecordsFromBeforeAReset()
+    {
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+
+        writer.resetSequenceNumbers();
+
+        final int otherSequenceNumber = 5;
+        bufferContainsExampleMessage(true, SESSION_ID_2, otherSequenceNumber, SEQUENCE_INDEX);
+        indexRecord(alignedEndPosition() + fragmentLength());
+
+        assertUnknownSession();
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, otherSequenceNumber);
+    }
+
+    @Test
+    public void shouldFindSessionsRecordedInEarlierSlotsAfterAReset()
+    {
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+
+        writer.resetSequenceNumbers();
+
+        final int otherSequenceNumber = 5;
+        bufferContainsExampleMessage(true, SESSION_ID_2, otherSequenceNumber, SEQUENCE_INDEX);
+        indexRecord(alignedEndPosition() + fragmentLength());
+
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, otherSequenceNumber);
+        assertUnknownSession();
+    }
+
     @After
     public void verifyNoErrors()
     {
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.junit.After;
+import org.junit.Test;
+import uk.co.real_logic.artio.Reply;
+import uk.co.real_logic.artio.messages.SessionReplyStatus;
+import uk.co.real_logic.artio.session.Session;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+import static uk.co.real_logic.artio.library.FixLibrary.NO_MESSAGE_REPLAY;
+import static uk.co.real_logic.artio.messages.SessionReplyStatus.OK;
+import static uk.co.real_logic.artio.messages.SessionReplyStatus.OTHER_SESSION_OWNER;
+
+public class FixLibraryExecutorTest
+{
+    private static final int FRAGMENT_LIMIT = 10;
+    private static final long SESSION_ID = 2L;
+    private static final long TIMEOUT_IN_MS = 1000L;
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final FixLibrary from = mock(FixLibrary.class);
+    private final FixLibrary to = mock(FixLibrary.class);
+    private final Session session = mock(Session.class);
+
+    private final FixLibraryExecutor executor = new FixLibraryExecutor(
+        2, FRAGMENT_LIMIT, YieldingIdleStrategy::new, errorHandler);
+
+    @After
+    public void tearDown()
+    {
+        executor.close();
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldPollAddedLibraries()
+    {
+        executor.add(from);
+        executor.add(to);
+        executor.start();
+
+        verify(from, timeout(TIMEOUT_IN_MS).atLeastOnce()).poll(FRAGMENT_LIMIT);
+        verify(to, timeout(TIMEOUT_IN_MS).atLeastOnce()).poll(FRAGMENT_LIMIT);
+    }
+
+    @Test
+    public void shouldRunCommandsOnTheLibrariesPollingThread()
+    {
+        final AtomicReference<Thread> commandThread = new AtomicReference<>();
+        executor.add(from);
+        executor.start();
+
+        assertTrue(executor.execute(from, (library) -> commandThread.set(Thread.currentThread())));
+
+        assertEventuallyTrue("command never run", () -> commandThread.get() != null);
+        assertNotSame(Thread.currentThread(), commandThread.get());
+    }
+
+    @Test
+    public void shouldNotExecuteCommandsForUnknownLibraries()
+    {
+        assertFalse(executor.execute(from, (library) -> fail()));
+    }
+
+    @Test
+    public void shouldMigrateSessionBetweenLibraries()
+    {
+        releaseReplies(OK);
+        final Reply<SessionReplyStatus> requestReply = completedReply(OK);
+        when(to.requestSession(SESSION_ID, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY, TIMEOUT_IN_MS))
+            .thenReturn(requestReply);
+        addBothAndStart();
+
+        final Reply<SessionReplyStatus> reply = executor.migrate(from, session, to, TIMEOUT_IN_MS);
+
+        assertEventuallyTrue("migration never completed", reply::hasCompleted);
+        assertEquals(OK, reply.resultIfPresent());
+        verify(to).requestSession(SESSION_ID, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY, TIMEOUT_IN_MS);
+    }
+
+    @Test
+    public void shouldNotRequestSessionIfReleaseFails()
+    {
+        releaseReplies(OTHER_SESSION_OWNER);
+        addBothAndStart();
+
+        final Reply<SessionReplyStatus> reply = executor.migrate(from, session, to, TIMEOUT_IN_MS);
+
+        assertEventuallyTrue("migration never completed", reply::hasCompleted);
+        assertEquals(OTHER_SESSION_OWNER, reply.resultIfPresent());
+        verify(to, never()).requestSession(anyLong(), anyInt(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void shouldNotMigrateWhenRebalancingToTheSameLibrary()
+    {
+        executor.add(from);
+
+        final Reply<SessionReplyStatus> reply = executor.rebalance(from, session, TIMEOUT_IN_MS);
+
+        assertTrue(reply.hasCompleted());
+        assertEquals(OK, reply.resultIfPresent());
+        verify(from, never()).releaseToGateway(any(), anyLong());
+    }
+
+    @Test
+    public void shouldFailQueuedMigrationsOfRemovedLibraries()
+    {
+        when(session.id()).thenReturn(SESSION_ID);
+        executor.add(from);
+        executor.add(to);
+
+        final Reply<SessionReplyStatus> reply = executor.migrate(from, session, to, TIMEOUT_IN_MS);
+        assertTrue(executor.remove(from));
+
+        assertEquals(Reply.State.ERRORED, reply.state());
+        assertNotNull(reply.error());
+        verify(from, never()).releaseToGateway(any(), anyLong());
+    }
+
+    @Test
+    public void shouldFailMigrationsToRemovedLibraries()
+    {
+        when(session.id()).thenReturn(SESSION_ID);
+        releaseReplies(OK);
+        executor.add(from);
+        executor.add(to);
+
+        final Reply<SessionReplyStatus> reply = executor.migrate(from, session, to, TIMEOUT_IN_MS);
+        assertTrue(executor.remove(to));
+        executor.start();
+
+        assertEventuallyTrue("migration never failed", () -> reply.state() == Reply.State.ERRORED);
+        verify(to, never()).requestSession(anyLong(), anyInt(), anyInt(), anyLong());
+    }
+
+    private void addBothAndStart()
+    {
+        when(session.id()).thenReturn(SESSION_ID);
+        executor.add(from);
+        executor.add(to);
+        executor.start();
+    }
+
+    private void releaseReplies(final SessionReplyStatus status)
+    {
+        final Reply<SessionReplyStatus> releaseReply = completedReply(status);
+        when(from.releaseToGateway(session, TIMEOUT_IN_MS)).thenReturn(releaseReply);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Reply<SessionReplyStatus> completedReply(final SessionReplyStatus status)
+    {
+        final Reply<SessionReplyStatus> reply = mock(Reply.class);
+        when(reply.state()).thenReturn(Reply.State.COMPLETED);
+        when(reply.isExecuting()).thenReturn(false);
+        when(reply.hasCompleted()).thenReturn(true);
+        when(reply.resultIfPresent()).thenReturn(status);
+        return reply;
+    }
+}
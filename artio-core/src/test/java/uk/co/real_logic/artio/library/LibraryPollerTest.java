@@ -228,7 +228,7 @@ public class LibraryPollerTest
     private void sendsLibraryConnect(final VerificationMode times)
     {
         verify(outboundPublication, times)
-            .saveLibraryConnect(eq(libraryId()), anyString(), anyLong());
+            .saveLibraryConnect(eq(libraryId()), anyString(), anyLong(), any());
     }
 
     private void pollTwice()
@@ -328,7 +328,7 @@ public class LibraryPollerTest
             inOrder.verify(transport).inboundSubscription();
             inOrder.verify(transport).outboundPublication();
             inOrder.verify(outboundPublication)
-                   .saveLibraryConnect(eq(libraryId()), anyString(), anyLong());
+                   .saveLibraryConnect(eq(libraryId()), anyString(), anyLong(), any());
         }
         verifyNoMoreInteractions(transport);
         reset(outboundPublication);
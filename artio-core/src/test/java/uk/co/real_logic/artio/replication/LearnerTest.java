@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+import io.aeron.Subscription;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.logger.Archiver;
+import uk.co.real_logic.artio.engine.logger.Archiver.SessionArchiver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.replication.messages.AcknowledgementStatus.MISSING_LOG_ENTRIES;
+import static uk.co.real_logic.artio.replication.messages.AcknowledgementStatus.OK;
+
+public class LearnerTest
+{
+    private static final long POSITION = 40;
+    private static final int LENGTH = 100;
+    private static final long TIMEOUT = 100;
+    private static final int OLD_LEADERSHIP_TERM = 1;
+    private static final int NEW_LEADERSHIP_TERM = OLD_LEADERSHIP_TERM + 1;
+
+    private static final short ID = 3;
+    private static final short ID_4 = 4;
+    private static final int SESSION_ID_4 = 42;
+
+    private AtomicBuffer buffer = new UnsafeBuffer(new byte[8 * 1024]);
+    private RaftPublication acknowledgementPublication = mock(RaftPublication.class);
+    private SessionArchiver leaderArchiver = mock(SessionArchiver.class);
+    private Subscription controlSubscription = mock(Subscription.class);
+    private ClusterAgent clusterNode = mock(ClusterAgent.class);
+    private Archiver archiver = mock(Archiver.class);
+
+    private final TermState termState = new TermState()
+        .allPositions(POSITION)
+        .leadershipTerm(OLD_LEADERSHIP_TERM)
+        .leaderSessionId(SESSION_ID_4);
+
+    private Learner learner = new Learner(
+        ID,
+        clusterNode,
+        0,
+        TIMEOUT,
+        termState,
+        new RaftArchiver(termState.leaderSessionId(), archiver));
+
+    @Before
+    public void setUp()
+    {
+        learner
+            .acknowledgementPublication(acknowledgementPublication)
+            .controlSubscription(controlSubscription);
+
+        when(archiver.session(SESSION_ID_4)).thenReturn(leaderArchiver);
+
+        learner.learn(0);
+    }
+
+    @Test
+    public void shouldNeverAcknowledgeLogEntries()
+    {
+        when(leaderArchiver.poll()).thenReturn(LENGTH, 0);
+
+        poll(0);
+
+        poll(0);
+
+        assertEquals(POSITION + LENGTH, termState.receivedPosition());
+        verify(acknowledgementPublication, never()).saveMessageAcknowledgement(anyLong(), anyShort(), eq(OK));
+    }
+
+    @Test
+    public void shouldNotifyMissingLogEntries()
+    {
+        when(leaderArchiver.poll()).thenReturn(LENGTH);
+        when(leaderArchiver.archivedPosition()).thenReturn(POSITION + LENGTH);
+
+        poll(0);
+
+        verify(acknowledgementPublication).saveMessageAcknowledgement(POSITION, ID, MISSING_LOG_ENTRIES);
+    }
+
+    @Test
+    public void shouldApplyResentLogEntries()
+    {
+        learner.onResend(SESSION_ID_4, OLD_LEADERSHIP_TERM, POSITION, buffer, 0, LENGTH);
+
+        verify(leaderArchiver).patch(buffer, 0, LENGTH);
+        assertEquals(POSITION + LENGTH, termState.receivedPosition());
+    }
+
+    @Test
+    public void shouldNotVote()
+    {
+        learner.onRequestVote(ID_4, SESSION_ID_4, NEW_LEADERSHIP_TERM, POSITION);
+
+        verifyNoMoreInteractions(acknowledgementPublication);
+    }
+
+    @Test
+    public void shouldNotStandForElectionWhenLeaderTimesOut()
+    {
+        poll(TIMEOUT * RandomTimeout.MAX_TO_MIN_TIMEOUT + 1);
+
+        assertFalse(termState.hasLeader());
+        verify(clusterNode, never()).transitionToCandidate(anyLong());
+        verify(clusterNode).onNoLeader();
+    }
+
+    @Test
+    public void shouldFollowNewLeader()
+    {
+        termState.noLeader();
+        learner.learn(0);
+        reset(archiver);
+
+        learner.onConsensusHeartbeat(ID_4, NEW_LEADERSHIP_TERM, POSITION, POSITION, POSITION, SESSION_ID_4);
+
+        verify(archiver).session(SESSION_ID_4);
+        assertEquals(NEW_LEADERSHIP_TERM, termState.leadershipTerm());
+    }
+
+    private void poll(final long timeInMs)
+    {
+        learner.poll(10, timeInMs);
+    }
+}
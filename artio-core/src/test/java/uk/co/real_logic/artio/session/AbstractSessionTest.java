@@ -550,6 +550,44 @@ public abstract class AbstractSessionTest
         assertState(AWAITING_RESEND);
     }
 
+    @Test
+    public void shouldAcceptRunOfAbsorbedHeartbeats()
+    {
+        givenActive();
+        session().lastReceivedMsgSeqNum(2);
+
+        assertEquals(CONTINUE, session().onAbsorbedHeartbeats(3, 6, sendingTime()));
+
+        assertEquals(6, session().lastReceivedMsgSeqNum());
+        verifyNoFurtherMessages();
+    }
+
+    @Test
+    public void shouldRequestResendIfAbsorbedHeartbeatsHaveHighSeqNo()
+    {
+        givenActive();
+        session().id(SESSION_ID);
+
+        session().onAbsorbedHeartbeats(3, 5, sendingTime());
+
+        verify(mockProxy).resendRequest(1, 1, 0, SEQUENCE_INDEX);
+        assertState(AWAITING_RESEND);
+        assertEquals(0, session().lastReceivedMsgSeqNum());
+    }
+
+    @Test
+    public void shouldIgnoreRedeliveredAbsorbedHeartbeats()
+    {
+        givenActive();
+        session().lastReceivedMsgSeqNum(2);
+
+        session().onAbsorbedHeartbeats(3, 6, sendingTime());
+        assertEquals(CONTINUE, session().onAbsorbedHeartbeats(3, 6, sendingTime()));
+
+        assertEquals(6, session().lastReceivedMsgSeqNum());
+        verify(mockProxy, never()).lowSequenceNumberLogout(anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
     @Test
     public void shouldDisconnectIfBeginStringIsInvalidAtLogon()
     {
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.builder.Validation;
+import uk.co.real_logic.artio.decoder.*;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.packMessageType;
+
+/**
+ * Compares dispatching a mix of session messages through a hand written switch on the packed message type against
+ * the generated, perfect hash based, {@link DictionaryDecoder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MessageDispatchBenchmark
+{
+    private static final String[] MESSAGES = {
+        "8=FIX.4.4\0019=0058\00135=0\00149=ABC_DEFG01\00156=CCG\00134=11\001" +
+        "52=20150514-15:57:31.336\00110=000\001",
+        "8=FIX.4.4\0019=0066\00135=1\00149=ABC_DEFG01\00156=CCG\00134=12\001" +
+        "52=20150514-15:57:31.336\001112=TEST\00110=000\001",
+        "8=FIX.4.4\0019=0068\00135=2\00149=ABC_DEFG01\00156=CCG\00134=13\001" +
+        "52=20150514-15:57:31.336\0017=1\00116=0\00110=000\001",
+        "8=FIX.4.4\0019=0068\00135=4\00149=ABC_DEFG01\00156=CCG\00134=14\001" +
+        "52=20150514-15:57:31.336\00136=20\00110=000\001",
+        "8=FIX.4.4\0019=0058\00135=5\00149=ABC_DEFG01\00156=CCG\00134=15\001" +
+        "52=20150514-15:57:31.336\00110=000\001",
+        "8=FIX.4.4\0019=0103\00135=A\00149=ABC_DEFG01\00156=CCG\00134=10\001" +
+        "52=20150514-15:57:31.336\00198=0\001108=10\001383=512\001553=username" +
+        "\001554=password\00110=243\001",
+    };
+
+    private static final String[] MESSAGE_TYPES = { "0", "1", "2", "4", "5", "A" };
+
+    private final MutableAsciiBuffer[] buffers = new MutableAsciiBuffer[MESSAGES.length];
+    private final int[] messageTypes = new int[MESSAGES.length];
+
+    private final HeartbeatDecoder heartbeat = new HeartbeatDecoder();
+    private final TestRequestDecoder testRequest = new TestRequestDecoder();
+    private final ResendRequestDecoder resendRequest = new ResendRequestDecoder();
+    private final SequenceResetDecoder sequenceReset = new SequenceResetDecoder();
+    private final LogoutDecoder logout = new LogoutDecoder();
+    private final LogonDecoder logon = new LogonDecoder();
+
+    private BlackholeAcceptor acceptor;
+    private DictionaryDecoder dictionaryDecoder;
+
+    @Setup
+    public void setup(final Blackhole bh)
+    {
+        if (Validation.CODEC_VALIDATION_ENABLED)
+        {
+            throw new IllegalStateException(
+                "Benchmark cannot run with validation enabled, set -Dfix.codecs.no_validation=true");
+        }
+
+        for (int i = 0; i < MESSAGES.length; i++)
+        {
+            buffers[i] = new MutableAsciiBuffer(MESSAGES[i].getBytes(StandardCharsets.US_ASCII));
+            messageTypes[i] = packMessageType(MESSAGE_TYPES[i]);
+        }
+
+        acceptor = new BlackholeAcceptor(bh);
+        dictionaryDecoder = new DictionaryDecoder(acceptor);
+    }
+
+    @Benchmark
+    public void handWrittenSwitch(final Blackhole bh)
+    {
+        final MutableAsciiBuffer[] buffers = this.buffers;
+        final int[] messageTypes = this.messageTypes;
+        for (int i = 0; i < buffers.length; i++)
+        {
+            final MutableAsciiBuffer buffer = buffers[i];
+            final int length = buffer.capacity();
+            switch (messageTypes[i])
+            {
+                case HeartbeatDecoder.MESSAGE_TYPE:
+                    heartbeat.decode(buffer, 0, length);
+                    bh.consume(heartbeat.header().msgSeqNum());
+                    heartbeat.reset();
+                    break;
+
+                case TestRequestDecoder.MESSAGE_TYPE:
+                    testRequest.decode(buffer, 0, length);
+                    bh.consume(testRequest.header().msgSeqNum());
+                    testRequest.reset();
+                    break;
+
+                case ResendRequestDecoder.MESSAGE_TYPE:
+                    resendRequest.decode(buffer, 0, length);
+                    bh.consume(resendRequest.header().msgSeqNum());
+                    resendRequest.reset();
+                    break;
+
+                case SequenceResetDecoder.MESSAGE_TYPE:
+                    sequenceReset.decode(buffer, 0, length);
+                    bh.consume(sequenceReset.header().msgSeqNum());
+                    sequenceReset.reset();
+                    break;
+
+                case LogoutDecoder.MESSAGE_TYPE:
+                    logout.decode(buffer, 0, length);
+                    bh.consume(logout.header().msgSeqNum());
+                    logout.reset();
+                    break;
+
+                case LogonDecoder.MESSAGE_TYPE:
+                    logon.decode(buffer, 0, length);
+                    bh.consume(logon.header().msgSeqNum());
+                    logon.reset();
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public void generatedDictionaryDecoder()
+    {
+        final MutableAsciiBuffer[] buffers = this.buffers;
+        final int[] messageTypes = this.messageTypes;
+        final DictionaryDecoder dictionaryDecoder = this.dictionaryDecoder;
+        for (int i = 0; i < buffers.length; i++)
+        {
+            final MutableAsciiBuffer buffer = buffers[i];
+            dictionaryDecoder.onMessage(buffer, 0, buffer.capacity(), messageTypes[i]);
+        }
+    }
+
+    static final class BlackholeAcceptor extends DefaultDictionaryAcceptor
+    {
+        private final Blackhole bh;
+
+        BlackholeAcceptor(final Blackhole bh)
+        {
+            this.bh = bh;
+        }
+
+        public void onHeartbeat(final HeartbeatDecoder decoder)
+        {
+            bh.consume(decoder.header().msgSeqNum());
+        }
+
+        public void onTestRequest(final TestRequestDecoder decoder)
+        {
+            bh.consume(decoder.header().msgSeqNum());
+        }
+
+        public void onResendRequest(final ResendRequestDecoder decoder)
+        {
+            bh.consume(decoder.header().msgSeqNum());
+        }
+
+        public void onSequenceReset(final SequenceResetDecoder decoder)
+        {
+            bh.consume(decoder.header().msgSeqNum());
+        }
+
+        public void onLogout(final LogoutDecoder decoder)
+        {
+            bh.consume(decoder.header().msgSeqNum());
+        }
+
+        public void onLogon(final LogonDecoder decoder)
+        {
+            bh.consume(decoder.header().msgSeqNum());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.fields.DecimalFloat;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class NumericParsingBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class Prices
+    {
+        @Param({ "1234.5678", "0.00125000", "100", "-42.5", "99.995", "123456789012", "1500000.00" })
+        String price;
+
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[64]);
+        final DecimalFloat decimalFloat = new DecimalFloat();
+        int length;
+
+        @Setup
+        public void setup()
+        {
+            final byte[] bytes = price.getBytes(US_ASCII);
+            buffer.putBytes(0, bytes);
+            length = bytes.length;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Quantities
+    {
+        @Param({ "100", "25000", "12345678", "1234567890" })
+        String quantity;
+
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[64]);
+        int length;
+
+        @Setup
+        public void setup()
+        {
+            final byte[] bytes = quantity.getBytes(US_ASCII);
+            buffer.putBytes(0, bytes);
+            length = bytes.length;
+        }
+    }
+
+    @Benchmark
+    public void getFloat(final Prices prices, final Blackhole bh)
+    {
+        bh.consume(prices.buffer.getFloat(prices.decimalFloat, 0, prices.length));
+    }
+
+    @Benchmark
+    public void getInt(final Quantities quantities, final Blackhole bh)
+    {
+        bh.consume(quantities.buffer.getInt(0, quantities.length));
+    }
+
+    @Benchmark
+    public void getNaturalLong(final Quantities quantities, final Blackhole bh)
+    {
+        bh.consume(quantities.buffer.getNaturalLong(0, quantities.length));
+    }
+}
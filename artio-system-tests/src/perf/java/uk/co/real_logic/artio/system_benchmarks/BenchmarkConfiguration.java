@@ -37,6 +37,13 @@ public final class BenchmarkConfiguration
     public static final int MAX_MESSAGES_IN_FLIGHT = Integer.getInteger("fix.benchmark.max_messages_in_flight", 20);
     public static final int SEND_RATE_PER_SECOND = Integer.getInteger("fix.benchmark.send_rate_sec", 1_000);
     public static final int NUMBER_OF_SESSIONS = Integer.getInteger("fix.benchmark.num_sessions", 1);
+    public static final String SCALABILITY_STEPS =
+        System.getProperty("fix.benchmark.scalability_steps", "1000,2000,5000,10000,20000,50000");
+    public static final int LOGONS_IN_FLIGHT = Integer.getInteger("fix.benchmark.logons_in_flight", 100);
+    public static final int MIGRATIONS_PER_STEP = Integer.getInteger("fix.benchmark.migrations_per_step", 1_000);
+    public static final long SAMPLE_TIME_IN_MS = Long.getLong("fix.benchmark.sample_time", 5_000);
+    public static final String HISTOGRAM_LOG_FILE =
+        System.getProperty("fix.benchmark.histogram_log", "scalability-histograms.log");
 
     static IdleStrategy idleStrategy()
     {
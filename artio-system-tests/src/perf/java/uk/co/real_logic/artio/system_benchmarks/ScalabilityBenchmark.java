@@ -0,0 +1,571 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import io.aeron.Aeron;
+import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.IdleStrategy;
+import uk.co.real_logic.artio.Reply;
+import uk.co.real_logic.artio.engine.DefaultEngineScheduler;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.EngineScheduler;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.library.*;
+import uk.co.real_logic.artio.messages.DisconnectReason;
+import uk.co.real_logic.artio.messages.SessionReplyStatus;
+import uk.co.real_logic.artio.session.Session;
+import uk.co.real_logic.artio.timing.HistogramLogWriter;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static java.util.Collections.singletonList;
+import static uk.co.real_logic.artio.CommonConfiguration.optimalTmpDirName;
+import static uk.co.real_logic.artio.library.FixLibrary.NO_MESSAGE_REPLAY;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
+
+/**
+ * Measures how the gateway scales with the number of sessions that it has connected.
+ * <p>
+ * An accepting and an initiating engine are run in this process and connected over loopback. For each step of
+ * the ramp the initiating library logs on the step's number of sessions, keeping up to
+ * {@link BenchmarkConfiguration#LOGONS_IN_FLIGHT} logons in flight, releases and re-acquires some of them,
+ * samples the framers' duty cycles whilst the sessions are idle and then logs all of them off again.
+ * <p>
+ * Each step writes one update of every histogram to {@link BenchmarkConfiguration#HISTOGRAM_LOG_FILE}, which can
+ * be printed with {@link uk.co.real_logic.artio.timing.HistogramLogReader}. Timings are recorded in nanoseconds
+ * and the heap per session in bytes, so the reader's microsecond scaling prints it in kilobytes. The heap per
+ * session covers both engines and the library, since they share this process's heap. The framer duty cycle
+ * histograms time the Framer agent's doWork calls that did some work, idling isn't included.
+ * <p>
+ * Larger steps may need a bigger session id file and sequence number cache, see
+ * {@link EngineConfiguration#SESSION_ID_BUFFER_SIZE_PROP} and
+ * {@link EngineConfiguration#SEQUENCE_NUMBER_INDEX_SIZE_PROP}.
+ */
+public final class ScalabilityBenchmark implements SessionAcquireHandler, SessionHandler
+{
+    private static final int FRAGMENT_LIMIT = 100;
+    private static final long TIMEOUT_IN_MS = 60_000;
+    private static final int INITIATOR_LIBRARY_PORT = PORT + 1;
+    private static final String INITIATOR_CHANNEL = "aeron:udp?endpoint=localhost:" + INITIATOR_LIBRARY_PORT;
+    private static final String ACCEPTOR_LOGS = "scalability_acceptor_logs";
+    private static final String INITIATOR_LOGS = "scalability_initiator_logs";
+    private static final long NO_LOGOFF = -1;
+
+    private static final int LOGON = 0;
+    private static final int LOGON_STORM_PER_SESSION = 1;
+    private static final int LOGOFF = 2;
+    private static final int RELEASE = 3;
+    private static final int ACQUIRE = 4;
+    private static final int ACCEPTOR_FRAMER_CYCLE = 5;
+    private static final int INITIATOR_FRAMER_CYCLE = 6;
+    private static final int HEAP_PER_SESSION = 7;
+    private static final String[] TIMER_NAMES = {
+        "Logon",
+        "Logon storm time per session",
+        "Logoff",
+        "Release to gateway",
+        "Acquire from gateway",
+        "Acceptor framer duty cycle",
+        "Initiator framer duty cycle",
+        "Heap per session (KB)"
+    };
+
+    public static void main(final String[] args)
+    {
+        final int[] steps = Arrays.stream(SCALABILITY_STEPS.split(",")).mapToInt(Integer::parseInt).toArray();
+        final ScalabilityBenchmark benchmark = new ScalabilityBenchmark(Arrays.stream(steps).max().orElse(0));
+
+        delete(ACCEPTOR_LOGS);
+        delete(INITIATOR_LOGS);
+
+        try (MediaDriver mediaDriver = newMediaDriver();
+            FixEngine acceptingEngine = FixEngine.launch(acceptingConfiguration(benchmark.acceptorDutyCycles));
+            FixEngine initiatingEngine = FixEngine.launch(initiatingConfiguration(benchmark.initiatorDutyCycles));
+            FixLibrary library = FixLibrary.connect(libraryConfiguration(benchmark));
+            HistogramLogWriter logWriter = new HistogramLogWriter(
+                TIMER_NAMES.length, HISTOGRAM_LOG_FILE, Throwable::printStackTrace))
+        {
+            benchmark.library = library;
+            benchmark.awaitConnect();
+
+            for (int id = 0; id < TIMER_NAMES.length; id++)
+            {
+                logWriter.identifyTimer(id, TIMER_NAMES[id]);
+            }
+            logWriter.onEndTimerIdentification();
+
+            for (final int sessionCount : steps)
+            {
+                benchmark.runStep(sessionCount);
+                benchmark.writeHistograms(logWriter);
+            }
+        }
+    }
+
+    private final Histogram[] histograms = new Histogram[TIMER_NAMES.length];
+    private final DutyCycleRecordingScheduler acceptorDutyCycles = new DutyCycleRecordingScheduler();
+    private final DutyCycleRecordingScheduler initiatorDutyCycles = new DutyCycleRecordingScheduler();
+    private final IdleStrategy idleStrategy = idleStrategy();
+    private final Long2LongHashMap sessionIdToLogoffTime = new Long2LongHashMap(NO_LOGOFF);
+    private final SessionConfiguration[] sessionConfigurations;
+
+    private FixLibrary library;
+    private int loggedOffSessions;
+
+    private ScalabilityBenchmark(final int maxSessionCount)
+    {
+        for (int id = 0; id < histograms.length; id++)
+        {
+            histograms[id] = new Histogram(3);
+        }
+
+        // Built up front so that they don't count towards the heap per session.
+        sessionConfigurations = new SessionConfiguration[maxSessionCount];
+        for (int i = 0; i < maxSessionCount; i++)
+        {
+            sessionConfigurations[i] = SessionConfiguration.builder()
+                .address("localhost", PORT)
+                .senderCompId(INITIATOR_ID + i)
+                .targetCompId(ACCEPTOR_ID)
+                .resetSeqNum(true)
+                .timeoutInMs(TIMEOUT_IN_MS)
+                .build();
+        }
+    }
+
+    private void awaitConnect()
+    {
+        final long deadlineInNs = deadlineInNs();
+        while (!library.isConnected())
+        {
+            checkDeadline(deadlineInNs, "connecting the library");
+            poll();
+        }
+    }
+
+    private void runStep(final int sessionCount)
+    {
+        for (final Histogram histogram : histograms)
+        {
+            histogram.reset();
+        }
+
+        final long baselineHeap = usedHeap();
+        logon(sessionCount);
+        histograms[HEAP_PER_SESSION].recordValue(Math.max(0, (usedHeap() - baselineHeap) / sessionCount));
+
+        migrate(Math.min(MIGRATIONS_PER_STEP, sessionCount));
+        sampleDutyCycles();
+        logoff();
+
+        final Histogram logonTimes = histograms[LOGON];
+        System.out.printf(
+            "%d sessions: %.0f logons/s, logon p99 = %d us, heap per session = %d bytes%n",
+            sessionCount,
+            TimeUnit.SECONDS.toNanos(1) / (double)histograms[LOGON_STORM_PER_SESSION].getMaxValue(),
+            TimeUnit.NANOSECONDS.toMicros(logonTimes.getValueAtPercentile(99)),
+            histograms[HEAP_PER_SESSION].getMaxValue());
+    }
+
+    private void logon(final int sessionCount)
+    {
+        final Reply<?>[] replies = new Reply<?>[LOGONS_IN_FLIGHT];
+        final long[] initiateTimesInNs = new long[LOGONS_IN_FLIGHT];
+        final Histogram logonTimes = histograms[LOGON];
+
+        int initiated = 0;
+        int loggedOn = 0;
+        final long startTimeInNs = System.nanoTime();
+        while (loggedOn < sessionCount)
+        {
+            for (int i = 0; i < LOGONS_IN_FLIGHT; i++)
+            {
+                final Reply<?> reply = replies[i];
+                if (reply == null)
+                {
+                    if (initiated < sessionCount)
+                    {
+                        initiateTimesInNs[i] = System.nanoTime();
+                        replies[i] = library.initiate(sessionConfigurations[initiated]);
+                        initiated++;
+                    }
+                }
+                else if (!reply.isExecuting())
+                {
+                    checkCompleted(reply, "logon");
+                    logonTimes.recordValue(System.nanoTime() - initiateTimesInNs[i]);
+                    replies[i] = null;
+                    loggedOn++;
+                }
+            }
+
+            poll();
+        }
+
+        histograms[LOGON_STORM_PER_SESSION].recordValue((System.nanoTime() - startTimeInNs) / sessionCount);
+    }
+
+    private void migrate(final int sessionCount)
+    {
+        final Session[] sessions = library.sessions().toArray(new Session[0]);
+        for (int i = 0; i < sessionCount; i++)
+        {
+            final Session session = sessions[i];
+            final long sessionId = session.id();
+
+            long startTimeInNs = System.nanoTime();
+            await(library.releaseToGateway(session, TIMEOUT_IN_MS), "release");
+            histograms[RELEASE].recordValue(System.nanoTime() - startTimeInNs);
+
+            startTimeInNs = System.nanoTime();
+            await(library.requestSession(sessionId, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY, TIMEOUT_IN_MS), "acquire");
+            histograms[ACQUIRE].recordValue(System.nanoTime() - startTimeInNs);
+        }
+    }
+
+    private void sampleDutyCycles()
+    {
+        // Only sample the cycles of an established set of sessions, rather than those of the logon storm.
+        acceptorDutyCycles.intervalHistogram();
+        initiatorDutyCycles.intervalHistogram();
+
+        final long endTimeInNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SAMPLE_TIME_IN_MS);
+        while (System.nanoTime() < endTimeInNs)
+        {
+            poll();
+        }
+
+        histograms[ACCEPTOR_FRAMER_CYCLE].add(acceptorDutyCycles.intervalHistogram());
+        histograms[INITIATOR_FRAMER_CYCLE].add(initiatorDutyCycles.intervalHistogram());
+    }
+
+    private void logoff()
+    {
+        final Session[] sessions = library.sessions().toArray(new Session[0]);
+        final long deadlineInNs = deadlineInNs();
+        loggedOffSessions = 0;
+        for (final Session session : sessions)
+        {
+            // A back pressured logout is retried by the session when the library is polled.
+            sessionIdToLogoffTime.put(session.id(), System.nanoTime());
+            session.startLogout();
+        }
+
+        while (loggedOffSessions < sessions.length)
+        {
+            checkDeadline(deadlineInNs, "logoff");
+            poll();
+        }
+    }
+
+    private void writeHistograms(final HistogramLogWriter logWriter)
+    {
+        logWriter.onBeginTimerUpdate(System.currentTimeMillis());
+        for (int id = 0; id < histograms.length; id++)
+        {
+            logWriter.onTimerUpdate(id, histograms[id]);
+        }
+        logWriter.onEndTimerUpdate();
+    }
+
+    private void await(final Reply<?> reply, final String operation)
+    {
+        while (reply.isExecuting())
+        {
+            poll();
+        }
+
+        checkCompleted(reply, operation);
+        if (reply.resultIfPresent() != SessionReplyStatus.OK)
+        {
+            throw new IllegalStateException(operation + " failed: " + reply.resultIfPresent());
+        }
+    }
+
+    private static void checkCompleted(final Reply<?> reply, final String operation)
+    {
+        if (reply.hasErrored())
+        {
+            LangUtil.rethrowUnchecked(reply.error());
+        }
+        else if (reply.hasTimedOut())
+        {
+            throw new IllegalStateException(operation + " timed out");
+        }
+    }
+
+    private void poll()
+    {
+        idleStrategy.idle(library.poll(FRAGMENT_LIMIT));
+    }
+
+    private static long deadlineInNs()
+    {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_IN_MS);
+    }
+
+    private static void checkDeadline(final long deadlineInNs, final String operation)
+    {
+        if (System.nanoTime() > deadlineInNs)
+        {
+            throw new IllegalStateException(operation + " timed out");
+        }
+    }
+
+    private static long usedHeap()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public SessionHandler onSessionAcquired(final Session session, final boolean isSlow)
+    {
+        return this;
+    }
+
+    public Action onMessage(
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final int libraryId,
+        final Session session,
+        final int sequenceIndex,
+        final int messageType,
+        final long timestampInNs,
+        final long position)
+    {
+        return CONTINUE;
+    }
+
+    public void onTimeout(final int libraryId, final Session session)
+    {
+    }
+
+    public void onSlowStatus(final int libraryId, final Session session, final boolean hasBecomeSlow)
+    {
+    }
+
+    public Action onDisconnect(final int libraryId, final Session session, final DisconnectReason reason)
+    {
+        final long logoffTimeInNs = sessionIdToLogoffTime.remove(session.id());
+        if (logoffTimeInNs != NO_LOGOFF)
+        {
+            histograms[LOGOFF].recordValue(System.nanoTime() - logoffTimeInNs);
+            loggedOffSessions++;
+        }
+        else
+        {
+            System.out.printf("%d disconnected due to %s%n", session.id(), reason);
+        }
+
+        return CONTINUE;
+    }
+
+    public void onSessionStart(final Session session)
+    {
+    }
+
+    private static MediaDriver newMediaDriver()
+    {
+        final MediaDriver.Context context = new MediaDriver.Context()
+            .dirDeleteOnStart(true)
+            .termBufferSparseFile(true);
+
+        return MediaDriver.launch(context);
+    }
+
+    private static EngineConfiguration acceptingConfiguration(final EngineScheduler scheduler)
+    {
+        final EngineConfiguration configuration = new EngineConfiguration()
+            .bindTo("localhost", PORT)
+            .libraryAeronChannel(IPC_CHANNEL)
+            .logFileDir(ACCEPTOR_LOGS)
+            .logInboundMessages(LOG_INBOUND_MESSAGES)
+            .logOutboundMessages(LOG_OUTBOUND_MESSAGES)
+            .framerIdleStrategy(idleStrategy())
+            .scheduler(scheduler);
+        configuration
+            .monitoringFile(monitoringFile("acceptor"))
+            .agentNamePrefix("acc-");
+
+        return configuration;
+    }
+
+    private static EngineConfiguration initiatingConfiguration(final EngineScheduler scheduler)
+    {
+        final EngineConfiguration configuration = new EngineConfiguration()
+            .libraryAeronChannel(INITIATOR_CHANNEL)
+            .logFileDir(INITIATOR_LOGS)
+            .logInboundMessages(LOG_INBOUND_MESSAGES)
+            .logOutboundMessages(LOG_OUTBOUND_MESSAGES)
+            .framerIdleStrategy(idleStrategy())
+            .scheduler(scheduler);
+        configuration
+            .monitoringFile(monitoringFile("initiator"))
+            .agentNamePrefix("init-");
+
+        return configuration;
+    }
+
+    private static LibraryConfiguration libraryConfiguration(final ScalabilityBenchmark benchmark)
+    {
+        final LibraryConfiguration configuration = new LibraryConfiguration()
+            .sessionAcquireHandler(benchmark)
+            .libraryAeronChannels(singletonList(INITIATOR_CHANNEL))
+            .replyTimeoutInMs(TIMEOUT_IN_MS)
+            .libraryName("scalability");
+        configuration.monitoringFile(monitoringFile("library"));
+
+        return configuration;
+    }
+
+    private static String monitoringFile(final String name)
+    {
+        return optimalTmpDirName() + File.separator + "fix-scalability-" + name + File.separator + "counters";
+    }
+
+    private static void delete(final String dirPath)
+    {
+        final File dir = new File(dirPath);
+        if (dir.exists())
+        {
+            IoUtil.delete(dir, false);
+        }
+    }
+
+    /**
+     * Schedules the engine's agents in the same way as the {@link DefaultEngineScheduler}, but records how long
+     * each duty cycle of the Framer agent that did some work took. Only the Framer's thread records, unlike its idle
+     * strategy, which is also used to back off when its publications are back pressured.
+     */
+    private static final class DutyCycleRecordingScheduler implements EngineScheduler
+    {
+        private final EngineScheduler delegate = new DefaultEngineScheduler();
+        private final SingleWriterRecorder recorder = new SingleWriterRecorder(3);
+
+        private Histogram intervalHistogram;
+
+        public void launch(
+            final EngineConfiguration configuration,
+            final ErrorHandler errorHandler,
+            final Agent framer,
+            final Agent archivingAgent,
+            final Agent monitoringAgent,
+            final Agent conductorAgent)
+        {
+            delegate.launch(
+                configuration,
+                errorHandler,
+                new DutyCycleRecordingAgent(framer),
+                archivingAgent,
+                monitoringAgent,
+                conductorAgent);
+        }
+
+        public void launch(
+            final EngineConfiguration configuration,
+            final ErrorHandler errorHandler,
+            final Agent framer,
+            final Agent inboundArchivingAgent,
+            final Agent outboundArchivingAgent,
+            final Agent replayAgent,
+            final Agent monitoringAgent,
+            final Agent conductorAgent)
+        {
+            delegate.launch(
+                configuration,
+                errorHandler,
+                new DutyCycleRecordingAgent(framer),
+                inboundArchivingAgent,
+                outboundArchivingAgent,
+                replayAgent,
+                monitoringAgent,
+                conductorAgent);
+        }
+
+        public void close()
+        {
+            delegate.close();
+        }
+
+        public void configure(final Aeron.Context aeronContext)
+        {
+            delegate.configure(aeronContext);
+        }
+
+        // Called on the benchmark thread, the recorder allows this whilst the framer is recording.
+        Histogram intervalHistogram()
+        {
+            intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+            return intervalHistogram;
+        }
+
+        private final class DutyCycleRecordingAgent implements Agent
+        {
+            private final Agent framer;
+
+            DutyCycleRecordingAgent(final Agent framer)
+            {
+                this.framer = framer;
+            }
+
+            public void onStart()
+            {
+                framer.onStart();
+            }
+
+            public int doWork() throws Exception
+            {
+                final long startTimeInNs = System.nanoTime();
+                final int workCount = framer.doWork();
+                if (workCount > 0)
+                {
+                    recorder.recordValue(System.nanoTime() - startTimeInNs);
+                }
+
+                return workCount;
+            }
+
+            public void onClose()
+            {
+                framer.onClose();
+            }
+
+            public String roleName()
+            {
+                return framer.roleName();
+            }
+        }
+    }
+}
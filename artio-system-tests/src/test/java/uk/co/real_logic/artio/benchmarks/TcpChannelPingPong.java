@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.benchmarks;
+
+import uk.co.real_logic.artio.engine.framer.DefaultTcpChannel;
+import uk.co.real_logic.artio.engine.framer.TcpChannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static uk.co.real_logic.artio.benchmarks.NetworkBenchmarkUtil.*;
+
+/**
+ * Ping pong through the engine's {@link TcpChannel} transport abstraction, compare with {@link NioBufferPingPong}
+ * to see its overhead, or change {@link #newTcpChannel(SocketChannel)} to compare other transports.
+ */
+public final class TcpChannelPingPong extends AbstractPingPong
+{
+    private final ByteBuffer pingWriteBuffer = ByteBuffer.allocateDirect(MESSAGE_SIZE);
+    private final ByteBuffer pingReadBuffer = ByteBuffer.allocateDirect(MESSAGE_SIZE);
+
+    private final ByteBuffer pongWriteBuffer = ByteBuffer.allocateDirect(MESSAGE_SIZE);
+    private final ByteBuffer pongReadBuffer = ByteBuffer.allocateDirect(MESSAGE_SIZE);
+
+    private SocketChannel pingSocketChannel;
+    private TcpChannel pingChannel;
+    private SocketChannel pongSocketChannel;
+    private TcpChannel pongChannel;
+
+    public static void main(final String[] args) throws IOException
+    {
+        new TcpChannelPingPong().benchmark();
+    }
+
+    protected void ping(final SocketChannel channel, final long time) throws IOException
+    {
+        if (channel != pingSocketChannel)
+        {
+            pingSocketChannel = channel;
+            pingChannel = newTcpChannel(channel);
+        }
+
+        write(pingChannel, pingWriteBuffer, time);
+
+        final long result = read(pingChannel, pingReadBuffer);
+
+        checkEqual(time, result);
+    }
+
+    protected void pong(final SocketChannel channel) throws IOException
+    {
+        if (channel != pongSocketChannel)
+        {
+            pongSocketChannel = channel;
+            pongChannel = newTcpChannel(channel);
+        }
+
+        final long value = read(pongChannel, pongReadBuffer);
+
+        write(pongChannel, pongWriteBuffer, value);
+    }
+
+    private static TcpChannel newTcpChannel(final SocketChannel channel) throws IOException
+    {
+        return new DefaultTcpChannel(channel);
+    }
+
+    private static void write(final TcpChannel channel, final ByteBuffer buffer, final long value)
+        throws IOException
+    {
+        buffer.putLong(0, value);
+        buffer.clear();
+
+        int remaining = MESSAGE_SIZE;
+        while (remaining > 0)
+        {
+            remaining -= channel.write(buffer);
+        }
+    }
+
+    private static long read(final TcpChannel channel, final ByteBuffer buffer) throws IOException
+    {
+        buffer.clear();
+
+        int remaining = MESSAGE_SIZE;
+        while (remaining > 0)
+        {
+            remaining -= channel.read(buffer);
+        }
+
+        return buffer.getLong(0);
+    }
+}
@@ -16,8 +16,9 @@
 package uk.co.real_logic.artio.system_tests;
 
 import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.framer.DefaultTcpChannel;
+import uk.co.real_logic.artio.engine.framer.DefaultTcpChannelSupplier;
 import uk.co.real_logic.artio.engine.framer.TcpChannel;
-import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -30,7 +31,7 @@ import java.util.ArrayList;
  * NB: this class is not thread-safe and take care to ensure that your tests don't use it
  * concurrently with new connections being established.
  */
-public class DebugTcpChannelSupplier extends TcpChannelSupplier
+public class DebugTcpChannelSupplier extends DefaultTcpChannelSupplier
 {
     private final ArrayList<TcpChannel> channels = new ArrayList<>();
     private boolean isEnabled = true;
@@ -42,7 +43,7 @@ public class DebugTcpChannelSupplier extends TcpChannelSupplier
 
     protected TcpChannel newTcpChannel(final SocketChannel channel) throws IOException
     {
-        final TcpChannel tcpChannel = new TcpChannel(channel);
+        final TcpChannel tcpChannel = new DefaultTcpChannel(channel);
         channels.add(tcpChannel);
         return tcpChannel;
     }